@@ -0,0 +1,64 @@
+package com.medcal.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medcal.model.dto.AppointmentDTO;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialisation of {@link AppointmentDTO} lists as returned by the appointment
+ * endpoints. The mapper is built the way Spring MVC builds its own.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AppointmentJsonBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<AppointmentDTO> appointments;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        appointments = new ArrayList<>(size);
+        LocalDateTime start = LocalDateTime.of(2030, 1, 7, 9, 0);
+        for (int i = 0; i < size; i++) {
+            LocalDateTime slot = start.plusMinutes(30L * i);
+            appointments.add(AppointmentDTO.builder()
+                    .id(UUID.randomUUID())
+                    .doctorId(UUID.randomUUID())
+                    .patientId(UUID.randomUUID())
+                    .startTime(slot)
+                    .endTime(slot.plusMinutes(30))
+                    .type(AppointmentType.values()[i % AppointmentType.values().length])
+                    .status(AppointmentStatus.SCHEDULED)
+                    .notes("Control de rutina")
+                    .createdBy(UUID.randomUUID())
+                    .createdAt(slot.minusDays(7))
+                    .updatedAt(slot.minusDays(1))
+                    .doctorName("Carlos García")
+                    .patientName("Juan Pérez")
+                    .doctorSpecialization("Cardiología")
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws Exception {
+        return objectMapper.writeValueAsBytes(appointments);
+    }
+}
@@ -0,0 +1,114 @@
+package com.medcal.benchmarks;
+
+import com.medcal.metrics.DomainMetrics;
+import com.medcal.model.dto.AppointmentDTO;
+import com.medcal.model.entity.Appointment;
+import com.medcal.model.entity.Doctor;
+import com.medcal.model.entity.Patient;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import com.medcal.repository.AppointmentRepository;
+import com.medcal.repository.DoctorRepository;
+import com.medcal.repository.PatientRepository;
+import com.medcal.service.AppointmentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.medcal.benchmarks.RepositoryStubs.emptyArchive;
+import static com.medcal.benchmarks.RepositoryStubs.stub;
+
+/**
+ * Conflict detection and entity-to-DTO mapping in {@link AppointmentService}. Repository
+ * lookups are answered from memory, so {@code convertToDTO} shows the cost of the mapping
+ * plus its two per-row lookups without any database time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AppointmentServiceBenchmark {
+
+    /** Appointments returned by the overlap query / the doctor's history. */
+    @Param({"0", "10", "100"})
+    public int rows;
+
+    private AppointmentService appointmentService;
+    private Appointment appointment;
+    private UUID doctorId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    @Setup
+    public void setUp() {
+        doctorId = UUID.randomUUID();
+        UUID patientId = UUID.randomUUID();
+        start = LocalDateTime.of(2030, 1, 7, 10, 0);
+        end = start.plusMinutes(30);
+
+        Doctor doctor = Doctor.builder().id(doctorId).firstName("Carlos").lastName("García")
+                .specialization("Cardiología").build();
+        Patient patient = Patient.builder().id(patientId).firstName("Juan").lastName("Pérez").build();
+
+        List<Appointment> appointments = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            appointments.add(Appointment.builder()
+                    .id(UUID.randomUUID())
+                    .doctorId(doctorId)
+                    .patientId(patientId)
+                    .startTime(start.plusMinutes(30L * i))
+                    .endTime(start.plusMinutes(30L * i + 30))
+                    .type(AppointmentType.CONSULTATION)
+                    .status(AppointmentStatus.SCHEDULED)
+                    .notes("Control")
+                    .createdBy(UUID.randomUUID())
+                    .createdAt(start.minusDays(3))
+                    .updatedAt(start.minusDays(1))
+                    .build());
+        }
+        appointment = appointments.isEmpty()
+                ? Appointment.builder().id(UUID.randomUUID()).doctorId(doctorId).patientId(patientId)
+                        .startTime(start).endTime(end).type(AppointmentType.CONSULTATION).build()
+                : appointments.get(0);
+
+        AppointmentRepository appointmentRepository = stub(AppointmentRepository.class, Map.of(
+                "findByDoctorIdAndTimeRange", args -> appointments,
+                "findConflictingAppointments", args -> appointments,
+                "findByDoctorIdOrderByStartTimeDesc", args -> appointments));
+        DoctorRepository doctorRepository = stub(DoctorRepository.class,
+                Map.of("findById", args -> Optional.of(doctor)));
+        PatientRepository patientRepository = stub(PatientRepository.class,
+                Map.of("findById", args -> Optional.of(patient)));
+        appointmentService = new AppointmentService(appointmentRepository, doctorRepository, patientRepository,
+                new DomainMetrics(new SimpleMeterRegistry()), event -> { }, emptyArchive());
+    }
+
+    @Benchmark
+    public boolean hasSchedulingConflict() {
+        return appointmentService.hasSchedulingConflict(doctorId, start, end, appointment.getId());
+    }
+
+    @Benchmark
+    public boolean isDoctorAvailable() {
+        return appointmentService.isDoctorAvailable(doctorId, start, end);
+    }
+
+    @Benchmark
+    public AppointmentDTO convertToDTO() {
+        return appointmentService.convertToDTO(appointment);
+    }
+
+    @Benchmark
+    public List<AppointmentDTO> getDoctorAppointments() {
+        return appointmentService.getDoctorAppointments(doctorId);
+    }
+}
@@ -0,0 +1,100 @@
+package com.medcal.benchmarks;
+
+import com.medcal.service.BatchScheduleOptimizer;
+import com.medcal.service.BatchScheduleOptimizer.Solution;
+import com.medcal.service.BatchScheduleOptimizer.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BatchScheduleOptimizer} on 10,000 requests over 200 doctors (20 specialties of 10)
+ * and two working weeks, with part of each agenda already booked. Reports the time of the
+ * greedy pass alone and with the local search given a budget; the number of placed
+ * requests is printed once per trial so quality can be compared across budgets.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchScheduleOptimizerBenchmark {
+
+    private static final int DOCTORS = 200;
+    private static final int SPECIALTIES = 20;
+    private static final int DAYS = 14;
+    // Unidades de 15 minutos por día, como en BatchSchedulingService
+    private static final int UNITS_PER_DAY = 24 * 4;
+    // 9:00 a 17:00 en unidades de 15 minutos
+    private static final int DAY_START = 36;
+    private static final int DAY_END = 68;
+
+    @Param({"10000"})
+    public int requests;
+
+    /** Local search budget; 0 measures the greedy pass only. */
+    @Param({"0", "100", "1000"})
+    public long budgetMs;
+
+    /** Fraction of the working units already booked before the batch. */
+    @Param({"0.3"})
+    public double bookedRatio;
+
+    private BitSet[] free;
+    private List<Task> tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        free = new BitSet[DOCTORS];
+        for (int d = 0; d < DOCTORS; d++) {
+            free[d] = new BitSet(DAYS * UNITS_PER_DAY);
+            for (int day = 0; day < DAYS; day++) {
+                // Dos semanas empezando en lunes: sábado y domingo libres
+                if (day % 7 >= 5) {
+                    continue;
+                }
+                for (int u = DAY_START; u < DAY_END; u += 2) {
+                    if (random.nextDouble() >= bookedRatio) {
+                        free[d].set(day * UNITS_PER_DAY + u, day * UNITS_PER_DAY + u + 2);
+                    }
+                }
+            }
+        }
+
+        tasks = new ArrayList<>(requests);
+        for (int t = 0; t < requests; t++) {
+            int specialty = random.nextInt(SPECIALTIES);
+            int[] doctors;
+            if (random.nextInt(4) == 0) {
+                // Una de cada cuatro pide un médico concreto
+                doctors = new int[]{specialty * 10 + random.nextInt(10)};
+            } else {
+                doctors = new int[10];
+                for (int i = 0; i < 10; i++) {
+                    doctors[i] = specialty * 10 + i;
+                }
+            }
+            int firstDay = random.nextInt(DAYS - 2);
+            int[] windows = random.nextBoolean()
+                    ? new int[]{firstDay * UNITS_PER_DAY, (firstDay + 3) * UNITS_PER_DAY}
+                    : new int[]{firstDay * UNITS_PER_DAY + DAY_START, firstDay * UNITS_PER_DAY + 52,
+                            (firstDay + 2) * UNITS_PER_DAY + DAY_START, (firstDay + 2) * UNITS_PER_DAY + 52};
+            boolean emergency = random.nextInt(10) == 0;
+            tasks.add(new Task(doctors, windows, emergency ? 4 : 2, emergency ? 1 : 0));
+        }
+
+        Solution solution = optimise();
+        System.out.printf("%n[budget %d ms] asignadas %d de %d%n", budgetMs, solution.assigned(), requests);
+    }
+
+    @Benchmark
+    public Solution optimise() {
+        return new BatchScheduleOptimizer(free, DAYS * UNITS_PER_DAY, tasks).solve(TimeUnit.MILLISECONDS.toNanos(budgetMs));
+    }
+}
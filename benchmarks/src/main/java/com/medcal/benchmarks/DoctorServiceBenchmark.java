@@ -0,0 +1,112 @@
+package com.medcal.benchmarks;
+
+import com.medcal.metrics.DomainMetrics;
+import com.medcal.model.dto.AvailabilitySlot;
+import com.medcal.model.entity.Appointment;
+import com.medcal.model.entity.Doctor;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import com.medcal.repository.AppointmentRepository;
+import com.medcal.repository.DoctorRepository;
+import com.medcal.service.AvailabilityCoalescer;
+import com.medcal.service.AvailabilityMetrics;
+import com.medcal.service.AvailabilitySnapshots;
+import com.medcal.service.DoctorService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.medcal.benchmarks.RepositoryStubs.noTransactions;
+import static com.medcal.benchmarks.RepositoryStubs.stub;
+
+/**
+ * Slot generation and availability marking in {@link DoctorService#getAvailableSlots}, with
+ * the repositories answered from memory so only the in-process work is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DoctorServiceBenchmark {
+
+    /** Length of the queried window. */
+    @Param({"1", "7", "30"})
+    public int days;
+
+    /** Fraction of the working slots that already hold an appointment. */
+    @Param({"0.0", "0.5", "0.9"})
+    public double bookedRatio;
+
+    private DoctorService doctorService;
+    private Doctor doctor;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    @Setup
+    public void setUp() {
+        doctor = Doctor.builder()
+                .id(UUID.randomUUID())
+                .userId(UUID.randomUUID())
+                .firstName("Carlos")
+                .lastName("García")
+                .specialization("Cardiología")
+                .build();
+        // A Monday, so every window starts on a working day
+        start = LocalDate.of(2030, 1, 7).atStartOfDay();
+        end = start.plusDays(days);
+
+        List<Appointment> booked = bookedAppointments(new Random(42));
+        DoctorRepository doctorRepository = stub(DoctorRepository.class,
+                Map.of("findById", args -> Optional.of(doctor)));
+        AppointmentRepository appointmentRepository = stub(AppointmentRepository.class,
+                Map.of("findByDoctorIdAndStartTimeBetween", args -> booked));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AvailabilityMetrics availabilityMetrics = new AvailabilityMetrics(registry);
+        // Sin caché de resultados ni instantáneas: cada invocación mide el cálculo completo
+        doctorService = new DoctorService(doctorRepository, null, appointmentRepository,
+                new DomainMetrics(registry), new AvailabilityCoalescer(availabilityMetrics, noTransactions(), 0, 0),
+                new AvailabilitySnapshots(availabilityMetrics, 0, 0), null, null, null);
+    }
+
+    @Benchmark
+    public List<AvailabilitySlot> getAvailableSlots() {
+        return doctorService.getAvailableSlots(doctor.getId(), start, end);
+    }
+
+    private List<Appointment> bookedAppointments(Random random) {
+        List<Appointment> appointments = new ArrayList<>();
+        for (LocalDate day = start.toLocalDate(); day.isBefore(end.toLocalDate()); day = day.plusDays(1)) {
+            if (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                continue;
+            }
+            for (LocalTime time = LocalTime.of(9, 0); time.isBefore(LocalTime.of(17, 0)); time = time.plusMinutes(30)) {
+                if (random.nextDouble() < bookedRatio) {
+                    LocalDateTime slotStart = LocalDateTime.of(day, time);
+                    appointments.add(Appointment.builder()
+                            .id(UUID.randomUUID())
+                            .doctorId(doctor.getId())
+                            .patientId(UUID.randomUUID())
+                            .startTime(slotStart)
+                            .endTime(slotStart.plusMinutes(30))
+                            .type(AppointmentType.CONSULTATION)
+                            .status(AppointmentStatus.SCHEDULED)
+                            .build());
+                }
+            }
+        }
+        return appointments;
+    }
+}
@@ -0,0 +1,71 @@
+package com.medcal.benchmarks;
+
+import com.medcal.model.entity.User;
+import com.medcal.model.enums.Role;
+import com.medcal.security.CustomUserDetails;
+import com.medcal.security.JwtRequestFilter;
+import com.medcal.security.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token generation, parsing and validation in {@link JwtUtil}, i.e. the work
+ * {@link JwtRequestFilter} performs for every API request before any database access.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+    private CustomUserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        jwtUtil = new JwtUtil();
+        setField("secret", "mySecretKey123456789012345678901234567890");
+        setField("expiration", 86_400_000L);
+
+        User user = User.builder()
+                .email("doctor@medcal.com")
+                .passwordHash("n/a")
+                .firstName("Juan")
+                .lastName("García")
+                .role(Role.DOCTOR)
+                .build();
+        userDetails = new CustomUserDetails(user);
+        token = jwtUtil.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    @Benchmark
+    public Boolean validateTokenAgainstUser() {
+        return jwtUtil.validateToken(token, userDetails);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        Field field = JwtUtil.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(jwtUtil, value);
+    }
+}
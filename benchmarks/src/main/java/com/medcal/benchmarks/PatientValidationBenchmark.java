@@ -0,0 +1,79 @@
+package com.medcal.benchmarks;
+
+import com.medcal.model.dto.PatientDTO;
+import com.medcal.model.entity.Patient;
+import com.medcal.repository.PatientRepository;
+import com.medcal.service.PatientService;
+import com.medcal.util.ResourceVersions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.medcal.benchmarks.RepositoryStubs.stub;
+
+/**
+ * Regex validation of contact data in {@link PatientService}, measured through
+ * {@code updatePatient} with the repository answered from memory, so the regexes are most
+ * of the work. {@code String.matches} compiles its pattern on every call, which is what
+ * these numbers capture; the invalid phone case is the slow path because it evaluates both
+ * patterns, and the invalid cases also pay for the exception.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatientValidationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class EmailInput {
+        @Param({"paciente1@example.com", "no-es-un-email"})
+        public String email;
+    }
+
+    @State(Scope.Benchmark)
+    public static class PhoneInput {
+        @Param({"5552000001", "(555) 200-0001", "abc"})
+        public String phone;
+    }
+
+    private static final String VALID_EMAIL = "paciente1@example.com";
+    private static final String VALID_PHONE = "5552000001";
+
+    private PatientService patientService;
+    private UUID patientId;
+
+    @Setup
+    public void setUp() {
+        patientId = UUID.randomUUID();
+        Patient stored = Patient.builder().id(patientId).userId(UUID.randomUUID()).build();
+        PatientRepository patientRepository = stub(PatientRepository.class, Map.of(
+                "findById", args -> Optional.of(stored),
+                "save", args -> args[0]));
+        patientService = new PatientService(patientRepository, null, RepositoryStubs.noResourceVersions());
+    }
+
+    @Benchmark
+    public boolean validateEmail(EmailInput input) {
+        return update(input.email, VALID_PHONE);
+    }
+
+    @Benchmark
+    public boolean validatePhone(PhoneInput input) {
+        return update(VALID_EMAIL, input.phone);
+    }
+
+    private boolean update(String email, String phone) {
+        Patient details = Patient.builder().firstName("Juan").lastName("Pérez").email(email).phone(phone).build();
+        try {
+            Optional<PatientDTO> updated = patientService.updatePatient(patientId, details);
+            return updated.isPresent();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
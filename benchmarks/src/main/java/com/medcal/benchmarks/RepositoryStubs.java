@@ -0,0 +1,93 @@
+package com.medcal.benchmarks;
+
+import com.medcal.archive.AppointmentArchive;
+import com.medcal.model.entity.Appointment;
+import com.medcal.util.ResourceVersions;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Minimal in-memory stand-ins for Spring Data repositories and the other database-backed
+ * collaborators of the services. Mockito adds interception and argument matching to every
+ * call, which would dominate the very paths being measured; a plain dynamic proxy keeps the
+ * overhead to one map lookup.
+ */
+public final class RepositoryStubs {
+
+    private RepositoryStubs() {
+    }
+
+    /**
+     * Creates a stub of {@code type} whose methods are answered by name from {@code answers}.
+     * Any other repository method throws, so a benchmark cannot silently measure a no-op.
+     */
+    public static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            switch (method.getName()) {
+                case "toString":
+                    return "Stub[" + type.getSimpleName() + "]";
+                case "hashCode":
+                    return System.identityHashCode(self);
+                case "equals":
+                    return self == args[0];
+                default:
+                    Function<Object[], Object> answer = answers.get(method.getName());
+                    if (answer == null) {
+                        throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+                    }
+                    return answer.apply(args);
+            }
+        });
+        return type.cast(proxy);
+    }
+
+    /** A transaction manager whose transactions do nothing. */
+    public static PlatformTransactionManager noTransactions() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+
+    /** Version counters that ignore bumps. */
+    public static ResourceVersions noResourceVersions() {
+        return new ResourceVersions(null) {
+            @Override
+            public void bump(String resource) {
+            }
+        };
+    }
+
+    /** An archive with no appointments. */
+    public static AppointmentArchive emptyArchive() {
+        return new AppointmentArchive(null, 0) {
+            @Override
+            public List<Appointment> findByDoctorId(UUID doctorId) {
+                return List.of();
+            }
+
+            @Override
+            public List<Appointment> findByPatientId(UUID patientId) {
+                return List.of();
+            }
+        };
+    }
+}
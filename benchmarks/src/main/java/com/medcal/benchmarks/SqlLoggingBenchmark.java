@@ -0,0 +1,103 @@
+package com.medcal.benchmarks;
+
+import com.medcal.MedCalApplication;
+import com.medcal.security.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end latency of a JWT-authenticated {@code GET /api/doctors} with the application
+ * booted once with the production logging settings and once with the old dev defaults
+ * ({@code show-sql}, {@code format_sql}, {@code use_sql_comments}, SQL and security at DEBUG).
+ * The database, data and request are identical, so the difference is the logging alone.
+ * <p>
+ * Log output goes to a temporary file rather than the terminal, which keeps the
+ * comparison conservative: a real console is slower than a local file.
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SqlLoggingBenchmark {
+
+    @Param({"quiet", "debug"})
+    public String logging;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+    private PrintStream originalOut;
+    private PrintStream logOut;
+    private Path logDir;
+
+    @Setup
+    public void setUp() throws IOException {
+        logDir = Files.createTempDirectory("medcal-logging-bench");
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--logging.file.name=" + logDir.resolve("app.log"),
+                "--logging.pattern.console=",
+                "--logging.level.com.medcal.metrics=ERROR",
+                "--medcal.rate-limit.enabled=false"));
+        if ("debug".equals(logging)) {
+            // show-sql escribe directamente en System.out
+            originalOut = System.out;
+            logOut = new PrintStream(new FileOutputStream(logDir.resolve("stdout.log").toFile()), false);
+            System.setOut(logOut);
+            args.addAll(List.of(
+                    "--spring.jpa.show-sql=true",
+                    "--spring.jpa.properties.hibernate.format_sql=true",
+                    "--spring.jpa.properties.hibernate.use_sql_comments=true",
+                    "--logging.level.org.hibernate.SQL=DEBUG",
+                    "--logging.level.org.springframework.security=DEBUG"));
+        } else {
+            args.addAll(List.of(
+                    "--spring.jpa.show-sql=false",
+                    "--logging.level.org.hibernate.SQL=INFO",
+                    "--logging.level.org.springframework.security=INFO"));
+        }
+        context = SpringApplication.run(MedCalApplication.class, args.toArray(String[]::new));
+
+        String port = context.getEnvironment().getProperty("local.server.port");
+        String token = context.getBean(JwtUtil.class).generateToken("admin@medcal.com", "ADMIN");
+        client = HttpClient.newHttpClient();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/doctors"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        if (originalOut != null) {
+            System.setOut(originalOut);
+            logOut.close();
+        }
+    }
+
+    @Benchmark
+    public int listDoctors() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET /api/doctors devolvió " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
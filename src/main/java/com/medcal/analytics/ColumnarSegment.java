@@ -0,0 +1,175 @@
+package com.medcal.analytics;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.medcal.analytics.ColumnarSegmentWriter.COLUMNS;
+import static com.medcal.analytics.ColumnarSegmentWriter.MAGIC;
+import static com.medcal.analytics.ColumnarSegmentWriter.VERSION;
+
+/**
+ * A segment file written by {@link ColumnarSegmentWriter}, memory-mapped read-only. The
+ * decoders use absolute reads on the shared mapping, so any number of threads can decode
+ * different row groups at once; the pages are loaded by the OS on first touch and stay in
+ * the page cache between reports.
+ */
+final class ColumnarSegment {
+
+    /** Location and start-time range of one row group. */
+    record RowGroup(long offset, int rows, long minStart, long maxStart, long[] columnOffsets) {
+    }
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final YearMonth month;
+    private final long rowCount;
+    private final UUID[] doctors;
+    private final int patientCount;
+    private final List<RowGroup> groups;
+
+    private ColumnarSegment(Path path, MappedByteBuffer buffer, YearMonth month, long rowCount, UUID[] doctors,
+                            int patientCount, List<RowGroup> groups) {
+        this.path = path;
+        this.buffer = buffer;
+        this.month = month;
+        this.rowCount = rowCount;
+        this.doctors = doctors;
+        this.patientCount = patientCount;
+        this.groups = groups;
+    }
+
+    static ColumnarSegment open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // La proyección sigue siendo válida tras cerrar el canal
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int size = buffer.capacity();
+        if (size < 12 || buffer.getInt(size - 4) != MAGIC) {
+            throw new IOException("No es un segmento de histórico de citas: " + path);
+        }
+        int position = (int) buffer.getLong(size - 12);
+        if (buffer.getInt(position) != VERSION) {
+            throw new IOException("Versión de segmento no soportada en " + path);
+        }
+        int yearMonth = buffer.getInt(position + 4);
+        long rowCount = buffer.getLong(position + 8);
+        position += 16;
+
+        UUID[] doctors = new UUID[buffer.getInt(position)];
+        position += 4;
+        for (int i = 0; i < doctors.length; i++) {
+            doctors[i] = new UUID(buffer.getLong(position), buffer.getLong(position + 8));
+            position += 16;
+        }
+        int patientCount = buffer.getInt(position);
+        position += 4 + 16 * patientCount;
+
+        int groupCount = buffer.getInt(position);
+        position += 4;
+        List<RowGroup> groups = new ArrayList<>(groupCount);
+        for (int g = 0; g < groupCount; g++) {
+            long offset = buffer.getLong(position);
+            int rows = (int) buffer.getLong(position + 8);
+            long minStart = buffer.getLong(position + 16);
+            long maxStart = buffer.getLong(position + 24);
+            position += 32;
+            long[] columnOffsets = new long[COLUMNS];
+            long columnOffset = offset;
+            for (int c = 0; c < COLUMNS; c++) {
+                columnOffsets[c] = columnOffset;
+                columnOffset += buffer.getLong(position);
+                position += 8;
+            }
+            groups.add(new RowGroup(offset, rows, minStart, maxStart, columnOffsets));
+        }
+        return new ColumnarSegment(path, buffer, YearMonth.of(yearMonth / 100, yearMonth % 100), rowCount, doctors,
+                patientCount, groups);
+    }
+
+    Path path() {
+        return path;
+    }
+
+    YearMonth month() {
+        return month;
+    }
+
+    long rowCount() {
+        return rowCount;
+    }
+
+    UUID[] doctors() {
+        return doctors;
+    }
+
+    int patientCount() {
+        return patientCount;
+    }
+
+    List<RowGroup> groups() {
+        return groups;
+    }
+
+    /** Decodes a varint column ({@code DOCTOR}, {@code PATIENT} or {@code DURATION}). */
+    void readVarints(RowGroup group, int column, int[] out) {
+        int position = (int) group.columnOffsets()[column];
+        for (int i = 0; i < group.rows(); i++) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position++);
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            out[i] = (int) value;
+        }
+    }
+
+    /** Decodes the start column into epoch minutes. */
+    void readStarts(RowGroup group, long[] out) {
+        int position = (int) group.columnOffsets()[ColumnarSegmentWriter.START];
+        long previous = 0;
+        for (int i = 0; i < group.rows(); i++) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position++);
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            previous += (value >>> 1) ^ -(value & 1);
+            out[i] = previous;
+        }
+    }
+
+    /** Decodes a run-length encoded column ({@code STATUS} or {@code TYPE}). */
+    void readRuns(RowGroup group, int column, byte[] out) {
+        int position = (int) group.columnOffsets()[column];
+        int i = 0;
+        while (i < group.rows()) {
+            byte value = buffer.get(position++);
+            long run = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position++);
+                run |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            int end = i + (int) run;
+            while (i < end) {
+                out[i++] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.medcal.analytics;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes one month of historical appointments as a columnar segment file.
+ * <p>
+ * Rows are cut into row groups of {@link #ROW_GROUP_SIZE}; each group stores its six
+ * columns one after the other. Doctor and patient ids are indexes into per-segment
+ * dictionaries, written as varints. Start times are minutes, written as zig-zag varint
+ * deltas from the previous row, so rows appended in start order cost one or two bytes.
+ * Durations are varint minutes. Status and type are run-length encoded. The footer holds
+ * the dictionaries and, per group, its offset, size and start-time range, so readers can
+ * skip groups outside a query's range. The file ends with the footer offset and
+ * {@link #MAGIC}.
+ */
+final class ColumnarSegmentWriter implements Closeable {
+
+    static final int MAGIC = 0x4D434152; // "MCAR"
+    static final int VERSION = 1;
+    static final int ROW_GROUP_SIZE = 1 << 16;
+
+    static final int DOCTOR = 0;
+    static final int PATIENT = 1;
+    static final int START = 2;
+    static final int DURATION = 3;
+    static final int STATUS = 4;
+    static final int TYPE = 5;
+    static final int COLUMNS = 6;
+
+    private final DataOutputStream out;
+    private final YearMonth month;
+    private final Map<UUID, Integer> doctors = new LinkedHashMap<>();
+    private final Map<UUID, Integer> patients = new LinkedHashMap<>();
+    private final List<long[]> groups = new ArrayList<>();
+
+    private final int[] doctorColumn = new int[ROW_GROUP_SIZE];
+    private final int[] patientColumn = new int[ROW_GROUP_SIZE];
+    private final long[] startColumn = new long[ROW_GROUP_SIZE];
+    private final int[] durationColumn = new int[ROW_GROUP_SIZE];
+    private final byte[] statusColumn = new byte[ROW_GROUP_SIZE];
+    private final byte[] typeColumn = new byte[ROW_GROUP_SIZE];
+    private int buffered;
+    private long rowCount;
+
+    ColumnarSegmentWriter(Path file, YearMonth month) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+        this.month = month;
+    }
+
+    void append(HistoryRow row) throws IOException {
+        long start = epochMinute(row.startTime());
+        long end = epochMinute(row.endTime());
+        doctorColumn[buffered] = doctors.computeIfAbsent(row.doctorId(), id -> doctors.size());
+        patientColumn[buffered] = patients.computeIfAbsent(row.patientId(), id -> patients.size());
+        startColumn[buffered] = start;
+        durationColumn[buffered] = (int) Math.max(0, end - start);
+        statusColumn[buffered] = (byte) row.status().ordinal();
+        typeColumn[buffered] = (byte) row.type().ordinal();
+        buffered++;
+        rowCount++;
+        if (buffered == ROW_GROUP_SIZE) {
+            flushGroup();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushGroup();
+            long footerOffset = out.size();
+            out.writeInt(VERSION);
+            out.writeInt(month.getYear() * 100 + month.getMonthValue());
+            out.writeLong(rowCount);
+            writeDictionary(doctors);
+            writeDictionary(patients);
+            out.writeInt(groups.size());
+            for (long[] group : groups) {
+                for (long value : group) {
+                    out.writeLong(value);
+                }
+            }
+            out.writeLong(footerOffset);
+            out.writeInt(MAGIC);
+        } finally {
+            out.close();
+        }
+    }
+
+    private void flushGroup() throws IOException {
+        if (buffered == 0) {
+            return;
+        }
+        ByteArrayOutputStream[] columns = new ByteArrayOutputStream[COLUMNS];
+        for (int c = 0; c < COLUMNS; c++) {
+            columns[c] = new ByteArrayOutputStream();
+        }
+        long minStart = Long.MAX_VALUE;
+        long maxStart = Long.MIN_VALUE;
+        long previous = 0;
+        for (int i = 0; i < buffered; i++) {
+            writeVarLong(columns[DOCTOR], doctorColumn[i]);
+            writeVarLong(columns[PATIENT], patientColumn[i]);
+            writeVarLong(columns[START], zigZag(startColumn[i] - previous));
+            previous = startColumn[i];
+            writeVarLong(columns[DURATION], durationColumn[i]);
+            minStart = Math.min(minStart, startColumn[i]);
+            maxStart = Math.max(maxStart, startColumn[i]);
+        }
+        writeRuns(columns[STATUS], statusColumn, buffered);
+        writeRuns(columns[TYPE], typeColumn, buffered);
+
+        // offset, filas, inicio mínimo y máximo, y la longitud de cada columna
+        long[] group = new long[4 + COLUMNS];
+        group[0] = out.size();
+        group[1] = buffered;
+        group[2] = minStart;
+        group[3] = maxStart;
+        for (int c = 0; c < COLUMNS; c++) {
+            group[4 + c] = columns[c].size();
+            columns[c].writeTo(out);
+        }
+        groups.add(group);
+        buffered = 0;
+    }
+
+    private void writeDictionary(Map<UUID, Integer> dictionary) throws IOException {
+        out.writeInt(dictionary.size());
+        for (UUID id : dictionary.keySet()) {
+            out.writeLong(id.getMostSignificantBits());
+            out.writeLong(id.getLeastSignificantBits());
+        }
+    }
+
+    private static void writeRuns(ByteArrayOutputStream column, byte[] values, int size) {
+        int i = 0;
+        while (i < size) {
+            int run = 1;
+            while (i + run < size && values[i + run] == values[i]) {
+                run++;
+            }
+            column.write(values[i]);
+            writeVarLong(column, run);
+            i += run;
+        }
+    }
+
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long epochMinute(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+}
@@ -0,0 +1,11 @@
+package com.medcal.analytics;
+
+/** Columns a historical report can be grouped by. */
+public enum HistoryDimension {
+    DOCTOR,
+    STATUS,
+    TYPE,
+    MONTH,
+    DAY_OF_WEEK,
+    HOUR
+}
@@ -0,0 +1,153 @@
+package com.medcal.analytics;
+
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+/**
+ * Writes every closed month of appointments to a columnar segment in
+ * {@code medcal.analytics.dir}, once, for {@link HistoryQueryEngine}.
+ * <p>
+ * A month is exported when it ended more than {@code medcal.analytics.settle-days} ago and
+ * has no file yet. Its rows are read once, in start order, from {@code appointments_archive}
+ * and from the final-status rows still in {@code appointments}, streamed with a large fetch
+ * size, written to a temporary file and moved into place, so readers never see half a
+ * segment. Deleting a file makes the next run export that month again.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "medcal.analytics.dir")
+public class HistoryExporter {
+
+    private static final DateTimeFormatter FILE_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String COLUMNS = "doctor_id, patient_id, start_time, end_time, type, status";
+    private static final String SELECT_MONTH =
+            "SELECT " + COLUMNS + " FROM appointments_archive WHERE start_time >= ? AND start_time < ? " +
+            "UNION ALL SELECT " + COLUMNS + " FROM appointments WHERE start_time >= ? AND start_time < ? " +
+            "AND status IN ('COMPLETED', 'CANCELLED', 'NO_SHOW') ORDER BY start_time";
+
+    private final JdbcTemplate streamingTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final HistoryQueryEngine engine;
+    private final Path directory;
+    private final int settleDays;
+    private final Clock clock;
+
+    @Autowired
+    public HistoryExporter(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           HistoryQueryEngine engine,
+                           @Value("${medcal.analytics.dir}") String directory,
+                           @Value("${medcal.analytics.settle-days:2}") int settleDays) {
+        this(jdbcTemplate, transactionManager, engine, Path.of(directory), settleDays, Clock.systemDefaultZone());
+    }
+
+    HistoryExporter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, HistoryQueryEngine engine,
+                    Path directory, int settleDays, Clock clock) {
+        // Plantilla propia: el tamaño de lectura no debe afectar al resto de consultas
+        this.streamingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingTemplate.setFetchSize(10000);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // En PostgreSQL el driver sólo lee por bloques dentro de una transacción
+        this.transactionTemplate.setReadOnly(true);
+        this.engine = engine;
+        this.directory = directory;
+        this.settleDays = settleDays;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        exportPending();
+    }
+
+    /** Exports every settled month without a segment; returns how many months were written. */
+    @Scheduled(cron = "${medcal.analytics.export-cron:0 0 4 * * *}")
+    public int exportPending() {
+        try {
+            Files.createDirectories(directory);
+            Timestamp earliest = streamingTemplate.queryForObject(
+                    "SELECT MIN(first_start) FROM (SELECT MIN(start_time) AS first_start FROM appointments_archive " +
+                    "UNION ALL SELECT MIN(start_time) FROM appointments) firsts", Timestamp.class);
+            if (earliest == null) {
+                return 0;
+            }
+            YearMonth last = YearMonth.from(LocalDateTime.now(clock).minusDays(settleDays)).minusMonths(1);
+            int exported = 0;
+            for (YearMonth month = YearMonth.from(earliest.toLocalDateTime()); !month.isAfter(last);
+                 month = month.plusMonths(1)) {
+                if (!Files.exists(file(month))) {
+                    exportMonth(month);
+                    exported++;
+                }
+            }
+            if (exported > 0) {
+                engine.refresh();
+            }
+            return exported;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo exportar el histórico de citas a " + directory, e);
+        }
+    }
+
+    /** Writes (or rewrites) the segment of one month; returns how many rows it holds. */
+    long exportMonth(YearMonth month) throws IOException {
+        long started = System.nanoTime();
+        Path target = file(month);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        long rows;
+        try (ColumnarSegmentWriter writer = new ColumnarSegmentWriter(temporary, month)) {
+            long[] count = new long[1];
+            transactionTemplate.executeWithoutResult(status -> streamingTemplate.query(SELECT_MONTH, rs -> {
+                try {
+                    writer.append(new HistoryRow(
+                            rs.getObject("doctor_id", UUID.class),
+                            rs.getObject("patient_id", UUID.class),
+                            rs.getTimestamp("start_time").toLocalDateTime(),
+                            rs.getTimestamp("end_time").toLocalDateTime(),
+                            AppointmentType.valueOf(rs.getString("type")),
+                            AppointmentStatus.valueOf(rs.getString("status"))));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            }, from, to, from, to));
+            rows = count[0];
+        } catch (RuntimeException | IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Histórico de citas {}: {} citas en {} ({} KB, {} ms)", month, rows, target.getFileName(),
+                Files.size(target) / 1024, (System.nanoTime() - started) / 1_000_000);
+        return rows;
+    }
+
+    private Path file(YearMonth month) {
+        return directory.resolve("appointments-" + month.format(FILE_MONTH) + ".mca");
+    }
+}
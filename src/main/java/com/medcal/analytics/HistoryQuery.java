@@ -0,0 +1,31 @@
+package com.medcal.analytics;
+
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A count / booked-minutes report over historical appointments starting in
+ * {@code [from, to)}. Empty filter sets mean "any".
+ */
+public record HistoryQuery(LocalDate from,
+                           LocalDate to,
+                           Set<UUID> doctorIds,
+                           Set<AppointmentStatus> statuses,
+                           Set<AppointmentType> types,
+                           List<HistoryDimension> groupBy) {
+
+    public HistoryQuery {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("El rango debe tener 'from' anterior a 'to'");
+        }
+        doctorIds = doctorIds != null ? Set.copyOf(doctorIds) : Set.of();
+        statuses = statuses != null ? Set.copyOf(statuses) : Set.of();
+        types = types != null ? Set.copyOf(types) : Set.of();
+        groupBy = groupBy != null ? List.copyOf(groupBy) : List.of();
+    }
+}
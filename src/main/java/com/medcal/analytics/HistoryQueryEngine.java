@@ -0,0 +1,389 @@
+package com.medcal.analytics;
+
+import com.medcal.model.dto.HistoryReport;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Runs {@link HistoryQuery} reports over the columnar segments in
+ * {@code medcal.analytics.dir}, without touching the database.
+ * <p>
+ * Every row group whose start-time range overlaps the query is one task on a pool with a
+ * thread per core. A task decodes only the columns the query needs into primitive arrays,
+ * filters them and counts into a small open-addressing map keyed by the group columns packed
+ * in a {@code long}. Partial results are merged at the end, so threads share nothing while
+ * scanning.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "medcal.analytics.dir")
+public class HistoryQueryEngine {
+
+    static final String FILE_PATTERN = "appointments-\\d{6}\\.mca";
+
+    // Disposición de la clave agrupada: médico | estado | tipo | día de la semana | hora
+    private static final int HOUR_SHIFT = 0;
+    private static final int DAY_SHIFT = 5;
+    private static final int TYPE_SHIFT = 8;
+    private static final int STATUS_SHIFT = 10;
+    private static final int DOCTOR_SHIFT = 13;
+
+    private static final Comparator<GroupKey> GROUP_ORDER = Comparator
+            .comparing(GroupKey::month, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(GroupKey::doctorId, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(GroupKey::status, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(GroupKey::type, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(GroupKey::dayOfWeek, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(GroupKey::hour, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final Path directory;
+    private final ExecutorService workers;
+    private final Map<Path, OpenSegment> open = new HashMap<>();
+    private volatile List<ColumnarSegment> segments = List.of();
+
+    @Autowired
+    public HistoryQueryEngine(@Value("${medcal.analytics.dir}") String directory,
+                              @Value("${medcal.analytics.threads:0}") int threads) {
+        this(Path.of(directory), threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+    }
+
+    HistoryQueryEngine(Path directory, int threads) {
+        this.directory = directory;
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "history-query-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresh();
+    }
+
+    /** Maps new or rewritten segment files; called after every export. */
+    public synchronized void refresh() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> paths = files.filter(path -> path.getFileName().toString().matches(FILE_PATTERN))
+                    .sorted().toList();
+            open.keySet().retainAll(paths);
+            for (Path path : paths) {
+                FileTime modified = Files.getLastModifiedTime(path);
+                OpenSegment current = open.get(path);
+                if (current == null || !current.modified().equals(modified)) {
+                    try {
+                        open.put(path, new OpenSegment(ColumnarSegment.open(path), modified));
+                    } catch (IOException e) {
+                        // Un fichero dañado no debe impedir consultar el resto
+                        log.warn("Segmento de histórico ignorado: {}", e.getMessage());
+                        open.remove(path);
+                    }
+                }
+            }
+            segments = paths.stream().filter(open::containsKey).map(path -> open.get(path).segment()).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudieron abrir los segmentos de " + directory, e);
+        }
+        log.debug("Histórico de citas: {} segmentos en {}", segments.size(), directory);
+    }
+
+    public HistoryReport run(HistoryQuery query) {
+        long started = System.nanoTime();
+        long fromMinute = ColumnarSegmentWriter.epochMinute(query.from().atStartOfDay());
+        long toMinute = ColumnarSegmentWriter.epochMinute(query.to().atStartOfDay());
+        List<ColumnarSegment> current = segments;
+
+        List<Callable<Partial>> tasks = new ArrayList<>();
+        for (ColumnarSegment segment : current) {
+            Scan scan = new Scan(segment, query, fromMinute, toMinute);
+            for (ColumnarSegment.RowGroup group : segment.groups()) {
+                if (group.maxStart() >= fromMinute && group.minStart() < toMinute) {
+                    tasks.add(() -> scan.run(group));
+                }
+            }
+        }
+
+        Map<GroupKey, long[]> totals = new HashMap<>();
+        long scanned = 0;
+        try {
+            for (Future<Partial> future : workers.invokeAll(tasks)) {
+                Partial partial = future.get();
+                scanned += partial.scanned();
+                partial.counters().forEach((key, count, minutes) -> {
+                    long[] total = totals.computeIfAbsent(partial.scan().groupKey(key), k -> new long[2]);
+                    total[0] += count;
+                    total[1] += minutes;
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta del histórico interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error al leer el histórico de citas", e.getCause());
+        }
+
+        List<HistoryReport.Group> groups = new ArrayList<>(totals.size());
+        long appointments = 0;
+        long bookedMinutes = 0;
+        for (Map.Entry<GroupKey, long[]> entry : totals.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(GROUP_ORDER)).toList()) {
+            GroupKey key = entry.getKey();
+            appointments += entry.getValue()[0];
+            bookedMinutes += entry.getValue()[1];
+            groups.add(HistoryReport.Group.builder()
+                    .doctorId(key.doctorId())
+                    .status(key.status())
+                    .type(key.type())
+                    .month(key.month() != null ? key.month().toString() : null)
+                    .dayOfWeek(key.dayOfWeek())
+                    .hour(key.hour())
+                    .appointments(entry.getValue()[0])
+                    .bookedMinutes(entry.getValue()[1])
+                    .build());
+        }
+        return HistoryReport.builder()
+                .from(query.from())
+                .to(query.to())
+                .groupBy(query.groupBy().stream().map(Enum::name).toList())
+                .appointments(appointments)
+                .bookedMinutes(bookedMinutes)
+                .rowsScanned(scanned)
+                .segments(current.size())
+                .elapsedMs(Duration.ofNanos(System.nanoTime() - started).toMillis())
+                .groups(groups)
+                .build();
+    }
+
+    List<ColumnarSegment> segments() {
+        return segments;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private record OpenSegment(ColumnarSegment segment, FileTime modified) {
+    }
+
+    private record GroupKey(UUID doctorId, AppointmentStatus status, AppointmentType type, YearMonth month,
+                            DayOfWeek dayOfWeek, Integer hour) {
+    }
+
+    private record Partial(Scan scan, LongCounterMap counters, long scanned) {
+    }
+
+    /** The query compiled against one segment's dictionary. */
+    private static final class Scan {
+
+        private final ColumnarSegment segment;
+        private final long fromMinute;
+        private final long toMinute;
+        private final boolean[] doctorFilter;
+        private final boolean[] statusFilter;
+        private final boolean[] typeFilter;
+        private final boolean byDoctor;
+        private final boolean byStatus;
+        private final boolean byType;
+        private final boolean byMonth;
+        private final boolean byDay;
+        private final boolean byHour;
+
+        Scan(ColumnarSegment segment, HistoryQuery query, long fromMinute, long toMinute) {
+            this.segment = segment;
+            this.fromMinute = fromMinute;
+            this.toMinute = toMinute;
+            if (query.doctorIds().isEmpty()) {
+                doctorFilter = null;
+            } else {
+                UUID[] doctors = segment.doctors();
+                doctorFilter = new boolean[doctors.length];
+                for (int i = 0; i < doctors.length; i++) {
+                    doctorFilter[i] = query.doctorIds().contains(doctors[i]);
+                }
+            }
+            statusFilter = query.statuses().isEmpty() ? null : new boolean[AppointmentStatus.values().length];
+            query.statuses().forEach(status -> statusFilter[status.ordinal()] = true);
+            typeFilter = query.types().isEmpty() ? null : new boolean[AppointmentType.values().length];
+            query.types().forEach(type -> typeFilter[type.ordinal()] = true);
+            byDoctor = query.groupBy().contains(HistoryDimension.DOCTOR);
+            byStatus = query.groupBy().contains(HistoryDimension.STATUS);
+            byType = query.groupBy().contains(HistoryDimension.TYPE);
+            byMonth = query.groupBy().contains(HistoryDimension.MONTH);
+            byDay = query.groupBy().contains(HistoryDimension.DAY_OF_WEEK);
+            byHour = query.groupBy().contains(HistoryDimension.HOUR);
+        }
+
+        Partial run(ColumnarSegment.RowGroup group) {
+            int rows = group.rows();
+            boolean inRange = group.minStart() >= fromMinute && group.maxStart() < toMinute;
+            // Sólo se decodifican las columnas que la consulta usa
+            long[] starts = null;
+            if (!inRange || byDay || byHour) {
+                starts = new long[rows];
+                segment.readStarts(group, starts);
+            }
+            int[] doctors = null;
+            if (doctorFilter != null || byDoctor) {
+                doctors = new int[rows];
+                segment.readVarints(group, ColumnarSegmentWriter.DOCTOR, doctors);
+            }
+            byte[] statuses = null;
+            if (statusFilter != null || byStatus) {
+                statuses = new byte[rows];
+                segment.readRuns(group, ColumnarSegmentWriter.STATUS, statuses);
+            }
+            byte[] types = null;
+            if (typeFilter != null || byType) {
+                types = new byte[rows];
+                segment.readRuns(group, ColumnarSegmentWriter.TYPE, types);
+            }
+            int[] durations = new int[rows];
+            segment.readVarints(group, ColumnarSegmentWriter.DURATION, durations);
+
+            LongCounterMap counters = new LongCounterMap();
+            for (int i = 0; i < rows; i++) {
+                if (!inRange && (starts[i] < fromMinute || starts[i] >= toMinute)) {
+                    continue;
+                }
+                if ((doctorFilter != null && !doctorFilter[doctors[i]])
+                        || (statusFilter != null && !statusFilter[statuses[i]])
+                        || (typeFilter != null && !typeFilter[types[i]])) {
+                    continue;
+                }
+                long key = 0;
+                if (byDoctor) {
+                    key |= (long) doctors[i] << DOCTOR_SHIFT;
+                }
+                if (byStatus) {
+                    key |= (long) statuses[i] << STATUS_SHIFT;
+                }
+                if (byType) {
+                    key |= (long) types[i] << TYPE_SHIFT;
+                }
+                if (byDay || byHour) {
+                    long day = Math.floorDiv(starts[i], 1440);
+                    if (byDay) {
+                        // El 1 de enero de 1970 fue jueves (índice 3 contando desde el lunes)
+                        key |= Math.floorMod(day + 3, 7) << DAY_SHIFT;
+                    }
+                    if (byHour) {
+                        key |= Math.floorMod(starts[i], 1440) / 60 << HOUR_SHIFT;
+                    }
+                }
+                counters.add(key, durations[i]);
+            }
+            return new Partial(this, counters, rows);
+        }
+
+        GroupKey groupKey(long key) {
+            return new GroupKey(
+                    byDoctor ? segment.doctors()[(int) (key >>> DOCTOR_SHIFT)] : null,
+                    byStatus ? AppointmentStatus.values()[(int) (key >>> STATUS_SHIFT & 0x7)] : null,
+                    byType ? AppointmentType.values()[(int) (key >>> TYPE_SHIFT & 0x3)] : null,
+                    byMonth ? segment.month() : null,
+                    byDay ? DayOfWeek.of((int) (key >>> DAY_SHIFT & 0x7) + 1) : null,
+                    byHour ? (int) (key >>> HOUR_SHIFT & 0x1F) : null);
+        }
+    }
+
+    /** Open-addressing map from a non-negative packed key to a count and a sum of minutes. */
+    static final class LongCounterMap {
+
+        interface Visitor {
+            void accept(long key, long count, long minutes);
+        }
+
+        private long[] keys = newKeys(16);
+        private long[] counts = new long[16];
+        private long[] minutes = new long[16];
+        private int size;
+
+        void add(long key, long value) {
+            int mask = keys.length - 1;
+            int slot = (int) (mix(key) & mask);
+            while (keys[slot] != -1 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == -1) {
+                keys[slot] = key;
+                size++;
+            }
+            counts[slot]++;
+            minutes[slot] += value;
+            if (size * 2 > keys.length) {
+                grow();
+            }
+        }
+
+        void forEach(Visitor visitor) {
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != -1) {
+                    visitor.accept(keys[slot], counts[slot], minutes[slot]);
+                }
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldCounts = counts;
+            long[] oldMinutes = minutes;
+            keys = newKeys(oldKeys.length * 2);
+            counts = new long[keys.length];
+            minutes = new long[keys.length];
+            int mask = keys.length - 1;
+            for (int old = 0; old < oldKeys.length; old++) {
+                if (oldKeys[old] == -1) {
+                    continue;
+                }
+                int slot = (int) (mix(oldKeys[old]) & mask);
+                while (keys[slot] != -1) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[old];
+                counts[slot] = oldCounts[old];
+                minutes[slot] = oldMinutes[old];
+            }
+        }
+
+        private static long[] newKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, -1);
+            return keys;
+        }
+
+        private static long mix(long key) {
+            key *= 0x9E3779B97F4A7C15L;
+            return key ^ (key >>> 32);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.medcal.analytics;
+
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/** One historical appointment as stored in a columnar segment. */
+public record HistoryRow(UUID doctorId,
+                         UUID patientId,
+                         LocalDateTime startTime,
+                         LocalDateTime endTime,
+                         AppointmentType type,
+                         AppointmentStatus status) {
+}
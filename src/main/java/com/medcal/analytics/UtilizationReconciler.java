@@ -0,0 +1,93 @@
+package com.medcal.analytics;
+
+import com.medcal.model.entity.Doctor;
+import com.medcal.repository.DoctorRepository;
+import com.medcal.service.WorkingHours;
+import com.medcal.util.DatabaseLease;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Rebuilds {@code doctor_utilization} for the days from {@code medcal.utilization.past-days}
+ * ago to {@code medcal.utilization.ahead-days} ahead, at startup and every night, one day per
+ * transaction. Days further back keep the rows they had when they left the window.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "medcal.utilization.reconcile", havingValue = "true", matchIfMissing = true)
+public class UtilizationReconciler {
+
+    static final String LEASE = "doctor-utilization";
+
+    private final UtilizationRollup rollup;
+    private final DoctorRepository doctorRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseLease lease;
+    private final int pastDays;
+    private final int aheadDays;
+    private final Duration leaseDuration;
+
+    public UtilizationReconciler(UtilizationRollup rollup,
+                                 DoctorRepository doctorRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 DatabaseLease lease,
+                                 @Value("${medcal.utilization.past-days:7}") int pastDays,
+                                 @Value("${medcal.utilization.ahead-days:90}") int aheadDays,
+                                 @Value("${medcal.utilization.lease-seconds:300}") long leaseSeconds) {
+        if (pastDays < 0 || aheadDays < 0) {
+            throw new IllegalArgumentException("medcal.utilization.past-days y ahead-days no pueden ser negativos");
+        }
+        this.rollup = rollup;
+        this.doctorRepository = doctorRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lease = lease;
+        this.pastDays = pastDays;
+        this.aheadDays = aheadDays;
+        this.leaseDuration = Duration.ofSeconds(leaseSeconds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reconcile();
+    }
+
+    @Scheduled(cron = "${medcal.utilization.reconcile-cron:0 45 2 * * *}")
+    public void reconcile() {
+        if (!lease.tryAcquire(LEASE, leaseDuration)) {
+            log.debug("Recálculo de ocupación en curso en otro nodo");
+            return;
+        }
+        long started = System.nanoTime();
+        int rows = 0;
+        try {
+            Map<UUID, WorkingHours> doctors = doctorRepository.findAllByActiveTrue().stream()
+                    .collect(Collectors.toMap(Doctor::getId, doctor -> WorkingHours.of(doctor.getWorkingHours())));
+            LocalDate today = LocalDate.now();
+            for (LocalDate day = today.minusDays(pastDays); !day.isAfter(today.plusDays(aheadDays)); day = day.plusDays(1)) {
+                LocalDate current = day;
+                Integer written = transactionTemplate.execute(status -> rollup.reconcileDay(current, doctors));
+                rows += written != null ? written : 0;
+                if (!lease.tryAcquire(LEASE, leaseDuration)) {
+                    return;
+                }
+            }
+        } finally {
+            lease.release(LEASE);
+        }
+        log.info("Ocupación por médico recalculada: {} filas en {} ms", rows,
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+}
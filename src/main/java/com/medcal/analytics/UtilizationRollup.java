@@ -0,0 +1,238 @@
+package com.medcal.analytics;
+
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.event.AppointmentSnapshot;
+import com.medcal.model.dto.DoctorUtilization;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import com.medcal.repository.DoctorRepository;
+import com.medcal.service.WorkingHours;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps {@code doctor_utilization}, one row per doctor and day with the working minutes, the
+ * minutes booked by appointments that are not cancelled and the appointment counts by status
+ * and type, so utilisation over any range is an indexed sum over a few rows per doctor.
+ * <p>
+ * Every appointment change is applied as a delta inside the writing transaction: the
+ * {@code before} snapshot is subtracted and the {@code after} one added, so the rollup
+ * commits or rolls back with the appointment. Appointments count on the day they start.
+ * {@link UtilizationReconciler} rebuilds recent and upcoming days every night, which creates
+ * the rows of days without appointments and repairs any drift.
+ */
+@Component
+public class UtilizationRollup {
+
+    private static final AppointmentStatus[] STATUSES = AppointmentStatus.values();
+    private static final AppointmentType[] TYPES = AppointmentType.values();
+    // booked_minutes, un contador por estado y uno por tipo
+    private static final List<String> COUNTERS = Stream.concat(Stream.of("booked_minutes"),
+            Stream.concat(Arrays.stream(STATUSES).map(Enum::name), Arrays.stream(TYPES).map(Enum::name))
+                    .map(name -> name.toLowerCase(Locale.ROOT) + "_count"))
+            .toList();
+    private static final String UPDATE = "UPDATE doctor_utilization SET " +
+            COUNTERS.stream().map(column -> column + " = " + column + " + ?").collect(Collectors.joining(", ")) +
+            ", updated_at = ? WHERE doctor_id = ? AND work_day = ?";
+    private static final String INSERT = "INSERT INTO doctor_utilization (doctor_id, work_day, capacity_minutes, " +
+            String.join(", ", COUNTERS) + ", updated_at) VALUES (?, ?, ?, " +
+            COUNTERS.stream().map(column -> "?").collect(Collectors.joining(", ")) + ", ?)";
+    private static final String SUMMARY = "SELECT u.doctor_id, d.first_name, d.last_name, d.specialization, " +
+            "COUNT(*) AS days, SUM(u.capacity_minutes) AS capacity_minutes, " +
+            COUNTERS.stream().map(column -> "SUM(u." + column + ") AS " + column).collect(Collectors.joining(", ")) +
+            " FROM doctor_utilization u JOIN doctors d ON d.id = u.doctor_id " +
+            "WHERE u.work_day >= ? AND u.work_day < ?";
+    private static final String SUMMARY_GROUP = " GROUP BY u.doctor_id, d.first_name, d.last_name, d.specialization " +
+            "ORDER BY d.last_name, d.first_name";
+    private static final Comparator<DoctorDay> ROW_ORDER =
+            Comparator.comparing(DoctorDay::doctorId).thenComparing(DoctorDay::day);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Function<UUID, WorkingHours> schedules;
+
+    @Autowired
+    public UtilizationRollup(JdbcTemplate jdbcTemplate, DoctorRepository doctorRepository) {
+        this(jdbcTemplate, doctorId -> doctorRepository.findById(doctorId)
+                .map(doctor -> WorkingHours.of(doctor.getWorkingHours()))
+                .orElse(null));
+    }
+
+    UtilizationRollup(JdbcTemplate jdbcTemplate, Function<UUID, WorkingHours> schedules) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schedules = schedules;
+    }
+
+    @EventListener
+    @Transactional
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        // Orden fijo de filas: dos transacciones que mueven citas entre los mismos días no se bloquean en cruz
+        Map<DoctorDay, long[]> deltas = new TreeMap<>(ROW_ORDER);
+        if (event.before() != null) {
+            accumulate(deltas, event.before(), -1);
+        }
+        if (event.after() != null) {
+            accumulate(deltas, event.after(), 1);
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        deltas.forEach((row, delta) -> {
+            if (Arrays.stream(delta).anyMatch(value -> value != 0)) {
+                apply(row, delta, now);
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the rows of one day from {@code appointments}: one per doctor in
+     * {@code doctors} and one per other doctor with appointments that day. Run it in a
+     * transaction; a concurrent change either commits before the rows are deleted and is
+     * counted, or waits for them and is applied on top.
+     */
+    int reconcileDay(LocalDate day, Map<UUID, WorkingHours> doctors) {
+        jdbcTemplate.update("DELETE FROM doctor_utilization WHERE work_day = ?", Date.valueOf(day));
+        Map<DoctorDay, long[]> counters = new TreeMap<>(ROW_ORDER);
+        jdbcTemplate.query("SELECT doctor_id, start_time, end_time, type, status FROM appointments " +
+                        "WHERE start_time >= ? AND start_time < ?",
+                rs -> {
+                    accumulate(counters, new AppointmentSnapshot(null, rs.getObject("doctor_id", UUID.class), null,
+                            rs.getTimestamp("start_time").toLocalDateTime(),
+                            rs.getTimestamp("end_time").toLocalDateTime(),
+                            AppointmentType.valueOf(rs.getString("type")),
+                            AppointmentStatus.valueOf(rs.getString("status"))), 1);
+                },
+                Timestamp.valueOf(day.atStartOfDay()), Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+        for (UUID doctorId : doctors.keySet()) {
+            counters.computeIfAbsent(new DoctorDay(doctorId, day), row -> new long[COUNTERS.size()]);
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(counters.size());
+        counters.forEach((row, values) -> {
+            WorkingHours hours = doctors.containsKey(row.doctorId())
+                    ? doctors.get(row.doctorId())
+                    : schedules.apply(row.doctorId());
+            rows.add(insertArguments(row, capacityMinutes(hours, day), values, now));
+        });
+        jdbcTemplate.batchUpdate(INSERT, rows);
+        return rows.size();
+    }
+
+    /**
+     * Utilisation of each doctor over the days in {@code [from, to)} that have rows,
+     * optionally only for one specialisation, sorted by name.
+     */
+    @Transactional(readOnly = true)
+    public List<DoctorUtilization> summarize(LocalDate from, LocalDate to, String specialty) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("El inicio del rango debe ser anterior al fin");
+        }
+        List<Object> arguments = new ArrayList<>(List.of(Date.valueOf(from), Date.valueOf(to)));
+        String sql = SUMMARY;
+        if (specialty != null && !specialty.isEmpty()) {
+            sql += " AND d.specialization = ?";
+            arguments.add(specialty);
+        }
+        return jdbcTemplate.query(sql + SUMMARY_GROUP, (rs, rowNum) -> {
+            Map<AppointmentStatus, Long> statusCounts = new EnumMap<>(AppointmentStatus.class);
+            for (AppointmentStatus status : STATUSES) {
+                statusCounts.put(status, rs.getLong(COUNTERS.get(1 + status.ordinal())));
+            }
+            Map<AppointmentType, Long> typeCounts = new EnumMap<>(AppointmentType.class);
+            for (AppointmentType type : TYPES) {
+                typeCounts.put(type, rs.getLong(COUNTERS.get(1 + STATUSES.length + type.ordinal())));
+            }
+            long capacity = rs.getLong("capacity_minutes");
+            long booked = rs.getLong("booked_minutes");
+            return DoctorUtilization.builder()
+                    .doctorId(rs.getObject("doctor_id", UUID.class))
+                    .firstName(rs.getString("first_name"))
+                    .lastName(rs.getString("last_name"))
+                    .specialization(rs.getString("specialization"))
+                    .days(rs.getInt("days"))
+                    .capacityMinutes(capacity)
+                    .bookedMinutes(booked)
+                    .utilization(capacity > 0 ? (double) booked / capacity : null)
+                    .statusCounts(statusCounts)
+                    .typeCounts(typeCounts)
+                    .build();
+        }, arguments.toArray());
+    }
+
+    /** Working minutes of one day under {@code hours}; 0 on days off or for unknown doctors. */
+    public static long capacityMinutes(WorkingHours hours, LocalDate day) {
+        DayOfWeek dayOfWeek = day.getDayOfWeek();
+        if (hours == null || !hours.works(dayOfWeek)) {
+            return 0;
+        }
+        LocalTime start = hours.start(dayOfWeek);
+        LocalTime end = hours.end(dayOfWeek);
+        return Duration.between(start, end).toMinutes();
+    }
+
+    private void apply(DoctorDay row, long[] delta, Timestamp now) {
+        List<Object> arguments = new ArrayList<>(delta.length + 3);
+        for (long value : delta) {
+            arguments.add(value);
+        }
+        arguments.add(now);
+        arguments.add(row.doctorId());
+        arguments.add(Date.valueOf(row.day()));
+        if (jdbcTemplate.update(UPDATE, arguments.toArray()) > 0) {
+            return;
+        }
+        // Primer cambio del día: la fila nace con la capacidad del horario actual del médico.
+        // ON CONFLICT evita abortar la transacción de la cita si otra la crea a la vez
+        long capacity = capacityMinutes(schedules.apply(row.doctorId()), row.day());
+        int inserted = jdbcTemplate.update(INSERT + " ON CONFLICT DO NOTHING", insertArguments(row, capacity, delta, now));
+        if (inserted == 0) {
+            jdbcTemplate.update(UPDATE, arguments.toArray());
+        }
+    }
+
+    private static Object[] insertArguments(DoctorDay row, long capacity, long[] values, Timestamp now) {
+        Object[] arguments = new Object[values.length + 4];
+        arguments[0] = row.doctorId();
+        arguments[1] = Date.valueOf(row.day());
+        arguments[2] = capacity;
+        for (int i = 0; i < values.length; i++) {
+            arguments[3 + i] = values[i];
+        }
+        arguments[arguments.length - 1] = now;
+        return arguments;
+    }
+
+    private static void accumulate(Map<DoctorDay, long[]> counters, AppointmentSnapshot appointment, int sign) {
+        long[] values = counters.computeIfAbsent(
+                new DoctorDay(appointment.doctorId(), appointment.startTime().toLocalDate()),
+                row -> new long[COUNTERS.size()]);
+        if (appointment.status() != AppointmentStatus.CANCELLED) {
+            values[0] += sign * Duration.between(appointment.startTime(), appointment.endTime()).toMinutes();
+        }
+        values[1 + appointment.status().ordinal()] += sign;
+        values[1 + STATUSES.length + appointment.type().ordinal()] += sign;
+    }
+
+    private record DoctorDay(UUID doctorId, LocalDate day) {
+    }
+}
@@ -0,0 +1,153 @@
+package com.medcal.archive;
+
+import com.medcal.model.entity.Appointment;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Read access to {@code appointments_archive}, where {@link AppointmentArchiver} moves old
+ * closed appointments.
+ * <p>
+ * Range reads only touch the archive when the range starts at or before the newest archived
+ * appointment, so queries over current dates never scan the archive; unbounded reads (all of
+ * a doctor's or patient's appointments) always include it unless it is empty. The bound is
+ * cached: {@link AppointmentArchiver} refreshes it after every run, and it is reloaded after
+ * {@code medcal.archive.bound-refresh-seconds} to pick up runs made by other nodes. Archived
+ * appointments are returned as detached {@link Appointment} objects and are read-only.
+ */
+@Component
+public class AppointmentArchive {
+
+    static final String COLUMNS = "id, doctor_id, patient_id, start_time, end_time, type, status, notes, " +
+            "series_id, created_by, created_at, updated_at";
+
+    private static final RowMapper<Appointment> ROW_MAPPER = (rs, rowNum) -> Appointment.builder()
+            .id(rs.getObject("id", UUID.class))
+            .doctorId(rs.getObject("doctor_id", UUID.class))
+            .patientId(rs.getObject("patient_id", UUID.class))
+            .startTime(rs.getTimestamp("start_time").toLocalDateTime())
+            .endTime(rs.getTimestamp("end_time").toLocalDateTime())
+            .type(AppointmentType.valueOf(rs.getString("type")))
+            .status(AppointmentStatus.valueOf(rs.getString("status")))
+            .notes(rs.getString("notes"))
+            .seriesId(rs.getObject("series_id", UUID.class))
+            .createdBy(rs.getObject("created_by", UUID.class))
+            .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+            .updatedAt(toLocalDateTime(rs.getTimestamp("updated_at")))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long refreshNanos;
+    private final LongSupplier nanoClock;
+    private volatile Bound bound;
+
+    @Autowired
+    public AppointmentArchive(JdbcTemplate jdbcTemplate,
+                              @Value("${medcal.archive.bound-refresh-seconds:600}") long refreshSeconds) {
+        this(jdbcTemplate, Duration.ofSeconds(refreshSeconds), System::nanoTime);
+    }
+
+    AppointmentArchive(JdbcTemplate jdbcTemplate, Duration refreshInterval, LongSupplier nanoClock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.refreshNanos = refreshInterval.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /** Newest archived {@code start_time} (null while the archive is empty) and when it was read. */
+    private record Bound(LocalDateTime newestStart, long loadedAtNanos) {
+    }
+
+    public Optional<Appointment> findById(UUID id) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM appointments_archive WHERE id = ?", ROW_MAPPER, id)
+                .stream().findFirst();
+    }
+
+    public List<Appointment> findByDoctorId(UUID doctorId) {
+        if (isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM appointments_archive WHERE doctor_id = ?",
+                ROW_MAPPER, doctorId);
+    }
+
+    public List<Appointment> findByPatientId(UUID patientId) {
+        if (isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM appointments_archive WHERE patient_id = ?",
+                ROW_MAPPER, patientId);
+    }
+
+    public List<Appointment> findByStatus(AppointmentStatus status) {
+        // Sólo se archivan estados finales: las citas abiertas nunca están aquí
+        if (status == AppointmentStatus.PENDING || status == AppointmentStatus.SCHEDULED || isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM appointments_archive WHERE status = ?",
+                ROW_MAPPER, status.name());
+    }
+
+    /** Same rule as {@code AppointmentRepository.findByDoctorIdAndDateRange}. */
+    public List<Appointment> findByDoctorIdAndDateRange(UUID doctorId, LocalDateTime startDate, LocalDateTime endDate) {
+        if (!reaches(startDate)) {
+            return List.of();
+        }
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM appointments_archive " +
+                        "WHERE doctor_id = ? AND start_time BETWEEN ? AND ?", ROW_MAPPER,
+                doctorId, Timestamp.valueOf(startDate), Timestamp.valueOf(endDate));
+    }
+
+    /** Same rule as {@code AppointmentRepository.findByPatientIdAndDateRange}. */
+    public List<Appointment> findByPatientIdAndDateRange(UUID patientId, LocalDateTime startDate, LocalDateTime endDate) {
+        if (!reaches(startDate)) {
+            return List.of();
+        }
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM appointments_archive " +
+                        "WHERE patient_id = ? AND start_time BETWEEN ? AND ?", ROW_MAPPER,
+                patientId, Timestamp.valueOf(startDate), Timestamp.valueOf(endDate));
+    }
+
+    /** Whether a range starting at {@code from} can contain archived appointments. */
+    boolean reaches(LocalDateTime from) {
+        LocalDateTime newest = currentBound().newestStart();
+        return newest != null && !from.isAfter(newest);
+    }
+
+    /** Re-reads the newest archived {@code start_time}; called after every archiver run. */
+    public void refresh() {
+        Timestamp newest = jdbcTemplate.queryForObject("SELECT MAX(start_time) FROM appointments_archive",
+                Timestamp.class);
+        bound = new Bound(toLocalDateTime(newest), nanoClock.getAsLong());
+    }
+
+    private boolean isEmpty() {
+        return currentBound().newestStart() == null;
+    }
+
+    private Bound currentBound() {
+        Bound current = bound;
+        if (current == null || nanoClock.getAsLong() - current.loadedAtNanos() >= refreshNanos) {
+            // Otro nodo puede haber archivado desde la última lectura
+            refresh();
+            current = bound;
+        }
+        return current;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
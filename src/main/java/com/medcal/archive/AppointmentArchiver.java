@@ -0,0 +1,142 @@
+package com.medcal.archive;
+
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.util.DatabaseLease;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Moves closed appointments (by default {@code COMPLETED} and {@code CANCELLED}) that started
+ * more than {@code medcal.archive.after-days} ago from {@code appointments} to
+ * {@code appointments_archive}, so the hot table, its indexes and, on PostgreSQL, its
+ * partitions only hold recent and upcoming appointments.
+ * <p>
+ * Works in chunks of {@code chunk-size} rows, each in its own transaction: the ids are
+ * selected {@code FOR UPDATE}, copied with one {@code INSERT ... SELECT} and deleted with one
+ * {@code DELETE ... WHERE id IN (...)}. Appointments with a clinical history stay in
+ * {@code appointments}, so the history always points at an active row and no foreign key
+ * from {@code clinical_histories} is violated. Archiving is not a change of the appointment,
+ * so no event is published. The run holds a {@link DatabaseLease} renewed per chunk.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "medcal.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class AppointmentArchiver {
+
+    static final String LEASE = "appointment-archive";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseLease lease;
+    private final AppointmentArchive archive;
+    private final List<String> statuses;
+    private final Duration age;
+    private final int chunkSize;
+    private final Duration leaseDuration;
+    private final Clock clock;
+
+    @Autowired
+    public AppointmentArchiver(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               DatabaseLease lease,
+                               AppointmentArchive archive,
+                               @Value("${medcal.archive.statuses:COMPLETED,CANCELLED}") List<AppointmentStatus> statuses,
+                               @Value("${medcal.archive.after-days:365}") long afterDays,
+                               @Value("${medcal.archive.chunk-size:1000}") int chunkSize,
+                               @Value("${medcal.archive.lease-seconds:300}") long leaseSeconds) {
+        this(new NamedParameterJdbcTemplate(jdbcTemplate), new TransactionTemplate(transactionManager), lease,
+                archive, statuses, Duration.ofDays(afterDays), chunkSize, Duration.ofSeconds(leaseSeconds),
+                Clock.systemDefaultZone());
+    }
+
+    AppointmentArchiver(NamedParameterJdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                        DatabaseLease lease, AppointmentArchive archive, List<AppointmentStatus> statuses,
+                        Duration age, int chunkSize, Duration leaseDuration, Clock clock) {
+        if (statuses.isEmpty() || statuses.contains(AppointmentStatus.PENDING)
+                || statuses.contains(AppointmentStatus.SCHEDULED)) {
+            throw new IllegalArgumentException("medcal.archive.statuses sólo admite estados finales");
+        }
+        if (age.compareTo(Duration.ofDays(1)) < 0 || chunkSize < 1 || chunkSize > 10000 || leaseDuration.isZero()) {
+            throw new IllegalArgumentException("Configuración del archivado de citas no válida");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.lease = lease;
+        this.archive = archive;
+        this.statuses = statuses.stream().map(AppointmentStatus::name).toList();
+        this.age = age;
+        this.chunkSize = chunkSize;
+        this.leaseDuration = leaseDuration;
+        this.clock = clock;
+    }
+
+    /** Returns how many appointments were archived, or -1 if another node holds the lease. */
+    @Scheduled(cron = "${medcal.archive.cron:0 30 3 * * *}")
+    public int archive() {
+        if (!lease.tryAcquire(LEASE, leaseDuration)) {
+            log.debug("Archivado de citas en curso en otro nodo");
+            return -1;
+        }
+        long started = System.nanoTime();
+        int total = 0;
+        try {
+            LocalDateTime cutoff = LocalDateTime.now(clock).minus(age);
+            int moved;
+            do {
+                moved = archiveChunk(cutoff);
+                total += moved;
+            } while (moved == chunkSize && lease.tryAcquire(LEASE, leaseDuration));
+        } finally {
+            lease.release(LEASE);
+            // Las lecturas por rango dejan de saltarse lo recién archivado
+            archive.refresh();
+        }
+        if (total > 0) {
+            log.info("Archivado de citas: {} citas movidas a appointments_archive en {} ms", total,
+                    Duration.ofNanos(System.nanoTime() - started).toMillis());
+        }
+        return total;
+    }
+
+    int archiveChunk(LocalDateTime cutoff) {
+        Integer moved = transactionTemplate.execute(status -> {
+            List<UUID> ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM appointments WHERE status IN (:statuses) AND start_time < :cutoff " +
+                    // Sin particionar, clinical_histories mantiene su clave foránea hacia appointments
+                    "AND NOT EXISTS (SELECT 1 FROM clinical_histories ch WHERE ch.appointment_id = appointments.id) " +
+                    "ORDER BY start_time LIMIT :limit FOR UPDATE",
+                    new MapSqlParameterSource()
+                            .addValue("statuses", statuses)
+                            .addValue("cutoff", Timestamp.valueOf(cutoff))
+                            .addValue("limit", chunkSize),
+                    UUID.class);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("ids", ids)
+                    .addValue("now", Timestamp.valueOf(LocalDateTime.now(clock)));
+            jdbcTemplate.update("INSERT INTO appointments_archive (" + AppointmentArchive.COLUMNS + ", archived_at) " +
+                    "SELECT " + AppointmentArchive.COLUMNS + ", :now FROM appointments WHERE id IN (:ids)", params);
+            jdbcTemplate.update("DELETE FROM appointments WHERE id IN (:ids)", params);
+            return ids.size();
+        });
+        return moved != null ? moved : 0;
+    }
+}
@@ -0,0 +1,168 @@
+package com.medcal.archive;
+
+import com.medcal.util.DatabaseLease;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the monthly partitions of {@code appointments} on PostgreSQL, once the table has
+ * been converted with {@code db/postgresql/partition-appointments.sql}.
+ * <p>
+ * At startup and every night it creates the partitions for the current month and the next
+ * {@code medcal.partitioning.months-ahead}. Rows already in {@code appointments_default}
+ * for a new month are moved into it before it is attached. Months that ended before the
+ * archive cutoff ({@code medcal.archive.after-days}) and hold no rows any more are dropped,
+ * so the number of partitions stays bounded. On other databases, or with an unpartitioned
+ * table, it does nothing.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "medcal.partitioning.enabled", havingValue = "true", matchIfMissing = true)
+public class AppointmentPartitionMaintainer {
+
+    static final String LEASE = "appointment-partitions";
+    static final String PREFIX = "appointments_p";
+    static final String DEFAULT_PARTITION = "appointments_default";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseLease lease;
+    private final int monthsAhead;
+    private final Duration archiveAge;
+    private final Clock clock;
+    private volatile boolean partitioned;
+
+    @Autowired
+    public AppointmentPartitionMaintainer(JdbcTemplate jdbcTemplate,
+                                          PlatformTransactionManager transactionManager,
+                                          DatabaseLease lease,
+                                          @Value("${medcal.partitioning.months-ahead:3}") int monthsAhead,
+                                          @Value("${medcal.archive.after-days:365}") long archiveAfterDays) {
+        this(jdbcTemplate, new TransactionTemplate(transactionManager), lease, monthsAhead,
+                Duration.ofDays(archiveAfterDays), Clock.systemDefaultZone());
+    }
+
+    AppointmentPartitionMaintainer(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                   DatabaseLease lease, int monthsAhead, Duration archiveAge, Clock clock) {
+        if (monthsAhead < 1 || monthsAhead > 24) {
+            throw new IllegalArgumentException("medcal.partitioning.months-ahead debe estar entre 1 y 24");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.lease = lease;
+        this.monthsAhead = monthsAhead;
+        this.archiveAge = archiveAge;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        partitioned = "PostgreSQL".equalsIgnoreCase(database) && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+                "WHERE c.relname = 'appointments' AND pg_table_is_visible(c.oid))", Boolean.class));
+        if (!partitioned) {
+            log.debug("appointments no está particionada: no se mantienen particiones");
+            return;
+        }
+        maintain();
+    }
+
+    @Scheduled(cron = "${medcal.partitioning.cron:0 0 3 * * *}")
+    public void maintain() {
+        if (!partitioned || !lease.tryAcquire(LEASE, Duration.ofMinutes(10))) {
+            return;
+        }
+        try {
+            Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(
+                    "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                    "JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = 'appointments'", String.class));
+            YearMonth current = YearMonth.now(clock);
+            for (YearMonth month : missing(existing, current, monthsAhead)) {
+                create(month);
+            }
+            YearMonth firstKept = YearMonth.from(current.atDay(1).atStartOfDay().minus(archiveAge));
+            for (String name : expired(existing, firstKept)) {
+                dropIfEmpty(name);
+            }
+        } finally {
+            lease.release(LEASE);
+        }
+    }
+
+    private void create(YearMonth month) {
+        String name = partitionName(month);
+        String from = month.atDay(1).toString();
+        String to = month.plusMonths(1).atDay(1).toString();
+        transactionTemplate.executeWithoutResult(status -> {
+            // Con el default bloqueado no pueden entrar filas de ese mes mientras se mueven
+            jdbcTemplate.execute("LOCK TABLE " + DEFAULT_PARTITION + " IN ACCESS EXCLUSIVE MODE");
+            jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE appointments INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION +
+                    " WHERE start_time >= '" + from + "' AND start_time < '" + to + "' RETURNING *) " +
+                    "INSERT INTO " + name + " SELECT * FROM moved");
+            jdbcTemplate.execute("ALTER TABLE appointments ATTACH PARTITION " + name +
+                    " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+            log.info("Partición {} creada ({} citas movidas desde {})", name, moved, DEFAULT_PARTITION);
+        });
+    }
+
+    private void dropIfEmpty(String name) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE " + name + " IN ACCESS EXCLUSIVE MODE");
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM " + name + ")", Boolean.class))) {
+                // Quedan citas sin archivar (p. ej. NO_SHOW): la partición se conserva
+                return;
+            }
+            jdbcTemplate.execute("DROP TABLE " + name);
+            log.info("Partición vacía {} eliminada", name);
+        });
+    }
+
+    /** Months from {@code current} to {@code current + monthsAhead} without a partition. */
+    static List<YearMonth> missing(Set<String> existing, YearMonth current, int monthsAhead) {
+        List<YearMonth> missing = new ArrayList<>();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (!existing.contains(partitionName(month))) {
+                missing.add(month);
+            }
+        }
+        return missing;
+    }
+
+    /** Monthly partitions that end before {@code firstKept}; the default partition is never returned. */
+    static List<String> expired(Set<String> existing, YearMonth firstKept) {
+        return existing.stream()
+                .filter(name -> name.matches(PREFIX + "\\d{6}"))
+                .filter(name -> YearMonth.parse(name.substring(PREFIX.length()), SUFFIX).isBefore(firstKept))
+                .sorted()
+                .toList();
+    }
+
+    static String partitionName(YearMonth month) {
+        return PREFIX + month.format(SUFFIX);
+    }
+}
@@ -0,0 +1,57 @@
+package com.medcal.calendar;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Tokens for the calendar feed URLs. Calendar apps cannot send a JWT, so the feed carries
+ * {@code ?token=}, an HMAC-SHA256 of the doctor id: checking it needs no lookup, and
+ * changing {@code medcal.calendar.secret} revokes every link at once.
+ */
+@Component
+public class CalendarTokens {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+
+    public CalendarTokens(@Value("${medcal.calendar.secret:${spring.security.jwt.secret}}") String secret) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    public String issue(UUID doctorId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac(doctorId));
+    }
+
+    public boolean verify(UUID doctorId, String token) {
+        if (token == null) {
+            return false;
+        }
+        byte[] presented;
+        try {
+            presented = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        // Comparación en tiempo constante
+        return MessageDigest.isEqual(mac(doctorId), presented);
+    }
+
+    private byte[] mac(UUID doctorId) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(("calendar:" + doctorId).getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.medcal.calendar;
+
+import com.medcal.calendar.DoctorCalendarVersions.Version;
+import com.medcal.model.entity.Appointment;
+import com.medcal.model.entity.Doctor;
+import com.medcal.repository.AppointmentRepository;
+import com.medcal.repository.DoctorRepository;
+import com.medcal.util.SingleFlight;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * A doctor's appointments from {@code medcal.calendar.past-days} ago to
+ * {@code medcal.calendar.ahead-days} ahead as an iCalendar feed.
+ * <p>
+ * The feed's validator is the doctor's latest change ({@link DoctorCalendarVersions}) plus the
+ * first day of the window, which moves at midnight; both are in memory, so conditional
+ * requests are answered without a query. Rendered bytes are cached per doctor with the ETag
+ * they were built for, so only the first request after a change loads and renders the
+ * appointments; concurrent requests for the same version share that work. Nothing here opens
+ * a transaction, so a {@code 304} never takes a connection.
+ */
+@Slf4j
+@Service
+public class DoctorCalendar {
+
+    private static final DateTimeFormatter WINDOW_DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    /** Validators of the current feed of one doctor. */
+    public record Validator(String etag, Instant lastModified) {
+    }
+
+    private record Feed(String etag, byte[] body) {
+    }
+
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final DoctorCalendarVersions versions;
+    private final int pastDays;
+    private final int aheadDays;
+    private final Clock clock;
+    private final Map<UUID, Feed> feeds;
+    private final SingleFlight<String, Optional<Feed>> renders =
+            new SingleFlight<>(Duration.ZERO, 0, outcome -> { });
+
+    @Autowired
+    public DoctorCalendar(AppointmentRepository appointmentRepository,
+                          DoctorRepository doctorRepository,
+                          DoctorCalendarVersions versions,
+                          @Value("${medcal.calendar.past-days:7}") int pastDays,
+                          @Value("${medcal.calendar.ahead-days:90}") int aheadDays,
+                          @Value("${medcal.calendar.max-entries:200}") int maxEntries) {
+        this(appointmentRepository, doctorRepository, versions, pastDays, aheadDays, maxEntries,
+                Clock.systemDefaultZone());
+    }
+
+    DoctorCalendar(AppointmentRepository appointmentRepository, DoctorRepository doctorRepository,
+                   DoctorCalendarVersions versions, int pastDays, int aheadDays, int maxEntries, Clock clock) {
+        if (pastDays < 0 || aheadDays < 1 || maxEntries < 1) {
+            throw new IllegalArgumentException("Configuración del calendario de médicos no válida");
+        }
+        this.appointmentRepository = appointmentRepository;
+        this.doctorRepository = doctorRepository;
+        this.versions = versions;
+        this.pastDays = pastDays;
+        this.aheadDays = aheadDays;
+        this.clock = clock;
+        // Los feeds menos consultados salen primero
+        this.feeds = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Feed> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /** Computed from memory, except the first time a doctor's version is needed. */
+    public Validator validator(UUID doctorId) {
+        Version version = versions.current(doctorId);
+        LocalDate firstDay = windowStart();
+        Instant windowStartedAt = firstDay.atStartOfDay(clock.getZone()).toInstant();
+        Instant lastModified = version.changedAt().isAfter(windowStartedAt) ? version.changedAt() : windowStartedAt;
+        return new Validator("\"" + version.seq() + "-" + firstDay.format(WINDOW_DAY) + "\"", lastModified);
+    }
+
+    /** The feed for {@code validator}, rendered if not cached; empty if the doctor does not exist. */
+    public Optional<byte[]> render(UUID doctorId, Validator validator) {
+        Feed cached;
+        synchronized (feeds) {
+            cached = feeds.get(doctorId);
+        }
+        if (cached != null && cached.etag().equals(validator.etag())) {
+            return Optional.of(cached.body());
+        }
+        return renders.execute(doctorId + validator.etag(), () -> load(doctorId, validator.etag()))
+                .map(Feed::body);
+    }
+
+    public Optional<UUID> findDoctorIdByEmail(String email) {
+        return doctorRepository.findByUserEmail(email).map(Doctor::getId);
+    }
+
+    private Optional<Feed> load(UUID doctorId, String etag) {
+        Optional<Doctor> doctor = doctorRepository.findById(doctorId);
+        if (doctor.isEmpty()) {
+            return Optional.empty();
+        }
+        LocalDate firstDay = windowStart();
+        List<Appointment> appointments = new ArrayList<>(appointmentRepository.findByDoctorIdAndStartTimeBetween(
+                doctorId, firstDay.atStartOfDay(), firstDay.plusDays(pastDays + aheadDays + 1L).atStartOfDay()));
+        appointments.sort(Comparator.comparing(Appointment::getStartTime).thenComparing(Appointment::getId));
+        Feed feed = new Feed(etag, IcsWriter.render(doctor.get(), appointments, clock.getZone()));
+        synchronized (feeds) {
+            feeds.put(doctorId, feed);
+        }
+        log.debug("Calendario del médico {} generado: {} citas, {} bytes", doctorId, appointments.size(),
+                feed.body().length);
+        return Optional.of(feed);
+    }
+
+    private LocalDate windowStart() {
+        return LocalDate.now(clock).minusDays(pastDays);
+    }
+}
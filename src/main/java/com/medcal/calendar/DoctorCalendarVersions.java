@@ -0,0 +1,133 @@
+package com.medcal.calendar;
+
+import com.medcal.event.AppointmentChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The latest {@code appointment_changes} row of each doctor, kept in memory so a calendar
+ * poll can be answered with {@code 304 Not Modified} without a query.
+ * <p>
+ * A doctor's version is read from the database on first use. Changes committed on this node
+ * drop it, so the next request reads it again. Changes from other nodes are picked up by
+ * polling the change log every {@code medcal.calendar.poll-ms}; as in the change feed, the
+ * cursor only advances over rows older than {@code medcal.changes.settle-ms}. Versions only
+ * move forward, so a read that races a commit is corrected by the next poll at the latest.
+ */
+@Slf4j
+@Component
+public class DoctorCalendarVersions {
+
+    static final int POLL_LIMIT = 1000;
+
+    /** Sequence and time of a doctor's latest change; sequence 0 if the log has none. */
+    public record Version(long seq, Instant changedAt) {
+
+        static final Version NONE = new Version(0, Instant.EPOCH);
+
+        private static Version newest(Version a, Version b) {
+            return a.seq() >= b.seq() ? a : b;
+        }
+    }
+
+    private record Change(long seq, UUID doctorId, UUID previousDoctorId, Instant changedAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration settleWindow;
+    private final Clock clock;
+    private final Map<UUID, Version> versions = new ConcurrentHashMap<>();
+    // Última secuencia asentada ya aplicada; -1 hasta la primera consulta
+    private volatile long cursor = -1;
+
+    @Autowired
+    public DoctorCalendarVersions(JdbcTemplate jdbcTemplate,
+                                  @Value("${medcal.changes.settle-ms:5000}") long settleMs) {
+        this(jdbcTemplate, Duration.ofMillis(settleMs), Clock.systemDefaultZone());
+    }
+
+    DoctorCalendarVersions(JdbcTemplate jdbcTemplate, Duration settleWindow, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.settleWindow = settleWindow;
+        this.clock = clock;
+    }
+
+    public Version current(UUID doctorId) {
+        Version known = versions.get(doctorId);
+        if (known != null) {
+            return known;
+        }
+        Version loaded = jdbcTemplate.queryForObject(
+                "SELECT MAX(seq) AS seq, MAX(changed_at) AS changed_at FROM appointment_changes " +
+                "WHERE doctor_id = ? OR previous_doctor_id = ?",
+                (rs, rowNum) -> {
+                    long seq = rs.getLong("seq");
+                    Timestamp changedAt = rs.getTimestamp("changed_at");
+                    return rs.wasNull() ? Version.NONE : new Version(seq, changedAt.toInstant());
+                },
+                doctorId, doctorId);
+        return versions.merge(doctorId, loaded, Version::newest);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if (event.before() != null) {
+            versions.remove(event.before().doctorId());
+        }
+        if (event.after() != null) {
+            versions.remove(event.after().doctorId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${medcal.calendar.poll-ms:5000}")
+    public void poll() {
+        Timestamp settledBefore = Timestamp.from(clock.instant().minus(settleWindow));
+        if (cursor < 0) {
+            // Lo anterior ya está en la base de datos: las versiones se leen de ella al primer uso
+            Long settled = jdbcTemplate.queryForObject(
+                    "SELECT MAX(seq) FROM appointment_changes WHERE changed_at < ?", Long.class, settledBefore);
+            cursor = settled != null ? settled : 0;
+            return;
+        }
+        List<Change> changes = jdbcTemplate.query(
+                "SELECT seq, doctor_id, previous_doctor_id, changed_at FROM appointment_changes " +
+                "WHERE seq > ? ORDER BY seq LIMIT " + POLL_LIMIT,
+                (rs, rowNum) -> new Change(rs.getLong("seq"), rs.getObject("doctor_id", UUID.class),
+                        rs.getObject("previous_doctor_id", UUID.class), rs.getTimestamp("changed_at").toInstant()),
+                cursor);
+        long next = cursor;
+        boolean settled = true;
+        for (Change change : changes) {
+            Version version = new Version(change.seq(), change.changedAt());
+            // Sólo se siguen los médicos ya consultados; el resto se leerá al primer uso
+            versions.computeIfPresent(change.doctorId(), (doctorId, known) -> Version.newest(known, version));
+            if (change.previousDoctorId() != null) {
+                versions.computeIfPresent(change.previousDoctorId(), (doctorId, known) -> Version.newest(known, version));
+            }
+            settled = settled && change.changedAt().isBefore(settledBefore.toInstant());
+            if (settled) {
+                next = change.seq();
+            }
+        }
+        cursor = next;
+    }
+
+    int size() {
+        return versions.size();
+    }
+}
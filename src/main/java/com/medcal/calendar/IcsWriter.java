@@ -0,0 +1,106 @@
+package com.medcal.calendar;
+
+import com.medcal.model.entity.Appointment;
+import com.medcal.model.entity.Doctor;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Renders a doctor's appointments as an iCalendar (RFC 5545) document. Times are written in
+ * UTC and events only carry the appointment type and status: the feed leaves the clinic, so
+ * it never names the patient. The output depends only on its input, which keeps the bytes
+ * stable for one feed version.
+ */
+final class IcsWriter {
+
+    private static final DateTimeFormatter UTC = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private final StringBuilder out = new StringBuilder();
+    private final ZoneId zone;
+
+    private IcsWriter(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    /** {@code appointments} are rendered in the given order; {@code zone} is the zone of their local times. */
+    static byte[] render(Doctor doctor, List<Appointment> appointments, ZoneId zone) {
+        IcsWriter writer = new IcsWriter(zone);
+        writer.line("BEGIN:VCALENDAR");
+        writer.line("VERSION:2.0");
+        writer.line("PRODID:-//MedCal//Agenda del medico//ES");
+        writer.line("CALSCALE:GREGORIAN");
+        writer.line("METHOD:PUBLISH");
+        writer.line("X-WR-CALNAME:" + escape("MedCal - " + doctor.getFirstName() + " " + doctor.getLastName()));
+        writer.line("REFRESH-INTERVAL;VALUE=DURATION:PT15M");
+        writer.line("X-PUBLISHED-TTL:PT15M");
+        for (Appointment appointment : appointments) {
+            writer.event(appointment);
+        }
+        writer.line("END:VCALENDAR");
+        return writer.out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void event(Appointment appointment) {
+        LocalDateTime stamp = appointment.getUpdatedAt() != null ? appointment.getUpdatedAt()
+                : appointment.getCreatedAt() != null ? appointment.getCreatedAt()
+                : appointment.getStartTime();
+        line("BEGIN:VEVENT");
+        line("UID:" + appointment.getId() + "@medcal");
+        line("DTSTAMP:" + utc(stamp));
+        line("DTSTART:" + utc(appointment.getStartTime()));
+        line("DTEND:" + utc(appointment.getEndTime()));
+        line("SUMMARY:" + escape(summary(appointment.getType())));
+        line("STATUS:" + status(appointment.getStatus()));
+        line("END:VEVENT");
+    }
+
+    private String utc(LocalDateTime time) {
+        return time.atZone(zone).withZoneSameInstant(ZoneOffset.UTC).format(UTC);
+    }
+
+    private static String summary(AppointmentType type) {
+        return switch (type) {
+            case CONSULTATION -> "Consulta";
+            case FOLLOWUP -> "Seguimiento";
+            case EMERGENCY -> "Urgencia";
+        };
+    }
+
+    private static String status(AppointmentStatus status) {
+        return switch (status) {
+            case PENDING -> "TENTATIVE";
+            case CANCELLED -> "CANCELLED";
+            case SCHEDULED, COMPLETED, NO_SHOW -> "CONFIRMED";
+        };
+    }
+
+    static String escape(String text) {
+        return text.replace("\\", "\\\\").replace(";", "\\;").replace(",", "\\,").replace("\n", "\\n");
+    }
+
+    /** Writes one content line, folded at 75 octets without splitting a UTF-8 character. */
+    private void line(String content) {
+        int octets = 0;
+        for (int i = 0; i < content.length(); ) {
+            int codePoint = content.codePointAt(i);
+            int width = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (octets + width > MAX_LINE_OCTETS) {
+                out.append("\r\n ");
+                // El espacio de la continuación cuenta en la nueva línea
+                octets = 1;
+            }
+            out.appendCodePoint(codePoint);
+            octets += width;
+            i += Character.charCount(codePoint);
+        }
+        out.append("\r\n");
+    }
+}
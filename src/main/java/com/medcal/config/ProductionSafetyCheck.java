@@ -0,0 +1,59 @@
+package com.medcal.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Refuses to start the {@code prod} profile with per-statement SQL logging switched on.
+ * Logging every statement (and its binds) costs request latency and writes patient data
+ * to the logs, so a leftover dev setting should fail the deployment, not degrade it.
+ */
+@Slf4j
+@Component
+@Profile("prod")
+public class ProductionSafetyCheck {
+
+    static final List<String> SQL_LOGGERS = List.of(
+            "org.hibernate.SQL",
+            "org.hibernate.orm.jdbc.bind",
+            "org.hibernate.type.descriptor.sql",
+            "org.springframework.jdbc.core");
+
+    static final List<String> SQL_LOGGING_PROPERTIES = List.of(
+            "spring.jpa.show-sql",
+            "spring.jpa.properties.hibernate.show_sql",
+            "spring.jpa.properties.hibernate.format_sql",
+            "spring.jpa.properties.hibernate.use_sql_comments",
+            "spring.jpa.properties.hibernate.generate_statistics");
+
+    public ProductionSafetyCheck(Environment environment) {
+        List<String> violations = violations(environment, name -> LoggerFactory.getLogger(name).isDebugEnabled());
+        if (!violations.isEmpty()) {
+            throw new IllegalStateException(
+                    "Configuración de logging SQL no permitida en producción: " + String.join(", ", violations));
+        }
+        log.info("Perfil prod: logging SQL desactivado");
+    }
+
+    static List<String> violations(Environment environment, Predicate<String> debugEnabled) {
+        List<String> violations = new ArrayList<>();
+        for (String property : SQL_LOGGING_PROPERTIES) {
+            if (environment.getProperty(property, Boolean.class, false)) {
+                violations.add(property + "=true");
+            }
+        }
+        for (String logger : SQL_LOGGERS) {
+            if (debugEnabled.test(logger)) {
+                violations.add("logging.level." + logger + "=DEBUG");
+            }
+        }
+        return violations;
+    }
+}
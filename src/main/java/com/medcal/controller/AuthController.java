@@ -16,9 +16,12 @@ public class AuthController {
     @GetMapping("/login")
     public String loginPage(@RequestParam(required = false) String error,
                            @RequestParam(required = false) String logout,
+                           @RequestParam(required = false) Long throttled,
                            Model model) {
         
-        if (error != null) {
+        if (throttled != null) {
+            model.addAttribute("error", "Demasiados intentos fallidos. Intenta nuevamente en " + throttled + " segundos.");
+        } else if (error != null) {
             model.addAttribute("error", "Credenciales inválidas. Por favor intenta nuevamente.");
         }
         
@@ -3,12 +3,17 @@ package com.medcal.controller;
 import com.medcal.model.dto.DoctorDTO;
 import com.medcal.model.entity.Doctor;
 import com.medcal.service.DoctorService;
+import com.medcal.util.EntityTags;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.UUID;
 
 @RestController
@@ -17,31 +22,52 @@ import java.util.UUID;
 @CrossOrigin(origins = "*")
 public class DoctorController {
     
+    // Datos de directorio, no clínicos: el navegador puede reutilizarlos unos segundos sin preguntar
+    private static final CacheControl CACHE = CacheControl.maxAge(Duration.ofSeconds(30)).cachePrivate();
+    
     private final DoctorService doctorService;
     
     @GetMapping
-    public ResponseEntity<List<DoctorDTO>> getAllDoctors() {
-        List<DoctorDTO> doctors = doctorService.getAllDoctors();
-        return ResponseEntity.ok(doctors);
+    public ResponseEntity<List<DoctorDTO>> getAllDoctors(WebRequest webRequest) {
+        return list(webRequest, doctorService::getAllDoctors);
     }
     
+    /**
+     * Tagged with the doctor's {@code updatedAt}; a matching {@code If-None-Match} is answered
+     * from that column alone, before the doctor is loaded.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<DoctorDTO> getDoctorById(@PathVariable UUID id) {
+    public ResponseEntity<DoctorDTO> getDoctorById(@PathVariable UUID id, WebRequest webRequest) {
+        String etag = doctorService.getDoctorUpdatedAt(id).map(EntityTags::of).orElse(null);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CACHE).build();
+        }
         return doctorService.getDoctorById(id)
-                .map(doctor -> ResponseEntity.ok(doctor))
+                .map(doctor -> ResponseEntity.ok()
+                        .cacheControl(CACHE)
+                        .eTag(EntityTags.of(doctor.getUpdatedAt()))
+                        .body(doctor))
                 .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/specialization/{specialization}")
-    public ResponseEntity<List<DoctorDTO>> getDoctorsBySpecialization(@PathVariable String specialization) {
-        List<DoctorDTO> doctors = doctorService.getDoctorsBySpecialization(specialization);
-        return ResponseEntity.ok(doctors);
+    public ResponseEntity<List<DoctorDTO>> getDoctorsBySpecialization(@PathVariable String specialization,
+                                                                      WebRequest webRequest) {
+        return list(webRequest, () -> doctorService.getDoctorsBySpecialization(specialization));
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<DoctorDTO>> searchDoctors(@RequestParam String name) {
-        List<DoctorDTO> doctors = doctorService.searchDoctorsByName(name);
-        return ResponseEntity.ok(doctors);
+    public ResponseEntity<List<DoctorDTO>> searchDoctors(@RequestParam String name, WebRequest webRequest) {
+        return list(webRequest, () -> doctorService.searchDoctorsByName(name));
+    }
+    
+    /** Lists are tagged with the doctors' change counter, read before the list so the tag is never newer. */
+    private ResponseEntity<List<DoctorDTO>> list(WebRequest webRequest, Supplier<List<DoctorDTO>> doctors) {
+        String etag = EntityTags.ofVersion(doctorService.getDoctorsVersion());
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CACHE).build();
+        }
+        return ResponseEntity.ok().cacheControl(CACHE).eTag(etag).body(doctors.get());
     }
     
     @PostMapping
@@ -3,12 +3,16 @@ package com.medcal.controller;
 import com.medcal.model.dto.PatientDTO;
 import com.medcal.model.entity.Patient;
 import com.medcal.service.PatientService;
+import com.medcal.util.EntityTags;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.UUID;
 
 @RestController
@@ -17,18 +21,31 @@ import java.util.UUID;
 @CrossOrigin(origins = "*")
 public class PatientController {
     
+    // Datos clínicos: nunca se sirven de caché sin revalidar, y sólo en el navegador del usuario
+    private static final CacheControl CACHE = CacheControl.noCache().cachePrivate();
+    
     private final PatientService patientService;
     
     @GetMapping
-    public ResponseEntity<List<PatientDTO>> getAllPatients() {
-        List<PatientDTO> patients = patientService.getAllPatients();
-        return ResponseEntity.ok(patients);
+    public ResponseEntity<List<PatientDTO>> getAllPatients(WebRequest webRequest) {
+        return list(webRequest, patientService::getAllPatients);
     }
     
+    /**
+     * Tagged with the patient's {@code updatedAt}; a matching {@code If-None-Match} is answered
+     * from that column alone, before the patient is loaded.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<PatientDTO> getPatientById(@PathVariable UUID id) {
+    public ResponseEntity<PatientDTO> getPatientById(@PathVariable UUID id, WebRequest webRequest) {
+        String etag = patientService.getPatientUpdatedAt(id).map(EntityTags::of).orElse(null);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CACHE).build();
+        }
         return patientService.getPatientById(id)
-                .map(patient -> ResponseEntity.ok(patient))
+                .map(patient -> ResponseEntity.ok()
+                        .cacheControl(CACHE)
+                        .eTag(EntityTags.of(patient.getUpdatedAt()))
+                        .body(patient))
                 .orElse(ResponseEntity.notFound().build());
     }
     
@@ -47,9 +64,8 @@ public class PatientController {
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<PatientDTO>> searchPatients(@RequestParam String name) {
-        List<PatientDTO> patients = patientService.searchPatientsByName(name);
-        return ResponseEntity.ok(patients);
+    public ResponseEntity<List<PatientDTO>> searchPatients(@RequestParam String name, WebRequest webRequest) {
+        return list(webRequest, () -> patientService.searchPatientsByName(name));
     }
     
     @PostMapping
@@ -89,4 +105,13 @@ public class PatientController {
                     .body("Error interno del servidor: " + e.getMessage());
         }
     }
+    
+    /** Lists are tagged with the patients' change counter, read before the list so the tag is never newer. */
+    private ResponseEntity<List<PatientDTO>> list(WebRequest webRequest, Supplier<List<PatientDTO>> patients) {
+        String etag = EntityTags.ofVersion(patientService.getPatientsVersion());
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CACHE).build();
+        }
+        return ResponseEntity.ok().cacheControl(CACHE).eTag(etag).body(patients.get());
+    }
 }
@@ -0,0 +1,101 @@
+package com.medcal.controller.api;
+
+import com.medcal.analytics.HistoryDimension;
+import com.medcal.analytics.HistoryQuery;
+import com.medcal.analytics.HistoryQueryEngine;
+import com.medcal.analytics.UtilizationRollup;
+import com.medcal.model.dto.DoctorUtilization;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+public class AnalyticsApiController {
+
+    // Sólo existe con medcal.analytics.dir configurado
+    private final Optional<HistoryQueryEngine> historyQueryEngine;
+    private final UtilizationRollup utilizationRollup;
+
+    /**
+     * Counts and booked minutes of past appointments starting in {@code [from, to)}, grouped
+     * by the requested dimensions, read from the columnar history files instead of the
+     * database. Admins only.
+     */
+    @GetMapping("/history")
+    public ResponseEntity<?> getHistory(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) List<HistoryDimension> groupBy,
+            @RequestParam(required = false) List<UUID> doctorId,
+            @RequestParam(required = false) List<AppointmentStatus> status,
+            @RequestParam(required = false) List<AppointmentType> type) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!isAdmin(authentication)) {
+            throw new AccessDeniedException("Not authorized to view appointment history reports");
+        }
+        if (historyQueryEngine.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("El histórico de citas no está configurado (medcal.analytics.dir)");
+        }
+        try {
+            HistoryQuery query = new HistoryQuery(from, to,
+                    doctorId != null ? new HashSet<>(doctorId) : null,
+                    status != null ? new HashSet<>(status) : null,
+                    type != null ? new HashSet<>(type) : null,
+                    groupBy);
+            return ResponseEntity.ok(historyQueryEngine.get().run(query));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Booked and working minutes per doctor over the days in {@code [from, to)}, read from the
+     * per-day utilisation rollup. Admins and receptionists only.
+     */
+    @GetMapping("/utilization")
+    public ResponseEntity<?> getUtilization(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String specialty) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!isAdminOrReceptionist(authentication)) {
+            throw new AccessDeniedException("Not authorized to view doctor utilization");
+        }
+        try {
+            List<DoctorUtilization> utilization = utilizationRollup.summarize(from, to, specialty);
+            return ResponseEntity.ok(utilization);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private boolean isAdmin(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("ROLE_ADMIN"));
+    }
+
+    private boolean isAdminOrReceptionist(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("ROLE_ADMIN")
+                        || grantedAuthority.getAuthority().equals("ROLE_RECEPTIONIST"));
+    }
+}
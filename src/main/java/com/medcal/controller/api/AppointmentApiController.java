@@ -1,22 +1,31 @@
 package com.medcal.controller.api;
 
+import com.medcal.model.dto.AppointmentChangeFeed;
 import com.medcal.model.dto.AppointmentDTO;
 import com.medcal.model.dto.AppointmentRequest;
 import com.medcal.model.dto.AvailabilitySlot;
+import com.medcal.model.dto.BulkStatusRequest;
 import com.medcal.model.dto.DoctorDTO;
 import com.medcal.model.entity.Appointment;
 import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.security.CustomUserDetails;
+import com.medcal.service.AppointmentBulkStatusService;
+import com.medcal.service.AppointmentChangeService;
+import com.medcal.service.AppointmentChangeService.ChangeScope;
 import com.medcal.service.AppointmentService;
+import com.medcal.service.AppointmentStreamService;
 import com.medcal.service.DoctorService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -31,16 +40,21 @@ public class AppointmentApiController {
 
     private final AppointmentService appointmentService;
     private final DoctorService doctorService;
+    private final AppointmentStreamService appointmentStreamService;
+    private final AppointmentChangeService appointmentChangeService;
+    private final AppointmentBulkStatusService appointmentBulkStatusService;
 
     @PostMapping
     public ResponseEntity<Appointment> createAppointment(@Valid @RequestBody AppointmentRequest request) {
         // Get the current authenticated user (patient)
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        UUID patientId = UUID.fromString(authentication.getName());
+        UUID patientId = appointmentChangeService.findPatientIdByEmail(authentication.getName())
+                .orElseThrow(() -> new AccessDeniedException("No patient profile for the current user"));
         
         // Set the patient ID and default status to PENDING
         request.setPatientId(patientId);
         request.setStatus(AppointmentStatus.PENDING);
+        request.setCreatedBy(((CustomUserDetails) authentication.getPrincipal()).getUser().getId());
         
         Appointment appointment = appointmentService.scheduleAppointment(request);
         return new ResponseEntity<>(appointment, HttpStatus.CREATED);
@@ -77,6 +91,48 @@ public class AppointmentApiController {
         return ResponseEntity.ok(slots);
     }
 
+    /**
+     * Server-Sent Events stream of appointment changes, optionally limited to one doctor.
+     * Staff only: calendars and dashboards subscribe instead of polling.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAppointmentChanges(@RequestParam(required = false) UUID doctorId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!isStaff(authentication)) {
+            throw new AccessDeniedException("Not authorized to subscribe to appointment changes");
+        }
+        
+        return appointmentStreamService.subscribe(doctorId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+
+    /**
+     * Incremental sync: appointments changed after the client's last sequence, scoped to the
+     * caller. Admins and receptionists may narrow the feed to one doctor or patient.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<AppointmentChangeFeed> getAppointmentChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit,
+            @RequestParam(required = false) UUID doctorId,
+            @RequestParam(required = false) UUID patientId) {
+        
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        ChangeScope scope;
+        if (isAdmin(authentication) || isReceptionist(authentication)) {
+            scope = new ChangeScope(doctorId, patientId);
+        } else if (isDoctor(authentication)) {
+            scope = ChangeScope.doctor(appointmentChangeService.findDoctorIdByEmail(authentication.getName())
+                    .orElseThrow(() -> new AccessDeniedException("No doctor profile for the current user")));
+        } else {
+            scope = ChangeScope.patient(appointmentChangeService.findPatientIdByEmail(authentication.getName())
+                    .orElseThrow(() -> new AccessDeniedException("No patient profile for the current user")));
+        }
+        
+        return ResponseEntity.ok(appointmentChangeService.getChangesSince(scope, since, limit));
+    }
+
     @PutMapping("/{appointmentId}/status")
     public ResponseEntity<AppointmentDTO> updateAppointmentStatus(
             @PathVariable UUID appointmentId,
@@ -85,7 +141,7 @@ public class AppointmentApiController {
         
         // Verify the doctor is authorized to update this appointment
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (!auth.getName().equals(doctorId.toString())) {
+        if (!currentProfileId(auth).map(doctorId::equals).orElse(false)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
@@ -95,10 +151,37 @@ public class AppointmentApiController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Moves the listed appointments, or a doctor's appointments in a time range, to one status
+     * in a single update. Rows that cannot change are reported per item. Admins and
+     * receptionists may act on any doctor, doctors only on their own appointments.
+     */
+    @PostMapping("/status:bulk")
+    public ResponseEntity<?> bulkUpdateStatus(@Valid @RequestBody BulkStatusRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UUID doctorScope = null;
+        if (!isAdmin(authentication) && !isReceptionist(authentication)) {
+            if (!isDoctor(authentication)) {
+                throw new AccessDeniedException("Not authorized to update appointments in bulk");
+            }
+            doctorScope = appointmentBulkStatusService.findDoctorIdByEmail(authentication.getName())
+                    .orElseThrow(() -> new AccessDeniedException("No doctor profile for the current user"));
+            if (request.getDoctorId() != null && !request.getDoctorId().equals(doctorScope)) {
+                throw new AccessDeniedException("Not authorized to update these appointments");
+            }
+        }
+        try {
+            return ResponseEntity.ok(appointmentBulkStatusService.updateStatus(request, doctorScope));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping
     public ResponseEntity<List<AppointmentDTO>> getUserAppointments() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        UUID userId = UUID.fromString(authentication.getName());
+        UUID userId = currentProfileId(authentication)
+                .orElseThrow(() -> new AccessDeniedException("No doctor or patient profile for the current user"));
         boolean isDoctor = authentication.getAuthorities().stream()
                 .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("ROLE_DOCTOR"));
         
@@ -115,7 +198,7 @@ public class AppointmentApiController {
     @GetMapping("/{id}")
     public ResponseEntity<AppointmentDTO> getAppointmentById(@PathVariable UUID id) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        UUID userId = UUID.fromString(authentication.getName());
+        UUID userId = currentProfileId(authentication).orElse(null);
         
         Optional<AppointmentDTO> appointmentOpt = appointmentService.getAppointmentById(id);
         if (appointmentOpt.isEmpty()) {
@@ -125,8 +208,8 @@ public class AppointmentApiController {
         AppointmentDTO appointment = appointmentOpt.get();
         
         // Verify the user is authorized to view this appointment
-        boolean isAuthorized = appointment.getPatientId().equals(userId) || 
-                             (appointment.getDoctorId() != null && appointment.getDoctorId().equals(userId));
+        boolean isAuthorized = userId != null &&
+                (userId.equals(appointment.getPatientId()) || userId.equals(appointment.getDoctorId()));
         
         if (!isAuthorized) {
             throw new AccessDeniedException("Not authorized to view this appointment");
@@ -139,7 +222,7 @@ public class AppointmentApiController {
     public ResponseEntity<List<AppointmentDTO>> getAppointmentsByDoctorId(@PathVariable UUID doctorId) {
         // Verify the doctor is authorized to view these appointments
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        UUID userId = UUID.fromString(authentication.getName());
+        UUID userId = currentProfileId(authentication).orElse(null);
         
         if (!doctorId.equals(userId) && !isAdmin(authentication)) {
             throw new AccessDeniedException("Not authorized to view these appointments");
@@ -153,7 +236,7 @@ public class AppointmentApiController {
     public ResponseEntity<List<AppointmentDTO>> getAppointmentsByPatientId(@PathVariable UUID patientId) {
         // Verify the patient is authorized to view their own appointments
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        UUID userId = UUID.fromString(authentication.getName());
+        UUID userId = currentProfileId(authentication).orElse(null);
         
         if (!patientId.equals(userId) && !isAdmin(authentication)) {
             throw new AccessDeniedException("Not authorized to view these appointments");
@@ -183,7 +266,7 @@ public class AppointmentApiController {
                 
         // Verify the doctor is authorized to view these appointments
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        UUID userId = UUID.fromString(authentication.getName());
+        UUID userId = currentProfileId(authentication).orElse(null);
         
         if (!doctorId.equals(userId) && !isAdmin(authentication)) {
             throw new AccessDeniedException("Not authorized to view these appointments");
@@ -201,7 +284,7 @@ public class AppointmentApiController {
                 
         // Verify the patient is authorized to view their own appointments
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        UUID userId = UUID.fromString(authentication.getName());
+        UUID userId = currentProfileId(authentication).orElse(null);
         
         if (!patientId.equals(userId) && !isAdmin(authentication)) {
             throw new AccessDeniedException("Not authorized to view these appointments");
@@ -216,7 +299,7 @@ public class AppointmentApiController {
         try {
             // Verify the user is authorized to delete this appointment
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            UUID userId = UUID.fromString(authentication.getName());
+            UUID userId = currentProfileId(authentication).orElse(null);
             
             Optional<AppointmentDTO> appointmentOpt = appointmentService.getAppointmentById(id);
             if (appointmentOpt.isEmpty()) {
@@ -224,9 +307,9 @@ public class AppointmentApiController {
             }
             
             AppointmentDTO appointment = appointmentOpt.get();
-            boolean isAuthorized = appointment.getPatientId().equals(userId) || 
-                                 (appointment.getDoctorId() != null && appointment.getDoctorId().equals(userId)) ||
-                                 isAdmin(authentication);
+            boolean isAuthorized = userId != null &&
+                    (userId.equals(appointment.getPatientId()) || userId.equals(appointment.getDoctorId())) ||
+                    isAdmin(authentication);
             
             if (!isAuthorized) {
                 throw new AccessDeniedException("Not authorized to delete this appointment");
@@ -240,8 +323,35 @@ public class AppointmentApiController {
         }
     }
     
+    /**
+     * The doctor or patient the caller acts as. Authentication names are emails, so the id is
+     * looked up from the caller's profile rather than parsed from the name.
+     */
+    private Optional<UUID> currentProfileId(Authentication authentication) {
+        return isDoctor(authentication)
+                ? appointmentChangeService.findDoctorIdByEmail(authentication.getName())
+                : appointmentChangeService.findPatientIdByEmail(authentication.getName());
+    }
+    
     private boolean isAdmin(Authentication authentication) {
         return authentication.getAuthorities().stream()
                 .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("ROLE_ADMIN"));
     }
+    
+    private boolean isDoctor(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("ROLE_DOCTOR"));
+    }
+    
+    private boolean isReceptionist(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("ROLE_RECEPTIONIST"));
+    }
+    
+    private boolean isStaff(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("ROLE_ADMIN")
+                        || grantedAuthority.getAuthority().equals("ROLE_DOCTOR")
+                        || grantedAuthority.getAuthority().equals("ROLE_RECEPTIONIST"));
+    }
 }
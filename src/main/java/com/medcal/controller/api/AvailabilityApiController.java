@@ -0,0 +1,41 @@
+package com.medcal.controller.api;
+
+import com.medcal.model.dto.NextAvailableSlot;
+import com.medcal.service.NextAvailableService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/availability")
+@RequiredArgsConstructor
+public class AvailabilityApiController {
+
+    private final NextAvailableService nextAvailableService;
+
+    /**
+     * Earliest free slots of the given duration with any doctor of the specialty (or any
+     * doctor when omitted), starting at {@code after} (now by default).
+     */
+    @GetMapping("/next")
+    public ResponseEntity<?> getNextAvailable(
+            @RequestParam(required = false) String specialty,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after,
+            @RequestParam(defaultValue = "30") int duration,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            List<NextAvailableSlot> slots = nextAvailableService.findNextAvailable(
+                    specialty, after != null ? after : LocalDateTime.now(), duration, limit);
+            return ResponseEntity.ok(slots);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.medcal.controller.api;
+
+import com.medcal.calendar.CalendarTokens;
+import com.medcal.calendar.DoctorCalendar;
+import com.medcal.model.dto.CalendarFeedLink;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/doctors")
+@RequiredArgsConstructor
+public class CalendarApiController {
+
+    static final MediaType TEXT_CALENDAR = MediaType.parseMediaType("text/calendar;charset=UTF-8");
+
+    private final DoctorCalendar doctorCalendar;
+    private final CalendarTokens calendarTokens;
+
+    /**
+     * The doctor's schedule as iCalendar, for calendar apps. Authenticated by the
+     * {@code token} of the feed link instead of a JWT. {@code If-None-Match} and
+     * {@code If-Modified-Since} are checked before anything is loaded.
+     */
+    @GetMapping("/{id}/calendar.ics")
+    public ResponseEntity<byte[]> getCalendar(@PathVariable UUID id,
+                                              @RequestParam(required = false) String token,
+                                              WebRequest webRequest) {
+        if (!calendarTokens.verify(id, token)) {
+            // Ruta permitAll: sin autenticación, AccessDeniedException acabaría en el entry point
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        DoctorCalendar.Validator validator = doctorCalendar.validator(id);
+        if (webRequest.checkNotModified(validator.etag(), validator.lastModified().toEpochMilli())) {
+            // 304 ya preparado, con ETag y Last-Modified
+            return null;
+        }
+        return doctorCalendar.render(id, validator)
+                .map(body -> ResponseEntity.ok()
+                        .contentType(TEXT_CALENDAR)
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .eTag(validator.etag())
+                        .lastModified(validator.lastModified())
+                        .body(body))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /** The subscription link of a doctor's feed, for that doctor or an admin. */
+    @GetMapping("/{id}/calendar-link")
+    public ResponseEntity<CalendarFeedLink> getCalendarLink(@PathVariable UUID id) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!isAdmin(authentication)) {
+            Optional<UUID> ownDoctorId = doctorCalendar.findDoctorIdByEmail(authentication.getName());
+            if (ownDoctorId.isEmpty() || !ownDoctorId.get().equals(id)) {
+                throw new AccessDeniedException("Not authorized to access this doctor's calendar");
+            }
+        }
+        String url = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/doctors/{id}/calendar.ics")
+                .queryParam("token", calendarTokens.issue(id))
+                .buildAndExpand(id)
+                .toUriString();
+        return ResponseEntity.ok(CalendarFeedLink.builder().doctorId(id).url(url).build());
+    }
+
+    private boolean isAdmin(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("ROLE_ADMIN"));
+    }
+}
@@ -0,0 +1,47 @@
+package com.medcal.controller.api;
+
+import com.medcal.model.dto.BatchScheduleRequest;
+import com.medcal.model.dto.BatchScheduleResult;
+import com.medcal.service.BatchSchedulingService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/scheduling")
+@RequiredArgsConstructor
+public class SchedulingApiController {
+
+    private final BatchSchedulingService batchSchedulingService;
+
+    /**
+     * Places a batch of pending appointments. Returns the proposal; with {@code apply} the
+     * placed appointments are also moved and scheduled. Admins and receptionists only.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> scheduleBatch(@Valid @RequestBody BatchScheduleRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!isScheduler(authentication)) {
+            throw new AccessDeniedException("Not authorized to schedule appointments in batch");
+        }
+        try {
+            BatchScheduleResult result = batchSchedulingService.schedule(request);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private boolean isScheduler(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("ROLE_ADMIN")
+                        || grantedAuthority.getAuthority().equals("ROLE_RECEPTIONIST"));
+    }
+}
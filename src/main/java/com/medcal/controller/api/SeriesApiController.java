@@ -0,0 +1,110 @@
+package com.medcal.controller.api;
+
+import com.medcal.model.dto.SeriesOccurrence;
+import com.medcal.model.dto.SeriesRequest;
+import com.medcal.model.entity.Appointment;
+import com.medcal.model.entity.AppointmentSeries;
+import com.medcal.security.CustomUserDetails;
+import com.medcal.service.AppointmentSeriesService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/series")
+@RequiredArgsConstructor
+public class SeriesApiController {
+
+    private final AppointmentSeriesService seriesService;
+
+    /** Creates a recurring series. Staff only; rejected with 409 if any occurrence conflicts. */
+    @PostMapping
+    public ResponseEntity<?> createSeries(@Valid @RequestBody SeriesRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!isStaff(authentication) || !(authentication.getPrincipal() instanceof CustomUserDetails userDetails)) {
+            throw new AccessDeniedException("Not authorized to create appointment series");
+        }
+        try {
+            AppointmentSeries series = seriesService.createSeries(request, userDetails.getUser().getId());
+            return new ResponseEntity<>(series, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /** Occurrences in a window, expanded on demand. Staff or the series' patient. */
+    @GetMapping("/{seriesId}/occurrences")
+    public ResponseEntity<?> getOccurrences(
+            @PathVariable UUID seriesId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        AppointmentSeries series = seriesService.findById(seriesId).orElse(null);
+        if (series == null) {
+            return ResponseEntity.notFound().build();
+        }
+        checkCanView(series);
+        try {
+            List<SeriesOccurrence> occurrences = seriesService.getOccurrences(seriesId, from, to);
+            return ResponseEntity.ok(occurrences);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /** Materialises one occurrence as an appointment so it can be changed on its own. Staff only. */
+    @PostMapping("/{seriesId}/occurrences")
+    public ResponseEntity<?> materializeOccurrence(
+            @PathVariable UUID seriesId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start) {
+        if (!isStaff(SecurityContextHolder.getContext().getAuthentication())) {
+            throw new AccessDeniedException("Not authorized to change appointment series");
+        }
+        try {
+            Appointment appointment = seriesService.materializeOccurrence(seriesId, start);
+            return ResponseEntity.ok(appointment);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /** Ends the series and cancels its future occurrences. Staff only. */
+    @DeleteMapping("/{seriesId}")
+    public ResponseEntity<AppointmentSeries> endSeries(@PathVariable UUID seriesId) {
+        if (!isStaff(SecurityContextHolder.getContext().getAuthentication())) {
+            throw new AccessDeniedException("Not authorized to change appointment series");
+        }
+        return seriesService.endSeries(seriesId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private void checkCanView(AppointmentSeries series) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (isStaff(authentication)) {
+            return;
+        }
+        boolean ownSeries = seriesService.findPatientIdByEmail(authentication.getName())
+                .map(patientId -> patientId.equals(series.getPatientId()))
+                .orElse(false);
+        if (!ownSeries) {
+            throw new AccessDeniedException("Not authorized to view this series");
+        }
+    }
+
+    private boolean isStaff(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("ROLE_ADMIN")
+                        || grantedAuthority.getAuthority().equals("ROLE_DOCTOR")
+                        || grantedAuthority.getAuthority().equals("ROLE_RECEPTIONIST"));
+    }
+}
@@ -0,0 +1,76 @@
+package com.medcal.controller.api;
+
+import com.medcal.model.dto.WaitlistRequest;
+import com.medcal.model.entity.WaitlistEntry;
+import com.medcal.service.WaitlistService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/waitlist")
+@RequiredArgsConstructor
+public class WaitlistApiController {
+
+    private final WaitlistService waitlistService;
+
+    /**
+     * Joins the waitlist. Patients join for themselves with normal priority; admins and
+     * receptionists may add any patient and set the priority.
+     */
+    @PostMapping
+    public ResponseEntity<?> join(@Valid @RequestBody WaitlistRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!isFrontDesk(authentication)) {
+            request.setPatientId(currentPatientId(authentication));
+            request.setPriority(0);
+        }
+        try {
+            WaitlistEntry entry = waitlistService.join(request);
+            return new ResponseEntity<>(entry, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<WaitlistEntry>> list(@RequestParam(required = false) UUID patientId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UUID owner = isFrontDesk(authentication) && patientId != null ? patientId : currentPatientId(authentication);
+        return ResponseEntity.ok(waitlistService.findByPatientId(owner));
+    }
+
+    @DeleteMapping("/{entryId}")
+    public ResponseEntity<WaitlistEntry> withdraw(@PathVariable UUID entryId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        WaitlistEntry entry = waitlistService.findById(entryId).orElse(null);
+        if (entry == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!isFrontDesk(authentication) && !entry.getPatientId().equals(currentPatientId(authentication))) {
+            throw new AccessDeniedException("Not authorized to withdraw this waitlist entry");
+        }
+        return waitlistService.withdraw(entryId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private UUID currentPatientId(Authentication authentication) {
+        return waitlistService.findPatientIdByEmail(authentication.getName())
+                .orElseThrow(() -> new AccessDeniedException("No patient profile for the current user"));
+    }
+
+    private boolean isFrontDesk(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("ROLE_ADMIN")
+                        || grantedAuthority.getAuthority().equals("ROLE_RECEPTIONIST"));
+    }
+}
@@ -0,0 +1,53 @@
+package com.medcal.event;
+
+import com.medcal.model.enums.AppointmentChangeType;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published by {@code AppointmentService} for every appointment write. {@code before} is
+ * null for {@link AppointmentChangeType#CREATED} and {@code after} is null for
+ * {@link AppointmentChangeType#DELETED}.
+ * <p>
+ * Listeners that must only see committed data use
+ * {@code @TransactionalEventListener(phase = AFTER_COMMIT, fallbackExecution = true)}.
+ */
+public record AppointmentChangedEvent(AppointmentChangeType type,
+                                      AppointmentSnapshot before,
+                                      AppointmentSnapshot after,
+                                      Instant occurredAt) {
+
+    public static AppointmentChangedEvent created(AppointmentSnapshot after) {
+        return new AppointmentChangedEvent(AppointmentChangeType.CREATED, null, after, Instant.now());
+    }
+
+    public static AppointmentChangedEvent changed(AppointmentChangeType type, AppointmentSnapshot before,
+                                                  AppointmentSnapshot after) {
+        return new AppointmentChangedEvent(type, before, after, Instant.now());
+    }
+
+    public static AppointmentChangedEvent deleted(AppointmentSnapshot before) {
+        return new AppointmentChangedEvent(AppointmentChangeType.DELETED, before, null, Instant.now());
+    }
+
+    /** The latest known state: {@code after}, or {@code before} for deletions. */
+    public AppointmentSnapshot current() {
+        return after != null ? after : before;
+    }
+
+    public UUID appointmentId() {
+        return current().id();
+    }
+
+    /** True if the appointment belonged to the doctor before or after the change. */
+    public boolean concernsDoctor(UUID doctorId) {
+        return (before != null && doctorId.equals(before.doctorId()))
+                || (after != null && doctorId.equals(after.doctorId()));
+    }
+
+    public boolean concernsPatient(UUID patientId) {
+        return (before != null && patientId.equals(before.patientId()))
+                || (after != null && patientId.equals(after.patientId()));
+    }
+}
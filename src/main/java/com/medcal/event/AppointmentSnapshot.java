@@ -0,0 +1,36 @@
+package com.medcal.event;
+
+import com.medcal.model.entity.Appointment;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Immutable copy of the scheduling fields of an {@link Appointment}, taken inside the
+ * transaction so listeners running after commit never touch a managed entity.
+ */
+public record AppointmentSnapshot(UUID id,
+                                  UUID doctorId,
+                                  UUID patientId,
+                                  LocalDateTime startTime,
+                                  LocalDateTime endTime,
+                                  AppointmentType type,
+                                  AppointmentStatus status) {
+
+    public static AppointmentSnapshot of(Appointment appointment) {
+        return new AppointmentSnapshot(
+                appointment.getId(),
+                appointment.getDoctorId(),
+                appointment.getPatientId(),
+                appointment.getStartTime(),
+                appointment.getEndTime(),
+                appointment.getType(),
+                appointment.getStatus());
+    }
+
+    public AppointmentSnapshot withStatus(AppointmentStatus newStatus) {
+        return new AppointmentSnapshot(id, doctorId, patientId, startTime, endTime, type, newStatus);
+    }
+}
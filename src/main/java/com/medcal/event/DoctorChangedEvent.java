@@ -0,0 +1,17 @@
+package com.medcal.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published by {@code DoctorService} when a doctor is updated or deleted, so that caches
+ * built from the doctor's data (e.g. slots generated from the working hours) drop it. As
+ * with {@link AppointmentChangedEvent}, listeners use
+ * {@code @TransactionalEventListener(phase = AFTER_COMMIT, fallbackExecution = true)}.
+ */
+public record DoctorChangedEvent(UUID doctorId, Instant occurredAt) {
+
+    public static DoctorChangedEvent of(UUID doctorId) {
+        return new DoctorChangedEvent(doctorId, Instant.now());
+    }
+}
@@ -0,0 +1,43 @@
+package com.medcal.idempotency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Set;
+
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "medcal.idempotency.store", havingValue = "memory", matchIfMissing = true)
+    public IdempotencyStore inMemoryIdempotencyStore(@Value("${medcal.idempotency.max-entries:10000}") int maxEntries) {
+        return new InMemoryIdempotencyStore(maxEntries, Clock.systemUTC());
+    }
+
+    /** Shared store for multi-node deployments; requires the idempotency_keys table. */
+    @Bean
+    @ConditionalOnProperty(name = "medcal.idempotency.store", havingValue = "jdbc")
+    public IdempotencyStore jdbcIdempotencyStore(JdbcTemplate jdbcTemplate) {
+        return new JdbcIdempotencyStore(jdbcTemplate, Clock.systemUTC());
+    }
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(
+            IdempotencyStore store,
+            IdempotencyMetrics idempotencyMetrics,
+            @Value("${medcal.idempotency.paths:/api/appointments,/api/appointments/status:bulk}") Set<String> paths,
+            @Value("${medcal.idempotency.ttl-hours:24}") long ttlHours) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(
+                new IdempotencyFilter(store, idempotencyMetrics, paths, Duration.ofHours(ttlHours), Clock.systemUTC()));
+        // Después de Spring Security: las claves se asocian al usuario autenticado
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,210 @@
+package com.medcal.idempotency;
+
+import com.medcal.idempotency.IdempotencyMetrics.Outcome;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Honours the {@code Idempotency-Key} header on the configured POST endpoints.
+ * <p>
+ * The first request with a key runs normally and its response is stored; a retry with the
+ * same key, caller and body gets the stored response back without touching the service
+ * layer. A retry while the first attempt is still running gets 409, and reusing a key
+ * with a different body gets 422. Server errors are not stored, so the client can retry.
+ * Keys are scoped to the authenticated user and the endpoint, so runs after Spring Security.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final IdempotencyMetrics idempotencyMetrics;
+    private final Set<String> paths;
+    private final Duration ttl;
+    private final Clock clock;
+
+    public IdempotencyFilter(IdempotencyStore store, IdempotencyMetrics idempotencyMetrics, Set<String> paths,
+                             Duration ttl, Clock clock) {
+        this.store = store;
+        this.idempotencyMetrics = idempotencyMetrics;
+        this.paths = paths;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(HEADER) == null
+                || !paths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain chain) throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(HEADER).trim();
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Idempotency-Key debe tener entre 1 y " + MAX_KEY_LENGTH + " caracteres");
+            return;
+        }
+
+        byte[] body = request.getInputStream().readAllBytes();
+        String key = sha256((caller() + '|' + request.getMethod() + ' ' + request.getRequestURI() + '|' + idempotencyKey)
+                .getBytes(StandardCharsets.UTF_8));
+        String requestHash = sha256(body);
+
+        IdempotencyRecord inProgress = IdempotencyRecord.inProgress(requestHash, clock.instant().plus(ttl));
+        if (!store.tryBegin(key, inProgress)) {
+            Optional<IdempotencyRecord> existing = store.find(key);
+            if (existing.isPresent()) {
+                respondToDuplicate(existing.get(), requestHash, response);
+                return;
+            }
+            // La clave caducó entre ambas operaciones: se vuelve a intentar una vez
+            if (!store.tryBegin(key, inProgress)) {
+                idempotencyMetrics.recordRequest(Outcome.IN_PROGRESS);
+                writeError(response, HttpStatus.CONFLICT, "Hay una petición en curso con la misma Idempotency-Key");
+                return;
+            }
+        }
+
+        idempotencyMetrics.recordRequest(Outcome.FIRST);
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            chain.doFilter(new CachedBodyRequest(request, body), responseWrapper);
+            int status = responseWrapper.getStatus();
+            if (status < 500) {
+                store.complete(key, new IdempotencyRecord(requestHash, status, responseWrapper.getContentType(),
+                        responseWrapper.getContentAsByteArray(), clock.instant().plus(ttl)));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                store.abandon(key);
+            }
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    private void respondToDuplicate(IdempotencyRecord existing, String requestHash, HttpServletResponse response)
+            throws IOException {
+        if (!existing.requestHash().equals(requestHash)) {
+            idempotencyMetrics.recordRequest(Outcome.MISMATCH);
+            writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "La Idempotency-Key ya se usó con un cuerpo de petición distinto");
+            return;
+        }
+        if (!existing.completed()) {
+            idempotencyMetrics.recordRequest(Outcome.IN_PROGRESS);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            writeError(response, HttpStatus.CONFLICT, "Hay una petición en curso con la misma Idempotency-Key");
+            return;
+        }
+        idempotencyMetrics.recordRequest(Outcome.REPLAYED);
+        response.setStatus(existing.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (existing.contentType() != null) {
+            response.setContentType(existing.contentType());
+        }
+        response.setContentLength(existing.body().length);
+        response.getOutputStream().write(existing.body());
+    }
+
+    private static String caller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    private static void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+
+    static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Lets the controller read the body that was already consumed for hashing. */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+    }
+}
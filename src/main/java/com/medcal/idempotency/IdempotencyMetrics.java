@@ -0,0 +1,32 @@
+package com.medcal.idempotency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/** Meters for {@link IdempotencyFilter}: requests carrying an Idempotency-Key, by outcome. */
+@Component
+public class IdempotencyMetrics {
+
+    public enum Outcome {
+        FIRST, REPLAYED, IN_PROGRESS, MISMATCH
+    }
+
+    private final Map<Outcome, Counter> requests = new EnumMap<>(Outcome.class);
+
+    public IdempotencyMetrics(MeterRegistry registry) {
+        for (Outcome outcome : Outcome.values()) {
+            requests.put(outcome, Counter.builder("medcal.idempotency.requests")
+                    .description("Requests carrying an Idempotency-Key")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(registry));
+        }
+    }
+
+    public void recordRequest(Outcome outcome) {
+        requests.get(outcome).increment();
+    }
+}
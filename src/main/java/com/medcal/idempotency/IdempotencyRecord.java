@@ -0,0 +1,26 @@
+package com.medcal.idempotency;
+
+import java.time.Instant;
+
+/**
+ * What is kept per idempotency key: the hash of the request that claimed it and, once it
+ * has finished, the response to replay. {@code status == 0} means still in progress.
+ */
+public record IdempotencyRecord(String requestHash,
+                                int status,
+                                String contentType,
+                                byte[] body,
+                                Instant expiresAt) {
+
+    public static IdempotencyRecord inProgress(String requestHash, Instant expiresAt) {
+        return new IdempotencyRecord(requestHash, 0, null, null, expiresAt);
+    }
+
+    public boolean completed() {
+        return status != 0;
+    }
+
+    public boolean expired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,22 @@
+package com.medcal.idempotency;
+
+import java.util.Optional;
+
+/**
+ * Storage for idempotency keys. {@link #tryBegin} must be atomic: of two concurrent
+ * requests with the same key exactly one may claim it.
+ */
+public interface IdempotencyStore {
+
+    /** The unexpired record for the key, if any. */
+    Optional<IdempotencyRecord> find(String key);
+
+    /** Claims the key for a new request; false if it is already claimed or completed. */
+    boolean tryBegin(String key, IdempotencyRecord inProgress);
+
+    /** Stores the finished response for a claimed key. */
+    void complete(String key, IdempotencyRecord response);
+
+    /** Releases a claimed key so the client can retry, e.g. after a server error. */
+    void abandon(String key);
+}
@@ -0,0 +1,60 @@
+package com.medcal.idempotency;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Single-node store: an insertion-ordered map capped at {@code maxEntries}, dropping the
+ * oldest keys first. Expired entries are removed lazily on lookup and by the cap, so the
+ * footprint stays bounded without a sweeper thread.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Map<String, IdempotencyRecord> records;
+    private final Clock clock;
+
+    public InMemoryIdempotencyStore(int maxEntries, Clock clock) {
+        this.clock = clock;
+        this.records = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public synchronized Optional<IdempotencyRecord> find(String key) {
+        IdempotencyRecord record = records.get(key);
+        if (record != null && record.expired(clock.instant())) {
+            records.remove(key);
+            return Optional.empty();
+        }
+        return Optional.ofNullable(record);
+    }
+
+    @Override
+    public synchronized boolean tryBegin(String key, IdempotencyRecord inProgress) {
+        if (find(key).isPresent()) {
+            return false;
+        }
+        records.put(key, inProgress);
+        return true;
+    }
+
+    @Override
+    public synchronized void complete(String key, IdempotencyRecord response) {
+        records.put(key, response);
+    }
+
+    @Override
+    public synchronized void abandon(String key) {
+        records.remove(key);
+    }
+
+    synchronized int size() {
+        return records.size();
+    }
+}
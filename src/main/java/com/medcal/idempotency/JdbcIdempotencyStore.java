@@ -0,0 +1,75 @@
+package com.medcal.idempotency;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Shared store for multi-node deployments, backed by the {@code idempotency_keys} table.
+ * The primary key makes {@link #tryBegin} atomic across nodes.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+
+    @Override
+    public Optional<IdempotencyRecord> find(String key) {
+        List<IdempotencyRecord> records = jdbcTemplate.query(
+                "SELECT request_hash, status, content_type, body, expires_at FROM idempotency_keys " +
+                "WHERE key_hash = ? AND expires_at > ?",
+                (rs, rowNum) -> new IdempotencyRecord(
+                        rs.getString("request_hash"),
+                        rs.getInt("status"),
+                        rs.getString("content_type"),
+                        rs.getBytes("body"),
+                        rs.getTimestamp("expires_at").toInstant()),
+                key, Timestamp.from(clock.instant()));
+        return records.stream().findFirst();
+    }
+
+    @Override
+    public boolean tryBegin(String key, IdempotencyRecord inProgress) {
+        // Una clave caducada que aún no se purgó no debe bloquear la nueva petición
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE key_hash = ? AND expires_at <= ?",
+                key, Timestamp.from(clock.instant()));
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO idempotency_keys (key_hash, request_hash, status, expires_at) VALUES (?, ?, 0, ?)",
+                    key, inProgress.requestHash(), Timestamp.from(inProgress.expiresAt()));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void complete(String key, IdempotencyRecord response) {
+        jdbcTemplate.update(
+                "UPDATE idempotency_keys SET status = ?, content_type = ?, body = ?, expires_at = ? WHERE key_hash = ?",
+                response.status(), response.contentType(), response.body(), Timestamp.from(response.expiresAt()), key);
+    }
+
+    @Override
+    public void abandon(String key) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE key_hash = ?", key);
+    }
+
+    @Scheduled(fixedDelayString = "${medcal.idempotency.purge-ms:600000}")
+    public void purgeExpired() {
+        int purged = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at <= ?",
+                Timestamp.from(clock.instant()));
+        if (purged > 0) {
+            log.debug("Purgadas {} claves de idempotencia caducadas", purged);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.medcal.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate hook called once per prepared statement; feeds the per-request tracker and
+ * leaves the SQL untouched.
+ */
+@RequiredArgsConstructor
+public class CountingStatementInspector implements StatementInspector {
+
+    private final SqlStatementTracker tracker;
+
+    @Override
+    public String inspect(String sql) {
+        tracker.record(sql);
+        return sql;
+    }
+}
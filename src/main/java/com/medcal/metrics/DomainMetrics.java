@@ -0,0 +1,130 @@
+package com.medcal.metrics;
+
+import com.medcal.exception.ConflictException;
+import com.medcal.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Domain-specific meters for the booking, availability and authentication hot paths.
+ * <p>
+ * Timers are registered up front for every tag combination, so recording on a hot path
+ * is a map lookup and an atomic update. Every timer also exposes a count, which is what
+ * the outcome tags are meant to be compared on (e.g. conflicts vs. bookings).
+ * <p>
+ * Other features keep their meters in a holder next to their code, such as
+ * {@link SqlMetrics} or {@code ReminderMetrics}.
+ */
+@Component
+public class DomainMetrics {
+
+    public enum BookingOperation {
+        SCHEDULE, CREATE
+    }
+
+    public enum BookingOutcome {
+        BOOKED, CONFLICT, VALIDATION_ERROR, ERROR;
+
+        /** Maps an exception thrown by a booking path to its outcome tag. */
+        public static BookingOutcome of(RuntimeException e) {
+            if (e instanceof ConflictException) {
+                return CONFLICT;
+            }
+            if (e instanceof IllegalArgumentException || e instanceof ResourceNotFoundException) {
+                return VALIDATION_ERROR;
+            }
+            return ERROR;
+        }
+    }
+
+    public enum AvailabilityOperation {
+        AVAILABLE_SLOTS, AVAILABLE_DOCTORS
+    }
+
+    public enum JwtOutcome {
+        VALID, REJECTED, MALFORMED
+    }
+
+    private final MeterRegistry registry;
+    private final Map<BookingOperation, Map<BookingOutcome, Timer>> bookingTimers = new EnumMap<>(BookingOperation.class);
+    private final Map<AvailabilityOperation, Timer> availabilityTimers = new EnumMap<>(AvailabilityOperation.class);
+    private final Map<JwtOutcome, Timer> jwtTimers = new EnumMap<>(JwtOutcome.class);
+    private final Timer conflictFound;
+    private final Timer conflictFree;
+    private final Timer userFound;
+    private final Timer userNotFound;
+
+    public DomainMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (BookingOperation operation : BookingOperation.values()) {
+            Map<BookingOutcome, Timer> byOutcome = new EnumMap<>(BookingOutcome.class);
+            for (BookingOutcome outcome : BookingOutcome.values()) {
+                byOutcome.put(outcome, Timer.builder("medcal.appointment.booking")
+                        .description("Appointment booking attempts")
+                        .tag("operation", tag(operation))
+                        .tag("outcome", tag(outcome))
+                        .register(registry));
+            }
+            bookingTimers.put(operation, byOutcome);
+        }
+        for (AvailabilityOperation operation : AvailabilityOperation.values()) {
+            availabilityTimers.put(operation, Timer.builder("medcal.doctor.availability")
+                    .description("Doctor availability computations")
+                    .tag("operation", tag(operation))
+                    .register(registry));
+        }
+        for (JwtOutcome outcome : JwtOutcome.values()) {
+            jwtTimers.put(outcome, Timer.builder("medcal.auth.jwt.validation")
+                    .description("JWT authentication per API request, including the user lookup")
+                    .tag("outcome", tag(outcome))
+                    .register(registry));
+        }
+        conflictFound = conflictTimer("conflict");
+        conflictFree = conflictTimer("free");
+        userFound = userLookupTimer("found");
+        userNotFound = userLookupTimer("not_found");
+    }
+
+    public void recordBooking(BookingOperation operation, BookingOutcome outcome, long nanos) {
+        bookingTimers.get(operation).get(outcome).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordConflictCheck(boolean conflict, long nanos) {
+        (conflict ? conflictFound : conflictFree).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordAvailability(AvailabilityOperation operation, long nanos) {
+        availabilityTimers.get(operation).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordUserLookup(boolean found, long nanos) {
+        (found ? userFound : userNotFound).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordJwtValidation(JwtOutcome outcome, long nanos) {
+        jwtTimers.get(outcome).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer conflictTimer(String result) {
+        return Timer.builder("medcal.appointment.conflict.check")
+                .description("Doctor schedule overlap checks")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private Timer userLookupTimer(String outcome) {
+        return Timer.builder("medcal.auth.user.lookup")
+                .description("UserDetailsService lookups by email")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static String tag(Enum<?> value) {
+        return value.name().toLowerCase();
+    }
+}
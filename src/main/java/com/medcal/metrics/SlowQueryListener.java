@@ -0,0 +1,33 @@
+package com.medcal.metrics;
+
+import lombok.RequiredArgsConstructor;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * datasource-proxy listener that reports every executed statement with its wall time.
+ * The diagnostics bean is looked up lazily because the data source is proxied before the
+ * rest of the context exists.
+ */
+@RequiredArgsConstructor
+public class SlowQueryListener implements QueryExecutionListener {
+
+    private final Supplier<SqlDiagnostics> diagnostics;
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        SqlDiagnostics sqlDiagnostics = diagnostics.get();
+        for (QueryInfo queryInfo : queryInfoList) {
+            // En un batch el tiempo es el del lote completo
+            sqlDiagnostics.recordExecution(queryInfo.getQuery(), execInfo.getElapsedTime());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.medcal.metrics;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+/**
+ * Adds a bucketed {@code sql.statements} tag to {@code http.server.requests}, so latency
+ * can be broken down by how much database work a request did without the cardinality of
+ * the raw count.
+ */
+public class SqlAwareServerRequestObservationConvention extends DefaultServerRequestObservationConvention {
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context)
+                .and(KeyValue.of("sql.statements", bucket(context.getCarrier().getAttribute(
+                        SqlStatementMetricsFilter.STATEMENT_COUNT_ATTRIBUTE))));
+    }
+
+    static String bucket(Object statements) {
+        if (!(statements instanceof Integer count)) {
+            return "unknown";
+        }
+        if (count == 0) {
+            return "0";
+        }
+        if (count <= 5) {
+            return "1-5";
+        }
+        if (count <= 20) {
+            return "6-20";
+        }
+        if (count <= 50) {
+            return "21-50";
+        }
+        return "51+";
+    }
+}
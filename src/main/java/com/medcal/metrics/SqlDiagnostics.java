@@ -0,0 +1,182 @@
+package com.medcal.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates SQL activity for diagnosis: per-route statement counts with alarms for
+ * requests over the statement threshold or repeating one statement shape (the usual
+ * N+1 signature), and per-fingerprint execution times with slow-query logging.
+ * <p>
+ * Only fingerprints are kept or logged, never bind values. Both maps are bounded: routes
+ * by the number of route templates, fingerprints by {@code medcal.sql.max-fingerprints}.
+ */
+@Slf4j
+@Component
+public class SqlDiagnostics {
+
+    static final String OTHER_FINGERPRINT = "<other>";
+    private static final int TOP_FINGERPRINTS = 20;
+
+    private final SqlMetrics sqlMetrics;
+    private final int requestStatementThreshold;
+    private final int repeatThreshold;
+    private final long slowQueryThresholdMs;
+    private final int maxFingerprints;
+
+    private final Map<String, RouteStats> routes = new ConcurrentHashMap<>();
+    private final Map<String, QueryStats> queries = new ConcurrentHashMap<>();
+    private final Map<String, String> fingerprintCache = new ConcurrentHashMap<>();
+
+    public SqlDiagnostics(SqlMetrics sqlMetrics,
+                          @Value("${medcal.sql.request-statement-threshold:30}") int requestStatementThreshold,
+                          @Value("${medcal.sql.repeat-threshold:5}") int repeatThreshold,
+                          @Value("${medcal.sql.slow-query-threshold-ms:250}") long slowQueryThresholdMs,
+                          @Value("${medcal.sql.max-fingerprints:500}") int maxFingerprints) {
+        this.sqlMetrics = sqlMetrics;
+        this.requestStatementThreshold = requestStatementThreshold;
+        this.repeatThreshold = repeatThreshold;
+        this.slowQueryThresholdMs = slowQueryThresholdMs;
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    /** Checks one finished request against the thresholds and folds it into the route totals. */
+    public void onRequestCompleted(String uri, String method, SqlStatementTracker.Scope scope) {
+        String route = method + " " + uri;
+        RouteStats stats = routes.computeIfAbsent(route, key -> new RouteStats());
+        stats.requests.increment();
+        stats.statements.add(scope.statements());
+        stats.maxStatements.accumulateAndGet(scope.statements(), Math::max);
+
+        if (scope.statements() > requestStatementThreshold) {
+            stats.tooManyStatements.increment();
+            sqlMetrics.recordAlarm(uri, method, SqlMetrics.Alarm.TOO_MANY_STATEMENTS);
+            log.warn("{} ejecutó {} sentencias SQL (umbral {})", route, scope.statements(), requestStatementThreshold);
+        }
+        scope.executions().forEach((sql, count) -> {
+            if (count > repeatThreshold) {
+                String fingerprint = fingerprint(sql);
+                stats.repeatedStatements.increment();
+                stats.lastRepeated = fingerprint;
+                sqlMetrics.recordAlarm(uri, method, SqlMetrics.Alarm.REPEATED_STATEMENT);
+                log.warn("Posible N+1 en {}: {} ejecuciones de [{}]", route, count, fingerprint);
+            }
+        });
+    }
+
+    /** Records one executed statement (or batch) and logs it when slower than the threshold. */
+    public void recordExecution(String sql, long elapsedMs) {
+        String fingerprint = fingerprint(sql);
+        QueryStats stats = queries.get(fingerprint);
+        if (stats == null) {
+            String key = queries.size() < maxFingerprints ? fingerprint : OTHER_FINGERPRINT;
+            stats = queries.computeIfAbsent(key, k -> new QueryStats());
+        }
+        stats.executions.increment();
+        stats.totalMs.add(elapsedMs);
+        stats.maxMs.accumulateAndGet(elapsedMs, Math::max);
+
+        if (elapsedMs >= slowQueryThresholdMs) {
+            stats.slow.increment();
+            sqlMetrics.recordSlowQuery();
+            log.warn("Consulta lenta ({} ms): {}", elapsedMs, fingerprint);
+        }
+    }
+
+    /** Thresholds, per-route totals and the most expensive fingerprints by total time. */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> thresholds = new LinkedHashMap<>();
+        thresholds.put("requestStatements", requestStatementThreshold);
+        thresholds.put("repeatedStatement", repeatThreshold);
+        thresholds.put("slowQueryMs", slowQueryThresholdMs);
+
+        Map<String, Object> routeSnapshot = new LinkedHashMap<>();
+        routes.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> routeSnapshot.put(entry.getKey(), entry.getValue().toMap()));
+
+        List<Map<String, Object>> top = queries.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, QueryStats> e) -> e.getValue().totalMs.sum()).reversed())
+                .limit(TOP_FINGERPRINTS)
+                .map(entry -> entry.getValue().toMap(entry.getKey()))
+                .toList();
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("thresholds", thresholds);
+        snapshot.put("routes", routeSnapshot);
+        snapshot.put("fingerprints", queries.size());
+        snapshot.put("topQueries", top);
+        return snapshot;
+    }
+
+    public void reset() {
+        routes.clear();
+        queries.clear();
+    }
+
+    private String fingerprint(String sql) {
+        String cached = fingerprintCache.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String fingerprint = SqlFingerprint.of(sql);
+        // Sólo se cachean las sentencias generadas por Hibernate (estables); el SQL con literales no entra
+        if (!SqlFingerprint.hasLiterals(sql) && fingerprintCache.size() < maxFingerprints) {
+            fingerprintCache.put(sql, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    int cachedFingerprints() {
+        return fingerprintCache.size();
+    }
+
+    private static final class RouteStats {
+        final LongAdder requests = new LongAdder();
+        final LongAdder statements = new LongAdder();
+        final AtomicLong maxStatements = new AtomicLong();
+        final LongAdder tooManyStatements = new LongAdder();
+        final LongAdder repeatedStatements = new LongAdder();
+        volatile String lastRepeated;
+
+        Map<String, Object> toMap() {
+            long count = requests.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("requests", count);
+            map.put("avgStatements", count == 0 ? 0.0 : (double) statements.sum() / count);
+            map.put("maxStatements", maxStatements.get());
+            map.put("tooManyStatements", tooManyStatements.sum());
+            map.put("repeatedStatements", repeatedStatements.sum());
+            if (lastRepeated != null) {
+                map.put("lastRepeated", lastRepeated);
+            }
+            return map;
+        }
+    }
+
+    private static final class QueryStats {
+        final LongAdder executions = new LongAdder();
+        final LongAdder totalMs = new LongAdder();
+        final AtomicLong maxMs = new AtomicLong();
+        final LongAdder slow = new LongAdder();
+
+        Map<String, Object> toMap(String fingerprint) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("sql", fingerprint);
+            map.put("executions", executions.sum());
+            map.put("totalMs", totalMs.sum());
+            map.put("maxMs", maxMs.get());
+            map.put("slow", slow.sum());
+            return map;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.medcal.metrics;
+
+import java.util.regex.Pattern;
+
+/**
+ * Reduces a SQL statement to its shape: comments, literals and IN-list lengths are
+ * removed so that statements differing only in their values share one fingerprint and
+ * nothing patient-identifying ends up in logs or metrics.
+ */
+public final class SqlFingerprint {
+
+    private static final Pattern BLOCK_COMMENT = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+    private static final Pattern LINE_COMMENT = Pattern.compile("--[^\\n]*");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SqlFingerprint() {
+    }
+
+    public static String of(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String shape = BLOCK_COMMENT.matcher(sql).replaceAll(" ");
+        shape = LINE_COMMENT.matcher(shape).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim().toLowerCase();
+    }
+
+    /**
+     * True if the statement embeds string or numeric literals. Statements built with bind
+     * parameters only, as Hibernate generates them, repeat verbatim; those with literals rarely do.
+     */
+    public static boolean hasLiterals(String sql) {
+        String code = LINE_COMMENT.matcher(BLOCK_COMMENT.matcher(sql).replaceAll(" ")).replaceAll(" ");
+        return STRING_LITERAL.matcher(code).find() || NUMBER_LITERAL.matcher(code).find();
+    }
+}
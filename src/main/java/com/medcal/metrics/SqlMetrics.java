@@ -0,0 +1,53 @@
+package com.medcal.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters for SQL activity: statements per HTTP request, {@link SqlDiagnostics} alarms and
+ * slow queries. Route templates are the only tags, so cardinality stays bounded.
+ */
+@Component
+public class SqlMetrics {
+
+    public enum Alarm {
+        TOO_MANY_STATEMENTS, REPEATED_STATEMENT
+    }
+
+    private final MeterRegistry registry;
+    private final Counter slowQueries;
+
+    public SqlMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.slowQueries = Counter.builder("medcal.sql.slow.queries")
+                .description("SQL executions slower than medcal.sql.slow-query-threshold-ms")
+                .register(registry);
+    }
+
+    /** SQL statements issued while serving one HTTP request, by route template. */
+    public void recordRequestStatements(String uri, String method, int statements) {
+        DistributionSummary.builder("medcal.http.sql.statements")
+                .description("SQL statements executed per HTTP request")
+                .tag("uri", uri)
+                .tag("method", method)
+                .register(registry)
+                .record(statements);
+    }
+
+    /** A request that crossed one of the SQL diagnostics thresholds, by route template. */
+    public void recordAlarm(String uri, String method, Alarm alarm) {
+        Counter.builder("medcal.sql.alarms")
+                .description("Requests over the statement threshold or repeating one statement shape")
+                .tag("uri", uri)
+                .tag("method", method)
+                .tag("alarm", alarm.name().toLowerCase())
+                .register(registry)
+                .increment();
+    }
+
+    public void recordSlowQuery() {
+        slowQueries.increment();
+    }
+}
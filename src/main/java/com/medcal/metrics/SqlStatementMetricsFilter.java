@@ -0,0 +1,44 @@
+package com.medcal.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Tracks the SQL statements issued while serving each request, including the ones run by
+ * the security filters, and records them per route. The count is also left on the request
+ * so the {@code http.server.requests} observation can tag it, and the request is checked
+ * against the {@link SqlDiagnostics} thresholds.
+ */
+@RequiredArgsConstructor
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENT_COUNT_ATTRIBUTE = SqlStatementMetricsFilter.class.getName() + ".statements";
+
+    private final SqlStatementTracker tracker;
+    private final SqlMetrics sqlMetrics;
+    private final SqlDiagnostics sqlDiagnostics;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain chain) throws ServletException, IOException {
+        tracker.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SqlStatementTracker.Scope scope = tracker.stop();
+            request.setAttribute(STATEMENT_COUNT_ATTRIBUTE, scope.statements());
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            sqlMetrics.recordRequestStatements(uri, request.getMethod(), scope.statements());
+            sqlDiagnostics.onRequestCompleted(uri, request.getMethod(), scope);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.medcal.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements prepared on the current thread between {@link #start()} and
+ * {@link #stop()}, and how often each distinct statement was prepared. Statements outside
+ * a tracked scope (schedulers, startup) are ignored.
+ */
+@Component
+public class SqlStatementTracker {
+
+    private final ThreadLocal<Scope> current = new ThreadLocal<>();
+
+    public void start() {
+        current.set(new Scope());
+    }
+
+    public void record(String sql) {
+        Scope scope = current.get();
+        if (scope != null) {
+            scope.statements++;
+            // Hibernate's generated SQL is already bind-parameter based, so the raw string is
+            // a stable key here; fingerprinting is deferred until something is reported.
+            scope.executions.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    /** Ends the current scope and returns what was recorded in it. */
+    public Scope stop() {
+        Scope scope = current.get();
+        current.remove();
+        return scope == null ? Scope.EMPTY : scope;
+    }
+
+    public static final class Scope {
+
+        static final Scope EMPTY = new Scope();
+
+        private int statements;
+        private final Map<String, Integer> executions = new HashMap<>();
+
+        public int statements() {
+            return statements;
+        }
+
+        /** Prepare count per distinct SQL string. */
+        public Map<String, Integer> executions() {
+            return Collections.unmodifiableMap(executions);
+        }
+    }
+}
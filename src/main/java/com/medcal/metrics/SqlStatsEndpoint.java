@@ -0,0 +1,31 @@
+package com.medcal.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/sqlstats}: per-route statement counts and alarms plus the most expensive
+ * query fingerprints. {@code DELETE} clears the aggregates, e.g. before a load test.
+ */
+@Component
+@Endpoint(id = "sqlstats")
+@RequiredArgsConstructor
+public class SqlStatsEndpoint {
+
+    private final SqlDiagnostics sqlDiagnostics;
+
+    @ReadOperation
+    public Map<String, Object> sqlStats() {
+        return sqlDiagnostics.snapshot();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        sqlDiagnostics.reset();
+    }
+}
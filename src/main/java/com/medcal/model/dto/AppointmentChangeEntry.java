@@ -0,0 +1,27 @@
+package com.medcal.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.medcal.model.enums.AppointmentChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Latest change of one appointment in a sync window. {@code deleted} means the client
+ * should drop the appointment: it was deleted or no longer belongs to the caller.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AppointmentChangeEntry {
+    private long seq;
+    private UUID appointmentId;
+    private AppointmentChangeType change;
+    private boolean deleted;
+    private AppointmentDTO appointment;
+}
@@ -0,0 +1,25 @@
+package com.medcal.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response of {@code GET /api/appointments/changes}. Clients store {@code nextSince} and
+ * send it back on the next sync; when {@code resync} is true the requested position has
+ * been purged and the client must reload its full list first.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentChangeFeed {
+    private long since;
+    private long nextSince;
+    private boolean hasMore;
+    private boolean resync;
+    private List<AppointmentChangeEntry> changes;
+}
@@ -0,0 +1,70 @@
+package com.medcal.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.event.AppointmentSnapshot;
+import com.medcal.model.enums.AppointmentChangeType;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Compact description of one appointment change as pushed to calendars: identifiers, times
+ * and status only. Names are resolved client-side from the lists the page already holds.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AppointmentDelta {
+    private AppointmentChangeType change;
+    private UUID id;
+    private UUID doctorId;
+    private UUID patientId;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime startTime;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime endTime;
+    
+    private AppointmentType type;
+    private AppointmentStatus status;
+    
+    // Estado anterior, sólo cuando cambió el doctor o el horario
+    private UUID previousDoctorId;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime previousStartTime;
+    
+    public static AppointmentDelta of(AppointmentChangedEvent event) {
+        AppointmentSnapshot current = event.current();
+        AppointmentDeltaBuilder delta = AppointmentDelta.builder()
+                .change(event.type())
+                .id(current.id())
+                .doctorId(current.doctorId())
+                .patientId(current.patientId())
+                .startTime(current.startTime())
+                .endTime(current.endTime())
+                .type(current.type())
+                .status(current.status());
+        AppointmentSnapshot before = event.before();
+        if (before != null && event.after() != null) {
+            if (!before.doctorId().equals(current.doctorId())) {
+                delta.previousDoctorId(before.doctorId());
+            }
+            if (!before.startTime().equals(current.startTime())) {
+                delta.previousStartTime(before.startTime());
+            }
+        }
+        return delta.build();
+    }
+}
@@ -28,6 +28,7 @@ public class AppointmentRequest {
     private String notes;
     private AppointmentType type;
     private AppointmentStatus status;
+    private UUID createdBy;
     
     // Getters and setters
     public UUID getDoctorId() {
@@ -85,4 +86,12 @@ public class AppointmentRequest {
     public void setStatus(AppointmentStatus status) {
         this.status = status;
     }
+    
+    public UUID getCreatedBy() {
+        return createdBy;
+    }
+    
+    public void setCreatedBy(UUID createdBy) {
+        this.createdBy = createdBy;
+    }
 }
@@ -0,0 +1,71 @@
+package com.medcal.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchScheduleRequest {
+
+    @NotEmpty(message = "La lista de solicitudes es requerida")
+    @Valid
+    private List<Item> items;
+
+    @NotNull(message = "La fecha de inicio es requerida")
+    private LocalDate from;
+
+    @NotNull(message = "La fecha de fin es requerida")
+    private LocalDate to;
+
+    private Long timeBudgetMs;
+
+    private boolean apply;
+
+    /**
+     * One pending appointment to place. Without doctor or specialty it stays with its current
+     * doctor; without windows it may go anywhere in the batch range.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        @NotNull(message = "La cita es requerida")
+        private UUID appointmentId;
+
+        private UUID doctorId;
+
+        private String specialty;
+
+        @Valid
+        private List<Window> windows;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Window {
+
+        @NotNull(message = "El inicio de la franja es requerido")
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+        private LocalDateTime start;
+
+        @NotNull(message = "El fin de la franja es requerido")
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+        private LocalDateTime end;
+    }
+}
@@ -0,0 +1,48 @@
+package com.medcal.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchScheduleResult {
+    private int requested;
+    private int assignedCount;
+    private boolean applied;
+    private boolean budgetExhausted;
+    private long elapsedMs;
+    private List<Assignment> assignments;
+    private List<Rejection> unassigned;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Assignment {
+        private UUID appointmentId;
+        private UUID doctorId;
+
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+        private LocalDateTime startTime;
+
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+        private LocalDateTime endTime;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Rejection {
+        private UUID appointmentId;
+        private String reason;
+    }
+}
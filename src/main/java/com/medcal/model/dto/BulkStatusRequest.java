@@ -0,0 +1,39 @@
+package com.medcal.model.dto;
+
+import com.medcal.model.enums.AppointmentStatus;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Appointments to move to {@code status}: either the listed {@code ids}, or every
+ * appointment of {@code doctorId} starting in {@code [from, to)}, optionally only those
+ * currently in {@code currentStatus}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusRequest {
+
+    @NotNull(message = "El estado destino es requerido")
+    private AppointmentStatus status;
+
+    @Size(max = 5000, message = "Como máximo 5000 citas por petición")
+    private List<UUID> ids;
+
+    private UUID doctorId;
+
+    private LocalDateTime from;
+
+    private LocalDateTime to;
+
+    private AppointmentStatus currentStatus;
+}
@@ -0,0 +1,37 @@
+package com.medcal.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.medcal.model.enums.AppointmentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusResult {
+    private AppointmentStatus status;
+    private int matched;
+    private int updated;
+    private List<Item> items;
+
+    public enum Outcome {
+        UPDATED, UNCHANGED, CONFLICT, FORBIDDEN, NOT_FOUND
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Item {
+        private UUID appointmentId;
+        private Outcome outcome;
+        private AppointmentStatus previousStatus;
+        private String reason;
+    }
+}
@@ -0,0 +1,18 @@
+package com.medcal.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarFeedLink {
+    private UUID doctorId;
+    // URL para suscribirse desde una aplicación de calendario; lleva el token
+    private String url;
+}
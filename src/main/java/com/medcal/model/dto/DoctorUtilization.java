@@ -0,0 +1,31 @@
+package com.medcal.model.dto;
+
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorUtilization {
+    private UUID doctorId;
+    private String firstName;
+    private String lastName;
+    private String specialization;
+    // Días del rango con fila en la tabla de ocupación
+    private int days;
+    private long capacityMinutes;
+    // Minutos de citas no canceladas
+    private long bookedMinutes;
+    // bookedMinutes / capacityMinutes; null si el médico no tiene horario en el rango
+    private Double utilization;
+    private Map<AppointmentStatus, Long> statusCounts;
+    private Map<AppointmentType, Long> typeCounts;
+}
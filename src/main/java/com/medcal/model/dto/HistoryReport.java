@@ -0,0 +1,48 @@
+package com.medcal.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoryReport {
+    private LocalDate from;
+    private LocalDate to;
+    private List<String> groupBy;
+    private long appointments;
+    private long bookedMinutes;
+    // Filas leídas de los segmentos, antes de aplicar los filtros
+    private long rowsScanned;
+    private int segments;
+    private long elapsedMs;
+    private List<Group> groups;
+
+    /** One group; only the fields in {@code groupBy} are set. */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Group {
+        private UUID doctorId;
+        private AppointmentStatus status;
+        private AppointmentType type;
+        private String month;
+        private DayOfWeek dayOfWeek;
+        private Integer hour;
+        private long appointments;
+        private long bookedMinutes;
+    }
+}
@@ -0,0 +1,32 @@
+package com.medcal.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.medcal.model.enums.AppointmentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One occurrence of a series. {@code appointmentId} is null while the occurrence has not
+ * been materialised; its status is then the series' default, SCHEDULED.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeriesOccurrence {
+    private UUID seriesId;
+    private UUID appointmentId;
+    private boolean materialized;
+    private AppointmentStatus status;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime startTime;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime endTime;
+}
@@ -0,0 +1,42 @@
+package com.medcal.model.dto;
+
+import com.medcal.model.enums.AppointmentType;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeriesRequest {
+
+    @NotNull(message = "El doctor es requerido")
+    private UUID doctorId;
+
+    @NotNull(message = "El paciente es requerido")
+    private UUID patientId;
+
+    private AppointmentType type;
+
+    @NotBlank(message = "La regla de recurrencia es requerida")
+    private String rrule;
+
+    @NotNull(message = "La fecha y hora de la primera cita son requeridas")
+    @Future(message = "La primera cita debe ser futura")
+    private LocalDateTime firstStart;
+
+    @NotNull(message = "La duración es requerida")
+    private Integer durationMinutes;
+
+    @Size(max = 1000, message = "Las notas no pueden exceder los 1000 caracteres")
+    private String notes;
+}
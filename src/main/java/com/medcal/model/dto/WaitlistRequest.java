@@ -0,0 +1,33 @@
+package com.medcal.model.dto;
+
+import com.medcal.model.entity.WaitlistWindow;
+import com.medcal.model.enums.AppointmentType;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistRequest {
+
+    // Sólo personal: los pacientes se apuntan a sí mismos
+    private UUID patientId;
+
+    private UUID doctorId;
+
+    private String specialty;
+
+    private AppointmentType type;
+
+    private Integer priority;
+
+    @NotEmpty(message = "Indique al menos una franja horaria")
+    private List<WaitlistWindow> windows;
+}
@@ -15,7 +15,12 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", indexes = {
+    @Index(name = "idx_appointments_series", columnList = "series_id, start_time"),
+    @Index(name = "idx_appointments_doctor_start", columnList = "doctor_id, start_time"),
+    @Index(name = "idx_appointments_status_start", columnList = "status, start_time"),
+    @Index(name = "idx_appointments_status_end", columnList = "status, end_time")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -48,6 +53,10 @@ public class Appointment {
     
     private String notes;
     
+    // Serie recurrente de la que se materializó la cita, si la hay
+    @Column(name = "series_id")
+    private UUID seriesId;
+    
     @Column(name = "created_by", nullable = false)
     private UUID createdBy;
     
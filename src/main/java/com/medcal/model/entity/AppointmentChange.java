@@ -0,0 +1,57 @@
+package com.medcal.model.entity;
+
+import com.medcal.model.enums.AppointmentChangeType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One row per appointment write, numbered by a monotonically increasing sequence. Deletes
+ * are kept as tombstones so sync clients learn about them. The previous doctor/patient are
+ * recorded when they change, so the old owner's feed also sees the appointment leave.
+ */
+@Entity
+@Table(name = "appointment_changes", indexes = {
+    @Index(name = "idx_appointment_changes_doctor", columnList = "doctor_id, seq"),
+    @Index(name = "idx_appointment_changes_prev_doctor", columnList = "previous_doctor_id, seq"),
+    @Index(name = "idx_appointment_changes_patient", columnList = "patient_id, seq"),
+    @Index(name = "idx_appointment_changes_prev_patient", columnList = "previous_patient_id, seq"),
+    @Index(name = "idx_appointment_changes_changed_at", columnList = "changed_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentChange {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+    
+    @Column(name = "appointment_id", nullable = false)
+    private UUID appointmentId;
+    
+    @Column(name = "doctor_id", nullable = false)
+    private UUID doctorId;
+    
+    @Column(name = "patient_id", nullable = false)
+    private UUID patientId;
+    
+    @Column(name = "previous_doctor_id")
+    private UUID previousDoctorId;
+    
+    @Column(name = "previous_patient_id")
+    private UUID previousPatientId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false)
+    private AppointmentChangeType changeType;
+    
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
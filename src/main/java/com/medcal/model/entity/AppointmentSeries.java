@@ -0,0 +1,72 @@
+package com.medcal.model.entity;
+
+import com.medcal.model.enums.AppointmentType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A recurring appointment stored as one row: a recurrence rule, the first start and a
+ * duration. Occurrences become {@link Appointment} rows (with {@code seriesId}) only up to
+ * {@code materializedUntil} or when one is needed; the rest are expanded on demand.
+ */
+@Entity
+@Table(name = "appointment_series", indexes = {
+    @Index(name = "idx_appointment_series_doctor", columnList = "doctor_id, active")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentSeries {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+    
+    @Column(name = "doctor_id", nullable = false)
+    private UUID doctorId;
+    
+    @Column(name = "patient_id", nullable = false)
+    private UUID patientId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AppointmentType type;
+    
+    @Column(nullable = false)
+    private String rrule;
+    
+    @Column(name = "first_start", nullable = false)
+    private LocalDateTime firstStart;
+    
+    @Column(name = "duration_minutes", nullable = false)
+    private int durationMinutes;
+    
+    private String notes;
+    
+    @Column(name = "created_by", nullable = false)
+    private UUID createdBy;
+    
+    @Builder.Default
+    @Column(nullable = false)
+    private boolean active = true;
+    
+    @Column(name = "materialized_until", nullable = false)
+    private LocalDateTime materializedUntil;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+    
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -70,8 +70,11 @@ public class ClinicalHistory {
     @JsonIgnore
     private Doctor doctor;
     
+    // Sin clave foránea: en PostgreSQL appointments puede estar particionada y su id no es único
+    // por sí solo. Las citas con historia clínica no se archivan, así que siempre está en appointments
     @OneToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "appointment_id", insertable = false, updatable = false)
+    @JoinColumn(name = "appointment_id", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     @JsonIgnore
     private Appointment appointment;
 }
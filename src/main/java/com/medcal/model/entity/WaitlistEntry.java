@@ -0,0 +1,70 @@
+package com.medcal.model.entity;
+
+import com.medcal.model.enums.AppointmentType;
+import com.medcal.model.enums.WaitlistStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A patient waiting for a slot with one doctor, or with any doctor of a specialty, inside
+ * one of their windows. Higher priority is served first, then the oldest entry.
+ */
+@Entity
+@Table(name = "waitlist_entries", indexes = {
+    @Index(name = "idx_waitlist_entries_status", columnList = "status"),
+    @Index(name = "idx_waitlist_entries_patient", columnList = "patient_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+    
+    @Column(name = "patient_id", nullable = false)
+    private UUID patientId;
+    
+    @Column(name = "doctor_id")
+    private UUID doctorId;
+    
+    private String specialty;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AppointmentType type;
+    
+    @Builder.Default
+    private int priority = 0;
+    
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "waitlist_entry_windows", joinColumns = @JoinColumn(name = "entry_id"))
+    @Builder.Default
+    private List<WaitlistWindow> windows = new ArrayList<>();
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private WaitlistStatus status = WaitlistStatus.WAITING;
+    
+    @Column(name = "offered_appointment_id")
+    private UUID offeredAppointmentId;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
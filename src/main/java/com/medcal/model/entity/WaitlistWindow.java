@@ -0,0 +1,23 @@
+package com.medcal.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/** A time range in which a waiting patient accepts an appointment. */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistWindow {
+    
+    @Column(name = "window_start", nullable = false)
+    private LocalDateTime start;
+    
+    @Column(name = "window_end", nullable = false)
+    private LocalDateTime end;
+}
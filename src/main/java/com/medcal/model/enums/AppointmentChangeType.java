@@ -0,0 +1,9 @@
+package com.medcal.model.enums;
+
+public enum AppointmentChangeType {
+    CREATED,        // New appointment booked
+    UPDATED,        // Doctor, patient, time, type or notes changed
+    STATUS_CHANGED, // Only the status changed
+    CANCELLED,      // Status set to CANCELLED
+    DELETED         // Row removed
+}
@@ -0,0 +1,7 @@
+package com.medcal.model.enums;
+
+public enum WaitlistStatus {
+    WAITING,    // Waiting for a freed slot
+    OFFERED,    // A cancelled slot was booked for the patient as a pending appointment
+    WITHDRAWN   // Removed by the patient or staff
+}
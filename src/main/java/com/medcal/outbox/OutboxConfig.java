@@ -0,0 +1,30 @@
+package com.medcal.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/** Built-in sinks, each enabled by setting its destination; further sinks are plain {@link OutboxSink} beans. */
+@Configuration
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "medcal.outbox.file.path")
+    public OutboxSink fileOutboxSink(ObjectMapper objectMapper, @Value("${medcal.outbox.file.path}") String path) {
+        return new FileOutboxSink(objectMapper, Path.of(path));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "medcal.outbox.webhook.url")
+    public OutboxSink webhookOutboxSink(ObjectMapper objectMapper,
+                                        @Value("${medcal.outbox.webhook.url}") String url,
+                                        @Value("${medcal.outbox.webhook.timeout-ms:5000}") long timeoutMs) {
+        return new WebhookOutboxSink(objectMapper, URI.create(url), Duration.ofMillis(timeoutMs));
+    }
+}
@@ -0,0 +1,183 @@
+package com.medcal.outbox;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains {@code appointment_outbox} on a background thread and hands the messages to every
+ * {@link OutboxSink}, so bookings never wait for downstream systems.
+ * <p>
+ * Each batch is read, delivered and deleted in one transaction. On PostgreSQL the read
+ * uses {@code FOR UPDATE SKIP LOCKED}, so several nodes can drain the table without
+ * blocking each other or delivering the same row twice. Other databases (H2 in
+ * development) are drained by plain polling from a single node. A failed batch stays in
+ * the table with an exponential backoff, capped at {@code medcal.outbox.max-backoff-ms}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "medcal.outbox.dispatch", havingValue = "true", matchIfMissing = true)
+public class OutboxDispatcher {
+
+    private static final String SELECT_DUE =
+            "SELECT id, appointment_id, change_type, payload, created_at, attempts FROM appointment_outbox " +
+            "WHERE next_attempt_at <= ? ORDER BY id LIMIT ?";
+    private static final String SELECT_DUE_SKIP_LOCKED = SELECT_DUE + " FOR UPDATE SKIP LOCKED";
+
+    private static final RowMapper<OutboxMessage> ROW_MAPPER = (rs, rowNum) -> new OutboxMessage(
+            rs.getLong("id"),
+            rs.getObject("appointment_id", UUID.class),
+            rs.getString("change_type"),
+            rs.getString("payload"),
+            rs.getTimestamp("created_at").toInstant(),
+            rs.getInt("attempts"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final List<OutboxSink> sinks;
+    private final OutboxMetrics outboxMetrics;
+    private final int batchSize;
+    private final long pollMs;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final Clock clock;
+    private final ScheduledExecutorService worker;
+    private volatile boolean skipLocked;
+    // Antigüedad del mensaje más viejo sin entregar, medida en el último sondeo
+    private volatile double oldestAgeSeconds;
+
+    @Autowired
+    public OutboxDispatcher(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            List<OutboxSink> sinks,
+                            OutboxMetrics outboxMetrics,
+                            @Value("${medcal.outbox.batch-size:100}") int batchSize,
+                            @Value("${medcal.outbox.poll-ms:500}") long pollMs,
+                            @Value("${medcal.outbox.base-backoff-ms:1000}") long baseBackoffMs,
+                            @Value("${medcal.outbox.max-backoff-ms:600000}") long maxBackoffMs) {
+        this(jdbcTemplate, new TransactionTemplate(transactionManager), sinks, outboxMetrics, batchSize, pollMs,
+                baseBackoffMs, maxBackoffMs, Clock.systemUTC());
+    }
+
+    OutboxDispatcher(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, List<OutboxSink> sinks,
+                     OutboxMetrics outboxMetrics, int batchSize, long pollMs, long baseBackoffMs,
+                     long maxBackoffMs, Clock clock) {
+        if (batchSize < 1 || pollMs < 1 || baseBackoffMs < 1 || maxBackoffMs < baseBackoffMs) {
+            throw new IllegalArgumentException("Configuración del outbox no válida");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.sinks = sinks;
+        this.outboxMetrics = outboxMetrics;
+        this.batchSize = batchSize;
+        this.pollMs = pollMs;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.clock = clock;
+        this.worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        outboxMetrics.gaugeOldestAge(() -> oldestAgeSeconds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        skipLocked = "PostgreSQL".equalsIgnoreCase(database);
+        log.info("Outbox de citas: {} destinos {}, lectura {}", sinks.size(),
+                sinks.stream().map(OutboxSink::name).toList(),
+                skipLocked ? "con SKIP LOCKED" : "por sondeo");
+        worker.scheduleWithFixedDelay(this::poll, pollMs, pollMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Drains full batches until the table has nothing due, then records the lag. */
+    void poll() {
+        try {
+            while (dispatchBatch() == batchSize) {
+                // Lote completo: probablemente quedan más
+            }
+            Instant oldest = jdbcTemplate.query("SELECT created_at FROM appointment_outbox ORDER BY id LIMIT 1",
+                    (rs, rowNum) -> rs.getTimestamp("created_at").toInstant()).stream().findFirst().orElse(null);
+            oldestAgeSeconds = oldest == null ? 0 : Duration.between(oldest, clock.instant()).toMillis() / 1000.0;
+        } catch (RuntimeException e) {
+            // Una excepción cancelaría las siguientes ejecuciones del ejecutor
+            log.error("Error al vaciar el outbox de citas", e);
+        }
+    }
+
+    /** Delivers one batch; returns how many messages were delivered. */
+    int dispatchBatch() {
+        Integer delivered = transactionTemplate.execute(status -> {
+            Instant now = clock.instant();
+            List<OutboxMessage> batch = jdbcTemplate.query(skipLocked ? SELECT_DUE_SKIP_LOCKED : SELECT_DUE,
+                    ROW_MAPPER, Timestamp.from(now), batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            try {
+                for (OutboxSink sink : sinks) {
+                    sink.deliver(batch);
+                }
+            } catch (RuntimeException e) {
+                log.warn("No se pudieron entregar {} mensajes del outbox (desde el {}): {}",
+                        batch.size(), batch.get(0).id(), e.getMessage());
+                jdbcTemplate.batchUpdate(
+                        "UPDATE appointment_outbox SET attempts = ?, next_attempt_at = ?, last_error = ? WHERE id = ?",
+                        batch, batch.size(), (ps, message) -> {
+                            ps.setInt(1, message.attempts() + 1);
+                            ps.setTimestamp(2, Timestamp.from(now.plusMillis(backoffMs(message.attempts() + 1))));
+                            ps.setString(3, truncate(String.valueOf(e.getMessage())));
+                            ps.setLong(4, message.id());
+                        });
+                outboxMetrics.recordDelivery(false, batch.size());
+                return 0;
+            }
+            jdbcTemplate.batchUpdate("DELETE FROM appointment_outbox WHERE id = ?", batch, batch.size(),
+                    (ps, message) -> ps.setLong(1, message.id()));
+            Instant deliveredAt = clock.instant();
+            for (OutboxMessage message : batch) {
+                outboxMetrics.recordLag(Duration.between(message.createdAt(), deliveredAt));
+            }
+            outboxMetrics.recordDelivery(true, batch.size());
+            return batch.size();
+        });
+        return delivered != null ? delivered : 0;
+    }
+
+    long backoffMs(int attempts) {
+        // Duplica en cada intento; el exponente se limita para no desbordar
+        return Math.min(maxBackoffMs, baseBackoffMs * (1L << Math.min(attempts - 1, 20)));
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= 500 ? error : error.substring(0, 500);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+}
@@ -0,0 +1,35 @@
+package com.medcal.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/** JSON shape shared by the sinks: message id, change type, creation time and the delta. */
+final class OutboxEnvelope {
+
+    private OutboxEnvelope() {
+    }
+
+    static ObjectNode of(ObjectMapper objectMapper, OutboxMessage message) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("id", message.id());
+        node.put("change", message.changeType());
+        node.put("createdAt", message.createdAt().toString());
+        try {
+            node.set("appointment", objectMapper.readTree(message.payload()));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        return node;
+    }
+
+    static ArrayNode of(ObjectMapper objectMapper, List<OutboxMessage> batch) {
+        ArrayNode array = objectMapper.createArrayNode();
+        batch.forEach(message -> array.add(of(objectMapper, message)));
+        return array;
+    }
+}
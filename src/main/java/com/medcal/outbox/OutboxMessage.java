@@ -0,0 +1,17 @@
+package com.medcal.outbox;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One appointment change waiting in {@code appointment_outbox}. {@code payload} is the
+ * JSON of an {@link com.medcal.model.dto.AppointmentDelta}; {@code id} increases with the
+ * write order and is what sinks should deduplicate on, since delivery is at-least-once.
+ */
+public record OutboxMessage(long id,
+                            UUID appointmentId,
+                            String changeType,
+                            String payload,
+                            Instant createdAt,
+                            int attempts) {
+}
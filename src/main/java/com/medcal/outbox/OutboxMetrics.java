@@ -0,0 +1,51 @@
+package com.medcal.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/** Meters for {@link OutboxDispatcher}: deliveries, delivery lag and the age of the backlog. */
+@Component
+public class OutboxMetrics {
+
+    private final MeterRegistry registry;
+    private final Counter delivered;
+    private final Counter failed;
+    private final Timer lag;
+
+    public OutboxMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.delivered = messageCounter("delivered");
+        this.failed = messageCounter("failed");
+        this.lag = Timer.builder("medcal.outbox.lag")
+                .description("Time from an appointment change being written to the outbox to its delivery")
+                .register(registry);
+    }
+
+    public void recordDelivery(boolean delivered, int count) {
+        (delivered ? this.delivered : failed).increment(count);
+    }
+
+    public void recordLag(Duration lag) {
+        this.lag.record(lag);
+    }
+
+    public void gaugeOldestAge(Supplier<Number> seconds) {
+        Gauge.builder("medcal.outbox.oldest.age", seconds)
+                .description("Age in seconds of the oldest undelivered outbox message")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    private Counter messageCounter(String outcome) {
+        return Counter.builder("medcal.outbox.messages")
+                .description("Outbox messages delivered to every sink, or failed and scheduled for retry")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
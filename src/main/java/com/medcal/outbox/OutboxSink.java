@@ -0,0 +1,14 @@
+package com.medcal.outbox;
+
+import java.util.List;
+
+/**
+ * Destination of outbox messages. Called from the dispatcher thread with batches in id
+ * order; throwing makes the whole batch retry later, on every sink.
+ */
+public interface OutboxSink {
+
+    String name();
+
+    void deliver(List<OutboxMessage> batch);
+}
@@ -0,0 +1,44 @@
+package com.medcal.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.model.dto.AppointmentDelta;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Writes every appointment change to {@code appointment_outbox} inside the writing
+ * transaction, so a change is queued if and only if it commits. Nothing downstream runs
+ * here: {@link OutboxDispatcher} delivers the rows later.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @EventListener
+    @Transactional
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(AppointmentDelta.of(event));
+        } catch (JsonProcessingException e) {
+            // Sin fila en el outbox el cambio no llegaría nunca: se deshace la escritura
+            throw new IllegalStateException("No se pudo serializar el cambio de la cita " + event.appointmentId(), e);
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.update(
+                "INSERT INTO appointment_outbox (appointment_id, change_type, payload, created_at, next_attempt_at, attempts) " +
+                "VALUES (?, ?, ?, ?, ?, 0)",
+                event.appointmentId(), event.type().name(), payload, now, now);
+    }
+}
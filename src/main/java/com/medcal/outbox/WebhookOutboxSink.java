@@ -0,0 +1,64 @@
+package com.medcal.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * POSTs each batch as a JSON array to a webhook. Any response other than 2xx, or no
+ * response within the timeout, fails the batch so it is retried.
+ */
+public class WebhookOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final URI uri;
+    private final Duration timeout;
+    private final HttpClient client;
+
+    public WebhookOutboxSink(ObjectMapper objectMapper, URI uri, Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.uri = uri;
+        this.timeout = timeout;
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public String name() {
+        return "webhook";
+    }
+
+    @Override
+    public void deliver(List<OutboxMessage> batch) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(OutboxEnvelope.of(objectMapper, batch));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<Void> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Envío al webhook interrumpido", e);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("El webhook " + uri + " respondió " + response.statusCode());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.medcal.reminder;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/** Stand-in notifier that writes reminders to the log instead of sending them. */
+@Slf4j
+public class LoggingReminderNotifier implements ReminderNotifier {
+
+    @Override
+    public void send(List<Reminder> reminders) {
+        log.info("Enviando {} recordatorios de cita", reminders.size());
+        for (Reminder reminder : reminders) {
+            log.debug("Recordatorio para el paciente {}: cita {} el {} ({} h antes)",
+                    reminder.patientId(), reminder.appointmentId(), reminder.startTime(), reminder.lead().toHours());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.medcal.reminder;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/** A reminder due {@code lead} before the start of a scheduled appointment. */
+public record Reminder(UUID appointmentId,
+                       UUID doctorId,
+                       UUID patientId,
+                       LocalDateTime startTime,
+                       Duration lead) {
+
+    public LocalDateTime dueAt() {
+        return startTime.minus(lead);
+    }
+}
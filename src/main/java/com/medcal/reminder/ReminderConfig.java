@@ -0,0 +1,16 @@
+package com.medcal.reminder;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ReminderConfig {
+
+    /** Other channels plug in as a {@link ReminderNotifier} bean with a different {@code notifier} value. */
+    @Bean
+    @ConditionalOnProperty(name = "medcal.reminders.notifier", havingValue = "log", matchIfMissing = true)
+    public ReminderNotifier loggingReminderNotifier() {
+        return new LoggingReminderNotifier();
+    }
+}
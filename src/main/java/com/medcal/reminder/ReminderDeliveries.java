@@ -0,0 +1,45 @@
+package com.medcal.reminder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Reminders already handed to the notifier, in the {@code reminder_deliveries} table shared by
+ * all nodes. Every node that knows about a reminder tries to claim it when it comes due; only
+ * the first claim succeeds, so each reminder is sent once however many nodes hold it. The
+ * appointment start is part of the key, so a rescheduled appointment gets its reminders again.
+ */
+@Component
+public class ReminderDeliveries {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ReminderDeliveries(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Records the reminder as sent; false if another node already did. Call outside a transaction. */
+    public boolean claim(Reminder reminder, LocalDateTime now) {
+        try {
+            jdbcTemplate.update("INSERT INTO reminder_deliveries (appointment_id, start_time, lead_minutes, sent_at) " +
+                            "VALUES (?, ?, ?, ?)",
+                    reminder.appointmentId(), Timestamp.valueOf(reminder.startTime()), reminder.lead().toMinutes(),
+                    Timestamp.valueOf(now));
+            return true;
+        } catch (DuplicateKeyException e) {
+            // Otro nodo ya lo ha enviado
+            return false;
+        }
+    }
+
+    /** Forgets reminders of appointments that started before {@code before}; they cannot come due again. */
+    public int purgeBefore(LocalDateTime before) {
+        return jdbcTemplate.update("DELETE FROM reminder_deliveries WHERE start_time < ?", Timestamp.valueOf(before));
+    }
+}
@@ -0,0 +1,40 @@
+package com.medcal.reminder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/** Meters for {@link ReminderScheduler}: reminders sent or failed, and reminders pending. */
+@Component
+public class ReminderMetrics {
+
+    private final MeterRegistry registry;
+    private final Counter sent;
+    private final Counter failed;
+
+    public ReminderMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.sent = reminderCounter("sent");
+        this.failed = reminderCounter("failed");
+    }
+
+    public void recordReminders(boolean sent, int count) {
+        (sent ? this.sent : failed).increment(count);
+    }
+
+    public void gaugePending(Supplier<Number> reminders) {
+        Gauge.builder("medcal.reminders.pending", reminders)
+                .description("Appointment reminders due within the loaded horizon")
+                .register(registry);
+    }
+
+    private Counter reminderCounter(String outcome) {
+        return Counter.builder("medcal.reminders")
+                .description("Appointment reminders handed to the notifier, by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
@@ -0,0 +1,12 @@
+package com.medcal.reminder;
+
+import java.util.List;
+
+/**
+ * Delivers appointment reminders. Called from the single reminder thread with batches of
+ * at most {@code medcal.reminders.batch-size}; a batch that throws is logged and dropped.
+ */
+public interface ReminderNotifier {
+
+    void send(List<Reminder> reminders);
+}
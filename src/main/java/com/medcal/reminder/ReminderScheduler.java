@@ -0,0 +1,261 @@
+package com.medcal.reminder;
+
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.event.AppointmentSnapshot;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.repository.AppointmentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sends reminders {@code medcal.reminders.lead-hours} before every scheduled appointment.
+ * <p>
+ * Only reminders due within the next {@code horizon-minutes} are held, in a
+ * {@link TimingWheel} with one-minute ticks, so memory depends on the reminders due in
+ * that window and not on how many appointments are booked further ahead. The window is
+ * topped up every {@code refill-minutes} with one indexed range query per lead time over
+ * the slice that just entered it, and kept current by appointment change events. A single
+ * thread advances the wheel every tick and hands what came due to the
+ * {@link ReminderNotifier} in batches.
+ * <p>
+ * Every node keeps its own wheel, and change events only reach the node that made the
+ * change. Before sending, each batch is checked against the database: reminders whose
+ * appointment is no longer scheduled at that time are dropped, and the rest are claimed in
+ * {@link ReminderDeliveries} so that only one node sends each of them.
+ * <p>
+ * Reminders that came due while the application was down are not sent.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "medcal.reminders.enabled", havingValue = "true", matchIfMissing = true)
+public class ReminderScheduler {
+
+    static final Duration TICK = Duration.ofMinutes(1);
+    // 64 ranuras por nivel: 64 minutos, ~68 horas
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 2;
+
+    private final AppointmentRepository appointmentRepository;
+    private final ReminderNotifier notifier;
+    private final ReminderDeliveries deliveries;
+    private final ReminderMetrics reminderMetrics;
+    private final List<Duration> leads;
+    private final Duration horizon;
+    private final Duration refillStep;
+    private final int batchSize;
+    private final Clock clock;
+    private final ScheduledExecutorService worker;
+
+    private final Object lock = new Object();
+    private final TimingWheel<UUID, Reminder> wheel;
+    // Los recordatorios que vencen antes de este instante ya están en la rueda
+    private LocalDateTime loadedUntil;
+    // Citas cambiadas mientras se carga un tramo; su estado lo ha puesto ya el evento
+    private Set<UUID> changedDuringLoad;
+
+    @Autowired
+    public ReminderScheduler(AppointmentRepository appointmentRepository,
+                             ReminderNotifier notifier,
+                             ReminderDeliveries deliveries,
+                             ReminderMetrics reminderMetrics,
+                             @Value("${medcal.reminders.lead-hours:24,2}") List<Integer> leadHours,
+                             @Value("${medcal.reminders.horizon-minutes:360}") int horizonMinutes,
+                             @Value("${medcal.reminders.refill-minutes:30}") int refillMinutes,
+                             @Value("${medcal.reminders.batch-size:200}") int batchSize) {
+        this(appointmentRepository, notifier, deliveries, reminderMetrics, leadHours, horizonMinutes, refillMinutes, batchSize,
+                Clock.systemDefaultZone());
+    }
+
+    ReminderScheduler(AppointmentRepository appointmentRepository, ReminderNotifier notifier,
+                      ReminderDeliveries deliveries, ReminderMetrics reminderMetrics, List<Integer> leadHours, int horizonMinutes,
+                      int refillMinutes, int batchSize, Clock clock) {
+        if (leadHours.isEmpty() || leadHours.stream().anyMatch(hours -> hours < 1)) {
+            throw new IllegalArgumentException("medcal.reminders.lead-hours debe contener horas positivas");
+        }
+        if (refillMinutes < 1 || horizonMinutes <= refillMinutes || batchSize < 1) {
+            throw new IllegalArgumentException("Configuración de recordatorios no válida");
+        }
+        this.appointmentRepository = appointmentRepository;
+        this.notifier = notifier;
+        this.deliveries = deliveries;
+        this.reminderMetrics = reminderMetrics;
+        this.leads = leadHours.stream().distinct().map(Duration::ofHours).toList();
+        this.horizon = Duration.ofMinutes(horizonMinutes);
+        this.refillStep = Duration.ofMinutes(refillMinutes);
+        this.batchSize = batchSize;
+        this.clock = clock;
+        this.loadedUntil = LocalDateTime.now(clock);
+        this.wheel = new TimingWheel<>(TICK.toMillis(), WHEEL_SIZE, WHEEL_LEVELS, millis(loadedUntil));
+        if (millis(loadedUntil.plus(horizon).plus(refillStep)) >= wheel.horizonMillis()) {
+            throw new IllegalArgumentException("medcal.reminders.horizon-minutes supera el alcance de la rueda");
+        }
+        this.worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "appointment-reminders");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reminderMetrics.gaugePending(this::pending);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        tick();
+        log.info("Recordatorios de citas: {} pendientes hasta {}", pending(), loadedUntil);
+        worker.scheduleAtFixedRate(this::tick, TICK.toMillis(), TICK.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        AppointmentSnapshot after = event.after();
+        LocalDateTime now = LocalDateTime.now(clock);
+        synchronized (lock) {
+            wheel.cancel(event.appointmentId());
+            if (changedDuringLoad != null) {
+                changedDuringLoad.add(event.appointmentId());
+            }
+            if (after != null && after.status() == AppointmentStatus.SCHEDULED) {
+                for (Duration lead : leads) {
+                    schedule(reminder(after, lead), now);
+                }
+            }
+        }
+    }
+
+    /** Tops up the window if due, then sends everything that came due. Runs on the reminder thread. */
+    void tick() {
+        try {
+            LocalDateTime now = LocalDateTime.now(clock);
+            LocalDateTime until;
+            synchronized (lock) {
+                until = loadedUntil;
+            }
+            if (!until.plus(refillStep).isAfter(now.plus(horizon))) {
+                refill(now);
+            }
+            List<Reminder> due;
+            synchronized (lock) {
+                due = wheel.advance(millis(now));
+            }
+            for (int from = 0; from < due.size(); from += batchSize) {
+                send(deliverable(due.subList(from, Math.min(from + batchSize, due.size())), now));
+            }
+        } catch (RuntimeException e) {
+            // Una excepción cancelaría las siguientes ejecuciones del ejecutor
+            log.error("Error al procesar los recordatorios de citas", e);
+        }
+    }
+
+    int pending() {
+        synchronized (lock) {
+            return wheel.size();
+        }
+    }
+
+    private void refill(LocalDateTime now) {
+        LocalDateTime from;
+        LocalDateTime to = now.plus(horizon);
+        synchronized (lock) {
+            from = loadedUntil;
+            // Se amplía antes de consultar para que los eventos de este tramo no se pierdan
+            loadedUntil = to;
+            changedDuringLoad = new HashSet<>();
+        }
+        List<Reminder> loaded = new ArrayList<>();
+        try {
+            for (Duration lead : leads) {
+                for (AppointmentSnapshot appointment : appointmentRepository.findSnapshotsByStatusAndStartTimeRange(
+                        AppointmentStatus.SCHEDULED, from.plus(lead), to.plus(lead))) {
+                    loaded.add(reminder(appointment, lead));
+                }
+            }
+        } finally {
+            synchronized (lock) {
+                for (Reminder reminder : loaded) {
+                    if (!changedDuringLoad.contains(reminder.appointmentId())) {
+                        schedule(reminder, now);
+                    }
+                }
+                changedDuringLoad = null;
+            }
+        }
+        deliveries.purgeBefore(now);
+        log.debug("Recordatorios cargados hasta {}: {}", to, loaded.size());
+    }
+
+    /**
+     * The reminders of the batch whose appointment is still scheduled at the same time, and
+     * that no other node has sent. Cancellations and moves made on other nodes only show here.
+     */
+    private List<Reminder> deliverable(List<Reminder> batch, LocalDateTime now) {
+        Map<UUID, AppointmentSnapshot> current = appointmentRepository.findSnapshotsByIdIn(
+                        batch.stream().map(Reminder::appointmentId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(AppointmentSnapshot::id, Function.identity()));
+        List<Reminder> deliverable = new ArrayList<>();
+        for (Reminder reminder : batch) {
+            AppointmentSnapshot appointment = current.get(reminder.appointmentId());
+            if (appointment != null && appointment.status() == AppointmentStatus.SCHEDULED
+                    && appointment.startTime().equals(reminder.startTime()) && deliveries.claim(reminder, now)) {
+                deliverable.add(reminder);
+            }
+        }
+        return deliverable;
+    }
+
+    /** Adds the reminder if it falls inside the loaded window and has not passed yet. Caller holds the lock. */
+    private void schedule(Reminder reminder, LocalDateTime now) {
+        LocalDateTime due = reminder.dueAt();
+        if (!due.isBefore(now) && due.isBefore(loadedUntil)) {
+            wheel.schedule(reminder.appointmentId(), reminder, millis(due));
+        }
+    }
+
+    private void send(List<Reminder> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            notifier.send(batch);
+            reminderMetrics.recordReminders(true, batch.size());
+        } catch (RuntimeException e) {
+            reminderMetrics.recordReminders(false, batch.size());
+            log.error("No se pudieron enviar {} recordatorios de cita", batch.size(), e);
+        }
+    }
+
+    private long millis(LocalDateTime time) {
+        return time.atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    private static Reminder reminder(AppointmentSnapshot appointment, Duration lead) {
+        return new Reminder(appointment.id(), appointment.doctorId(), appointment.patientId(),
+                appointment.startTime(), lead);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+}
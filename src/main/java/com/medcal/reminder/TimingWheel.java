@@ -0,0 +1,190 @@
+package com.medcal.reminder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical hashed timing wheel: values scheduled at a due time and collected by
+ * {@link #advance(long)} once that time has passed, at tick resolution.
+ * <p>
+ * Level {@code L} has {@code wheelSize} slots of {@code wheelSize^L} ticks each. A value goes
+ * to the lowest level whose range covers its distance from the current tick, and is moved
+ * down a level when the clock reaches its slot, so scheduling, cancelling and each tick
+ * cost O(1) regardless of how many values are held. Slots are intrusive linked lists and
+ * values are also indexed by key, so {@link #cancel(Object)} does not search.
+ * <p>
+ * Not thread-safe.
+ */
+public final class TimingWheel<K, V> {
+
+    private static final class Entry<K, V> {
+        final K key;
+        final V value;
+        final long dueTick;
+        Entry<K, V> prev;
+        Entry<K, V> next;
+        // Siguiente entrada con la misma clave
+        Entry<K, V> sibling;
+        int level;
+        int slot;
+
+        Entry(K key, V value, long dueTick) {
+            this.key = key;
+            this.value = value;
+            this.dueTick = dueTick;
+        }
+    }
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] slotTicks;
+    private final long spanTicks;
+    private final Entry<K, V>[][] slots;
+    private final Map<K, Entry<K, V>> byKey = new HashMap<>();
+    // Siguiente tick por procesar
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis < 1 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Rueda de temporización no válida");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.slotTicks = new long[levels];
+        long ticks = 1;
+        for (int level = 0; level < levels; level++) {
+            slotTicks[level] = ticks;
+            ticks = Math.multiplyExact(ticks, wheelSize);
+        }
+        this.spanTicks = ticks;
+        this.slots = new Entry[levels][wheelSize];
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /** Latest due time (exclusive) that {@link #schedule} currently accepts. */
+    public long horizonMillis() {
+        return (currentTick + spanTicks) * tickMillis;
+    }
+
+    /**
+     * Schedules {@code value} under {@code key}; a key may hold several values. A due time
+     * already in the past is returned by the next {@link #advance}.
+     */
+    public void schedule(K key, V value, long dueMillis) {
+        if (dueMillis >= horizonMillis()) {
+            throw new IllegalArgumentException("Vencimiento fuera del alcance de la rueda");
+        }
+        Entry<K, V> entry = new Entry<>(key, value, Math.max(dueMillis / tickMillis, currentTick));
+        entry.sibling = byKey.put(key, entry);
+        link(entry);
+        size++;
+    }
+
+    /** Removes every value scheduled under {@code key}; returns how many there were. */
+    public int cancel(K key) {
+        int removed = 0;
+        for (Entry<K, V> entry = byKey.remove(key); entry != null; entry = entry.sibling) {
+            unlink(entry);
+            removed++;
+        }
+        size -= removed;
+        return removed;
+    }
+
+    /** Processes every tick up to {@code nowMillis} and returns the values that came due, tick by tick. */
+    public List<V> advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        List<V> expired = new ArrayList<>();
+        if (size == 0) {
+            currentTick = Math.max(currentTick, target + 1);
+            return expired;
+        }
+        while (currentTick <= target) {
+            // De arriba abajo: lo que baja de un nivel puede caer en una ranura que también vence ahora
+            for (int level = slotTicks.length - 1; level > 0; level--) {
+                if (currentTick % slotTicks[level] == 0) {
+                    cascade(level, (int) ((currentTick / slotTicks[level]) % wheelSize));
+                }
+            }
+            int slot = (int) (currentTick % wheelSize);
+            Entry<K, V> entry = slots[0][slot];
+            slots[0][slot] = null;
+            while (entry != null) {
+                Entry<K, V> next = entry.next;
+                forget(entry);
+                expired.add(entry.value);
+                entry = next;
+            }
+            currentTick++;
+            if (size == 0) {
+                currentTick = Math.max(currentTick, target + 1);
+            }
+        }
+        return expired;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void cascade(int level, int slot) {
+        Entry<K, V> entry = slots[level][slot];
+        slots[level][slot] = null;
+        while (entry != null) {
+            Entry<K, V> next = entry.next;
+            link(entry);
+            entry = next;
+        }
+    }
+
+    private void link(Entry<K, V> entry) {
+        long delta = entry.dueTick - currentTick;
+        int level = 0;
+        while (delta >= slotTicks[level] * wheelSize) {
+            level++;
+        }
+        int slot = (int) ((entry.dueTick / slotTicks[level]) % wheelSize);
+        entry.level = level;
+        entry.slot = slot;
+        entry.prev = null;
+        entry.next = slots[level][slot];
+        if (entry.next != null) {
+            entry.next.prev = entry;
+        }
+        slots[level][slot] = entry;
+    }
+
+    private void unlink(Entry<K, V> entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            slots[entry.level][entry.slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+    }
+
+    /** Drops an expired entry from the key index; the slot itself has already been emptied. */
+    private void forget(Entry<K, V> entry) {
+        Entry<K, V> head = byKey.get(entry.key);
+        if (head == entry) {
+            if (entry.sibling != null) {
+                byKey.put(entry.key, entry.sibling);
+            } else {
+                byKey.remove(entry.key);
+            }
+        } else {
+            Entry<K, V> previous = head;
+            while (previous.sibling != entry) {
+                previous = previous.sibling;
+            }
+            previous.sibling = entry.sibling;
+        }
+        size--;
+    }
+}
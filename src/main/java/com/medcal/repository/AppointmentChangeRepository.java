@@ -0,0 +1,43 @@
+package com.medcal.repository;
+
+import com.medcal.model.entity.AppointmentChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AppointmentChangeRepository extends JpaRepository<AppointmentChange, Long> {
+    
+    @Query("SELECT c FROM AppointmentChange c WHERE c.seq > :since ORDER BY c.seq")
+    List<AppointmentChange> findChangesSince(@Param("since") long since, Pageable pageable);
+    
+    @Query("SELECT c FROM AppointmentChange c WHERE c.seq > :since AND " +
+           "(c.doctorId = :doctorId OR c.previousDoctorId = :doctorId) ORDER BY c.seq")
+    List<AppointmentChange> findDoctorChangesSince(
+        @Param("doctorId") UUID doctorId,
+        @Param("since") long since,
+        Pageable pageable
+    );
+    
+    @Query("SELECT c FROM AppointmentChange c WHERE c.seq > :since AND " +
+           "(c.patientId = :patientId OR c.previousPatientId = :patientId) ORDER BY c.seq")
+    List<AppointmentChange> findPatientChangesSince(
+        @Param("patientId") UUID patientId,
+        @Param("since") long since,
+        Pageable pageable
+    );
+    
+    @Query("SELECT MIN(c.seq) FROM AppointmentChange c")
+    Long findOldestSeq();
+    
+    @Modifying
+    @Query("DELETE FROM AppointmentChange c WHERE c.changedAt < :before")
+    int deleteChangedBefore(@Param("before") LocalDateTime before);
+}
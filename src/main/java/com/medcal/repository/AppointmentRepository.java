@@ -1,5 +1,6 @@
 package com.medcal.repository;
 
+import com.medcal.event.AppointmentSnapshot;
 import com.medcal.model.entity.Appointment;
 import com.medcal.model.enums.AppointmentStatus;
 import org.springframework.data.domain.Page;
@@ -10,6 +11,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -91,4 +93,37 @@ public interface AppointmentRepository extends JpaRepository<Appointment, UUID>
         @Param("patientId") UUID patientId,
         Pageable pageable
     );
+    
+    /** Appointments holding a slot (pending or scheduled) of any of the doctors that overlap {@code [from, to)}. */
+    @Query("SELECT a FROM Appointment a WHERE a.doctorId IN :doctorIds AND a.startTime < :to AND a.endTime > :from " +
+           "AND a.status IN ('PENDING', 'SCHEDULED') ORDER BY a.startTime")
+    List<Appointment> findActiveByDoctorIdsOverlapping(
+        @Param("doctorIds") Collection<UUID> doctorIds,
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to
+    );
+    
+    @Query("SELECT a FROM Appointment a WHERE a.seriesId = :seriesId AND a.startTime >= :from AND a.startTime < :to " +
+           "ORDER BY a.startTime")
+    List<Appointment> findBySeriesIdAndStartTimeRange(
+        @Param("seriesId") UUID seriesId,
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to
+    );
+    
+    List<Appointment> findBySeriesIdAndStartTimeAfterAndStatusIn(UUID seriesId, LocalDateTime after,
+                                                                 Collection<AppointmentStatus> statuses);
+    
+    /** Scheduling fields only, without loading entities; served by the (status, start_time) index. */
+    @Query("SELECT new com.medcal.event.AppointmentSnapshot(a.id, a.doctorId, a.patientId, a.startTime, a.endTime, " +
+           "a.type, a.status) FROM Appointment a WHERE a.status = :status AND a.startTime >= :from AND a.startTime < :to")
+    List<AppointmentSnapshot> findSnapshotsByStatusAndStartTimeRange(
+        @Param("status") AppointmentStatus status,
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to
+    );
+    
+    @Query("SELECT new com.medcal.event.AppointmentSnapshot(a.id, a.doctorId, a.patientId, a.startTime, a.endTime, " +
+           "a.type, a.status) FROM Appointment a WHERE a.id IN :ids")
+    List<AppointmentSnapshot> findSnapshotsByIdIn(@Param("ids") Collection<UUID> ids);
 }
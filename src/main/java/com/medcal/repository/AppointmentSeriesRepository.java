@@ -0,0 +1,20 @@
+package com.medcal.repository;
+
+import com.medcal.model.entity.AppointmentSeries;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AppointmentSeriesRepository extends JpaRepository<AppointmentSeries, UUID> {
+    
+    List<AppointmentSeries> findByDoctorIdAndActiveTrue(UUID doctorId);
+    
+    @Query("SELECT s FROM AppointmentSeries s WHERE s.active = true AND s.materializedUntil < :horizon")
+    List<AppointmentSeries> findActiveMaterializedBefore(@Param("horizon") LocalDateTime horizon);
+}
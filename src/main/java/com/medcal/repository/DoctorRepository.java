@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -39,4 +40,7 @@ public interface DoctorRepository extends JpaRepository<Doctor, UUID> {
     
     @Query("SELECT d FROM Doctor d WHERE d.active = true AND d.id = ?1")
     Optional<Doctor> findByIdAndActiveTrue(UUID id);
+    
+    @Query("SELECT d.updatedAt FROM Doctor d WHERE d.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") UUID id);
 }
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -27,4 +28,7 @@ public interface PatientRepository extends JpaRepository<Patient, UUID> {
     
     @Query("SELECT p FROM Patient p WHERE p.email = :email")
     Optional<Patient> findByEmail(@Param("email") String email);
+    
+    @Query("SELECT p.updatedAt FROM Patient p WHERE p.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") UUID id);
 }
@@ -0,0 +1,20 @@
+package com.medcal.repository;
+
+import com.medcal.model.entity.WaitlistEntry;
+import com.medcal.model.enums.WaitlistStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, UUID> {
+    
+    @Query("SELECT DISTINCT e FROM WaitlistEntry e LEFT JOIN FETCH e.windows WHERE e.status = :status")
+    List<WaitlistEntry> findWithWindowsByStatus(@Param("status") WaitlistStatus status);
+    
+    List<WaitlistEntry> findByPatientIdOrderByCreatedAtDesc(UUID patientId);
+}
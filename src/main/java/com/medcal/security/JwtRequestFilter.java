@@ -1,5 +1,7 @@
 package com.medcal.security;
 
+import com.medcal.metrics.DomainMetrics;
+import com.medcal.metrics.DomainMetrics.JwtOutcome;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,6 +24,7 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     
     private final UserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
+    private final DomainMetrics domainMetrics;
     
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, 
@@ -31,6 +34,7 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         
         String username = null;
         String jwtToken = null;
+        long started = System.nanoTime();
         
         // JWT Token está en la forma "Bearer token". Remover Bearer y obtener solo el token
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
@@ -39,6 +43,7 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                 username = jwtUtil.extractUsername(jwtToken);
             } catch (Exception e) {
                 logger.warn("No se pudo obtener el username del JWT Token");
+                domainMetrics.recordJwtValidation(JwtOutcome.MALFORMED, System.nanoTime() - started);
             }
         }
         
@@ -48,7 +53,9 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
             
             // Si el token es válido, configuramos Spring Security para establecer la autenticación manualmente
-            if (jwtUtil.validateToken(jwtToken, userDetails)) {
+            boolean valid = jwtUtil.validateToken(jwtToken, userDetails);
+            domainMetrics.recordJwtValidation(valid ? JwtOutcome.VALID : JwtOutcome.REJECTED, System.nanoTime() - started);
+            if (valid) {
                 
                 UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = 
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
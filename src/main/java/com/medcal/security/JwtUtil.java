@@ -29,6 +29,11 @@ public class JwtUtil {
         return extractClaim(token, Claims::getSubject);
     }
     
+    /** The {@code role} claim, or null for tokens issued without one. */
+    public String extractRole(String token) {
+        return extractClaim(token, claims -> claims.get("role", String.class));
+    }
+    
     public Date extractExpiration(String token) {
         return extractClaim(token, Claims::getExpiration);
     }
@@ -0,0 +1,48 @@
+package com.medcal.security;
+
+import com.medcal.security.LoginAttemptLimiter.Decision;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Turns away {@code POST /auth/login} while {@link LoginAttemptLimiter} has the account or
+ * the client address locked, before the form login filter loads the user and checks the
+ * password. Failures and successes are fed back from the form login handlers in
+ * {@link SecurityConfig}.
+ */
+@Component
+@RequiredArgsConstructor
+public class LoginAttemptFilter extends OncePerRequestFilter {
+
+    static final String LOGIN_PATH = "/auth/login";
+    static final String EMAIL_PARAMETER = "email";
+
+    private final LoginAttemptLimiter loginAttemptLimiter;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || !LOGIN_PATH.equals(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain chain) throws ServletException, IOException {
+        Decision decision = loginAttemptLimiter.check(request.getParameter(EMAIL_PARAMETER), request.getRemoteAddr());
+        if (!decision.allowed()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(decision.retryAfterSeconds()));
+            response.sendRedirect(request.getContextPath() + LOGIN_PATH + "?throttled=" + decision.retryAfterSeconds());
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,221 @@
+package com.medcal.security;
+
+import com.medcal.security.LoginMetrics.Outcome;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts failed form logins per account and per client IP so that a credential-stuffing
+ * burst is turned away before {@code DaoAuthenticationProvider} looks the user up and runs
+ * BCrypt.
+ * <p>
+ * Failures are counted over a sliding window (two fixed windows, the previous one weighted
+ * by how much of it still overlaps). Past {@code delay-after} failures every new failure
+ * locks the key for a delay that doubles up to {@code max-delay}; past {@code max-failures}
+ * the key stays locked until the window slides. Entries live in lock-striped LRU maps with
+ * a fixed capacity, so an attack spread over many emails or addresses cannot grow memory.
+ */
+@Component
+public class LoginAttemptLimiter {
+
+    private static final int STRIPES = 16;
+
+    /** How long the caller must wait before trying again; zero when the attempt may proceed. */
+    public record Decision(long retryAfterMillis) {
+
+        static final Decision ALLOWED = new Decision(0);
+
+        public boolean allowed() {
+            return retryAfterMillis == 0;
+        }
+
+        public long retryAfterSeconds() {
+            return Math.max(1, (retryAfterMillis + 999) / 1000);
+        }
+    }
+
+    record Policy(int delayAfter, int maxFailures) {
+    }
+
+    private final Policy accountPolicy;
+    private final Policy ipPolicy;
+    private final long windowMillis;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final LoginMetrics loginMetrics;
+    private final LongSupplier clock;
+    private final Stripe[] accounts = new Stripe[STRIPES];
+    private final Stripe[] addresses = new Stripe[STRIPES];
+
+    @Autowired
+    public LoginAttemptLimiter(@Value("${medcal.login-limit.account.delay-after:3}") int accountDelayAfter,
+                               @Value("${medcal.login-limit.account.max-failures:10}") int accountMaxFailures,
+                               @Value("${medcal.login-limit.ip.delay-after:20}") int ipDelayAfter,
+                               @Value("${medcal.login-limit.ip.max-failures:100}") int ipMaxFailures,
+                               @Value("${medcal.login-limit.window-minutes:15}") long windowMinutes,
+                               @Value("${medcal.login-limit.base-delay-ms:1000}") long baseDelayMillis,
+                               @Value("${medcal.login-limit.max-delay-ms:60000}") long maxDelayMillis,
+                               @Value("${medcal.login-limit.max-entries:50000}") int maxEntries,
+                               LoginMetrics loginMetrics) {
+        this(new Policy(accountDelayAfter, accountMaxFailures), new Policy(ipDelayAfter, ipMaxFailures),
+                Duration.ofMinutes(windowMinutes).toMillis(), baseDelayMillis, maxDelayMillis, maxEntries,
+                loginMetrics, System::currentTimeMillis);
+    }
+
+    LoginAttemptLimiter(Policy accountPolicy, Policy ipPolicy, long windowMillis, long baseDelayMillis,
+                        long maxDelayMillis, int maxEntries, LoginMetrics loginMetrics, LongSupplier clock) {
+        this.accountPolicy = accountPolicy;
+        this.ipPolicy = ipPolicy;
+        this.windowMillis = windowMillis;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.loginMetrics = loginMetrics;
+        this.clock = clock;
+        int perStripe = Math.max(1, maxEntries / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            accounts[i] = new Stripe(perStripe);
+            addresses[i] = new Stripe(perStripe);
+        }
+        loginMetrics.gaugeTrackedKeys(this::trackedKeys);
+    }
+
+    /** Checked before authentication; a rejected attempt does not touch the database. */
+    public Decision check(String email, String ip) {
+        long now = clock.getAsLong();
+        long wait = Math.max(
+                email != null ? stripe(accounts, normalize(email)).waitMillis(normalize(email), now) : 0,
+                ip != null ? stripe(addresses, ip).waitMillis(ip, now) : 0);
+        if (wait > 0) {
+            loginMetrics.recordAttempt(Outcome.THROTTLED);
+            return new Decision(wait);
+        }
+        return Decision.ALLOWED;
+    }
+
+    public void recordFailure(String email, String ip) {
+        loginMetrics.recordAttempt(Outcome.FAILURE);
+        long now = clock.getAsLong();
+        if (email != null) {
+            String key = normalize(email);
+            stripe(accounts, key).recordFailure(key, now, accountPolicy);
+        }
+        if (ip != null) {
+            stripe(addresses, ip).recordFailure(ip, now, ipPolicy);
+        }
+    }
+
+    /** A correct password clears the account's failures, but not those of its address. */
+    public void recordSuccess(String email) {
+        loginMetrics.recordAttempt(Outcome.SUCCESS);
+        if (email != null) {
+            String key = normalize(email);
+            stripe(accounts, key).remove(key);
+        }
+    }
+
+    int trackedKeys() {
+        int total = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            total += accounts[i].size() + addresses[i].size();
+        }
+        return total;
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Stripe stripe(Stripe[] stripes, String key) {
+        return stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    private long delayFor(int excessFailures) {
+        int shift = Math.min(excessFailures, 30);
+        return Math.min(maxDelayMillis, baseDelayMillis << shift);
+    }
+
+    private final class Stripe {
+
+        private final Map<String, Attempts> entries;
+
+        Stripe(int capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Attempts> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        synchronized long waitMillis(String key, long now) {
+            Attempts attempts = entries.get(key);
+            if (attempts == null) {
+                return 0;
+            }
+            if (attempts.blockedUntil > now) {
+                return attempts.blockedUntil - now;
+            }
+            if (attempts.windowStart + 2 * windowMillis <= now) {
+                // Sin fallos en las dos últimas ventanas: la entrada ya no aporta nada
+                entries.remove(key);
+            }
+            return 0;
+        }
+
+        synchronized void recordFailure(String key, long now, Policy policy) {
+            Attempts attempts = entries.computeIfAbsent(key, k -> new Attempts(now));
+            attempts.slide(now);
+            attempts.current++;
+            double failures = attempts.weightedCount(now);
+            if (failures >= policy.maxFailures()) {
+                // Bloqueado hasta que la ventana deslice lo suficiente
+                attempts.blockedUntil = Math.max(attempts.blockedUntil,
+                        Math.max(attempts.windowStart + windowMillis, now + maxDelayMillis));
+            } else if (failures > policy.delayAfter()) {
+                long delay = delayFor((int) failures - policy.delayAfter() - 1);
+                attempts.blockedUntil = Math.max(attempts.blockedUntil, now + delay);
+            }
+        }
+
+        synchronized void remove(String key) {
+            entries.remove(key);
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+
+    private final class Attempts {
+        long windowStart;
+        int current;
+        int previous;
+        long blockedUntil;
+
+        Attempts(long now) {
+            this.windowStart = now - now % windowMillis;
+        }
+
+        void slide(long now) {
+            long start = now - now % windowMillis;
+            if (start == windowStart) {
+                return;
+            }
+            previous = start - windowStart == windowMillis ? current : 0;
+            current = 0;
+            windowStart = start;
+        }
+
+        double weightedCount(long now) {
+            double overlap = 1.0 - (double) (now - windowStart) / windowMillis;
+            return current + previous * overlap;
+        }
+    }
+}
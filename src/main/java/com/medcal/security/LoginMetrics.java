@@ -0,0 +1,42 @@
+package com.medcal.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/** Meters for {@link LoginAttemptLimiter}: form login attempts by outcome and the keys it tracks. */
+@Component
+public class LoginMetrics {
+
+    public enum Outcome {
+        SUCCESS, FAILURE, THROTTLED
+    }
+
+    private final MeterRegistry registry;
+    private final Map<Outcome, Counter> attempts = new EnumMap<>(Outcome.class);
+
+    public LoginMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Outcome outcome : Outcome.values()) {
+            attempts.put(outcome, Counter.builder("medcal.auth.login.attempts")
+                    .description("Form login attempts; throttled ones never reach the password check")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(registry));
+        }
+    }
+
+    public void recordAttempt(Outcome outcome) {
+        attempts.get(outcome).increment();
+    }
+
+    public void gaugeTrackedKeys(Supplier<Number> trackedKeys) {
+        Gauge.builder("medcal.auth.login.tracked", trackedKeys)
+                .description("Accounts and client addresses with recent failed logins")
+                .register(registry);
+    }
+}
@@ -0,0 +1,121 @@
+package com.medcal.security;
+
+import com.medcal.model.enums.Role;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Applies {@link RateLimiter} to {@code /api/**}. Runs ahead of {@link JwtRequestFilter}:
+ * the caller and role come from the token's signed claims, so a rejected request costs a
+ * signature check and never reaches the user lookup. Session users are keyed by the
+ * authentication already restored from the session; everything else by client IP.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Pattern ID_SEGMENT = Pattern.compile(
+            "/([0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}|\\d+)(?=/|$)");
+
+    private final RateLimiter rateLimiter;
+    private final JwtUtil jwtUtil;
+    private final boolean enabled;
+
+    public RateLimitFilter(RateLimiter rateLimiter, JwtUtil jwtUtil,
+                           @Value("${medcal.rate-limit.enabled:true}") boolean enabled) {
+        this.rateLimiter = rateLimiter;
+        this.jwtUtil = jwtUtil;
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || !path(request).startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain chain) throws ServletException, IOException {
+        String caller = null;
+        Role role = null;
+
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith("Bearer ")) {
+            String token = header.substring(7);
+            try {
+                caller = jwtUtil.extractUsername(token);
+                role = parseRole(jwtUtil.extractRole(token));
+            } catch (JwtException | IllegalArgumentException e) {
+                // Token inválido: se limita como anónimo y JwtRequestFilter lo rechazará
+                caller = null;
+            }
+        } else {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.isAuthenticated()) {
+                caller = authentication.getName();
+                role = authentication.getAuthorities().stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .map(RateLimitFilter::parseRole)
+                        .filter(Objects::nonNull)
+                        .findFirst()
+                        .orElse(null);
+            }
+        }
+        if (caller != null && role == null) {
+            // Tokens emitidos sin claim de rol: el límite más estricto de un usuario autenticado
+            role = Role.PATIENT;
+        }
+        String key = caller != null ? "user:" + caller : "ip:" + request.getRemoteAddr();
+
+        long waitNanos = rateLimiter.tryAcquire(key, role, request.getMethod() + ' ' + route(path(request)));
+        if (waitNanos > 0) {
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write("{\"error\":\"Demasiadas peticiones, reintente en " + retryAfter + " s\"}");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    /** Collapses ids so that {@code /api/doctors/{id}} is one route, not one per doctor. */
+    static String route(String path) {
+        return ID_SEGMENT.matcher(path).replaceAll("/{id}");
+    }
+
+    static Role parseRole(String value) {
+        if (value == null) {
+            return null;
+        }
+        String name = value.startsWith("ROLE_") ? value.substring(5) : value;
+        try {
+            return Role.valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
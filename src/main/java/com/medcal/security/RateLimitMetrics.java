@@ -0,0 +1,44 @@
+package com.medcal.security;
+
+import com.medcal.model.enums.Role;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/** Meters for {@link RateLimiter}: rejections per role and the number of live buckets. */
+@Component
+public class RateLimitMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<String, Counter> rejections = new HashMap<>();
+
+    public RateLimitMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Role role : Role.values()) {
+            rejections.put(role.name(), rejectionCounter(role.name()));
+        }
+        rejections.put(RateLimiter.ANONYMOUS, rejectionCounter(RateLimiter.ANONYMOUS));
+    }
+
+    /** A request turned away with 429; {@code role} is a {@link Role} name or ANONYMOUS. */
+    public void recordRejection(String role) {
+        rejections.get(role).increment();
+    }
+
+    public void gaugeBuckets(Map<?, ?> buckets) {
+        Gauge.builder("medcal.ratelimit.buckets", buckets, Map::size)
+                .description("Active rate limit buckets (caller and route pairs)")
+                .register(registry);
+    }
+
+    private Counter rejectionCounter(String role) {
+        return Counter.builder("medcal.ratelimit.rejections")
+                .description("API requests rejected with 429 by the rate limiter")
+                .tag("role", role.toLowerCase())
+                .register(registry);
+    }
+}
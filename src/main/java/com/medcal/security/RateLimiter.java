@@ -0,0 +1,113 @@
+package com.medcal.security;
+
+import com.medcal.model.enums.Role;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets per caller and route, sized by the caller's {@link Role}. Limits come from
+ * {@code medcal.rate-limit.limits} as {@code ROLE=capacity/refillPerSecond} pairs, with
+ * {@code ANONYMOUS} for requests without a usable identity (keyed by client IP).
+ * <p>
+ * Idle buckets are dropped by a periodic sweep once they have refilled; if the map still
+ * reaches {@code medcal.rate-limit.max-buckets}, new callers are let through rather than
+ * sharing a bucket with strangers.
+ */
+@Slf4j
+@Component
+public class RateLimiter {
+
+    static final String ANONYMOUS = "ANONYMOUS";
+
+    record Limit(int capacity, double refillPerSecond) {
+    }
+
+    private final Map<Role, Limit> roleLimits = new EnumMap<>(Role.class);
+    private final Limit anonymousLimit;
+    private final int maxBuckets;
+    private final RateLimitMetrics rateLimitMetrics;
+    private final LongSupplier nanoClock;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RateLimiter(@Value("${medcal.rate-limit.limits:ADMIN=60/30,RECEPTIONIST=60/30,DOCTOR=40/20,PATIENT=20/5,ANONYMOUS=10/2}") String limits,
+                       @Value("${medcal.rate-limit.max-buckets:100000}") int maxBuckets,
+                       RateLimitMetrics rateLimitMetrics) {
+        this(limits, maxBuckets, rateLimitMetrics, System::nanoTime);
+    }
+
+    RateLimiter(String limits, int maxBuckets, RateLimitMetrics rateLimitMetrics, LongSupplier nanoClock) {
+        Map<String, Limit> parsed = parse(limits);
+        Limit fallback = parsed.getOrDefault(ANONYMOUS, new Limit(10, 2));
+        for (Role role : Role.values()) {
+            roleLimits.put(role, parsed.getOrDefault(role.name(), fallback));
+        }
+        this.anonymousLimit = fallback;
+        this.maxBuckets = maxBuckets;
+        this.rateLimitMetrics = rateLimitMetrics;
+        this.nanoClock = nanoClock;
+        rateLimitMetrics.gaugeBuckets(buckets);
+    }
+
+    /**
+     * Takes a token for {@code caller} on {@code route}. {@code role} null means anonymous.
+     * Returns 0 when allowed, otherwise the nanoseconds until the next token.
+     */
+    public long tryAcquire(String caller, Role role, String route) {
+        long now = nanoClock.getAsLong();
+        String key = caller + ' ' + route;
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxBuckets) {
+                sweep();
+                if (buckets.size() >= maxBuckets) {
+                    return 0;
+                }
+            }
+            Limit limit = role != null ? roleLimits.get(role) : anonymousLimit;
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(limit.capacity(), limit.refillPerSecond(), now));
+        }
+        long wait = bucket.tryAcquire(now);
+        if (wait > 0) {
+            rateLimitMetrics.recordRejection(role != null ? role.name() : ANONYMOUS);
+        }
+        return wait;
+    }
+
+    @Scheduled(fixedDelayString = "${medcal.rate-limit.sweep-ms:60000}")
+    public void sweep() {
+        long now = nanoClock.getAsLong();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    static Map<String, Limit> parse(String spec) {
+        Map<String, Limit> limits = new HashMap<>();
+        for (String entry : spec.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            String[] roleAndLimit = trimmed.split("=");
+            String[] capacityAndRate = roleAndLimit.length == 2 ? roleAndLimit[1].split("/") : new String[0];
+            if (capacityAndRate.length != 2) {
+                throw new IllegalArgumentException("Límite de peticiones inválido: " + trimmed);
+            }
+            limits.put(roleAndLimit[0].trim().toUpperCase(), new Limit(
+                    Integer.parseInt(capacityAndRate[0].trim()), Double.parseDouble(capacityAndRate[1].trim())));
+        }
+        return limits;
+    }
+}
@@ -16,6 +16,10 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationSuccessHandler;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -33,6 +37,9 @@ public class SecurityConfig {
 
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private final JwtRequestFilter jwtRequestFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final LoginAttemptFilter loginAttemptFilter;
+    private final LoginAttemptLimiter loginAttemptLimiter;
     private final CustomUserDetailsService userDetailsService;
     
     @Bean
@@ -60,11 +67,14 @@ public class SecurityConfig {
             .authorizeHttpRequests(authz -> authz
                 // Public endpoints
                 .requestMatchers("/auth/login", "/auth/logout", "/h2-console/**").permitAll()
+                .requestMatchers("/actuator/sqlstats/**").hasRole("ADMIN")
                 .requestMatchers("/actuator/**").permitAll()
                 // Web interface - requires authentication
                 .requestMatchers("/", "/dashboard", "/doctors/**", "/patients/**", "/appointments/**", "/htmx/**").authenticated()
                 // API endpoints with JWT
                 .requestMatchers("/api/auth/**").permitAll()
+                // Calendar feeds carry their own token (CalendarTokens): calendar apps cannot send a JWT
+                .requestMatchers("/api/doctors/*/calendar.ics").permitAll()
                 .requestMatchers("/api/doctors/**").hasAnyRole("DOCTOR", "ADMIN", "RECEPTIONIST")
                 .requestMatchers("/api/patients/**").hasAnyRole("DOCTOR", "ADMIN", "RECEPTIONIST", "PATIENT")
                 .requestMatchers("/api/appointments/**").authenticated()
@@ -74,8 +84,8 @@ public class SecurityConfig {
             .formLogin(form -> form
                 .loginPage("/auth/login")
                 .loginProcessingUrl("/auth/login")
-                .defaultSuccessUrl("/dashboard", true)
-                .failureUrl("/auth/login?error=true")
+                .successHandler(loginSuccessHandler())
+                .failureHandler(loginFailureHandler())
                 .usernameParameter("email")
                 .passwordParameter("password")
                 .permitAll()
@@ -109,10 +119,31 @@ public class SecurityConfig {
 
         // Add JWT filter only for API requests
         http.addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class);
+        // Rate limiting before the JWT user lookup, so rejected requests never reach the database
+        http.addFilterBefore(rateLimitFilter, JwtRequestFilter.class);
+        // Throttled logins are turned away before the user lookup and the BCrypt check
+        http.addFilterBefore(loginAttemptFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
     
+    private AuthenticationSuccessHandler loginSuccessHandler() {
+        SimpleUrlAuthenticationSuccessHandler redirect = new SimpleUrlAuthenticationSuccessHandler("/dashboard");
+        redirect.setAlwaysUseDefaultTargetUrl(true);
+        return (request, response, authentication) -> {
+            loginAttemptLimiter.recordSuccess(authentication.getName());
+            redirect.onAuthenticationSuccess(request, response, authentication);
+        };
+    }
+    
+    private AuthenticationFailureHandler loginFailureHandler() {
+        SimpleUrlAuthenticationFailureHandler redirect = new SimpleUrlAuthenticationFailureHandler("/auth/login?error=true");
+        return (request, response, exception) -> {
+            loginAttemptLimiter.recordFailure(request.getParameter(LoginAttemptFilter.EMAIL_PARAMETER), request.getRemoteAddr());
+            redirect.onAuthenticationFailure(request, response, exception);
+        };
+    }
+    
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -0,0 +1,262 @@
+package com.medcal.service;
+
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.event.AppointmentSnapshot;
+import com.medcal.model.dto.BulkStatusRequest;
+import com.medcal.model.dto.BulkStatusResult;
+import com.medcal.model.dto.BulkStatusResult.Item;
+import com.medcal.model.dto.BulkStatusResult.Outcome;
+import com.medcal.model.entity.Doctor;
+import com.medcal.model.enums.AppointmentChangeType;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.repository.DoctorRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Moves many appointments to one status in a single transaction, for
+ * {@code POST /api/appointments/status:bulk}.
+ * <p>
+ * The matching rows are read {@code FOR UPDATE} as plain columns, each is checked against
+ * the allowed transitions, and the valid ones are changed with {@code UPDATE ... WHERE id IN
+ * (...)}, at most {@link #IN_CHUNK} ids per statement. Rows that cannot change are reported
+ * per item instead of failing the request. Confirming ({@code SCHEDULED}) also checks each
+ * row against the doctor's scheduled appointments and against the rows already accepted in
+ * the same request, in request order, so a batch never double-books a doctor. Events are
+ * published per row as for single updates.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class AppointmentBulkStatusService {
+
+    static final int MAX_ITEMS = 5000;
+    static final int IN_CHUNK = 1000;
+    static final Duration MAX_RANGE = Duration.ofDays(31);
+
+    // Estados terminales: COMPLETED, CANCELLED y NO_SHOW no admiten más cambios
+    private static final Map<AppointmentStatus, Set<AppointmentStatus>> ALLOWED = new EnumMap<>(Map.of(
+            AppointmentStatus.PENDING, EnumSet.of(AppointmentStatus.SCHEDULED, AppointmentStatus.CANCELLED,
+                    AppointmentStatus.NO_SHOW),
+            AppointmentStatus.SCHEDULED, EnumSet.of(AppointmentStatus.CANCELLED, AppointmentStatus.COMPLETED,
+                    AppointmentStatus.NO_SHOW)));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final DoctorRepository doctorRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public AppointmentBulkStatusService(JdbcTemplate jdbcTemplate,
+                                        DoctorRepository doctorRepository,
+                                        ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.doctorRepository = doctorRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public Optional<UUID> findDoctorIdByEmail(String email) {
+        return doctorRepository.findByUserEmail(email).map(Doctor::getId);
+    }
+
+    /**
+     * @param doctorScope when not null, only that doctor's appointments may change; the
+     *                    others are reported as {@link Outcome#FORBIDDEN}
+     */
+    @Transactional
+    public BulkStatusResult updateStatus(BulkStatusRequest request, UUID doctorScope) {
+        AppointmentStatus target = request.getStatus();
+        List<Item> items = new ArrayList<>();
+        List<AppointmentSnapshot> rows;
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            if (request.getDoctorId() != null || request.getFrom() != null || request.getTo() != null) {
+                throw new IllegalArgumentException("Indique una lista de citas o un filtro, no ambos");
+            }
+            Set<UUID> ids = new LinkedHashSet<>(request.getIds());
+            if (ids.size() > MAX_ITEMS) {
+                throw new IllegalArgumentException("Como máximo " + MAX_ITEMS + " citas por petición");
+            }
+            rows = lockByIds(ids);
+            Set<UUID> found = new LinkedHashSet<>();
+            rows.forEach(row -> found.add(row.id()));
+            for (UUID id : ids) {
+                if (!found.contains(id)) {
+                    items.add(new Item(id, Outcome.NOT_FOUND, null, null));
+                }
+            }
+        } else {
+            rows = lockByFilter(request, doctorScope);
+        }
+
+        List<AppointmentSnapshot> eligible = new ArrayList<>();
+        for (AppointmentSnapshot row : rows) {
+            if (doctorScope != null && !doctorScope.equals(row.doctorId())) {
+                items.add(new Item(row.id(), Outcome.FORBIDDEN, null, "La cita es de otro médico"));
+            } else if (row.status() == target) {
+                items.add(new Item(row.id(), Outcome.UNCHANGED, row.status(), null));
+            } else if (!ALLOWED.getOrDefault(row.status(), Set.of()).contains(target)) {
+                items.add(new Item(row.id(), Outcome.CONFLICT, row.status(),
+                        String.format("No se puede pasar de %s a %s", row.status(), target)));
+            } else {
+                eligible.add(row);
+            }
+        }
+
+        List<AppointmentSnapshot> changed = new ArrayList<>();
+        Map<UUID, BusyTimes> agendas = target == AppointmentStatus.SCHEDULED ? scheduledAgendas(eligible) : Map.of();
+        for (AppointmentSnapshot row : eligible) {
+            BusyTimes agenda = agendas.get(row.doctorId());
+            if (agenda != null && agenda.overlaps(row.startTime(), row.endTime())) {
+                items.add(new Item(row.id(), Outcome.CONFLICT, row.status(),
+                        "El médico ya tiene una cita programada en ese horario"));
+                continue;
+            }
+            if (agenda != null) {
+                agenda.add(row.startTime(), row.endTime());
+            }
+            items.add(new Item(row.id(), Outcome.UPDATED, row.status(), null));
+            changed.add(row);
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int from = 0; from < changed.size(); from += IN_CHUNK) {
+            List<UUID> ids = changed.subList(from, Math.min(from + IN_CHUNK, changed.size())).stream()
+                    .map(AppointmentSnapshot::id).toList();
+            jdbcTemplate.update("UPDATE appointments SET status = :status, updated_at = :now WHERE id IN (:ids)",
+                    new MapSqlParameterSource()
+                            .addValue("status", target.name())
+                            .addValue("now", now)
+                            .addValue("ids", ids));
+        }
+        AppointmentChangeType type = target == AppointmentStatus.CANCELLED
+                ? AppointmentChangeType.CANCELLED : AppointmentChangeType.STATUS_CHANGED;
+        for (AppointmentSnapshot row : changed) {
+            eventPublisher.publishEvent(AppointmentChangedEvent.changed(type, row, row.withStatus(target)));
+        }
+        log.info("Cambio de estado en bloque a {}: {} de {} citas", target, changed.size(), items.size());
+        return BulkStatusResult.builder()
+                .status(target)
+                .matched(rows.size())
+                .updated(changed.size())
+                .items(items)
+                .build();
+    }
+
+    /**
+     * The {@code SCHEDULED} appointments of the candidates' doctors that can overlap them,
+     * read with one query per chunk of doctors over the candidates' overall time span.
+     */
+    private Map<UUID, BusyTimes> scheduledAgendas(List<AppointmentSnapshot> candidates) {
+        Map<UUID, BusyTimes> agendas = new HashMap<>();
+        if (candidates.isEmpty()) {
+            return agendas;
+        }
+        LocalDateTime from = candidates.get(0).startTime();
+        LocalDateTime to = candidates.get(0).endTime();
+        for (AppointmentSnapshot candidate : candidates) {
+            agendas.putIfAbsent(candidate.doctorId(), new BusyTimes());
+            from = candidate.startTime().isBefore(from) ? candidate.startTime() : from;
+            to = candidate.endTime().isAfter(to) ? candidate.endTime() : to;
+        }
+        List<UUID> doctorIds = new ArrayList<>(agendas.keySet());
+        for (int chunk = 0; chunk < doctorIds.size(); chunk += IN_CHUNK) {
+            jdbcTemplate.query("SELECT " + AppointmentSnapshotRows.COLUMNS + " FROM appointments " +
+                            "WHERE doctor_id IN (:doctorIds) AND status = 'SCHEDULED' " +
+                            "AND start_time < :to AND end_time > :from",
+                    new MapSqlParameterSource()
+                            .addValue("doctorIds", doctorIds.subList(chunk, Math.min(chunk + IN_CHUNK, doctorIds.size())))
+                            .addValue("from", Timestamp.valueOf(from))
+                            .addValue("to", Timestamp.valueOf(to)),
+                    AppointmentSnapshotRows.MAPPER)
+                    .forEach(row -> agendas.get(row.doctorId()).add(row.startTime(), row.endTime()));
+        }
+        return agendas;
+    }
+
+    /**
+     * One doctor's busy intervals keyed by start. An interval can only overlap
+     * {@code [start, end)} if it starts less than the longest busy duration before
+     * {@code start}, so each check only looks at that window.
+     */
+    private static final class BusyTimes {
+
+        private final NavigableMap<LocalDateTime, LocalDateTime> endByStart = new TreeMap<>();
+        private Duration longest = Duration.ZERO;
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            for (LocalDateTime busyEnd : endByStart.subMap(start.minus(longest), false, end, false).values()) {
+                if (busyEnd.isAfter(start)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void add(LocalDateTime start, LocalDateTime end) {
+            endByStart.merge(start, end, (a, b) -> a.isAfter(b) ? a : b);
+            Duration duration = Duration.between(start, end);
+            longest = duration.compareTo(longest) > 0 ? duration : longest;
+        }
+    }
+
+    private List<AppointmentSnapshot> lockByIds(Set<UUID> ids) {
+        List<UUID> ordered = new ArrayList<>(ids);
+        Map<UUID, AppointmentSnapshot> byId = new HashMap<>();
+        for (int from = 0; from < ordered.size(); from += IN_CHUNK) {
+            jdbcTemplate.query("SELECT " + AppointmentSnapshotRows.COLUMNS + " FROM appointments " +
+                            "WHERE id IN (:ids) FOR UPDATE",
+                    new MapSqlParameterSource("ids", ordered.subList(from, Math.min(from + IN_CHUNK, ordered.size()))),
+                    AppointmentSnapshotRows.MAPPER).forEach(row -> byId.put(row.id(), row));
+        }
+        // En el orden de la petición
+        return ordered.stream().map(byId::get).filter(row -> row != null).toList();
+    }
+
+    private List<AppointmentSnapshot> lockByFilter(BulkStatusRequest request, UUID doctorScope) {
+        UUID doctorId = request.getDoctorId() != null ? request.getDoctorId() : doctorScope;
+        if (doctorId == null || request.getFrom() == null || request.getTo() == null) {
+            throw new IllegalArgumentException("Indique una lista de citas o médico, desde y hasta");
+        }
+        if (!request.getFrom().isBefore(request.getTo())
+                || Duration.between(request.getFrom(), request.getTo()).compareTo(MAX_RANGE) > 0) {
+            throw new IllegalArgumentException("El rango debe ser positivo y de 31 días como máximo");
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("doctorId", doctorId)
+                .addValue("from", Timestamp.valueOf(request.getFrom()))
+                .addValue("to", Timestamp.valueOf(request.getTo()))
+                .addValue("limit", MAX_ITEMS + 1);
+        String statusFilter = "";
+        if (request.getCurrentStatus() != null) {
+            statusFilter = " AND status = :currentStatus";
+            params.addValue("currentStatus", request.getCurrentStatus().name());
+        }
+        List<AppointmentSnapshot> rows = jdbcTemplate.query("SELECT " + AppointmentSnapshotRows.COLUMNS +
+                        " FROM appointments WHERE doctor_id = :doctorId AND start_time >= :from AND start_time < :to" +
+                        statusFilter + " ORDER BY start_time LIMIT :limit FOR UPDATE",
+                params, AppointmentSnapshotRows.MAPPER);
+        if (rows.size() > MAX_ITEMS) {
+            throw new IllegalArgumentException("Más de " + MAX_ITEMS + " citas coinciden; acote el rango");
+        }
+        return rows;
+    }
+}
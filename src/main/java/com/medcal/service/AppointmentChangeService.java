@@ -0,0 +1,220 @@
+package com.medcal.service;
+
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.event.AppointmentSnapshot;
+import com.medcal.model.dto.AppointmentChangeEntry;
+import com.medcal.model.dto.AppointmentChangeFeed;
+import com.medcal.model.entity.Appointment;
+import com.medcal.model.entity.AppointmentChange;
+import com.medcal.model.entity.Doctor;
+import com.medcal.model.entity.Patient;
+import com.medcal.model.enums.AppointmentChangeType;
+import com.medcal.repository.AppointmentChangeRepository;
+import com.medcal.repository.AppointmentRepository;
+import com.medcal.repository.DoctorRepository;
+import com.medcal.repository.PatientRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Change log behind {@code GET /api/appointments/changes}: every appointment write adds a
+ * sequenced row in the same transaction, and sync clients ask for the rows after the last
+ * sequence they saw instead of downloading their whole history.
+ * <p>
+ * Sequences are assigned at insert but become visible at commit, so a slow transaction can
+ * surface a lower sequence after a higher one was read. The cursor handed back to clients
+ * therefore only advances over changes older than {@code medcal.changes.settle-ms}; newer
+ * ones are returned but sent again on the next sync, which clients apply idempotently.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class AppointmentChangeService {
+
+    static final int MAX_LIMIT = 1000;
+
+    private final AppointmentChangeRepository changeRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final PatientRepository patientRepository;
+    private final AppointmentService appointmentService;
+    private final Duration settleWindow;
+    private final int retentionDays;
+
+    public AppointmentChangeService(AppointmentChangeRepository changeRepository,
+                                    AppointmentRepository appointmentRepository,
+                                    DoctorRepository doctorRepository,
+                                    PatientRepository patientRepository,
+                                    AppointmentService appointmentService,
+                                    @Value("${medcal.changes.settle-ms:5000}") long settleMs,
+                                    @Value("${medcal.changes.retention-days:180}") int retentionDays) {
+        this.changeRepository = changeRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.doctorRepository = doctorRepository;
+        this.patientRepository = patientRepository;
+        this.appointmentService = appointmentService;
+        this.settleWindow = Duration.ofMillis(settleMs);
+        this.retentionDays = retentionDays;
+    }
+
+    /** Appointments visible to a sync client: everything, one doctor's or one patient's. */
+    public record ChangeScope(UUID doctorId, UUID patientId) {
+
+        public static ChangeScope all() {
+            return new ChangeScope(null, null);
+        }
+
+        public static ChangeScope doctor(UUID doctorId) {
+            return new ChangeScope(doctorId, null);
+        }
+
+        public static ChangeScope patient(UUID patientId) {
+            return new ChangeScope(null, patientId);
+        }
+
+        boolean includes(Appointment appointment) {
+            return (doctorId == null || doctorId.equals(appointment.getDoctorId()))
+                    && (patientId == null || patientId.equals(appointment.getPatientId()));
+        }
+    }
+
+    /** Runs inside the writing transaction, so the change row commits or rolls back with it. */
+    @EventListener
+    @Transactional
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        AppointmentSnapshot current = event.current();
+        AppointmentSnapshot before = event.before();
+        AppointmentChange change = AppointmentChange.builder()
+                .appointmentId(current.id())
+                .doctorId(current.doctorId())
+                .patientId(current.patientId())
+                .changeType(event.type())
+                .changedAt(LocalDateTime.ofInstant(event.occurredAt(), ZoneId.systemDefault()))
+                .build();
+        if (before != null && event.after() != null) {
+            if (!before.doctorId().equals(current.doctorId())) {
+                change.setPreviousDoctorId(before.doctorId());
+            }
+            if (!before.patientId().equals(current.patientId())) {
+                change.setPreviousPatientId(before.patientId());
+            }
+        }
+        changeRepository.save(change);
+    }
+
+    public Optional<UUID> findDoctorIdByEmail(String email) {
+        return doctorRepository.findByUserEmail(email).map(Doctor::getId);
+    }
+
+    public Optional<UUID> findPatientIdByEmail(String email) {
+        return patientRepository.findByUserEmail(email).map(Patient::getId);
+    }
+
+    /**
+     * Latest state of every appointment in the scope changed after {@code since}, at most
+     * {@code limit} change rows per call.
+     */
+    public AppointmentChangeFeed getChangesSince(ChangeScope scope, long since, int limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("La secuencia 'since' no puede ser negativa");
+        }
+        if (scope.doctorId() != null && scope.patientId() != null) {
+            throw new IllegalArgumentException("Indique doctorId o patientId, no ambos");
+        }
+        int pageSize = Math.min(Math.max(limit, 1), MAX_LIMIT);
+
+        Long oldest = changeRepository.findOldestSeq();
+        if (since > 0 && oldest != null && since < oldest - 1) {
+            // Los cambios posteriores a 'since' ya se purgaron: el cliente debe recargar todo
+            return AppointmentChangeFeed.builder()
+                    .since(since)
+                    .nextSince(since)
+                    .resync(true)
+                    .changes(List.of())
+                    .build();
+        }
+
+        List<AppointmentChange> changes = findChanges(scope, since, PageRequest.of(0, pageSize + 1));
+        boolean truncated = changes.size() > pageSize;
+        if (truncated) {
+            changes = changes.subList(0, pageSize);
+        }
+
+        // Sólo el último cambio de cada cita, en orden de secuencia
+        Map<UUID, AppointmentChange> latest = new LinkedHashMap<>();
+        for (AppointmentChange change : changes) {
+            latest.remove(change.getAppointmentId());
+            latest.put(change.getAppointmentId(), change);
+        }
+        Set<UUID> liveIds = latest.values().stream()
+                .filter(change -> change.getChangeType() != AppointmentChangeType.DELETED)
+                .map(AppointmentChange::getAppointmentId)
+                .collect(Collectors.toSet());
+        Map<UUID, Appointment> current = appointmentRepository.findAllById(liveIds).stream()
+                .collect(Collectors.toMap(Appointment::getId, Function.identity()));
+
+        List<AppointmentChangeEntry> entries = new ArrayList<>(latest.size());
+        for (AppointmentChange change : latest.values()) {
+            Appointment appointment = current.get(change.getAppointmentId());
+            boolean visible = appointment != null && scope.includes(appointment);
+            entries.add(AppointmentChangeEntry.builder()
+                    .seq(change.getSeq())
+                    .appointmentId(change.getAppointmentId())
+                    .change(change.getChangeType())
+                    .deleted(!visible)
+                    .appointment(visible ? appointmentService.convertToDTO(appointment) : null)
+                    .build());
+        }
+
+        long nextSince = since;
+        LocalDateTime settledBefore = LocalDateTime.now().minus(settleWindow);
+        for (AppointmentChange change : changes) {
+            if (change.getChangedAt().isAfter(settledBefore)) {
+                break;
+            }
+            nextSince = change.getSeq();
+        }
+        long lastSeq = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq();
+
+        return AppointmentChangeFeed.builder()
+                .since(since)
+                .nextSince(nextSince)
+                // Sin avanzar el cursor hasta el final de la página, pedir más repetiría la misma página
+                .hasMore(truncated && nextSince == lastSeq)
+                .resync(false)
+                .changes(entries)
+                .build();
+    }
+
+    @Scheduled(cron = "${medcal.changes.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeExpiredChanges() {
+        int purged = changeRepository.deleteChangedBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (purged > 0) {
+            log.info("Purgados {} cambios de citas con más de {} días", purged, retentionDays);
+        }
+    }
+
+    private List<AppointmentChange> findChanges(ChangeScope scope, long since, Pageable pageable) {
+        if (scope.doctorId() != null) {
+            return changeRepository.findDoctorChangesSince(scope.doctorId(), since, pageable);
+        }
+        if (scope.patientId() != null) {
+            return changeRepository.findPatientChangesSince(scope.patientId(), since, pageable);
+        }
+        return changeRepository.findChangesSince(since, pageable);
+    }
+}
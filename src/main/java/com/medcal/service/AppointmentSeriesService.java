@@ -0,0 +1,358 @@
+package com.medcal.service;
+
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.event.AppointmentSnapshot;
+import com.medcal.exception.ConflictException;
+import com.medcal.exception.ResourceNotFoundException;
+import com.medcal.model.dto.SeriesOccurrence;
+import com.medcal.model.dto.SeriesRequest;
+import com.medcal.model.entity.Appointment;
+import com.medcal.model.entity.AppointmentSeries;
+import com.medcal.model.entity.Patient;
+import com.medcal.model.enums.AppointmentChangeType;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import com.medcal.repository.AppointmentRepository;
+import com.medcal.repository.AppointmentSeriesRepository;
+import com.medcal.repository.DoctorRepository;
+import com.medcal.repository.PatientRepository;
+import com.medcal.service.FreeSlotIterator.Interval;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Recurring appointment series. A series is a single row; its occurrences are appointment
+ * rows only inside the rolling {@code medcal.series.materialize-days} horizon (so booking
+ * conflict checks, availability and the change feed see the coming visits) or when one is
+ * materialised on demand. Beyond that they are expanded from the {@link RecurrenceRule}
+ * when a window is queried, so neither storage nor creation cost grows with the length
+ * of the series.
+ * <p>
+ * Conflicts are found with one sweep: the doctor's busy intervals (appointments plus the
+ * not yet materialised occurrences of their other series) are merged into sorted disjoint
+ * intervals and walked alongside the new occurrences.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class AppointmentSeriesService {
+
+    static final int MAX_WINDOW_DAYS = 366;
+    static final String CONFLICT_NOTE = "Omitida: el doctor ya tenía una cita en ese horario";
+    private static final int CONFLICTS_REPORTED = 5;
+
+    private final AppointmentSeriesRepository seriesRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final PatientRepository patientRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int materializeDays;
+    private final int conflictHorizonDays;
+
+    public AppointmentSeriesService(AppointmentSeriesRepository seriesRepository,
+                                    AppointmentRepository appointmentRepository,
+                                    DoctorRepository doctorRepository,
+                                    PatientRepository patientRepository,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${medcal.series.materialize-days:28}") int materializeDays,
+                                    @Value("${medcal.series.conflict-horizon-days:365}") int conflictHorizonDays) {
+        this.seriesRepository = seriesRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.doctorRepository = doctorRepository;
+        this.patientRepository = patientRepository;
+        this.eventPublisher = eventPublisher;
+        this.materializeDays = materializeDays;
+        this.conflictHorizonDays = conflictHorizonDays;
+    }
+
+    @Transactional
+    public AppointmentSeries createSeries(SeriesRequest request, UUID createdBy) {
+        if (request.getDurationMinutes() == null || request.getDurationMinutes() < 15 || request.getDurationMinutes() > 480) {
+            throw new IllegalArgumentException("La duración debe estar entre 15 y 480 minutos");
+        }
+        if (!request.getFirstStart().isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Cannot schedule appointment in the past");
+        }
+        RecurrenceRule rule = RecurrenceRule.parse(request.getRrule(), request.getFirstStart());
+        if (!patientRepository.existsById(request.getPatientId())) {
+            throw new ResourceNotFoundException("Patient not found with id: " + request.getPatientId());
+        }
+        doctorRepository.findByIdAndActiveTrue(request.getDoctorId())
+                .orElseThrow(() -> new ResourceNotFoundException("Active doctor not found with id: " + request.getDoctorId()));
+
+        AppointmentSeries series = AppointmentSeries.builder()
+                .doctorId(request.getDoctorId())
+                .patientId(request.getPatientId())
+                .type(request.getType() != null ? request.getType() : AppointmentType.FOLLOWUP)
+                .rrule(rule.toString())
+                .firstStart(request.getFirstStart())
+                .durationMinutes(request.getDurationMinutes())
+                .notes(request.getNotes())
+                .createdBy(createdBy)
+                .active(true)
+                .materializedUntil(request.getFirstStart())
+                .build();
+
+        // Se comprueba toda la serie (o el horizonte de conflictos si no tiene fin) de una pasada
+        LocalDateTime checkEnd = request.getFirstStart().plusDays(conflictHorizonDays);
+        LocalDateTime lastStart = rule.lastStart(request.getFirstStart());
+        if (lastStart != null && lastStart.isBefore(checkEnd)) {
+            checkEnd = lastStart.plusMinutes(request.getDurationMinutes());
+        }
+        List<LocalDateTime> conflicts = findConflicts(series, rule, request.getFirstStart(), checkEnd);
+        if (!conflicts.isEmpty()) {
+            throw new ConflictException("La serie coincide con " + conflicts.size() + " citas del doctor, p. ej. "
+                    + conflicts.stream().limit(CONFLICTS_REPORTED).map(LocalDateTime::toString).collect(Collectors.joining(", ")));
+        }
+
+        AppointmentSeries saved = seriesRepository.save(series);
+        materialize(saved, rule, LocalDateTime.now().plusDays(materializeDays));
+        return saved;
+    }
+
+    public Optional<AppointmentSeries> findById(UUID seriesId) {
+        return seriesRepository.findById(seriesId);
+    }
+
+    public Optional<UUID> findPatientIdByEmail(String email) {
+        return patientRepository.findByUserEmail(email).map(Patient::getId);
+    }
+
+    /** Occurrences starting in {@code [from, to)}: materialised rows as stored, the rest expanded from the rule. */
+    public List<SeriesOccurrence> getOccurrences(UUID seriesId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to) || Duration.between(from, to).toDays() > MAX_WINDOW_DAYS) {
+            throw new IllegalArgumentException("El rango debe ser válido y no superar los " + MAX_WINDOW_DAYS + " días");
+        }
+        AppointmentSeries series = seriesRepository.findById(seriesId)
+                .orElseThrow(() -> new ResourceNotFoundException("Series not found with id: " + seriesId));
+        Map<LocalDateTime, Appointment> materialized = new HashMap<>();
+        for (Appointment appointment : appointmentRepository.findBySeriesIdAndStartTimeRange(seriesId, from, to)) {
+            materialized.put(appointment.getStartTime(), appointment);
+        }
+        List<SeriesOccurrence> occurrences = new ArrayList<>();
+        materialized.values().forEach(appointment -> occurrences.add(toOccurrence(series, appointment)));
+        if (series.isActive()) {
+            RecurrenceRule rule = RecurrenceRule.parse(series.getRrule(), series.getFirstStart());
+            for (LocalDateTime start : rule.between(series.getFirstStart(), from, to)) {
+                if (!materialized.containsKey(start)) {
+                    occurrences.add(SeriesOccurrence.builder()
+                            .seriesId(seriesId)
+                            .materialized(false)
+                            .status(AppointmentStatus.SCHEDULED)
+                            .startTime(start)
+                            .endTime(start.plusMinutes(series.getDurationMinutes()))
+                            .build());
+                }
+            }
+        }
+        occurrences.sort(Comparator.comparing(SeriesOccurrence::getStartTime));
+        return occurrences;
+    }
+
+    /**
+     * Turns one occurrence into an appointment row, e.g. to cancel or annotate a single
+     * visit far ahead. Returns the existing row if it was already materialised.
+     */
+    @Transactional
+    public Appointment materializeOccurrence(UUID seriesId, LocalDateTime start) {
+        AppointmentSeries series = seriesRepository.findById(seriesId)
+                .filter(AppointmentSeries::isActive)
+                .orElseThrow(() -> new ResourceNotFoundException("Active series not found with id: " + seriesId));
+        RecurrenceRule rule = RecurrenceRule.parse(series.getRrule(), series.getFirstStart());
+        if (!rule.isOccurrence(series.getFirstStart(), start)) {
+            throw new IllegalArgumentException("La serie no tiene una cita en " + start);
+        }
+        List<Appointment> existing = appointmentRepository.findBySeriesIdAndStartTimeRange(seriesId, start, start.plusNanos(1));
+        if (!existing.isEmpty()) {
+            return existing.get(0);
+        }
+        LocalDateTime end = start.plusMinutes(series.getDurationMinutes());
+        if (!appointmentRepository.findActiveByDoctorIdsOverlapping(List.of(series.getDoctorId()), start, end).isEmpty()) {
+            throw new ConflictException("Doctor already has an appointment during this time");
+        }
+        Appointment saved = appointmentRepository.save(occurrence(series, start, AppointmentStatus.SCHEDULED, series.getNotes()));
+        eventPublisher.publishEvent(AppointmentChangedEvent.created(AppointmentSnapshot.of(saved)));
+        return saved;
+    }
+
+    /** Stops the series and cancels its future materialised occurrences. */
+    @Transactional
+    public Optional<AppointmentSeries> endSeries(UUID seriesId) {
+        return seriesRepository.findById(seriesId).map(series -> {
+            series.setActive(false);
+            // Incluye las materializadas bajo demanda más allá del horizonte
+            for (Appointment appointment : appointmentRepository.findBySeriesIdAndStartTimeAfterAndStatusIn(
+                    seriesId, LocalDateTime.now(), List.of(AppointmentStatus.PENDING, AppointmentStatus.SCHEDULED))) {
+                AppointmentSnapshot before = AppointmentSnapshot.of(appointment);
+                appointment.setStatus(AppointmentStatus.CANCELLED);
+                Appointment saved = appointmentRepository.save(appointment);
+                eventPublisher.publishEvent(AppointmentChangedEvent.changed(
+                        AppointmentChangeType.CANCELLED, before, AppointmentSnapshot.of(saved)));
+            }
+            return seriesRepository.save(series);
+        });
+    }
+
+    /** Moves the materialisation horizon of every active series forward. */
+    @Scheduled(cron = "${medcal.series.materialize-cron:0 15 0 * * *}")
+    @Transactional
+    public void extendMaterialization() {
+        LocalDateTime horizon = LocalDateTime.now().plusDays(materializeDays);
+        int created = 0;
+        for (AppointmentSeries series : seriesRepository.findActiveMaterializedBefore(horizon)) {
+            created += materialize(series, RecurrenceRule.parse(series.getRrule(), series.getFirstStart()), horizon);
+        }
+        if (created > 0) {
+            log.info("Materializadas {} citas de series recurrentes hasta {}", created, horizon);
+        }
+    }
+
+    /**
+     * Creates the rows of the occurrences in {@code [materializedUntil, until)}. An occurrence
+     * the doctor has meanwhile booked over is stored cancelled, so it is not expanded again.
+     */
+    private int materialize(AppointmentSeries series, RecurrenceRule rule, LocalDateTime until) {
+        LocalDateTime from = series.getMaterializedUntil();
+        if (!from.isBefore(until)) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Set<LocalDateTime> existing = appointmentRepository.findBySeriesIdAndStartTimeRange(series.getId(), from, until)
+                .stream().map(Appointment::getStartTime).collect(Collectors.toSet());
+        List<LocalDateTime> starts = rule.between(series.getFirstStart(), from, until).stream()
+                .filter(start -> start.isAfter(now) && !existing.contains(start))
+                .toList();
+        Set<LocalDateTime> conflicting = starts.isEmpty() ? Set.of() : new HashSet<>(sweep(starts,
+                Duration.ofMinutes(series.getDurationMinutes()),
+                busy(series, from, until.plusMinutes(series.getDurationMinutes()), false)));
+
+        List<Appointment> rows = new ArrayList<>(starts.size());
+        for (LocalDateTime start : starts) {
+            rows.add(conflicting.contains(start)
+                    ? occurrence(series, start, AppointmentStatus.CANCELLED, CONFLICT_NOTE)
+                    : occurrence(series, start, AppointmentStatus.SCHEDULED, series.getNotes()));
+        }
+        if (!conflicting.isEmpty()) {
+            log.warn("Serie {}: {} citas omitidas por conflicto con otras citas del doctor", series.getId(), conflicting.size());
+        }
+        for (Appointment saved : appointmentRepository.saveAll(rows)) {
+            eventPublisher.publishEvent(AppointmentChangedEvent.created(AppointmentSnapshot.of(saved)));
+        }
+        series.setMaterializedUntil(until);
+        seriesRepository.save(series);
+        return rows.size();
+    }
+
+    private List<LocalDateTime> findConflicts(AppointmentSeries series, RecurrenceRule rule,
+                                              LocalDateTime from, LocalDateTime to) {
+        List<LocalDateTime> starts = rule.between(series.getFirstStart(), from, to);
+        if (starts.isEmpty()) {
+            return List.of();
+        }
+        Duration duration = Duration.ofMinutes(series.getDurationMinutes());
+        return sweep(starts, duration, busy(series, from, to.plus(duration), true));
+    }
+
+    /**
+     * The doctor's busy time in {@code [from, to)}: active appointments and, when
+     * {@code includeOtherSeries}, the not yet materialised occurrences of their other series.
+     */
+    private List<Interval> busy(AppointmentSeries series, LocalDateTime from, LocalDateTime to, boolean includeOtherSeries) {
+        List<Interval> busy = new ArrayList<>();
+        for (Appointment appointment : appointmentRepository.findActiveByDoctorIdsOverlapping(
+                List.of(series.getDoctorId()), from, to)) {
+            busy.add(new Interval(appointment.getStartTime(), appointment.getEndTime()));
+        }
+        if (includeOtherSeries) {
+            for (AppointmentSeries other : seriesRepository.findByDoctorIdAndActiveTrue(series.getDoctorId())) {
+                if (other.getId() != null && other.getId().equals(series.getId())) {
+                    continue;
+                }
+                RecurrenceRule otherRule = RecurrenceRule.parse(other.getRrule(), other.getFirstStart());
+                // Las ocurrencias materializadas ya vienen en la consulta de citas
+                LocalDateTime virtualFrom = other.getMaterializedUntil().isAfter(from) ? other.getMaterializedUntil() : from;
+                for (LocalDateTime start : otherRule.between(other.getFirstStart(),
+                        virtualFrom.minusMinutes(other.getDurationMinutes()), to)) {
+                    busy.add(new Interval(start, start.plusMinutes(other.getDurationMinutes())));
+                }
+            }
+        }
+        return busy;
+    }
+
+    /**
+     * Starts among {@code starts} (sorted) whose {@code [start, start + duration)} overlaps
+     * any of {@code busy}. Busy intervals are sorted and merged first, so both lists are
+     * walked once.
+     */
+    static List<LocalDateTime> sweep(List<LocalDateTime> starts, Duration duration, List<Interval> busy) {
+        List<Interval> sorted = new ArrayList<>(busy);
+        sorted.sort(Comparator.comparing(Interval::start));
+        List<Interval> merged = new ArrayList<>(sorted.size());
+        for (Interval interval : sorted) {
+            Interval last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && !interval.start().isAfter(last.end())) {
+                if (interval.end().isAfter(last.end())) {
+                    merged.set(merged.size() - 1, new Interval(last.start(), interval.end()));
+                }
+            } else {
+                merged.add(interval);
+            }
+        }
+
+        List<LocalDateTime> conflicts = new ArrayList<>();
+        int i = 0;
+        for (LocalDateTime start : starts) {
+            LocalDateTime end = start.plus(duration);
+            while (i < merged.size() && !merged.get(i).end().isAfter(start)) {
+                i++;
+            }
+            if (i < merged.size() && merged.get(i).start().isBefore(end)) {
+                conflicts.add(start);
+            }
+        }
+        return conflicts;
+    }
+
+    private static Appointment occurrence(AppointmentSeries series, LocalDateTime start, AppointmentStatus status, String notes) {
+        return Appointment.builder()
+                .doctorId(series.getDoctorId())
+                .patientId(series.getPatientId())
+                .startTime(start)
+                .endTime(start.plusMinutes(series.getDurationMinutes()))
+                .type(series.getType())
+                .status(status)
+                .notes(notes)
+                .createdBy(series.getCreatedBy())
+                .seriesId(series.getId())
+                .build();
+    }
+
+    private static SeriesOccurrence toOccurrence(AppointmentSeries series, Appointment appointment) {
+        return SeriesOccurrence.builder()
+                .seriesId(series.getId())
+                .appointmentId(appointment.getId())
+                .materialized(true)
+                .status(appointment.getStatus())
+                .startTime(appointment.getStartTime())
+                .endTime(appointment.getEndTime())
+                .build();
+    }
+}
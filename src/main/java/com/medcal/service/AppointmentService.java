@@ -1,18 +1,26 @@
 package com.medcal.service;
 
+import com.medcal.archive.AppointmentArchive;
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.event.AppointmentSnapshot;
 import com.medcal.model.dto.AppointmentDTO;
 import com.medcal.model.dto.AppointmentRequest;
 import com.medcal.model.entity.Appointment;
 import com.medcal.model.entity.Doctor;
+import com.medcal.model.enums.AppointmentChangeType;
 import com.medcal.model.enums.AppointmentStatus;
 import com.medcal.model.enums.AppointmentType;
 import com.medcal.exception.ConflictException;
 import com.medcal.exception.ResourceNotFoundException;
+import com.medcal.metrics.DomainMetrics;
+import com.medcal.metrics.DomainMetrics.BookingOperation;
+import com.medcal.metrics.DomainMetrics.BookingOutcome;
 import com.medcal.repository.AppointmentRepository;
 import com.medcal.repository.DoctorRepository;
 import com.medcal.repository.PatientRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,6 +28,7 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -30,6 +39,9 @@ public class AppointmentService {
     private final AppointmentRepository appointmentRepository;
     private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
+    private final DomainMetrics domainMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AppointmentArchive appointmentArchive;
     
     public List<AppointmentDTO> getAllAppointments() {
         return appointmentRepository.findAll()
@@ -39,78 +51,107 @@ public class AppointmentService {
     }
     
     public Optional<AppointmentDTO> getAppointmentById(UUID id) {
+        // Las citas archivadas se siguen pudiendo consultar por id
         return appointmentRepository.findById(id)
+                .or(() -> appointmentArchive.findById(id))
                 .map(this::convertToDTO);
     }
     
+    // Las lecturas sin rango de fechas incluyen siempre las citas archivadas
     public List<AppointmentDTO> getAppointmentsByDoctorId(UUID doctorId) {
-        return appointmentRepository.findByDoctorId(doctorId)
-                .stream()
+        List<Appointment> appointments = new ArrayList<>(appointmentRepository.findByDoctorId(doctorId));
+        appointments.addAll(appointmentArchive.findByDoctorId(doctorId));
+        return appointments.stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
     
     public List<AppointmentDTO> getAppointmentsByPatientId(UUID patientId) {
-        return appointmentRepository.findByPatientId(patientId)
-                .stream()
+        List<Appointment> appointments = new ArrayList<>(appointmentRepository.findByPatientId(patientId));
+        appointments.addAll(appointmentArchive.findByPatientId(patientId));
+        return appointments.stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
     
     public List<AppointmentDTO> getAppointmentsByStatus(AppointmentStatus status) {
-        return appointmentRepository.findByStatus(status)
-                .stream()
+        List<Appointment> appointments = new ArrayList<>(appointmentRepository.findByStatus(status));
+        appointments.addAll(appointmentArchive.findByStatus(status));
+        return appointments.stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
     
     public List<AppointmentDTO> getAppointmentsByDoctorAndDateRange(UUID doctorId, LocalDateTime startDate, LocalDateTime endDate) {
-        return appointmentRepository.findByDoctorIdAndDateRange(doctorId, startDate, endDate)
-                .stream()
+        List<Appointment> appointments = new ArrayList<>(
+                appointmentRepository.findByDoctorIdAndDateRange(doctorId, startDate, endDate));
+        appointments.addAll(appointmentArchive.findByDoctorIdAndDateRange(doctorId, startDate, endDate));
+        return appointments.stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
     
     public List<AppointmentDTO> getAppointmentsByPatientAndDateRange(UUID patientId, LocalDateTime startDate, LocalDateTime endDate) {
-        return appointmentRepository.findByPatientIdAndDateRange(patientId, startDate, endDate)
-                .stream()
+        List<Appointment> appointments = new ArrayList<>(
+                appointmentRepository.findByPatientIdAndDateRange(patientId, startDate, endDate));
+        appointments.addAll(appointmentArchive.findByPatientIdAndDateRange(patientId, startDate, endDate));
+        return appointments.stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
     
     @Transactional
     public AppointmentDTO createAppointment(Appointment appointment) {
-        // Validaciones básicas
-        validateAppointment(appointment);
-        
-        // Verificar que el doctor existe
-        Doctor doctor = doctorRepository.findById(appointment.getDoctorId())
-                .orElseThrow(() -> new IllegalArgumentException("El doctor especificado no existe"));
-        
-        // Verificar que el paciente existe
-        if (!patientRepository.existsById(appointment.getPatientId())) {
-            throw new IllegalArgumentException("El paciente especificado no existe");
-        }
-        
-        // Verificar conflictos de horarios
-        validateNoConflicts(appointment);
-        
-        // Verificar horarios de trabajo del doctor
-        validateDoctorWorkingHours(doctor, appointment);
-        
-        // Establecer estado por defecto si no se especifica
-        if (appointment.getStatus() == null) {
-            appointment.setStatus(AppointmentStatus.SCHEDULED);
+        long started = System.nanoTime();
+        BookingOutcome outcome = BookingOutcome.ERROR;
+        try {
+            // Validaciones básicas
+            validateAppointment(appointment);
+            
+            // Verificar que el doctor existe
+            Doctor doctor = doctorRepository.findById(appointment.getDoctorId())
+                    .orElseThrow(() -> new IllegalArgumentException("El doctor especificado no existe"));
+            
+            // Verificar que el paciente existe
+            if (!patientRepository.existsById(appointment.getPatientId())) {
+                throw new IllegalArgumentException("El paciente especificado no existe");
+            }
+            
+            // Verificar conflictos de horarios
+            if (!findConflicts(appointment).isEmpty()) {
+                outcome = BookingOutcome.CONFLICT;
+                throw new IllegalArgumentException("El doctor ya tiene una cita programada en ese horario");
+            }
+            
+            // Verificar horarios de trabajo del doctor
+            validateDoctorWorkingHours(doctor, appointment);
+            
+            // Establecer estado por defecto si no se especifica
+            if (appointment.getStatus() == null) {
+                appointment.setStatus(AppointmentStatus.SCHEDULED);
+            }
+            
+            Appointment savedAppointment = appointmentRepository.save(appointment);
+            eventPublisher.publishEvent(AppointmentChangedEvent.created(AppointmentSnapshot.of(savedAppointment)));
+            outcome = BookingOutcome.BOOKED;
+            return convertToDTO(savedAppointment);
+        } catch (RuntimeException e) {
+            // Los conflictos también se reportan como IllegalArgumentException
+            if (outcome != BookingOutcome.CONFLICT) {
+                outcome = BookingOutcome.of(e);
+            }
+            throw e;
+        } finally {
+            domainMetrics.recordBooking(BookingOperation.CREATE, outcome, System.nanoTime() - started);
         }
-        
-        Appointment savedAppointment = appointmentRepository.save(appointment);
-        return convertToDTO(savedAppointment);
     }
     
     @Transactional
     public Optional<AppointmentDTO> updateAppointment(UUID id, Appointment appointmentDetails) {
         return appointmentRepository.findById(id)
                 .map(appointment -> {
+                    AppointmentSnapshot before = AppointmentSnapshot.of(appointment);
+                    
                     // Actualizar campos
                     appointment.setDoctorId(appointmentDetails.getDoctorId());
                     appointment.setPatientId(appointmentDetails.getPatientId());
@@ -126,7 +167,10 @@ public class AppointmentService {
                     // Verificar conflictos solo si cambió el horario o doctor
                     validateNoConflictsForUpdate(appointment);
                     
-                    return convertToDTO(appointmentRepository.save(appointment));
+                    Appointment saved = appointmentRepository.save(appointment);
+                    eventPublisher.publishEvent(AppointmentChangedEvent.changed(
+                            AppointmentChangeType.UPDATED, before, AppointmentSnapshot.of(saved)));
+                    return convertToDTO(saved);
                 });
     }
     
@@ -134,22 +178,45 @@ public class AppointmentService {
     public Optional<AppointmentDTO> updateAppointmentStatus(UUID id, AppointmentStatus status) {
         return appointmentRepository.findById(id)
                 .map(appointment -> {
+                    AppointmentSnapshot before = AppointmentSnapshot.of(appointment);
                     appointment.setStatus(status);
-                    return convertToDTO(appointmentRepository.save(appointment));
+                    Appointment saved = appointmentRepository.save(appointment);
+                    AppointmentChangeType type = status == AppointmentStatus.CANCELLED
+                            ? AppointmentChangeType.CANCELLED : AppointmentChangeType.STATUS_CHANGED;
+                    eventPublisher.publishEvent(AppointmentChangedEvent.changed(type, before, AppointmentSnapshot.of(saved)));
+                    return convertToDTO(saved);
                 });
     }
     
     @Transactional
     public boolean deleteAppointment(UUID id) {
-        if (appointmentRepository.existsById(id)) {
-            appointmentRepository.deleteById(id);
-            return true;
+        // Se carga la cita para publicar su último estado (doctor y horario) con el borrado
+        Optional<Appointment> appointment = appointmentRepository.findById(id);
+        if (appointment.isEmpty()) {
+            return false;
         }
-        return false;
+        appointmentRepository.deleteById(id);
+        eventPublisher.publishEvent(AppointmentChangedEvent.deleted(AppointmentSnapshot.of(appointment.get())));
+        return true;
     }
     
     @Transactional
     public Appointment scheduleAppointment(AppointmentRequest request) {
+        long started = System.nanoTime();
+        BookingOutcome outcome = BookingOutcome.ERROR;
+        try {
+            Appointment appointment = doScheduleAppointment(request);
+            outcome = BookingOutcome.BOOKED;
+            return appointment;
+        } catch (RuntimeException e) {
+            outcome = BookingOutcome.of(e);
+            throw e;
+        } finally {
+            domainMetrics.recordBooking(BookingOperation.SCHEDULE, outcome, System.nanoTime() - started);
+        }
+    }
+    
+    private Appointment doScheduleAppointment(AppointmentRequest request) {
         UUID patientId = request.getPatientId();
         UUID doctorId = request.getDoctorId();
         LocalDateTime startTime = request.getStartTime();
@@ -190,8 +257,11 @@ public class AppointmentService {
         appointment.setNotes(notes);
         appointment.setType(type);
         appointment.setStatus(status);
+        appointment.setCreatedBy(request.getCreatedBy());
         
-        return appointmentRepository.save(appointment);
+        Appointment saved = appointmentRepository.save(appointment);
+        eventPublisher.publishEvent(AppointmentChangedEvent.created(AppointmentSnapshot.of(saved)));
+        return saved;
     }
     
     /**
@@ -204,6 +274,7 @@ public class AppointmentService {
      */
     public boolean hasSchedulingConflict(UUID doctorId, LocalDateTime startTime, 
                                        LocalDateTime endTime, UUID excludeAppointmentId) {
+        long started = System.nanoTime();
         // Find all appointments for the doctor that overlap with the given time range
         List<Appointment> conflictingAppointments = appointmentRepository
                 .findByDoctorIdAndTimeRange(doctorId, startTime, endTime);
@@ -216,11 +287,15 @@ public class AppointmentService {
         }
         
         // Also check for any appointments that would overlap with the new one
-        return !conflictingAppointments.isEmpty();
+        boolean conflict = !conflictingAppointments.isEmpty();
+        domainMetrics.recordConflictCheck(conflict, System.nanoTime() - started);
+        return conflict;
     }
     
     public boolean isDoctorAvailable(UUID doctorId, LocalDateTime startTime, LocalDateTime endTime) {
+        long started = System.nanoTime();
         List<Appointment> conflicts = appointmentRepository.findConflictingAppointments(doctorId, startTime, endTime);
+        domainMetrics.recordConflictCheck(!conflicts.isEmpty(), System.nanoTime() - started);
         return conflicts.isEmpty();
     }
     
@@ -229,8 +304,12 @@ public class AppointmentService {
         Appointment appointment = appointmentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Appointment not found with id: " + id));
                 
+        AppointmentSnapshot before = AppointmentSnapshot.of(appointment);
         appointment.setStatus(AppointmentStatus.CANCELLED);
-        return appointmentRepository.save(appointment);
+        Appointment saved = appointmentRepository.save(appointment);
+        eventPublisher.publishEvent(AppointmentChangedEvent.changed(
+                AppointmentChangeType.CANCELLED, before, AppointmentSnapshot.of(saved)));
+        return saved;
     }
     
     private void validateAppointment(Appointment appointment) {
@@ -279,31 +358,31 @@ public class AppointmentService {
         }
     }
     
-    private void validateNoConflicts(Appointment appointment) {
+    /**
+     * Appointments of the same doctor overlapping the given one, excluding the appointment
+     * itself when it is being updated.
+     */
+    private List<Appointment> findConflicts(Appointment appointment) {
+        long started = System.nanoTime();
         List<Appointment> conflicts = appointmentRepository.findConflictingAppointments(
                 appointment.getDoctorId(), 
                 appointment.getStartTime(), 
                 appointment.getEndTime()
         );
         
-        if (!conflicts.isEmpty()) {
-            throw new IllegalArgumentException("El doctor ya tiene una cita programada en ese horario");
+        // Filtrar el conflicto con la misma cita que se está actualizando
+        if (appointment.getId() != null) {
+            conflicts = conflicts.stream()
+                    .filter(conflict -> !conflict.getId().equals(appointment.getId()))
+                    .collect(Collectors.toList());
         }
+        
+        domainMetrics.recordConflictCheck(!conflicts.isEmpty(), System.nanoTime() - started);
+        return conflicts;
     }
     
     private void validateNoConflictsForUpdate(Appointment appointment) {
-        List<Appointment> conflicts = appointmentRepository.findConflictingAppointments(
-                appointment.getDoctorId(), 
-                appointment.getStartTime(), 
-                appointment.getEndTime()
-        );
-        
-        // Filtrar el conflicto con la misma cita que se está actualizando
-        conflicts = conflicts.stream()
-                .filter(conflict -> !conflict.getId().equals(appointment.getId()))
-                .collect(Collectors.toList());
-        
-        if (!conflicts.isEmpty()) {
+        if (!findConflicts(appointment).isEmpty()) {
             throw new IllegalArgumentException("El doctor ya tiene una cita programada en ese horario");
         }
     }
@@ -328,7 +407,7 @@ public class AppointmentService {
         }
     }
     
-    private AppointmentDTO convertToDTO(Appointment appointment) {
+    public AppointmentDTO convertToDTO(Appointment appointment) {
         // Fetch doctor name and specialization
         String doctorName = "Unknown";
         String doctorSpecialization = "";
@@ -377,9 +456,8 @@ public class AppointmentService {
      * @return List of appointment DTOs
      */
     public List<AppointmentDTO> getDoctorAppointments(UUID doctorId) {
-        return appointmentRepository.findByDoctorIdOrderByStartTimeDesc(doctorId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return newestFirst(appointmentRepository.findByDoctorIdOrderByStartTimeDesc(doctorId),
+                appointmentArchive.findByDoctorId(doctorId));
     }
     
     /**
@@ -388,7 +466,19 @@ public class AppointmentService {
      * @return List of appointment DTOs
      */
     public List<AppointmentDTO> getPatientAppointments(UUID patientId) {
-        return appointmentRepository.findByPatientIdOrderByStartTimeDesc(patientId).stream()
+        return newestFirst(appointmentRepository.findByPatientIdOrderByStartTimeDesc(patientId),
+                appointmentArchive.findByPatientId(patientId));
+    }
+    
+    private List<AppointmentDTO> newestFirst(List<Appointment> current, List<Appointment> archived) {
+        if (archived.isEmpty()) {
+            return current.stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList());
+        }
+        // Las no-presentadas antiguas siguen en la tabla activa: se reordena la unión completa
+        return Stream.concat(current.stream(), archived.stream())
+                .sorted(Comparator.comparing(Appointment::getStartTime).reversed())
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
@@ -0,0 +1,26 @@
+package com.medcal.service;
+
+import com.medcal.event.AppointmentSnapshot;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.UUID;
+
+/** Plain-column reads of appointments for the set-based paths that bypass JPA. */
+final class AppointmentSnapshotRows {
+
+    static final String COLUMNS = "id, doctor_id, patient_id, start_time, end_time, type, status";
+
+    static final RowMapper<AppointmentSnapshot> MAPPER = (rs, rowNum) -> new AppointmentSnapshot(
+            rs.getObject("id", UUID.class),
+            rs.getObject("doctor_id", UUID.class),
+            rs.getObject("patient_id", UUID.class),
+            rs.getTimestamp("start_time").toLocalDateTime(),
+            rs.getTimestamp("end_time").toLocalDateTime(),
+            AppointmentType.valueOf(rs.getString("type")),
+            AppointmentStatus.valueOf(rs.getString("status")));
+
+    private AppointmentSnapshotRows() {
+    }
+}
@@ -0,0 +1,166 @@
+package com.medcal.service;
+
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.event.AppointmentSnapshot;
+import com.medcal.model.enums.AppointmentChangeType;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.util.DatabaseLease;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves appointments whose end is more than {@code medcal.status-sweep.grace-minutes} in the
+ * past to their final status: by default confirmed ones become {@code COMPLETED} and ones
+ * never confirmed become {@code NO_SHOW}.
+ * <p>
+ * Works in chunks of {@code chunk-size} rows, each in its own transaction: the chunk is
+ * selected {@code FOR UPDATE} as plain columns and updated with one {@code UPDATE ... WHERE
+ * id IN (...)}, so no entity is loaded. A {@code STATUS_CHANGED} event is published for every
+ * row inside the transaction, which keeps the change log, outbox and in-memory views
+ * consistent. The run holds a {@link DatabaseLease} renewed per chunk, so only one node
+ * sweeps at a time.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "medcal.status-sweep.enabled", havingValue = "true", matchIfMissing = true)
+public class AppointmentStatusSweeper {
+
+    static final String LEASE = "appointment-status-sweep";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DatabaseLease lease;
+    private final Map<AppointmentStatus, AppointmentStatus> transitions;
+    private final Duration grace;
+    private final int chunkSize;
+    private final Duration leaseDuration;
+    private final Clock clock;
+
+    @Autowired
+    public AppointmentStatusSweeper(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    ApplicationEventPublisher eventPublisher,
+                                    DatabaseLease lease,
+                                    @Value("${medcal.status-sweep.transitions:SCHEDULED=COMPLETED,PENDING=NO_SHOW}") String transitions,
+                                    @Value("${medcal.status-sweep.grace-minutes:60}") long graceMinutes,
+                                    @Value("${medcal.status-sweep.chunk-size:1000}") int chunkSize,
+                                    @Value("${medcal.status-sweep.lease-seconds:300}") long leaseSeconds) {
+        this(new NamedParameterJdbcTemplate(jdbcTemplate), new TransactionTemplate(transactionManager), eventPublisher,
+                lease, parseTransitions(transitions), Duration.ofMinutes(graceMinutes), chunkSize,
+                Duration.ofSeconds(leaseSeconds), Clock.systemDefaultZone());
+    }
+
+    AppointmentStatusSweeper(NamedParameterJdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             ApplicationEventPublisher eventPublisher, DatabaseLease lease,
+                             Map<AppointmentStatus, AppointmentStatus> transitions, Duration grace, int chunkSize,
+                             Duration leaseDuration, Clock clock) {
+        if (chunkSize < 1 || chunkSize > 10000 || grace.isNegative() || leaseDuration.isZero()) {
+            throw new IllegalArgumentException("Configuración del barrido de estados no válida");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.lease = lease;
+        this.transitions = transitions;
+        this.grace = grace;
+        this.chunkSize = chunkSize;
+        this.leaseDuration = leaseDuration;
+        this.clock = clock;
+    }
+
+    /** Returns how many appointments changed status, or -1 if another node holds the lease. */
+    @Scheduled(cron = "${medcal.status-sweep.cron:0 */10 * * * *}")
+    public int sweep() {
+        if (!lease.tryAcquire(LEASE, leaseDuration)) {
+            log.debug("Barrido de estados en curso en otro nodo");
+            return -1;
+        }
+        long started = System.nanoTime();
+        int total = 0;
+        try {
+            LocalDateTime cutoff = LocalDateTime.now(clock).minus(grace);
+            for (Map.Entry<AppointmentStatus, AppointmentStatus> transition : transitions.entrySet()) {
+                int changed;
+                do {
+                    changed = sweepChunk(transition.getKey(), transition.getValue(), cutoff);
+                    total += changed;
+                    // Se renueva por lote: una pasada larga no debe perder la concesión a mitad
+                } while (changed == chunkSize && lease.tryAcquire(LEASE, leaseDuration));
+            }
+        } finally {
+            lease.release(LEASE);
+        }
+        if (total > 0) {
+            log.info("Barrido de estados: {} citas finalizadas en {} ms", total,
+                    Duration.ofNanos(System.nanoTime() - started).toMillis());
+        }
+        return total;
+    }
+
+    int sweepChunk(AppointmentStatus from, AppointmentStatus to, LocalDateTime cutoff) {
+        Integer changed = transactionTemplate.execute(status -> {
+            List<AppointmentSnapshot> rows = jdbcTemplate.query(
+                    "SELECT " + AppointmentSnapshotRows.COLUMNS + " FROM appointments " +
+                    "WHERE status = :from AND end_time < :cutoff ORDER BY end_time LIMIT :limit FOR UPDATE",
+                    new MapSqlParameterSource()
+                            .addValue("from", from.name())
+                            .addValue("cutoff", Timestamp.valueOf(cutoff))
+                            .addValue("limit", chunkSize),
+                    AppointmentSnapshotRows.MAPPER);
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            jdbcTemplate.update("UPDATE appointments SET status = :to, updated_at = :now WHERE id IN (:ids)",
+                    new MapSqlParameterSource()
+                            .addValue("to", to.name())
+                            .addValue("now", Timestamp.valueOf(LocalDateTime.now(clock)))
+                            .addValue("ids", rows.stream().map(AppointmentSnapshot::id).toList()));
+            for (AppointmentSnapshot row : rows) {
+                eventPublisher.publishEvent(AppointmentChangedEvent.changed(AppointmentChangeType.STATUS_CHANGED,
+                        row, row.withStatus(to)));
+            }
+            return rows.size();
+        });
+        return changed != null ? changed : 0;
+    }
+
+    static Map<AppointmentStatus, AppointmentStatus> parseTransitions(String spec) {
+        Map<AppointmentStatus, AppointmentStatus> transitions = new EnumMap<>(AppointmentStatus.class);
+        for (String entry : spec.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            String[] fromAndTo = trimmed.split("=");
+            if (fromAndTo.length != 2) {
+                throw new IllegalArgumentException("Transición de estado inválida: " + trimmed);
+            }
+            AppointmentStatus from = AppointmentStatus.valueOf(fromAndTo[0].trim().toUpperCase());
+            AppointmentStatus to = AppointmentStatus.valueOf(fromAndTo[1].trim().toUpperCase());
+            if (from == to) {
+                throw new IllegalArgumentException("Transición de estado inválida: " + trimmed);
+            }
+            transitions.put(from, to);
+        }
+        return transitions;
+    }
+}
@@ -0,0 +1,33 @@
+package com.medcal.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/** Meters for {@link AppointmentStreamService}: open streams and subscribers dropped for lagging. */
+@Component
+public class AppointmentStreamMetrics {
+
+    private final MeterRegistry registry;
+    private final Counter evictions;
+
+    public AppointmentStreamMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.evictions = Counter.builder("medcal.sse.evictions")
+                .description("Appointment stream subscribers dropped for falling behind")
+                .register(registry);
+    }
+
+    public void gaugeSubscribers(Collection<?> subscribers) {
+        Gauge.builder("medcal.sse.subscribers", subscribers, Collection::size)
+                .description("Open appointment change streams")
+                .register(registry);
+    }
+
+    public void recordEviction() {
+        evictions.increment();
+    }
+}
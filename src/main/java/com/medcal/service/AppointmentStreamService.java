@@ -0,0 +1,185 @@
+package com.medcal.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.model.dto.AppointmentDelta;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes committed appointment changes to open calendars over Server-Sent Events.
+ * <p>
+ * Each change is serialized once and offered to the bounded buffer of every matching
+ * subscriber; a small sender pool drains the buffers, so a slow socket never blocks the
+ * committing thread. A subscriber whose buffer is full is evicted: its stream is closed
+ * and the browser's {@code EventSource} reconnects and reloads, which is cheaper than
+ * holding an unbounded backlog for it.
+ */
+@Slf4j
+@Service
+public class AppointmentStreamService {
+
+    static final String EVENT_NAME = "appointment";
+    private static final String HEARTBEAT = "";
+
+    private final ObjectMapper objectMapper;
+    private final AppointmentStreamMetrics streamMetrics;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMs;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService sender;
+
+    public AppointmentStreamService(ObjectMapper objectMapper,
+                                    AppointmentStreamMetrics streamMetrics,
+                                    @Value("${medcal.sse.buffer-size:64}") int bufferSize,
+                                    @Value("${medcal.sse.max-subscribers:500}") int maxSubscribers,
+                                    @Value("${medcal.sse.timeout-ms:1800000}") long timeoutMs,
+                                    @Value("${medcal.sse.sender-threads:2}") int senderThreads) {
+        this.objectMapper = objectMapper;
+        this.streamMetrics = streamMetrics;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMs = timeoutMs;
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "sse-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        streamMetrics.gaugeSubscribers(subscribers);
+    }
+
+    /**
+     * Opens a stream of changes for one doctor, or for every doctor when {@code doctorId}
+     * is null. Empty when the subscriber limit has been reached.
+     */
+    public Optional<SseEmitter> subscribe(UUID doctorId) {
+        if (subscribers.size() >= maxSubscribers) {
+            log.warn("Límite de suscriptores SSE alcanzado ({})", maxSubscribers);
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, doctorId, new ArrayBlockingQueue<>(bufferSize));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        // Primer mensaje para que el cliente sepa que la conexión está abierta
+        enqueue(subscriber, HEARTBEAT, false);
+        return Optional.of(emitter);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(AppointmentDelta.of(event));
+        } catch (JsonProcessingException e) {
+            log.error("No se pudo serializar el cambio de la cita {}", event.appointmentId(), e);
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.doctorId == null || event.concernsDoctor(subscriber.doctorId)) {
+                enqueue(subscriber, payload, true);
+            }
+        }
+    }
+
+    /** Keeps idle connections open through proxies and detects closed ones. */
+    @Scheduled(fixedRateString = "${medcal.sse.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, HEARTBEAT, false);
+        }
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    private void enqueue(Subscriber subscriber, String payload, boolean evictWhenFull) {
+        if (!subscriber.queue.offer(payload)) {
+            // Un heartbeat que no cabe se descarta: el cliente ya tiene mensajes pendientes
+            if (evictWhenFull) {
+                evict(subscriber);
+            }
+            return;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            String payload;
+            while ((payload = subscriber.queue.poll()) != null) {
+                if (payload.isEmpty()) {
+                    subscriber.emitter.send(SseEmitter.event().comment("ping"));
+                } else {
+                    subscriber.emitter.send(SseEmitter.event().name(EVENT_NAME).data(payload));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // El cliente cerró la conexión
+            subscribers.remove(subscriber);
+            subscriber.queue.clear();
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // Un mensaje pudo llegar entre el último poll y la liberación del flag
+        if (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void evict(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.queue.clear();
+            streamMetrics.recordEviction();
+            log.info("Suscriptor SSE lento desconectado (doctor {})", subscriber.doctorId);
+            subscriber.emitter.complete();
+        }
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final UUID doctorId;
+        final BlockingQueue<String> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, UUID doctorId, BlockingQueue<String> queue) {
+            this.emitter = emitter;
+            this.doctorId = doctorId;
+            this.queue = queue;
+        }
+    }
+}
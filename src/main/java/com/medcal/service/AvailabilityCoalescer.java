@@ -0,0 +1,104 @@
+package com.medcal.service;
+
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.event.DoctorChangedEvent;
+import com.medcal.metrics.DomainMetrics.AvailabilityOperation;
+import com.medcal.model.dto.AvailabilitySlot;
+import com.medcal.model.dto.DoctorDTO;
+import com.medcal.util.SingleFlight;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Shares availability computations between concurrent identical requests (the same doctor,
+ * or the same specialty, over the same window), and keeps each result for
+ * {@code medcal.availability.coalesce-ttl-ms} so a burst of requests runs the queries once.
+ * Any committed appointment or doctor change drops the cached results.
+ * <p>
+ * Callers must not be inside a transaction: a waiter would hold a pooled connection while it
+ * blocks on the leader. Only the leader's loader runs, in a read-only transaction of its own.
+ * Every caller receives its own copies of the shared result.
+ */
+@Component
+public class AvailabilityCoalescer {
+
+    private record SlotsKey(UUID doctorId, LocalDateTime start, LocalDateTime end) {
+    }
+
+    private record DoctorsKey(String specialty, LocalDateTime start, LocalDateTime end) {
+    }
+
+    private final SingleFlight<SlotsKey, List<AvailabilitySlot>> slots;
+    private final SingleFlight<DoctorsKey, List<DoctorDTO>> doctors;
+    private final TransactionOperations readOnlyTransaction;
+
+    @Autowired
+    public AvailabilityCoalescer(AvailabilityMetrics availabilityMetrics, PlatformTransactionManager transactionManager,
+                                 @Value("${medcal.availability.coalesce-ttl-ms:1000}") long ttlMs,
+                                 @Value("${medcal.availability.coalesce-max-entries:5000}") int maxEntries) {
+        this(availabilityMetrics, readOnly(transactionManager), Duration.ofMillis(ttlMs), maxEntries);
+    }
+
+    AvailabilityCoalescer(AvailabilityMetrics availabilityMetrics, TransactionOperations readOnlyTransaction,
+                          Duration ttl, int maxEntries) {
+        this.readOnlyTransaction = readOnlyTransaction;
+        this.slots = new SingleFlight<>(ttl, maxEntries,
+                outcome -> availabilityMetrics.recordCoalescing(AvailabilityOperation.AVAILABLE_SLOTS, outcome));
+        this.doctors = new SingleFlight<>(ttl, maxEntries,
+                outcome -> availabilityMetrics.recordCoalescing(AvailabilityOperation.AVAILABLE_DOCTORS, outcome));
+    }
+
+    public List<AvailabilitySlot> availableSlots(UUID doctorId, LocalDateTime start, LocalDateTime end,
+                                                 Supplier<List<AvailabilitySlot>> loader) {
+        List<AvailabilitySlot> shared = slots.execute(new SlotsKey(doctorId, start, end), () -> load(loader));
+        return shared.stream()
+                .map(slot -> new AvailabilitySlot(slot.getStartTime(), slot.getEndTime(), slot.isAvailable()))
+                .collect(Collectors.toList());
+    }
+
+    public List<DoctorDTO> availableDoctors(String specialty, LocalDateTime start, LocalDateTime end,
+                                            Supplier<List<DoctorDTO>> loader) {
+        List<DoctorDTO> shared = doctors.execute(new DoctorsKey(specialty, start, end), () -> load(loader));
+        return shared.stream()
+                .map(doctor -> doctor.toBuilder().build())
+                .collect(Collectors.toList());
+    }
+
+    private <T> List<T> load(Supplier<List<T>> loader) {
+        return List.copyOf(readOnlyTransaction.execute(status -> loader.get()));
+    }
+
+    private static TransactionOperations readOnly(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        invalidate();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        invalidate();
+    }
+
+    public void invalidate() {
+        slots.invalidate();
+        doctors.invalidate();
+    }
+}
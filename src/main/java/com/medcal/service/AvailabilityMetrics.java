@@ -0,0 +1,64 @@
+package com.medcal.service;
+
+import com.medcal.metrics.DomainMetrics.AvailabilityOperation;
+import com.medcal.util.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the availability caches: how {@link AvailabilityCoalescer} served each call and
+ * how many reads {@link AvailabilitySnapshots} answered from memory.
+ */
+@Component
+public class AvailabilityMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<AvailabilityOperation, Map<SingleFlight.Outcome, Counter>> coalescing =
+            new EnumMap<>(AvailabilityOperation.class);
+    private final Counter snapshotHits;
+    private final Counter snapshotMisses;
+
+    public AvailabilityMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (AvailabilityOperation operation : AvailabilityOperation.values()) {
+            Map<SingleFlight.Outcome, Counter> byOutcome = new EnumMap<>(SingleFlight.Outcome.class);
+            for (SingleFlight.Outcome outcome : SingleFlight.Outcome.values()) {
+                byOutcome.put(outcome, Counter.builder("medcal.availability.coalescing")
+                        .description("Availability calls computed, joined to an identical call in flight, or served from the micro-cache")
+                        .tag("operation", operation.name().toLowerCase())
+                        .tag("outcome", outcome.name().toLowerCase())
+                        .register(registry));
+            }
+            coalescing.put(operation, byOutcome);
+        }
+        this.snapshotHits = snapshotCounter("hit");
+        this.snapshotMisses = snapshotCounter("miss");
+    }
+
+    public void recordCoalescing(AvailabilityOperation operation, SingleFlight.Outcome outcome) {
+        coalescing.get(operation).get(outcome).increment();
+    }
+
+    public void recordSnapshotRead(boolean hit) {
+        (hit ? snapshotHits : snapshotMisses).increment();
+    }
+
+    public void gaugeSnapshotDays(Supplier<Number> days) {
+        Gauge.builder("medcal.availability.snapshot.days", days)
+                .description("Doctor-days of availability held in memory")
+                .register(registry);
+    }
+
+    private Counter snapshotCounter(String result) {
+        return Counter.builder("medcal.availability.snapshot.reads")
+                .description("Doctor-day availability reads served from memory or loaded from the database")
+                .tag("result", result)
+                .register(registry);
+    }
+}
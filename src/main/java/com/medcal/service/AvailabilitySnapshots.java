@@ -0,0 +1,201 @@
+package com.medcal.service;
+
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.event.AppointmentSnapshot;
+import com.medcal.event.DoctorChangedEvent;
+import com.medcal.model.dto.AvailabilitySlot;
+import com.medcal.model.entity.Appointment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * In-memory availability per doctor and day, so that reading a doctor's week does not run
+ * the appointment query and the slot generation again.
+ * <p>
+ * A day is loaded from the database on first access and then patched by committed
+ * appointment changes: the appointment is removed from the day it was on and added to the
+ * day it is on now. An appointment belongs to a day when it starts and ends within it, the
+ * same rule as {@code findByDoctorIdAndStartTimeBetween}, so a snapshot gives the same
+ * result as a full recompute. A committed doctor change drops all of that doctor's days,
+ * since their slots come from the working hours. Only days from today to {@code horizon-days} ahead are kept,
+ * at most {@code max-days} of them, least recently read first out.
+ */
+@Component
+public class AvailabilitySnapshots {
+
+    record DoctorDay(UUID doctorId, LocalDate date) {
+    }
+
+    private record Booking(LocalDateTime start, LocalDateTime end) {
+    }
+
+    /** Slots of one doctor-day and the appointments that occupy them. Guarded by the store. */
+    static final class DaySnapshot {
+        private final LocalDate date;
+        private final List<AvailabilitySlot> slots;
+        private final Map<UUID, Booking> bookings = new HashMap<>();
+        private final boolean[] available;
+
+        private DaySnapshot(LocalDate date, List<AvailabilitySlot> slots) {
+            this.date = date;
+            this.slots = slots;
+            this.available = new boolean[slots.size()];
+        }
+
+        /** {@code slots} are the day's generated slots; {@code appointments} the doctor's appointments that day. */
+        static DaySnapshot of(LocalDate date, List<AvailabilitySlot> slots, List<Appointment> appointments) {
+            DaySnapshot snapshot = new DaySnapshot(date, List.copyOf(slots));
+            for (Appointment appointment : appointments) {
+                snapshot.bookings.put(appointment.getId(),
+                        new Booking(appointment.getStartTime(), appointment.getEndTime()));
+            }
+            snapshot.refresh();
+            return snapshot;
+        }
+
+        boolean contains(LocalDateTime start, LocalDateTime end) {
+            LocalDateTime dayStart = date.atStartOfDay();
+            return !start.isBefore(dayStart) && !end.isAfter(dayStart.plusDays(1));
+        }
+
+        void put(UUID appointmentId, LocalDateTime start, LocalDateTime end) {
+            bookings.put(appointmentId, new Booking(start, end));
+            refresh();
+        }
+
+        void remove(UUID appointmentId) {
+            if (bookings.remove(appointmentId) != null) {
+                refresh();
+            }
+        }
+
+        List<AvailabilitySlot> copySlots() {
+            List<AvailabilitySlot> copy = new ArrayList<>(slots.size());
+            for (int i = 0; i < slots.size(); i++) {
+                AvailabilitySlot slot = slots.get(i);
+                copy.add(new AvailabilitySlot(slot.getStartTime(), slot.getEndTime(), available[i]));
+            }
+            return copy;
+        }
+
+        private void refresh() {
+            for (int i = 0; i < slots.size(); i++) {
+                AvailabilitySlot slot = slots.get(i);
+                boolean free = true;
+                for (Booking booking : bookings.values()) {
+                    if (slot.getStartTime().isBefore(booking.end()) && slot.getEndTime().isAfter(booking.start())) {
+                        free = false;
+                        break;
+                    }
+                }
+                available[i] = free;
+            }
+        }
+    }
+
+    private final AvailabilityMetrics availabilityMetrics;
+    private final int horizonDays;
+    private final Clock clock;
+    private final Map<DoctorDay, DaySnapshot> days;
+    private long changes;
+
+    @Autowired
+    public AvailabilitySnapshots(AvailabilityMetrics availabilityMetrics,
+                                 @Value("${medcal.availability.snapshot.horizon-days:60}") int horizonDays,
+                                 @Value("${medcal.availability.snapshot.max-days:20000}") int maxDays) {
+        this(availabilityMetrics, horizonDays, maxDays, Clock.systemDefaultZone());
+    }
+
+    AvailabilitySnapshots(AvailabilityMetrics availabilityMetrics, int horizonDays, int maxDays, Clock clock) {
+        this.availabilityMetrics = availabilityMetrics;
+        this.horizonDays = horizonDays;
+        this.clock = clock;
+        this.days = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<DoctorDay, DaySnapshot> eldest) {
+                return size() > maxDays;
+            }
+        };
+        availabilityMetrics.gaugeSnapshotDays(this::size);
+    }
+
+    /** True if {@code date} is within the horizon kept in memory. */
+    public boolean covers(LocalDate date) {
+        LocalDate today = LocalDate.now(clock);
+        return horizonDays > 0 && !date.isBefore(today) && !date.isAfter(today.plusDays(horizonDays));
+    }
+
+    /**
+     * The doctor's slots on {@code date}, loading the day with {@code loader} if it is not in
+     * memory. The returned slots are copies the caller may modify.
+     */
+    public List<AvailabilitySlot> slots(UUID doctorId, LocalDate date, Supplier<DaySnapshot> loader) {
+        DoctorDay key = new DoctorDay(doctorId, date);
+        long changesBeforeLoad;
+        synchronized (this) {
+            DaySnapshot snapshot = days.get(key);
+            if (snapshot != null) {
+                availabilityMetrics.recordSnapshotRead(true);
+                return snapshot.copySlots();
+            }
+            changesBeforeLoad = changes;
+        }
+        availabilityMetrics.recordSnapshotRead(false);
+        DaySnapshot loaded = loader.get();
+        synchronized (this) {
+            // Si llegó un cambio durante la carga, la lectura pudo no verlo: no se guarda
+            if (changes == changesBeforeLoad) {
+                days.put(key, loaded);
+            }
+            return loaded.copySlots();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onAppointmentChanged(AppointmentChangedEvent event) {
+        changes++;
+        AppointmentSnapshot before = event.before();
+        AppointmentSnapshot after = event.after();
+        if (before != null) {
+            DaySnapshot snapshot = days.get(new DoctorDay(before.doctorId(), before.startTime().toLocalDate()));
+            if (snapshot != null) {
+                snapshot.remove(before.id());
+            }
+        }
+        if (after != null) {
+            DaySnapshot snapshot = days.get(new DoctorDay(after.doctorId(), after.startTime().toLocalDate()));
+            if (snapshot != null && snapshot.contains(after.startTime(), after.endTime())) {
+                snapshot.put(after.id(), after.startTime(), after.endTime());
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onDoctorChanged(DoctorChangedEvent event) {
+        changes++;
+        days.keySet().removeIf(day -> day.doctorId().equals(event.doctorId()));
+    }
+
+    public synchronized void clear() {
+        changes++;
+        days.clear();
+    }
+
+    synchronized int size() {
+        return days.size();
+    }
+}
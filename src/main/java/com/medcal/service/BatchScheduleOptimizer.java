@@ -0,0 +1,228 @@
+package com.medcal.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Assigns many appointment requests to doctors and start times at once, maximising the
+ * number of requests placed without overlaps and inside each doctor's free time.
+ * <p>
+ * Time is discretised into units (15 minutes in {@link BatchSchedulingService}); each
+ * doctor's free time is a {@link BitSet} over the horizon. A greedy pass places requests in
+ * order of priority and then fewest feasible placements, each at its earliest free
+ * position. A local search then retries the requests left out: when a position is blocked
+ * by a single placed request, that request is moved elsewhere if it can be. The search
+ * stops when a pass finds no improvement or the time budget runs out.
+ * <p>
+ * Not thread-safe; one instance solves one problem.
+ */
+public final class BatchScheduleOptimizer {
+
+    public static final int UNASSIGNED = -1;
+
+    /**
+     * One request. {@code doctors} are the candidate doctor indexes, {@code windows} pairs of
+     * {@code [from, to)} units in which the whole appointment must fit.
+     */
+    public record Task(int[] doctors, int[] windows, int length, int priority) {
+    }
+
+    /** {@code doctor[i]} and {@code start[i]} for task {@code i}, or {@link #UNASSIGNED}. */
+    public record Solution(int[] doctor, int[] start, int assigned, boolean budgetExhausted) {
+    }
+
+    private final BitSet[] fixedFree;
+    private final BitSet[] free;
+    private final int[][] owner;
+    private final List<Task> tasks;
+    private final int[] assignedDoctor;
+    private final int[] assignedStart;
+    private int assigned;
+
+    /**
+     * @param freeTime per doctor, set bits are units in which the doctor works and is not booked
+     * @param horizon  number of units in the horizon
+     */
+    public BatchScheduleOptimizer(BitSet[] freeTime, int horizon, List<Task> tasks) {
+        this.fixedFree = freeTime;
+        this.free = new BitSet[freeTime.length];
+        this.owner = new int[freeTime.length][horizon];
+        for (int d = 0; d < freeTime.length; d++) {
+            free[d] = (BitSet) freeTime[d].clone();
+            Arrays.fill(owner[d], UNASSIGNED);
+        }
+        this.tasks = tasks;
+        this.assignedDoctor = new int[tasks.size()];
+        this.assignedStart = new int[tasks.size()];
+        Arrays.fill(assignedDoctor, UNASSIGNED);
+        Arrays.fill(assignedStart, UNASSIGNED);
+    }
+
+    public Solution solve(long timeBudgetNanos) {
+        long deadline = System.nanoTime() + timeBudgetNanos;
+
+        int[] feasible = new int[tasks.size()];
+        for (int t = 0; t < tasks.size(); t++) {
+            feasible[t] = countPlacements(tasks.get(t));
+        }
+        Integer[] order = IntStream.range(0, tasks.size()).boxed().toArray(Integer[]::new);
+        Arrays.sort(order, Comparator.<Integer>comparingInt(t -> -tasks.get(t).priority())
+                .thenComparingInt(t -> feasible[t]));
+        for (int t : order) {
+            if (feasible[t] > 0) {
+                placeEarliest(t);
+            }
+        }
+
+        boolean exhausted = false;
+        boolean improved = true;
+        while (improved && assigned < tasks.size()) {
+            improved = false;
+            for (int t : order) {
+                if (assignedDoctor[t] != UNASSIGNED || feasible[t] == 0) {
+                    continue;
+                }
+                if (System.nanoTime() - deadline >= 0) {
+                    exhausted = true;
+                    break;
+                }
+                if (placeEarliest(t) || placeByMovingOne(t)) {
+                    improved = true;
+                }
+            }
+            if (exhausted) {
+                break;
+            }
+        }
+        return new Solution(assignedDoctor.clone(), assignedStart.clone(), assigned, exhausted);
+    }
+
+    private int countPlacements(Task task) {
+        int count = 0;
+        for (int doctor : task.doctors()) {
+            for (int w = 0; w < task.windows().length; w += 2) {
+                int from = task.windows()[w];
+                int to = task.windows()[w + 1];
+                int s = fixedFree[doctor].nextSetBit(from);
+                while (s >= 0 && s + task.length() <= to) {
+                    int runEnd = Math.min(fixedFree[doctor].nextClearBit(s), to);
+                    count += Math.max(0, runEnd - s - task.length() + 1);
+                    s = fixedFree[doctor].nextSetBit(runEnd);
+                }
+            }
+        }
+        return count;
+    }
+
+    private boolean placeEarliest(int t) {
+        Task task = tasks.get(t);
+        int bestDoctor = UNASSIGNED;
+        int bestStart = Integer.MAX_VALUE;
+        for (int doctor : task.doctors()) {
+            for (int w = 0; w < task.windows().length; w += 2) {
+                int start = earliest(free[doctor], task.windows()[w], task.windows()[w + 1], task.length());
+                if (start != UNASSIGNED && start < bestStart) {
+                    bestStart = start;
+                    bestDoctor = doctor;
+                }
+            }
+        }
+        if (bestDoctor == UNASSIGNED) {
+            return false;
+        }
+        assign(t, bestDoctor, bestStart);
+        return true;
+    }
+
+    /**
+     * Looks for a position that only one placed task blocks and that task can be moved
+     * away from; moves it and places {@code t} there.
+     */
+    private boolean placeByMovingOne(int t) {
+        Task task = tasks.get(t);
+        for (int doctor : task.doctors()) {
+            for (int w = 0; w < task.windows().length; w += 2) {
+                int to = task.windows()[w + 1];
+                int s = fixedFree[doctor].nextSetBit(task.windows()[w]);
+                while (s >= 0 && s + task.length() <= to) {
+                    if (fixedFree[doctor].nextClearBit(s) < s + task.length()) {
+                        s = fixedFree[doctor].nextSetBit(fixedFree[doctor].nextClearBit(s));
+                        continue;
+                    }
+                    int blocker = singleBlocker(doctor, s, task.length());
+                    if (blocker != UNASSIGNED && tryMove(blocker, t, doctor, s)) {
+                        return true;
+                    }
+                    s++;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** The only task occupying {@code [start, start + length)}, or UNASSIGNED if none or several. */
+    private int singleBlocker(int doctor, int start, int length) {
+        int blocker = UNASSIGNED;
+        for (int u = start; u < start + length; u++) {
+            int occupant = owner[doctor][u];
+            if (occupant == UNASSIGNED) {
+                continue;
+            }
+            if (blocker == UNASSIGNED) {
+                blocker = occupant;
+            } else if (blocker != occupant) {
+                return UNASSIGNED;
+            }
+        }
+        return blocker;
+    }
+
+    private boolean tryMove(int blocker, int t, int doctor, int start) {
+        int previousDoctor = assignedDoctor[blocker];
+        int previousStart = assignedStart[blocker];
+        unassign(blocker);
+        assign(t, doctor, start);
+        if (placeEarliest(blocker)) {
+            return true;
+        }
+        // No cabe en otro sitio: se deshace el intercambio
+        unassign(t);
+        assign(blocker, previousDoctor, previousStart);
+        return false;
+    }
+
+    private void assign(int t, int doctor, int start) {
+        int length = tasks.get(t).length();
+        free[doctor].clear(start, start + length);
+        Arrays.fill(owner[doctor], start, start + length, t);
+        assignedDoctor[t] = doctor;
+        assignedStart[t] = start;
+        assigned++;
+    }
+
+    private void unassign(int t) {
+        int doctor = assignedDoctor[t];
+        int start = assignedStart[t];
+        int length = tasks.get(t).length();
+        free[doctor].set(start, start + length);
+        Arrays.fill(owner[doctor], start, start + length, UNASSIGNED);
+        assignedDoctor[t] = UNASSIGNED;
+        assignedStart[t] = UNASSIGNED;
+        assigned--;
+    }
+
+    private static int earliest(BitSet free, int from, int to, int length) {
+        int s = free.nextSetBit(from);
+        while (s >= 0 && s + length <= to) {
+            int runEnd = free.nextClearBit(s);
+            if (runEnd - s >= length) {
+                return s;
+            }
+            s = free.nextSetBit(runEnd);
+        }
+        return UNASSIGNED;
+    }
+}
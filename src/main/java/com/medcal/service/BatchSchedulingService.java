@@ -0,0 +1,365 @@
+package com.medcal.service;
+
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.event.AppointmentSnapshot;
+import com.medcal.model.dto.BatchScheduleRequest;
+import com.medcal.model.dto.BatchScheduleResult;
+import com.medcal.model.entity.Appointment;
+import com.medcal.model.entity.Doctor;
+import com.medcal.model.enums.AppointmentChangeType;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import com.medcal.repository.AppointmentRepository;
+import com.medcal.repository.DoctorRepository;
+import com.medcal.service.BatchScheduleOptimizer.Solution;
+import com.medcal.service.BatchScheduleOptimizer.Task;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Places a batch of pending appointments at once with {@link BatchScheduleOptimizer}.
+ * <p>
+ * Every doctor who may receive one of the appointments gets a bitset of free 15-minute
+ * units over the batch range: working hours minus appointments already holding a slot
+ * (the batch's own appointments excluded, since they are being moved). Each appointment
+ * lasts the minutes configured for its type in {@code medcal.scheduling.type-minutes};
+ * emergencies are placed first. Without {@code apply} the proposal is only returned;
+ * with it, the doctors' appointments are read again and every placement that now overlaps
+ * one booked meanwhile is reported unassigned; the rest are moved and scheduled in the
+ * same transaction.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class BatchSchedulingService {
+
+    static final int UNIT_MINUTES = 15;
+    static final int UNITS_PER_DAY = 24 * 60 / UNIT_MINUTES;
+    static final int MAX_DAYS = 31;
+    static final int MAX_ITEMS = 20000;
+
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<AppointmentType, Integer> typeMinutes;
+    private final long defaultBudgetMs;
+    private final long maxBudgetMs;
+    private final Clock clock;
+
+    @Autowired
+    public BatchSchedulingService(AppointmentRepository appointmentRepository,
+                                  DoctorRepository doctorRepository,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${medcal.scheduling.type-minutes:CONSULTATION=30,FOLLOWUP=30,EMERGENCY=60}") String typeMinutes,
+                                  @Value("${medcal.scheduling.default-budget-ms:2000}") long defaultBudgetMs,
+                                  @Value("${medcal.scheduling.max-budget-ms:10000}") long maxBudgetMs) {
+        this(appointmentRepository, doctorRepository, eventPublisher, parseTypeMinutes(typeMinutes),
+                defaultBudgetMs, maxBudgetMs, Clock.systemDefaultZone());
+    }
+
+    BatchSchedulingService(AppointmentRepository appointmentRepository,
+                           DoctorRepository doctorRepository,
+                           ApplicationEventPublisher eventPublisher,
+                           Map<AppointmentType, Integer> typeMinutes,
+                           long defaultBudgetMs,
+                           long maxBudgetMs,
+                           Clock clock) {
+        this.appointmentRepository = appointmentRepository;
+        this.doctorRepository = doctorRepository;
+        this.eventPublisher = eventPublisher;
+        this.typeMinutes = typeMinutes;
+        this.defaultBudgetMs = defaultBudgetMs;
+        this.maxBudgetMs = maxBudgetMs;
+        this.clock = clock;
+    }
+
+    @Transactional
+    public BatchScheduleResult schedule(BatchScheduleRequest request) {
+        long started = System.nanoTime();
+        validate(request);
+        LocalDateTime rangeStart = request.getFrom().atStartOfDay();
+        LocalDateTime rangeEnd = request.getTo().plusDays(1).atStartOfDay();
+        int days = (int) Duration.between(rangeStart, rangeEnd).toDays();
+        int horizon = days * UNITS_PER_DAY;
+
+        Map<UUID, Appointment> appointments = appointmentRepository.findAllById(request.getItems().stream()
+                        .map(BatchScheduleRequest.Item::getAppointmentId).toList())
+                .stream().collect(Collectors.toMap(Appointment::getId, Function.identity()));
+        List<Doctor> doctors = doctorRepository.findAllByActiveTrue();
+        Map<UUID, Integer> doctorIndex = new HashMap<>();
+        Map<String, List<Integer>> bySpecialty = new HashMap<>();
+        for (int d = 0; d < doctors.size(); d++) {
+            Doctor doctor = doctors.get(d);
+            doctorIndex.put(doctor.getId(), d);
+            if (doctor.getSpecialization() != null) {
+                bySpecialty.computeIfAbsent(doctor.getSpecialization(), s -> new ArrayList<>()).add(d);
+            }
+        }
+
+        // Solicitudes válidas -> tareas del optimizador; el resto se rechaza con su motivo
+        List<Task> tasks = new ArrayList<>();
+        List<Appointment> taskAppointments = new ArrayList<>();
+        List<BatchScheduleResult.Rejection> rejected = new ArrayList<>();
+        Set<Integer> usedDoctors = new HashSet<>();
+        Set<UUID> seen = new HashSet<>();
+        for (BatchScheduleRequest.Item item : request.getItems()) {
+            Appointment appointment = appointments.get(item.getAppointmentId());
+            String reason = null;
+            int[] candidates = null;
+            if (!seen.add(item.getAppointmentId())) {
+                reason = "Cita repetida en el lote";
+            } else if (appointment == null) {
+                reason = "Cita no encontrada";
+            } else if (appointment.getStatus() != AppointmentStatus.PENDING) {
+                reason = "La cita no está pendiente";
+            } else {
+                candidates = candidates(item, appointment, doctorIndex, bySpecialty);
+                if (candidates.length == 0) {
+                    reason = "Ningún médico activo coincide con la preferencia";
+                }
+            }
+            if (reason != null) {
+                rejected.add(new BatchScheduleResult.Rejection(item.getAppointmentId(), reason));
+                continue;
+            }
+            for (int d : candidates) {
+                usedDoctors.add(d);
+            }
+            int length = typeMinutes.getOrDefault(appointment.getType(), 30) / UNIT_MINUTES;
+            int priority = appointment.getType() == AppointmentType.EMERGENCY ? 1 : 0;
+            tasks.add(new Task(candidates, windows(item, rangeStart, horizon), length, priority));
+            taskAppointments.add(appointment);
+        }
+
+        BitSet[] free = freeTime(doctors, usedDoctors, doctorIndex, appointments.keySet(), rangeStart, rangeEnd, days);
+        long budget = request.getTimeBudgetMs() != null ? request.getTimeBudgetMs() : defaultBudgetMs;
+        Solution solution = new BatchScheduleOptimizer(free, horizon, tasks)
+                .solve(TimeUnit.MILLISECONDS.toNanos(Math.min(budget, maxBudgetMs)));
+
+        List<BatchScheduleResult.Assignment> assignments = new ArrayList<>(solution.assigned());
+        for (int t = 0; t < tasks.size(); t++) {
+            Appointment appointment = taskAppointments.get(t);
+            if (solution.doctor()[t] == BatchScheduleOptimizer.UNASSIGNED) {
+                rejected.add(new BatchScheduleResult.Rejection(appointment.getId(), "Sin hueco compatible"));
+                continue;
+            }
+            LocalDateTime start = rangeStart.plusMinutes((long) solution.start()[t] * UNIT_MINUTES);
+            assignments.add(BatchScheduleResult.Assignment.builder()
+                    .appointmentId(appointment.getId())
+                    .doctorId(doctors.get(solution.doctor()[t]).getId())
+                    .startTime(start)
+                    .endTime(start.plusMinutes((long) tasks.get(t).length() * UNIT_MINUTES))
+                    .build());
+        }
+        if (request.isApply()) {
+            // El plan se hizo con las citas leídas al principio: lo reservado mientras tanto gana
+            Set<UUID> taken = takenMeanwhile(assignments, appointments.keySet(), doctorIndex, rangeStart, rangeEnd, days);
+            if (!taken.isEmpty()) {
+                assignments.removeIf(assignment -> taken.contains(assignment.getAppointmentId()));
+                taken.forEach(id -> rejected.add(new BatchScheduleResult.Rejection(id, "Sin hueco compatible")));
+            }
+            apply(assignments, appointments);
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("Lote de {} citas: {} asignadas en {} ms (aplicado: {})",
+                request.getItems().size(), assignments.size(), elapsedMs, request.isApply());
+        return BatchScheduleResult.builder()
+                .requested(request.getItems().size())
+                .assignedCount(assignments.size())
+                .applied(request.isApply())
+                .budgetExhausted(solution.budgetExhausted())
+                .elapsedMs(elapsedMs)
+                .assignments(assignments)
+                .unassigned(rejected)
+                .build();
+    }
+
+    private void validate(BatchScheduleRequest request) {
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            throw new IllegalArgumentException("La lista de solicitudes es requerida");
+        }
+        if (request.getItems().size() > MAX_ITEMS) {
+            throw new IllegalArgumentException("El lote no puede superar las " + MAX_ITEMS + " citas");
+        }
+        if (request.getFrom() == null || request.getTo() == null || request.getTo().isBefore(request.getFrom())) {
+            throw new IllegalArgumentException("El rango de fechas es inválido");
+        }
+        if (request.getFrom().plusDays(MAX_DAYS).isBefore(request.getTo().plusDays(1))) {
+            throw new IllegalArgumentException("El rango no puede superar los " + MAX_DAYS + " días");
+        }
+        if (request.getTimeBudgetMs() != null && request.getTimeBudgetMs() < 0) {
+            throw new IllegalArgumentException("El presupuesto de tiempo no puede ser negativo");
+        }
+    }
+
+    private static int[] candidates(BatchScheduleRequest.Item item, Appointment appointment,
+                                    Map<UUID, Integer> doctorIndex, Map<String, List<Integer>> bySpecialty) {
+        if (item.getDoctorId() != null || item.getSpecialty() == null || item.getSpecialty().isBlank()) {
+            Integer index = doctorIndex.get(item.getDoctorId() != null ? item.getDoctorId() : appointment.getDoctorId());
+            return index != null ? new int[]{index} : new int[0];
+        }
+        return bySpecialty.getOrDefault(item.getSpecialty(), List.of()).stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /** Requested windows as unit pairs clipped to the range; the whole range when none. */
+    private static int[] windows(BatchScheduleRequest.Item item, LocalDateTime rangeStart, int horizon) {
+        if (item.getWindows() == null || item.getWindows().isEmpty()) {
+            return new int[]{0, horizon};
+        }
+        int[] windows = new int[item.getWindows().size() * 2];
+        int i = 0;
+        for (BatchScheduleRequest.Window window : item.getWindows()) {
+            // Inicio redondeado hacia arriba y fin hacia abajo: la cita debe caber entera
+            long from = ceilUnits(Duration.between(rangeStart, window.getStart()).toMinutes());
+            long to = Math.floorDiv(Duration.between(rangeStart, window.getEnd()).toMinutes(), UNIT_MINUTES);
+            windows[i++] = (int) Math.max(0, Math.min(from, horizon));
+            windows[i++] = (int) Math.max(0, Math.min(to, horizon));
+        }
+        return windows;
+    }
+
+    private BitSet[] freeTime(List<Doctor> doctors, Set<Integer> usedDoctors, Map<UUID, Integer> doctorIndex,
+                              Set<UUID> batchIds, LocalDateTime rangeStart, LocalDateTime rangeEnd, int days) {
+        BitSet[] free = new BitSet[doctors.size()];
+        for (int d = 0; d < doctors.size(); d++) {
+            free[d] = new BitSet(days * UNITS_PER_DAY);
+            if (!usedDoctors.contains(d)) {
+                continue;
+            }
+            WorkingHours hours = WorkingHours.of(doctors.get(d).getWorkingHours());
+            for (int day = 0; day < days; day++) {
+                LocalDate date = rangeStart.toLocalDate().plusDays(day);
+                if (!hours.works(date.getDayOfWeek())) {
+                    continue;
+                }
+                int from = ceilUnits(hours.start(date.getDayOfWeek()).toSecondOfDay() / 60);
+                int to = hours.end(date.getDayOfWeek()).toSecondOfDay() / 60 / UNIT_MINUTES;
+                if (from < to) {
+                    free[d].set(day * UNITS_PER_DAY + from, day * UNITS_PER_DAY + to);
+                }
+            }
+        }
+
+        // Nada antes de ahora
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (now.isAfter(rangeStart)) {
+            int past = (int) Math.min(ceilUnits(Duration.between(rangeStart, now).toMinutes()), days * UNITS_PER_DAY);
+            for (BitSet bits : free) {
+                bits.clear(0, past);
+            }
+        }
+
+        List<UUID> doctorIds = usedDoctors.stream().map(d -> doctors.get(d).getId()).toList();
+        if (!doctorIds.isEmpty()) {
+            for (Appointment busy : appointmentRepository.findActiveByDoctorIdsOverlapping(doctorIds, rangeStart, rangeEnd)) {
+                Integer d = doctorIndex.get(busy.getDoctorId());
+                if (d == null || batchIds.contains(busy.getId())) {
+                    continue;
+                }
+                long from = Math.floorDiv(Duration.between(rangeStart, busy.getStartTime()).toMinutes(), UNIT_MINUTES);
+                long to = ceilUnits(Duration.between(rangeStart, busy.getEndTime()).toMinutes());
+                free[d].clear((int) Math.max(0, from), (int) Math.min(to, days * UNITS_PER_DAY));
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Appointments whose assignment now overlaps a slot booked after {@link #freeTime} was read,
+     * e.g. while the optimizer was running. Busy time is marked in units as in {@code freeTime}.
+     */
+    private Set<UUID> takenMeanwhile(List<BatchScheduleResult.Assignment> assignments, Set<UUID> batchIds,
+                                     Map<UUID, Integer> doctorIndex, LocalDateTime rangeStart,
+                                     LocalDateTime rangeEnd, int days) {
+        if (assignments.isEmpty()) {
+            return Set.of();
+        }
+        Set<UUID> doctorIds = assignments.stream().map(BatchScheduleResult.Assignment::getDoctorId).collect(Collectors.toSet());
+        Map<Integer, BitSet> busy = new HashMap<>();
+        for (Appointment booked : appointmentRepository.findActiveByDoctorIdsOverlapping(doctorIds, rangeStart, rangeEnd)) {
+            Integer d = doctorIndex.get(booked.getDoctorId());
+            if (d == null || batchIds.contains(booked.getId())) {
+                continue;
+            }
+            long from = Math.floorDiv(Duration.between(rangeStart, booked.getStartTime()).toMinutes(), UNIT_MINUTES);
+            long to = ceilUnits(Duration.between(rangeStart, booked.getEndTime()).toMinutes());
+            busy.computeIfAbsent(d, k -> new BitSet(days * UNITS_PER_DAY))
+                    .set((int) Math.max(0, from), (int) Math.min(to, days * UNITS_PER_DAY));
+        }
+        Set<UUID> taken = new HashSet<>();
+        for (BatchScheduleResult.Assignment assignment : assignments) {
+            BitSet bits = busy.get(doctorIndex.get(assignment.getDoctorId()));
+            if (bits == null) {
+                continue;
+            }
+            int from = (int) (Duration.between(rangeStart, assignment.getStartTime()).toMinutes() / UNIT_MINUTES);
+            int to = (int) (Duration.between(rangeStart, assignment.getEndTime()).toMinutes() / UNIT_MINUTES);
+            int next = bits.nextSetBit(from);
+            if (next >= 0 && next < to) {
+                taken.add(assignment.getAppointmentId());
+            }
+        }
+        return taken;
+    }
+
+    private void apply(List<BatchScheduleResult.Assignment> assignments, Map<UUID, Appointment> appointments) {
+        List<Appointment> changed = new ArrayList<>(assignments.size());
+        List<AppointmentSnapshot> before = new ArrayList<>(assignments.size());
+        for (BatchScheduleResult.Assignment assignment : assignments) {
+            Appointment appointment = appointments.get(assignment.getAppointmentId());
+            before.add(AppointmentSnapshot.of(appointment));
+            appointment.setDoctorId(assignment.getDoctorId());
+            appointment.setStartTime(assignment.getStartTime());
+            appointment.setEndTime(assignment.getEndTime());
+            appointment.setStatus(AppointmentStatus.SCHEDULED);
+            changed.add(appointment);
+        }
+        List<Appointment> saved = appointmentRepository.saveAll(changed);
+        for (int i = 0; i < saved.size(); i++) {
+            eventPublisher.publishEvent(AppointmentChangedEvent.changed(
+                    AppointmentChangeType.UPDATED, before.get(i), AppointmentSnapshot.of(saved.get(i))));
+        }
+    }
+
+    private static int ceilUnits(long minutes) {
+        return (int) Math.floorDiv(minutes + UNIT_MINUTES - 1, UNIT_MINUTES);
+    }
+
+    static Map<AppointmentType, Integer> parseTypeMinutes(String spec) {
+        Map<AppointmentType, Integer> minutes = new EnumMap<>(AppointmentType.class);
+        for (String entry : spec.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            String[] typeAndMinutes = trimmed.split("=");
+            int value = typeAndMinutes.length == 2 ? Integer.parseInt(typeAndMinutes[1].trim()) : 0;
+            if (value <= 0 || value % UNIT_MINUTES != 0) {
+                throw new IllegalArgumentException("Duración por tipo de cita inválida: " + trimmed);
+            }
+            minutes.put(AppointmentType.valueOf(typeAndMinutes[0].trim().toUpperCase()), value);
+        }
+        return minutes;
+    }
+}
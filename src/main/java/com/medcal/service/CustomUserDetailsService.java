@@ -1,5 +1,6 @@
 package com.medcal.service;
 
+import com.medcal.metrics.DomainMetrics;
 import com.medcal.model.entity.User;
 import com.medcal.model.enums.Role;
 import com.medcal.repository.UserRepository;
@@ -12,6 +13,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
 import java.util.UUID;
 
 
@@ -22,13 +24,16 @@ public class CustomUserDetailsService implements UserDetailsService {
     private static final Logger logger = LoggerFactory.getLogger(CustomUserDetailsService.class);
 
     private final UserRepository userRepository;
+    private final DomainMetrics domainMetrics;
     
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         logger.debug("Attempting to load user by email: {}", email);
         
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + email));
+        long started = System.nanoTime();
+        Optional<User> found = userRepository.findByEmail(email);
+        domainMetrics.recordUserLookup(found.isPresent(), System.nanoTime() - started);
+        User user = found.orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + email));
 
         // Map role_id to Role enum
         Role role = mapRoleIdToEnum(user.getRoleId());
@@ -1,17 +1,25 @@
 package com.medcal.service;
 
+import com.medcal.analytics.UtilizationRollup;
+import com.medcal.event.DoctorChangedEvent;
 import com.medcal.model.dto.AvailabilitySlot;
 import com.medcal.model.dto.DoctorDTO;
+import com.medcal.model.dto.DoctorUtilization;
 import com.medcal.model.entity.Appointment;
 import com.medcal.model.entity.Doctor;
 import com.medcal.model.entity.User;
 import com.medcal.model.enums.Role;
 import com.medcal.exception.ResourceNotFoundException;
+import com.medcal.metrics.DomainMetrics;
+import com.medcal.metrics.DomainMetrics.AvailabilityOperation;
 import com.medcal.repository.AppointmentRepository;
 import com.medcal.repository.DoctorRepository;
+import com.medcal.util.ResourceVersions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.DayOfWeek;
@@ -19,6 +27,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -32,6 +41,12 @@ public class DoctorService {
     private final DoctorRepository doctorRepository;
     private final UserService userService;
     private final AppointmentRepository appointmentRepository;
+    private final DomainMetrics domainMetrics;
+    private final AvailabilityCoalescer availabilityCoalescer;
+    private final AvailabilitySnapshots availabilitySnapshots;
+    private final UtilizationRollup utilizationRollup;
+    private final ResourceVersions resourceVersions;
+    private final ApplicationEventPublisher eventPublisher;
     
     public List<DoctorDTO> getAllDoctors() {
         return doctorRepository.findAll()
@@ -45,6 +60,16 @@ public class DoctorService {
                 .map(this::convertToDTO);
     }
     
+    /** The doctor's {@code updatedAt} alone, to answer a conditional GET without loading it. */
+    public Optional<LocalDateTime> getDoctorUpdatedAt(UUID id) {
+        return doctorRepository.findUpdatedAtById(id);
+    }
+    
+    /** Moves on every committed create, update or delete of a doctor. */
+    public long getDoctorsVersion() {
+        return resourceVersions.current(ResourceVersions.DOCTORS);
+    }
+    
     /**
      * Find available doctors based on specialty and time range
      * @param specialty Optional specialty filter
@@ -52,20 +77,33 @@ public class DoctorService {
      * @param endTime End of the time range
      * @return List of available doctors with their availability slots
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<DoctorDTO> findAvailableDoctors(String specialty, LocalDateTime startTime, LocalDateTime endTime) {
-        // First get all active doctors (optionally filtered by specialty)
-        List<Doctor> doctors;
-        if (specialty != null && !specialty.isEmpty()) {
-            doctors = doctorRepository.findBySpecialization(specialty);
-        } else {
-            doctors = doctorRepository.findAll();
+        String specialtyKey = specialty != null && !specialty.isEmpty() ? specialty : null;
+        // Las peticiones idénticas concurrentes comparten un único cálculo
+        return availabilityCoalescer.availableDoctors(specialtyKey, startTime, endTime,
+                () -> computeAvailableDoctors(specialtyKey, startTime, endTime));
+    }
+    
+    private List<DoctorDTO> computeAvailableDoctors(String specialty, LocalDateTime startTime, LocalDateTime endTime) {
+        long started = System.nanoTime();
+        try {
+            // First get all active doctors (optionally filtered by specialty)
+            List<Doctor> doctors;
+            if (specialty != null) {
+                doctors = doctorRepository.findBySpecialization(specialty);
+            } else {
+                doctors = doctorRepository.findAll();
+            }
+            
+            // Filter doctors who are available during the requested time
+            return doctors.stream()
+                    .filter(doctor -> isDoctorAvailable(doctor.getId(), startTime, endTime))
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList());
+        } finally {
+            domainMetrics.recordAvailability(AvailabilityOperation.AVAILABLE_DOCTORS, System.nanoTime() - started);
         }
-        
-        // Filter doctors who are available during the requested time
-        return doctors.stream()
-                .filter(doctor -> isDoctorAvailable(doctor.getId(), startTime, endTime))
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
     }
     
     public List<DoctorDTO> getDoctorsBySpecialization(String specialization) {
@@ -122,31 +160,75 @@ public class DoctorService {
     }
     
     public List<DoctorDTO> findAvailableDoctors() {
-        // Get all active doctors who are currently available
-        return doctorRepository.findAllByActiveTrue()
-                .stream()
-                .filter(doctor -> {
-                    // Check if doctor has availability in the next 7 days
-                    LocalDateTime now = LocalDateTime.now();
-                    LocalDateTime endDate = now.plusWeeks(1);
-                    
-                    // Get doctor's appointments in the next 7 days
-                    List<Appointment> upcomingAppointments = appointmentRepository
-                            .findByDoctorIdAndStartTimeBetween(
-                                    doctor.getId(), 
-                                    now, 
-                                    endDate
-                            );
-                    
-                    // Consider doctors who have less than 80% of their time booked
-                    int totalPossibleSlots = calculateTotalPossibleSlots(doctor, now, endDate);
-                    return upcomingAppointments.size() < (totalPossibleSlots * 0.8);
-                })
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        long started = System.nanoTime();
+        try {
+            // Ocupación de los próximos 7 días leída de la tabla de ocupación por médico y día
+            LocalDate today = LocalDate.now();
+            LocalDate end = today.plusDays(7);
+            Map<UUID, DoctorUtilization> utilization = utilizationRollup.summarize(today, end, null).stream()
+                    .collect(Collectors.toMap(DoctorUtilization::getDoctorId, Function.identity()));
+            return doctorRepository.findAllByActiveTrue()
+                    .stream()
+                    .filter(doctor -> {
+                        DoctorUtilization load = utilization.get(doctor.getId());
+                        // La capacidad sale del horario para toda la ventana: la tabla sólo tiene filas
+                        // para los días con actividad, así que de ella sólo se toman los minutos reservados
+                        long capacity = capacityMinutes(doctor, today, end);
+                        long booked = load != null ? load.getBookedMinutes() : 0;
+                        // Consider doctors who have less than 80% of their time booked
+                        return booked < capacity * 0.8;
+                    })
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList());
+        } finally {
+            domainMetrics.recordAvailability(AvailabilityOperation.AVAILABLE_DOCTORS, System.nanoTime() - started);
+        }
     }
     
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<AvailabilitySlot> getAvailableSlots(UUID doctorId, LocalDateTime startDate, LocalDateTime endDate) {
+        // Las peticiones idénticas concurrentes comparten un único cálculo
+        return availabilityCoalescer.availableSlots(doctorId, startDate, endDate,
+                () -> computeAvailableSlots(doctorId, startDate, endDate));
+    }
+    
+    private List<AvailabilitySlot> computeAvailableSlots(UUID doctorId, LocalDateTime startDate, LocalDateTime endDate) {
+        long started = System.nanoTime();
+        try {
+            if (!isServedBySnapshots(startDate, endDate)) {
+                return recomputeAvailableSlots(doctorId, startDate, endDate);
+            }
+            // Días completos dentro del horizonte: se leen de las instantáneas en memoria
+            List<AvailabilitySlot> slots = new ArrayList<>();
+            for (LocalDate day = startDate.toLocalDate(); day.isBefore(endDate.toLocalDate()); day = day.plusDays(1)) {
+                LocalDate date = day;
+                slots.addAll(availabilitySnapshots.slots(doctorId, date, () -> loadDaySnapshot(doctorId, date)));
+            }
+            return slots;
+        } finally {
+            domainMetrics.recordAvailability(AvailabilityOperation.AVAILABLE_SLOTS, System.nanoTime() - started);
+        }
+    }
+    
+    private boolean isServedBySnapshots(LocalDateTime startDate, LocalDateTime endDate) {
+        return startDate.toLocalTime().equals(LocalTime.MIDNIGHT)
+                && endDate.toLocalTime().equals(LocalTime.MIDNIGHT)
+                && availabilitySnapshots.covers(startDate.toLocalDate())
+                && availabilitySnapshots.covers(endDate.toLocalDate().minusDays(1));
+    }
+    
+    private AvailabilitySnapshots.DaySnapshot loadDaySnapshot(UUID doctorId, LocalDate date) {
+        Doctor doctor = doctorRepository.findById(doctorId)
+                .orElseThrow(() -> new ResourceNotFoundException("Médico no encontrado"));
+        LocalDateTime dayStart = date.atStartOfDay();
+        LocalDateTime dayEnd = dayStart.plusDays(1);
+        return AvailabilitySnapshots.DaySnapshot.of(date,
+                generateTimeSlots(doctor, dayStart, dayEnd),
+                appointmentRepository.findByDoctorIdAndStartTimeBetween(doctorId, dayStart, dayEnd));
+    }
+    
+    /** Availability computed from the database, without the in-memory snapshots. */
+    List<AvailabilitySlot> recomputeAvailableSlots(UUID doctorId, LocalDateTime startDate, LocalDateTime endDate) {
         Doctor doctor = doctorRepository.findById(doctorId)
                 .orElseThrow(() -> new ResourceNotFoundException("Médico no encontrado"));
         
@@ -175,28 +257,26 @@ public class DoctorService {
     
     private List<AvailabilitySlot> generateTimeSlots(Doctor doctor, LocalDateTime startDate, LocalDateTime endDate) {
         List<AvailabilitySlot> slots = new ArrayList<>();
+        WorkingHours hours = WorkingHours.of(doctor.getWorkingHours());
         LocalDateTime current = startDate;
         
         // Generate slots for each day in the range
         while (current.isBefore(endDate)) {
-            if (isWorkingDay(doctor, current.toLocalDate())) {
-                LocalTime workStart = getWorkStartTime(doctor, current.getDayOfWeek());
-                LocalTime workEnd = getWorkEndTime(doctor, current.getDayOfWeek());
+            DayOfWeek dayOfWeek = current.getDayOfWeek();
+            
+            // Skip if doctor doesn't work this day
+            if (hours.works(dayOfWeek)) {
+                LocalTime workEnd = hours.end(dayOfWeek);
+                LocalDateTime slotStart = LocalDateTime.of(current.toLocalDate(), hours.start(dayOfWeek));
+                LocalDateTime slotEnd = slotStart.plusMinutes(APPOINTMENT_DURATION_MINUTES);
                 
-                // Skip if doctor doesn't work this day
-                if (workStart != null && workEnd != null) {
-                    LocalDateTime slotStart = LocalDateTime.of(current.toLocalDate(), workStart);
-                    LocalDateTime slotEnd = slotStart.plusMinutes(APPOINTMENT_DURATION_MINUTES);
+                // Generate slots for the day
+                while (slotEnd.toLocalDate().equals(slotStart.toLocalDate()) && !slotEnd.toLocalTime().isAfter(workEnd)) {
+                    slots.add(new AvailabilitySlot(slotStart, slotEnd));
                     
-                    // Generate slots for the day
-                    while (slotEnd.toLocalTime().isBefore(workEnd) || 
-                           slotEnd.toLocalTime().equals(workEnd)) {
-                        slots.add(new AvailabilitySlot(slotStart, slotEnd));
-                        
-                        // Move to next slot
-                        slotStart = slotEnd;
-                        slotEnd = slotStart.plusMinutes(APPOINTMENT_DURATION_MINUTES);
-                    }
+                    // Move to next slot
+                    slotStart = slotEnd;
+                    slotEnd = slotStart.plusMinutes(APPOINTMENT_DURATION_MINUTES);
                 }
             }
             
@@ -207,48 +287,18 @@ public class DoctorService {
         return slots;
     }
     
-    private boolean isWorkingDay(Doctor doctor, LocalDate date) {
-        // TODO: Implement based on doctor's working days
-        // For now, assume Monday to Friday are working days
-        return date.getDayOfWeek() != DayOfWeek.SATURDAY && 
-               date.getDayOfWeek() != DayOfWeek.SUNDAY;
-    }
-    
-    private LocalTime getWorkStartTime(Doctor doctor, DayOfWeek dayOfWeek) {
-        // TODO: Get from doctor's working hours
-        // For now, use default working hours: 9 AM to 5 PM
-        return LocalTime.of(9, 0);
-    }
-    
-    private LocalTime getWorkEndTime(Doctor doctor, DayOfWeek dayOfWeek) {
-        // TODO: Get from doctor's working hours
-        // For now, use default working hours: 9 AM to 5 PM
-        return LocalTime.of(17, 0);
-    }
-    
     private boolean isTimeSlotOverlap(LocalDateTime start1, LocalDateTime end1, 
                                      LocalDateTime start2, LocalDateTime end2) {
         return start1.isBefore(end2) && end1.isAfter(start2);
     }
     
-    private int calculateTotalPossibleSlots(Doctor doctor, LocalDateTime start, LocalDateTime end) {
-        int totalSlots = 0;
-        LocalDateTime current = start;
-        
-        while (current.isBefore(end)) {
-            if (isWorkingDay(doctor, current.toLocalDate())) {
-                LocalTime workStart = getWorkStartTime(doctor, current.getDayOfWeek());
-                LocalTime workEnd = getWorkEndTime(doctor, current.getDayOfWeek());
-                
-                if (workStart != null && workEnd != null) {
-                    long minutes = workStart.until(workEnd, java.time.temporal.ChronoUnit.MINUTES);
-                    totalSlots += (int) (minutes / APPOINTMENT_DURATION_MINUTES);
-                }
-            }
-            current = current.plusDays(1);
+    private long capacityMinutes(Doctor doctor, LocalDate from, LocalDate to) {
+        WorkingHours hours = WorkingHours.of(doctor.getWorkingHours());
+        long minutes = 0;
+        for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+            minutes += UtilizationRollup.capacityMinutes(hours, day);
         }
-        
-        return totalSlots;
+        return minutes;
     }
     
     @Transactional
@@ -288,6 +338,7 @@ public class DoctorService {
         doctor.setUserId(user.getId());
         
         Doctor savedDoctor = doctorRepository.save(doctor);
+        resourceVersions.bump(ResourceVersions.DOCTORS);
         return convertToDTO(savedDoctor);
     }
     
@@ -301,7 +352,11 @@ public class DoctorService {
                     doctor.setPhone(doctorDetails.getPhone());
                     doctor.setEmail(doctorDetails.getEmail());
                     doctor.setWorkingHours(doctorDetails.getWorkingHours());
-                    return convertToDTO(doctorRepository.save(doctor));
+                    Doctor savedDoctor = doctorRepository.save(doctor);
+                    resourceVersions.bump(ResourceVersions.DOCTORS);
+                    // Los huecos en memoria salen del horario anterior
+                    eventPublisher.publishEvent(DoctorChangedEvent.of(id));
+                    return convertToDTO(savedDoctor);
                 });
     }
     
@@ -309,6 +364,8 @@ public class DoctorService {
     public boolean deleteDoctor(UUID id) {
         if (doctorRepository.existsById(id)) {
             doctorRepository.deleteById(id);
+            resourceVersions.bump(ResourceVersions.DOCTORS);
+            eventPublisher.publishEvent(DoctorChangedEvent.of(id));
             return true;
         }
         return false;
@@ -0,0 +1,101 @@
+package com.medcal.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Lazily walks one doctor's free slots of a given duration in start order, from
+ * {@code from} up to {@code until}. Candidate starts are on a grid of {@code step} from the
+ * start of each working day; a candidate overlapping a busy interval jumps straight past it.
+ */
+final class FreeSlotIterator {
+
+    /** A half-open busy interval {@code [start, end)}. */
+    record Interval(LocalDateTime start, LocalDateTime end) {
+    }
+
+    private final WorkingHours hours;
+    private final List<Interval> busy;
+    private final LocalDateTime until;
+    private final Duration duration;
+    private final Duration step;
+    private LocalDateTime cursor;
+    private int busyIndex;
+    private LocalDateTime next;
+
+    /** {@code busy} must be sorted by start. */
+    FreeSlotIterator(WorkingHours hours, List<Interval> busy, LocalDateTime from, LocalDateTime until,
+                     Duration duration, Duration step) {
+        this.hours = hours;
+        this.busy = busy;
+        this.until = until;
+        this.duration = duration;
+        this.step = step;
+        this.cursor = from;
+        this.next = advance();
+    }
+
+    /** Start of the next free slot, or null when there are none left before {@code until}. */
+    LocalDateTime peek() {
+        return next;
+    }
+
+    /** Returns the next free slot start and moves past it. */
+    LocalDateTime take() {
+        LocalDateTime taken = next;
+        if (taken != null) {
+            cursor = taken.plus(step);
+            next = advance();
+        }
+        return taken;
+    }
+
+    private LocalDateTime advance() {
+        LocalDate day = cursor.toLocalDate();
+        while (day.atStartOfDay().isBefore(until)) {
+            LocalTime workStart = hours.start(day.getDayOfWeek());
+            LocalTime workEnd = hours.end(day.getDayOfWeek());
+            if (workStart != null) {
+                LocalDateTime dayStart = day.atTime(workStart);
+                LocalDateTime dayEnd = day.atTime(workEnd);
+                LocalDateTime candidate = alignUp(cursor.isAfter(dayStart) ? cursor : dayStart, dayStart);
+                while (!candidate.plus(duration).isAfter(dayEnd) && !candidate.plus(duration).isAfter(until)) {
+                    LocalDateTime blockedUntil = blockedUntil(candidate, candidate.plus(duration));
+                    if (blockedUntil == null) {
+                        return candidate;
+                    }
+                    candidate = alignUp(blockedUntil, dayStart);
+                }
+            }
+            day = day.plusDays(1);
+            cursor = day.atStartOfDay();
+        }
+        return null;
+    }
+
+    /** End of the latest busy interval overlapping {@code [start, end)}, or null if it is free. */
+    private LocalDateTime blockedUntil(LocalDateTime start, LocalDateTime end) {
+        // Los intervalos que terminan antes del cursor no pueden volver a solaparse
+        while (busyIndex < busy.size() && !busy.get(busyIndex).end().isAfter(start)) {
+            busyIndex++;
+        }
+        LocalDateTime blockedUntil = null;
+        for (int i = busyIndex; i < busy.size() && busy.get(i).start().isBefore(end); i++) {
+            Interval interval = busy.get(i);
+            if (interval.end().isAfter(start) && (blockedUntil == null || interval.end().isAfter(blockedUntil))) {
+                blockedUntil = interval.end();
+            }
+        }
+        return blockedUntil;
+    }
+
+    private LocalDateTime alignUp(LocalDateTime time, LocalDateTime gridOrigin) {
+        long offset = Duration.between(gridOrigin, time).toNanos();
+        long stepNanos = step.toNanos();
+        long steps = (offset + stepNanos - 1) / stepNanos;
+        return gridOrigin.plusNanos(steps * stepNanos);
+    }
+}
@@ -0,0 +1,128 @@
+package com.medcal.service;
+
+import com.medcal.model.dto.NextAvailableSlot;
+import com.medcal.model.entity.Appointment;
+import com.medcal.model.entity.Doctor;
+import com.medcal.repository.AppointmentRepository;
+import com.medcal.repository.DoctorRepository;
+import com.medcal.service.FreeSlotIterator.Interval;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Earliest free slots across all doctors of a specialty.
+ * <p>
+ * Each doctor gets a lazy {@link FreeSlotIterator} built from their working hours and the
+ * appointments holding a slot (pending or scheduled); the iterators are merged with a
+ * priority queue keyed by slot start, and the merge stops as soon as {@code limit} slots
+ * are found. Busy intervals are loaded one week at a time with a single query for all
+ * doctors, so a well-booked specialty only reads as many weeks as the answer needs, up to
+ * {@code medcal.availability.next.horizon-days}.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class NextAvailableService {
+
+    static final int MAX_LIMIT = 100;
+    static final Duration SLOT_STEP = Duration.ofMinutes(30);
+    private static final int WINDOW_DAYS = 7;
+
+    private final DoctorRepository doctorRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final int horizonDays;
+
+    public NextAvailableService(DoctorRepository doctorRepository,
+                                AppointmentRepository appointmentRepository,
+                                @Value("${medcal.availability.next.horizon-days:90}") int horizonDays) {
+        this.doctorRepository = doctorRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.horizonDays = horizonDays;
+    }
+
+    private record Head(FreeSlotIterator slots, Doctor doctor, LocalDateTime start) {
+    }
+
+    public List<NextAvailableSlot> findNextAvailable(String specialty, LocalDateTime after, int durationMinutes, int limit) {
+        if (durationMinutes < 15 || durationMinutes > 480) {
+            throw new IllegalArgumentException("La duración debe estar entre 15 y 480 minutos");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + MAX_LIMIT);
+        }
+        List<Doctor> doctors = specialty != null && !specialty.isBlank()
+                ? doctorRepository.findActiveBySpecialization(specialty)
+                : doctorRepository.findAllByActiveTrue();
+        if (doctors.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> doctorIds = doctors.stream().map(Doctor::getId).toList();
+        Map<UUID, WorkingHours> hours = new HashMap<>();
+        doctors.forEach(doctor -> hours.put(doctor.getId(), WorkingHours.of(doctor.getWorkingHours())));
+
+        Duration duration = Duration.ofMinutes(durationMinutes);
+        LocalDateTime horizon = after.toLocalDate().plusDays(horizonDays + 1L).atStartOfDay();
+        List<NextAvailableSlot> result = new ArrayList<>(limit);
+        LocalDateTime windowStart = after;
+        while (result.size() < limit && windowStart.isBefore(horizon)) {
+            // Ventanas que terminan a medianoche: ningún hueco cruza de una a otra
+            LocalDateTime windowEnd = windowStart.toLocalDate().plusDays(WINDOW_DAYS).atStartOfDay();
+            if (windowEnd.isAfter(horizon)) {
+                windowEnd = horizon;
+            }
+            Map<UUID, List<Interval>> busy = loadBusy(doctorIds, windowStart, windowEnd);
+
+            PriorityQueue<Head> queue = new PriorityQueue<>(doctors.size(),
+                    Comparator.comparing(Head::start).thenComparing(head -> head.doctor().getId()));
+            for (Doctor doctor : doctors) {
+                FreeSlotIterator slots = new FreeSlotIterator(hours.get(doctor.getId()),
+                        busy.getOrDefault(doctor.getId(), List.of()), windowStart, windowEnd, duration, SLOT_STEP);
+                if (slots.peek() != null) {
+                    queue.add(new Head(slots, doctor, slots.peek()));
+                }
+            }
+            while (result.size() < limit && !queue.isEmpty()) {
+                Head head = queue.poll();
+                LocalDateTime start = head.slots().take();
+                result.add(toSlot(head.doctor(), start, start.plus(duration)));
+                if (head.slots().peek() != null) {
+                    queue.add(new Head(head.slots(), head.doctor(), head.slots().peek()));
+                }
+            }
+            windowStart = windowEnd;
+        }
+        return result;
+    }
+
+    private Map<UUID, List<Interval>> loadBusy(List<UUID> doctorIds, LocalDateTime from, LocalDateTime to) {
+        Map<UUID, List<Interval>> busy = new HashMap<>();
+        // Ordenadas por inicio, como necesita FreeSlotIterator
+        for (Appointment appointment : appointmentRepository.findActiveByDoctorIdsOverlapping(doctorIds, from, to)) {
+            busy.computeIfAbsent(appointment.getDoctorId(), id -> new ArrayList<>())
+                    .add(new Interval(appointment.getStartTime(), appointment.getEndTime()));
+        }
+        return busy;
+    }
+
+    private static NextAvailableSlot toSlot(Doctor doctor, LocalDateTime start, LocalDateTime end) {
+        return NextAvailableSlot.builder()
+                .doctorId(doctor.getId())
+                .doctorName(String.format("%s %s", doctor.getFirstName(), doctor.getLastName()).trim())
+                .specialization(doctor.getSpecialization())
+                .startTime(start)
+                .endTime(end)
+                .build();
+    }
+}
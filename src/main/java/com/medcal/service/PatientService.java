@@ -5,10 +5,12 @@ import com.medcal.model.entity.Patient;
 import com.medcal.model.entity.User;
 import com.medcal.model.enums.Role;
 import com.medcal.repository.PatientRepository;
+import com.medcal.util.ResourceVersions;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -21,6 +23,7 @@ public class PatientService {
     
     private final PatientRepository patientRepository;
     private final UserService userService;
+    private final ResourceVersions resourceVersions;
     
     public List<PatientDTO> getAllPatients() {
         return patientRepository.findAll()
@@ -34,6 +37,16 @@ public class PatientService {
                 .map(this::convertToDTO);
     }
     
+    /** The patient's {@code updatedAt} alone, to answer a conditional GET without loading it. */
+    public Optional<LocalDateTime> getPatientUpdatedAt(UUID id) {
+        return patientRepository.findUpdatedAtById(id);
+    }
+    
+    /** Moves on every committed create, update or delete of a patient. */
+    public long getPatientsVersion() {
+        return resourceVersions.current(ResourceVersions.PATIENTS);
+    }
+    
     public Optional<PatientDTO> getPatientByUserId(UUID userId) {
         return patientRepository.findByUserId(userId)
                 .map(this::convertToDTO);
@@ -85,6 +98,7 @@ public class PatientService {
             
             // Guardar el paciente
             Patient savedPatient = patientRepository.save(patient);
+            resourceVersions.bump(ResourceVersions.PATIENTS);
             return convertToDTO(savedPatient);
             
         } catch (Exception e) {
@@ -113,7 +127,9 @@ public class PatientService {
                     // Validar antes de guardar
                     validatePatient(patient);
                     
-                    return convertToDTO(patientRepository.save(patient));
+                    Patient savedPatient = patientRepository.save(patient);
+                    resourceVersions.bump(ResourceVersions.PATIENTS);
+                    return convertToDTO(savedPatient);
                 });
     }
     
@@ -121,6 +137,7 @@ public class PatientService {
     public boolean deletePatient(UUID id) {
         if (patientRepository.existsById(id)) {
             patientRepository.deleteById(id);
+            resourceVersions.bump(ResourceVersions.PATIENTS);
             return true;
         }
         return false;
@@ -0,0 +1,233 @@
+package com.medcal.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The subset of RFC 5545 recurrence rules used for appointment series:
+ * {@code FREQ=DAILY|WEEKLY}, {@code INTERVAL}, {@code BYDAY} (weekly only), and at most one
+ * of {@code COUNT} or {@code UNTIL}. For example {@code FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,TH;COUNT=12}.
+ * <p>
+ * Occurrences are never enumerated from the first one: {@link #between} jumps arithmetically
+ * to the period containing {@code from}, so expanding a window costs the occurrences in it,
+ * however long the series has been running.
+ */
+public final class RecurrenceRule {
+
+    public enum Frequency {
+        DAILY, WEEKLY
+    }
+
+    static final int MAX_INTERVAL = 52;
+    static final int MAX_COUNT = 1000;
+    private static final Map<String, DayOfWeek> DAYS = Map.of(
+            "MO", DayOfWeek.MONDAY, "TU", DayOfWeek.TUESDAY, "WE", DayOfWeek.WEDNESDAY, "TH", DayOfWeek.THURSDAY,
+            "FR", DayOfWeek.FRIDAY, "SA", DayOfWeek.SATURDAY, "SU", DayOfWeek.SUNDAY);
+    private static final DateTimeFormatter UNTIL_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter UNTIL_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final Frequency frequency;
+    private final int interval;
+    private final List<DayOfWeek> byDay;
+    private final Integer count;
+    private final LocalDateTime until;
+
+    private RecurrenceRule(Frequency frequency, int interval, List<DayOfWeek> byDay, Integer count, LocalDateTime until) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.byDay = byDay;
+        this.count = count;
+        this.until = until;
+    }
+
+    /**
+     * Parses a rule; a weekly rule without {@code BYDAY} repeats on the weekday of
+     * {@code firstStart}. Throws IllegalArgumentException for anything outside the subset.
+     */
+    public static RecurrenceRule parse(String rule, LocalDateTime firstStart) {
+        if (rule == null || rule.isBlank()) {
+            throw new IllegalArgumentException("La regla de recurrencia es requerida");
+        }
+        Frequency frequency = null;
+        int interval = 1;
+        Set<DayOfWeek> byDay = EnumSet.noneOf(DayOfWeek.class);
+        Integer count = null;
+        LocalDateTime until = null;
+        String body = rule.trim().toUpperCase();
+        if (body.startsWith("RRULE:")) {
+            body = body.substring("RRULE:".length());
+        }
+        for (String part : body.split(";")) {
+            String[] nameAndValue = part.split("=", 2);
+            if (nameAndValue.length != 2 || nameAndValue[1].isBlank()) {
+                throw new IllegalArgumentException("Regla de recurrencia inválida: " + part);
+            }
+            String value = nameAndValue[1].trim();
+            try {
+                switch (nameAndValue[0].trim()) {
+                    case "FREQ" -> frequency = frequency(value);
+                    case "INTERVAL" -> interval = Integer.parseInt(value);
+                    case "COUNT" -> count = Integer.parseInt(value);
+                    case "UNTIL" -> until = parseUntil(value);
+                    case "BYDAY" -> {
+                        for (String day : value.split(",")) {
+                            DayOfWeek dayOfWeek = DAYS.get(day.trim());
+                            if (dayOfWeek == null) {
+                                throw new IllegalArgumentException("Día de la semana inválido: " + day);
+                            }
+                            byDay.add(dayOfWeek);
+                        }
+                    }
+                    default -> throw new IllegalArgumentException("Parte de la regla no soportada: " + nameAndValue[0]);
+                }
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Regla de recurrencia inválida: " + part);
+            }
+        }
+        if (frequency == null) {
+            throw new IllegalArgumentException("La regla de recurrencia necesita FREQ");
+        }
+        if (interval < 1 || interval > MAX_INTERVAL) {
+            throw new IllegalArgumentException("INTERVAL debe estar entre 1 y " + MAX_INTERVAL);
+        }
+        if (count != null && until != null) {
+            throw new IllegalArgumentException("COUNT y UNTIL no pueden usarse juntos");
+        }
+        if (count != null && (count < 1 || count > MAX_COUNT)) {
+            throw new IllegalArgumentException("COUNT debe estar entre 1 y " + MAX_COUNT);
+        }
+        if (frequency == Frequency.DAILY && !byDay.isEmpty()) {
+            throw new IllegalArgumentException("BYDAY sólo se admite con FREQ=WEEKLY");
+        }
+        if (frequency == Frequency.WEEKLY && byDay.isEmpty()) {
+            byDay.add(firstStart.getDayOfWeek());
+        }
+        return new RecurrenceRule(frequency, interval, List.copyOf(byDay), count, until);
+    }
+
+    /** Occurrence starts in {@code [from, to)}, in order, for a series first starting at {@code firstStart}. */
+    public List<LocalDateTime> between(LocalDateTime firstStart, LocalDateTime from, LocalDateTime to) {
+        List<LocalDateTime> starts = new ArrayList<>();
+        if (!from.isBefore(to)) {
+            return starts;
+        }
+        LocalTime time = firstStart.toLocalTime();
+        LocalDate firstDate = firstStart.toLocalDate();
+        if (frequency == Frequency.DAILY) {
+            long period = Math.max(0, Math.floorDiv(ChronoUnit.DAYS.between(firstDate, from.toLocalDate()), interval));
+            for (long k = period; ; k++) {
+                LocalDateTime start = firstDate.plusDays(k * interval).atTime(time);
+                if (start.compareTo(to) >= 0 || pastEnd(k, start)) {
+                    return starts;
+                }
+                if (start.compareTo(from) >= 0) {
+                    starts.add(start);
+                }
+            }
+        }
+
+        LocalDate anchor = firstDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        long firstPeriodCount = byDay.stream().filter(day -> day.compareTo(firstDate.getDayOfWeek()) >= 0).count();
+        long period = Math.max(0, Math.floorDiv(ChronoUnit.DAYS.between(anchor, from.toLocalDate()), 7L * interval));
+        long index = period == 0 ? 0 : firstPeriodCount + (period - 1) * byDay.size();
+        for (; ; period++) {
+            LocalDate weekStart = anchor.plusWeeks(period * interval);
+            for (DayOfWeek day : byDay) {
+                LocalDateTime start = weekStart.plusDays(day.getValue() - 1L).atTime(time);
+                if (start.isBefore(firstStart)) {
+                    continue;
+                }
+                if (start.compareTo(to) >= 0 || pastEnd(index, start)) {
+                    return starts;
+                }
+                if (start.compareTo(from) >= 0) {
+                    starts.add(start);
+                }
+                index++;
+            }
+        }
+    }
+
+    /** True if {@code start} is one of the occurrences. */
+    public boolean isOccurrence(LocalDateTime firstStart, LocalDateTime start) {
+        return between(firstStart, start, start.plusNanos(1)).contains(start);
+    }
+
+    /** Start of the last occurrence, or null for a series without COUNT or UNTIL. */
+    public LocalDateTime lastStart(LocalDateTime firstStart) {
+        if (count == null && until == null) {
+            return null;
+        }
+        if (until != null) {
+            List<LocalDateTime> lastWeeks = between(firstStart, max(firstStart, until.minusWeeks(interval + 1L)), until.plusNanos(1));
+            return lastWeeks.isEmpty() ? null : lastWeeks.get(lastWeeks.size() - 1);
+        }
+        // Con COUNT, la última ocurrencia cae en un periodo calculable
+        long periods = frequency == Frequency.DAILY ? count : (count + 2L * byDay.size()) / byDay.size() + 1;
+        long days = frequency == Frequency.DAILY ? periods * interval : periods * 7L * interval;
+        List<LocalDateTime> all = between(firstStart, firstStart, firstStart.plusDays(days + 1));
+        return all.isEmpty() ? null : all.get(all.size() - 1);
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder rule = new StringBuilder("FREQ=").append(frequency);
+        if (interval != 1) {
+            rule.append(";INTERVAL=").append(interval);
+        }
+        if (frequency == Frequency.WEEKLY) {
+            rule.append(";BYDAY=").append(byDay.stream()
+                    .map(day -> day.name().substring(0, 2))
+                    .collect(Collectors.joining(",")));
+        }
+        if (count != null) {
+            rule.append(";COUNT=").append(count);
+        }
+        if (until != null) {
+            rule.append(";UNTIL=").append(UNTIL_DATE_TIME.format(until));
+        }
+        return rule.toString();
+    }
+
+    private boolean pastEnd(long index, LocalDateTime start) {
+        return (count != null && index >= count) || (until != null && start.isAfter(until));
+    }
+
+    private static Frequency frequency(String value) {
+        for (Frequency frequency : Frequency.values()) {
+            if (frequency.name().equals(value)) {
+                return frequency;
+            }
+        }
+        throw new IllegalArgumentException("Frecuencia no soportada: " + value);
+    }
+
+    private static LocalDateTime parseUntil(String value) {
+        String trimmed = value.endsWith("Z") ? value.substring(0, value.length() - 1) : value;
+        if (trimmed.length() == 8) {
+            // Sólo fecha: incluye todo ese día
+            return LocalDate.parse(trimmed, UNTIL_DATE).atTime(LocalTime.MAX);
+        }
+        return LocalDateTime.parse(trimmed, UNTIL_DATE_TIME);
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
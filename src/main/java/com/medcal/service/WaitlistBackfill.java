@@ -0,0 +1,96 @@
+package com.medcal.service;
+
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.event.AppointmentSnapshot;
+import com.medcal.model.enums.AppointmentChangeType;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.service.WaitlistService.Backfill;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Turns cancellations into offers: after a cancellation or deletion commits, the freed
+ * slot is handed to a single background thread that asks {@link WaitlistService} for the
+ * best waiting patient. One thread means two freed slots never race for the same entry,
+ * and the request that cancelled never waits for it.
+ */
+@Slf4j
+@Component
+public class WaitlistBackfill {
+
+    private final WaitlistService waitlistService;
+    private final WaitlistIndex waitlistIndex;
+    private final WaitlistMetrics waitlistMetrics;
+    private final ExecutorService worker;
+
+    public WaitlistBackfill(WaitlistService waitlistService, WaitlistIndex waitlistIndex, WaitlistMetrics waitlistMetrics) {
+        this.waitlistService = waitlistService;
+        this.waitlistIndex = waitlistIndex;
+        this.waitlistMetrics = waitlistMetrics;
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "waitlist-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        waitlistMetrics.gaugeIndexed(waitlistIndex::size);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        log.info("Lista de espera cargada: {} entradas en espera", waitlistService.loadIndex());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        AppointmentSnapshot freed = freedSlot(event);
+        if (freed == null || waitlistIndex.size() == 0) {
+            return;
+        }
+        worker.execute(() -> backfill(freed));
+    }
+
+    /** Day buckets of past days can never match again. */
+    @Scheduled(cron = "${medcal.waitlist.evict-cron:0 5 0 * * *}")
+    public void evictPastDays() {
+        waitlistIndex.evictBefore(LocalDate.now());
+    }
+
+    void backfill(AppointmentSnapshot freed) {
+        try {
+            Backfill result = waitlistService.offerFreedSlot(freed);
+            if (result.entryId() != null) {
+                waitlistIndex.remove(result.entryId());
+            }
+            waitlistMetrics.recordBackfill(result.outcome());
+        } catch (RuntimeException e) {
+            log.error("No se pudo ofrecer el hueco de la cita {} a la lista de espera", freed.id(), e);
+        }
+    }
+
+    /** The slot an appointment stopped holding, or null if the change freed nothing. */
+    static AppointmentSnapshot freedSlot(AppointmentChangedEvent event) {
+        if (event.type() != AppointmentChangeType.CANCELLED && event.type() != AppointmentChangeType.DELETED) {
+            return null;
+        }
+        AppointmentSnapshot before = event.before();
+        if (before == null || (before.status() != AppointmentStatus.PENDING && before.status() != AppointmentStatus.SCHEDULED)) {
+            return null;
+        }
+        return before;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+}
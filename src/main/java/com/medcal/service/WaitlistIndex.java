@@ -0,0 +1,129 @@
+package com.medcal.service;
+
+import com.medcal.model.entity.WaitlistEntry;
+import com.medcal.model.entity.WaitlistWindow;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * In-memory index of the waiting entries, so a freed slot finds its patient without
+ * scanning the waitlist.
+ * <p>
+ * Every window is split by day and filed under the doctor (or specialty) and that day.
+ * Each bucket is a tree ordered by priority, then age, so the best entry whose window
+ * covers the slot is normally the first of the bucket: a lookup is two hash probes and a
+ * tree walk that stops at the first window containing the slot.
+ */
+@Component
+public class WaitlistIndex {
+
+    private static final Comparator<Item> ORDER = Comparator.comparingInt(Item::priority).reversed()
+            .thenComparing(Item::createdAt)
+            .thenComparing(Item::entryId)
+            .thenComparing(Item::start);
+
+    private record Bucket(String target, LocalDate date) {
+    }
+
+    record Item(UUID entryId, int priority, LocalDateTime createdAt, LocalDateTime start, LocalDateTime end) {
+
+        boolean covers(LocalDateTime slotStart, LocalDateTime slotEnd) {
+            return !start.isAfter(slotStart) && !end.isBefore(slotEnd);
+        }
+    }
+
+    private final Map<Bucket, TreeSet<Item>> buckets = new HashMap<>();
+    private final Map<UUID, List<Map.Entry<Bucket, Item>>> byEntry = new HashMap<>();
+
+    public synchronized void add(WaitlistEntry entry) {
+        remove(entry.getId());
+        String target = entry.getDoctorId() != null ? doctorKey(entry.getDoctorId()) : specialtyKey(entry.getSpecialty());
+        LocalDateTime createdAt = entry.getCreatedAt() != null ? entry.getCreatedAt() : LocalDateTime.now();
+        List<Map.Entry<Bucket, Item>> filed = new ArrayList<>();
+        for (WaitlistWindow window : entry.getWindows()) {
+            // Un trozo por día; las citas no cruzan la medianoche
+            for (LocalDate day = window.getStart().toLocalDate(); day.atStartOfDay().isBefore(window.getEnd()); day = day.plusDays(1)) {
+                LocalDateTime start = max(window.getStart(), day.atStartOfDay());
+                LocalDateTime end = min(window.getEnd(), day.plusDays(1).atStartOfDay());
+                Bucket bucket = new Bucket(target, day);
+                Item item = new Item(entry.getId(), entry.getPriority(), createdAt, start, end);
+                buckets.computeIfAbsent(bucket, b -> new TreeSet<>(ORDER)).add(item);
+                filed.add(Map.entry(bucket, item));
+            }
+        }
+        byEntry.put(entry.getId(), filed);
+    }
+
+    public synchronized void remove(UUID entryId) {
+        List<Map.Entry<Bucket, Item>> filed = byEntry.remove(entryId);
+        if (filed == null) {
+            return;
+        }
+        for (Map.Entry<Bucket, Item> placed : filed) {
+            TreeSet<Item> items = buckets.get(placed.getKey());
+            if (items != null && items.remove(placed.getValue()) && items.isEmpty()) {
+                buckets.remove(placed.getKey());
+            }
+        }
+    }
+
+    /** Best entry waiting for this doctor, or for their specialty, whose window covers the slot. */
+    public synchronized Optional<UUID> best(UUID doctorId, String specialty, LocalDateTime start, LocalDateTime end) {
+        Item forDoctor = first(new Bucket(doctorKey(doctorId), start.toLocalDate()), start, end);
+        Item forSpecialty = specialty != null ? first(new Bucket(specialtyKey(specialty), start.toLocalDate()), start, end) : null;
+        if (forDoctor == null || forSpecialty == null) {
+            return Optional.ofNullable(forDoctor != null ? forDoctor : forSpecialty).map(Item::entryId);
+        }
+        return Optional.of(ORDER.compare(forDoctor, forSpecialty) <= 0 ? forDoctor.entryId() : forSpecialty.entryId());
+    }
+
+    /** Drops the buckets of days before {@code today}. */
+    public synchronized void evictBefore(LocalDate today) {
+        buckets.keySet().removeIf(bucket -> bucket.date().isBefore(today));
+        byEntry.values().forEach(filed -> filed.removeIf(placed -> placed.getKey().date().isBefore(today)));
+        byEntry.values().removeIf(List::isEmpty);
+    }
+
+    public synchronized int size() {
+        return byEntry.size();
+    }
+
+    private Item first(Bucket bucket, LocalDateTime start, LocalDateTime end) {
+        TreeSet<Item> items = buckets.get(bucket);
+        if (items == null) {
+            return null;
+        }
+        for (Item item : items) {
+            if (item.covers(start, end)) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    private static String doctorKey(UUID doctorId) {
+        return "d:" + doctorId;
+    }
+
+    private static String specialtyKey(String specialty) {
+        return "s:" + specialty;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
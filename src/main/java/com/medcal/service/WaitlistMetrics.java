@@ -0,0 +1,42 @@
+package com.medcal.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/** Meters for {@link WaitlistBackfill}: freed slots by outcome and the size of the in-memory index. */
+@Component
+public class WaitlistMetrics {
+
+    public enum Outcome {
+        OFFERED, NO_MATCH, TAKEN
+    }
+
+    private final MeterRegistry registry;
+    private final Map<Outcome, Counter> backfills = new EnumMap<>(Outcome.class);
+
+    public WaitlistMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Outcome outcome : Outcome.values()) {
+            backfills.put(outcome, Counter.builder("medcal.waitlist.backfill")
+                    .description("Freed slots offered to a waiting patient, with no matching entry, or taken before the offer")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(registry));
+        }
+    }
+
+    public void recordBackfill(Outcome outcome) {
+        backfills.get(outcome).increment();
+    }
+
+    public void gaugeIndexed(Supplier<Number> entries) {
+        Gauge.builder("medcal.waitlist.indexed", entries)
+                .description("Waiting entries held in the in-memory waitlist index")
+                .register(registry);
+    }
+}
@@ -0,0 +1,190 @@
+package com.medcal.service;
+
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.event.AppointmentSnapshot;
+import com.medcal.exception.ResourceNotFoundException;
+import com.medcal.service.WaitlistMetrics.Outcome;
+import com.medcal.model.dto.WaitlistRequest;
+import com.medcal.model.entity.Appointment;
+import com.medcal.model.entity.Doctor;
+import com.medcal.model.entity.Patient;
+import com.medcal.model.entity.WaitlistEntry;
+import com.medcal.model.entity.WaitlistWindow;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import com.medcal.model.enums.WaitlistStatus;
+import com.medcal.repository.AppointmentRepository;
+import com.medcal.repository.DoctorRepository;
+import com.medcal.repository.PatientRepository;
+import com.medcal.repository.WaitlistEntryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Waitlist for freed slots. Entries are stored in {@code waitlist_entries} and mirrored in
+ * {@link WaitlistIndex}; when an appointment is cancelled or deleted,
+ * {@link WaitlistBackfill} calls {@link #offerFreedSlot} off the request thread and the
+ * best waiting patient gets the slot as a pending appointment.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class WaitlistService {
+
+    static final int MAX_WINDOWS = 10;
+    static final Duration MAX_WINDOW = Duration.ofDays(31);
+    // Entradas obsoletas en el índice que se descartan antes de rendirse
+    private static final int MAX_STALE = 20;
+
+    /** What happened to a freed slot, and the entry it went to. */
+    public record Backfill(Outcome outcome, UUID entryId) {
+    }
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final PatientRepository patientRepository;
+    private final WaitlistIndex waitlistIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public WaitlistEntry join(WaitlistRequest request) {
+        validate(request);
+        if (!patientRepository.existsById(request.getPatientId())) {
+            throw new ResourceNotFoundException("Patient not found with id: " + request.getPatientId());
+        }
+        if (request.getDoctorId() != null && doctorRepository.findByIdAndActiveTrue(request.getDoctorId()).isEmpty()) {
+            throw new ResourceNotFoundException("Active doctor not found with id: " + request.getDoctorId());
+        }
+        WaitlistEntry entry = waitlistEntryRepository.save(WaitlistEntry.builder()
+                .patientId(request.getPatientId())
+                .doctorId(request.getDoctorId())
+                .specialty(request.getDoctorId() == null ? request.getSpecialty().trim() : null)
+                .type(request.getType() != null ? request.getType() : AppointmentType.CONSULTATION)
+                .priority(request.getPriority() != null ? request.getPriority() : 0)
+                .windows(new ArrayList<>(request.getWindows()))
+                .status(WaitlistStatus.WAITING)
+                .createdAt(LocalDateTime.now())
+                .build());
+        waitlistIndex.add(entry);
+        return entry;
+    }
+
+    @Transactional
+    public Optional<WaitlistEntry> withdraw(UUID entryId) {
+        return waitlistEntryRepository.findById(entryId).map(entry -> {
+            if (entry.getStatus() == WaitlistStatus.WAITING) {
+                entry.setStatus(WaitlistStatus.WITHDRAWN);
+                entry.setUpdatedAt(LocalDateTime.now());
+                waitlistIndex.remove(entryId);
+            }
+            return entry;
+        });
+    }
+
+    public Optional<WaitlistEntry> findById(UUID entryId) {
+        return waitlistEntryRepository.findById(entryId);
+    }
+
+    public List<WaitlistEntry> findByPatientId(UUID patientId) {
+        return waitlistEntryRepository.findByPatientIdOrderByCreatedAtDesc(patientId);
+    }
+
+    public Optional<UUID> findPatientIdByEmail(String email) {
+        return patientRepository.findByUserEmail(email).map(Patient::getId);
+    }
+
+    /** Loads the waiting entries into the index; called once at startup. */
+    public int loadIndex() {
+        List<WaitlistEntry> waiting = waitlistEntryRepository.findWithWindowsByStatus(WaitlistStatus.WAITING);
+        waiting.forEach(waitlistIndex::add);
+        return waiting.size();
+    }
+
+    /**
+     * Books the freed slot for the best matching waiting patient. The slot is checked again
+     * because another booking may have taken it since the cancellation committed.
+     */
+    @Transactional
+    public Backfill offerFreedSlot(AppointmentSnapshot freed) {
+        if (!freed.startTime().isAfter(LocalDateTime.now())) {
+            return new Backfill(Outcome.NO_MATCH, null);
+        }
+        Optional<Doctor> doctor = doctorRepository.findByIdAndActiveTrue(freed.doctorId());
+        if (doctor.isEmpty()) {
+            return new Backfill(Outcome.NO_MATCH, null);
+        }
+        for (int stale = 0; stale < MAX_STALE; stale++) {
+            Optional<UUID> best = waitlistIndex.best(freed.doctorId(), doctor.get().getSpecialization(),
+                    freed.startTime(), freed.endTime());
+            if (best.isEmpty()) {
+                return new Backfill(Outcome.NO_MATCH, null);
+            }
+            Optional<WaitlistEntry> entry = waitlistEntryRepository.findById(best.get())
+                    .filter(candidate -> candidate.getStatus() == WaitlistStatus.WAITING);
+            Optional<Patient> patient = entry.flatMap(candidate -> patientRepository.findById(candidate.getPatientId()));
+            if (patient.isEmpty()) {
+                waitlistIndex.remove(best.get());
+                continue;
+            }
+            if (!appointmentRepository.findActiveByDoctorIdsOverlapping(
+                    List.of(freed.doctorId()), freed.startTime(), freed.endTime()).isEmpty()) {
+                return new Backfill(Outcome.TAKEN, null);
+            }
+            Appointment saved = appointmentRepository.save(Appointment.builder()
+                    .doctorId(freed.doctorId())
+                    .patientId(patient.get().getId())
+                    .startTime(freed.startTime())
+                    .endTime(freed.endTime())
+                    .type(entry.get().getType())
+                    .status(AppointmentStatus.PENDING)
+                    .notes("Ofrecida desde la lista de espera")
+                    .createdBy(patient.get().getUserId())
+                    .build());
+            eventPublisher.publishEvent(AppointmentChangedEvent.created(AppointmentSnapshot.of(saved)));
+            entry.get().setStatus(WaitlistStatus.OFFERED);
+            entry.get().setOfferedAppointmentId(saved.getId());
+            entry.get().setUpdatedAt(LocalDateTime.now());
+            log.info("Hueco {} - {} del doctor {} ofrecido a la entrada {} de la lista de espera",
+                    freed.startTime(), freed.endTime(), freed.doctorId(), entry.get().getId());
+            return new Backfill(Outcome.OFFERED, entry.get().getId());
+        }
+        return new Backfill(Outcome.NO_MATCH, null);
+    }
+
+    private void validate(WaitlistRequest request) {
+        if (request.getPatientId() == null) {
+            throw new IllegalArgumentException("El paciente es requerido");
+        }
+        boolean hasSpecialty = request.getSpecialty() != null && !request.getSpecialty().isBlank();
+        if ((request.getDoctorId() == null) == !hasSpecialty) {
+            throw new IllegalArgumentException("Indique un doctor o una especialidad, no ambos");
+        }
+        if (request.getWindows() == null || request.getWindows().isEmpty() || request.getWindows().size() > MAX_WINDOWS) {
+            throw new IllegalArgumentException("Indique entre 1 y " + MAX_WINDOWS + " franjas horarias");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (WaitlistWindow window : request.getWindows()) {
+            if (window.getStart() == null || window.getEnd() == null || !window.getStart().isBefore(window.getEnd())) {
+                throw new IllegalArgumentException("Cada franja debe tener un inicio anterior a su fin");
+            }
+            if (!window.getEnd().isAfter(now)) {
+                throw new IllegalArgumentException("Las franjas deben terminar en el futuro");
+            }
+            if (Duration.between(window.getStart(), window.getEnd()).compareTo(MAX_WINDOW) > 0) {
+                throw new IllegalArgumentException("Una franja no puede superar los " + MAX_WINDOW.toDays() + " días");
+            }
+        }
+    }
+}
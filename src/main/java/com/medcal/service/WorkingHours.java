@@ -0,0 +1,69 @@
+package com.medcal.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A doctor's weekly schedule, parsed from {@code Doctor.workingHours}
+ * ({@code {"monday": {"start": "09:00", "end": "17:00"}, ...}}). Doctors without a schedule
+ * work Monday to Friday from 9:00 to 17:00, the same default {@link DoctorService} uses.
+ * Days with a missing or unparseable entry are treated as days off.
+ */
+public final class WorkingHours {
+
+    static final LocalTime DEFAULT_START = LocalTime.of(9, 0);
+    static final LocalTime DEFAULT_END = LocalTime.of(17, 0);
+
+    private final Map<DayOfWeek, LocalTime[]> days = new EnumMap<>(DayOfWeek.class);
+
+    private WorkingHours() {
+    }
+
+    public static WorkingHours of(Map<String, Map<String, String>> schedule) {
+        WorkingHours hours = new WorkingHours();
+        if (schedule == null || schedule.isEmpty()) {
+            for (DayOfWeek day : DayOfWeek.values()) {
+                if (day != DayOfWeek.SATURDAY && day != DayOfWeek.SUNDAY) {
+                    hours.days.put(day, new LocalTime[]{DEFAULT_START, DEFAULT_END});
+                }
+            }
+            return hours;
+        }
+        for (DayOfWeek day : DayOfWeek.values()) {
+            Map<String, String> entry = schedule.get(day.name().toLowerCase(Locale.ROOT));
+            if (entry == null || entry.get("start") == null || entry.get("end") == null) {
+                continue;
+            }
+            try {
+                LocalTime start = LocalTime.parse(entry.get("start"));
+                LocalTime end = LocalTime.parse(entry.get("end"));
+                if (start.isBefore(end)) {
+                    hours.days.put(day, new LocalTime[]{start, end});
+                }
+            } catch (DateTimeParseException e) {
+                // Horario mal formado: se considera día no laborable
+            }
+        }
+        return hours;
+    }
+
+    public boolean works(DayOfWeek day) {
+        return days.containsKey(day);
+    }
+
+    /** Start of the working day, or null on days off. */
+    public LocalTime start(DayOfWeek day) {
+        LocalTime[] range = days.get(day);
+        return range != null ? range[0] : null;
+    }
+
+    /** End of the working day, or null on days off. */
+    public LocalTime end(DayOfWeek day) {
+        LocalTime[] range = days.get(day);
+        return range != null ? range[1] : null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.medcal.util;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Named leases in the {@code scheduler_leases} table, so a job scheduled on every node runs
+ * on one at a time. A lease is held until it expires or is released; a node that dies
+ * holding one blocks the job for at most the lease duration.
+ */
+@Component
+public class DatabaseLease {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final String owner;
+
+    @Autowired
+    public DatabaseLease(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, Clock.systemUTC(), hostName() + "/" + UUID.randomUUID());
+    }
+
+    public DatabaseLease(JdbcTemplate jdbcTemplate, Clock clock, String owner) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.owner = owner;
+    }
+
+    /** Takes or extends the lease if it is free, expired or already ours. Call outside a transaction. */
+    public boolean tryAcquire(String name, Duration duration) {
+        Instant now = clock.instant();
+        Timestamp expiresAt = Timestamp.from(now.plus(duration));
+        int updated = jdbcTemplate.update(
+                "UPDATE scheduler_leases SET owner = ?, expires_at = ? WHERE name = ? AND (owner = ? OR expires_at <= ?)",
+                owner, expiresAt, name, owner, Timestamp.from(now));
+        if (updated == 1) {
+            return true;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO scheduler_leases (name, owner, expires_at) VALUES (?, ?, ?)",
+                    name, owner, expiresAt);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // Otro nodo la tiene
+            return false;
+        }
+    }
+
+    public void release(String name) {
+        jdbcTemplate.update("UPDATE scheduler_leases SET expires_at = ? WHERE name = ? AND owner = ?",
+                Timestamp.from(clock.instant()), name, owner);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.medcal.util;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Weak ETags for JSON representations: equal tags mean the same data, not the same bytes,
+ * which is all a client revalidating a {@code GET} needs.
+ */
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    /** Tag of one row, from its {@code updatedAt}; null if the row has none. */
+    public static String of(LocalDateTime updatedAt) {
+        if (updatedAt == null) {
+            return null;
+        }
+        // Microsegundos: la precisión con la que la base de datos guarda el TIMESTAMP
+        long micros = ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), updatedAt);
+        return "W/\"" + Long.toHexString(micros) + "\"";
+    }
+
+    /** Tag of a collection, from its {@link ResourceVersions} counter. */
+    public static String ofVersion(long version) {
+        return "W/\"v" + version + "\"";
+    }
+}
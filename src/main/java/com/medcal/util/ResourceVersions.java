@@ -0,0 +1,42 @@
+package com.medcal.util;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * A change counter per table in {@code resource_versions}, the validator of list endpoints
+ * whose rows carry no single timestamp for the whole collection. Writers bump it inside
+ * their transaction, so it moves if and only if the change commits; readers take it before
+ * loading the list, so a list is never tagged with a newer version than its contents.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResourceVersions {
+
+    public static final String DOCTORS = "doctors";
+    public static final String PATIENTS = "patients";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** The current version, 0 if the resource never changed. */
+    public long current(String resource) {
+        List<Long> versions = jdbcTemplate.queryForList(
+                "SELECT version FROM resource_versions WHERE name = ?", Long.class, resource);
+        return versions.isEmpty() ? 0 : versions.get(0);
+    }
+
+    /** Call inside the transaction that changes {@code resource}. */
+    public void bump(String resource) {
+        if (jdbcTemplate.update("UPDATE resource_versions SET version = version + 1 WHERE name = ?", resource) > 0) {
+            return;
+        }
+        // ON CONFLICT evita abortar la transacción del llamante si otra crea la fila a la vez
+        if (jdbcTemplate.update("INSERT INTO resource_versions (name, version) VALUES (?, 1) ON CONFLICT DO NOTHING",
+                resource) == 0) {
+            jdbcTemplate.update("UPDATE resource_versions SET version = version + 1 WHERE name = ?", resource);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.medcal.util;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent calls with the same key share one computation: the first caller runs the
+ * loader, the others wait for its result. Results can optionally be kept for a short TTL so
+ * that calls arriving just after the computation also reuse it.
+ * <p>
+ * {@link #invalidate()} drops cached results and makes computations already in flight skip
+ * the cache, so a result read before a write is never served after it.
+ */
+public class SingleFlight<K, V> {
+
+    public enum Outcome {
+        COMPUTED, COALESCED, CACHED
+    }
+
+    private record Cached<V>(V value, long expiresAt) {
+    }
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Map<K, Cached<V>> cache = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final long ttlNanos;
+    private final int maxCached;
+    private final Consumer<Outcome> listener;
+    private final LongSupplier nanoClock;
+
+    public SingleFlight(Duration ttl, int maxCached, Consumer<Outcome> listener) {
+        this(ttl, maxCached, listener, System::nanoTime);
+    }
+
+    SingleFlight(Duration ttl, int maxCached, Consumer<Outcome> listener, LongSupplier nanoClock) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxCached = maxCached;
+        this.listener = listener;
+        this.nanoClock = nanoClock;
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        if (ttlNanos > 0) {
+            Cached<V> cached = cache.get(key);
+            if (cached != null) {
+                if (cached.expiresAt() - nanoClock.getAsLong() > 0) {
+                    listener.accept(Outcome.CACHED);
+                    return cached.value();
+                }
+                cache.remove(key, cached);
+            }
+        }
+
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            listener.accept(Outcome.COALESCED);
+            return await(existing);
+        }
+
+        listener.accept(Outcome.COMPUTED);
+        long startedGeneration = generation.get();
+        try {
+            V value = loader.get();
+            if (ttlNanos > 0 && generation.get() == startedGeneration) {
+                store(key, value);
+            }
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    int cachedCount() {
+        return cache.size();
+    }
+
+    private void store(K key, V value) {
+        long now = nanoClock.getAsLong();
+        if (cache.size() >= maxCached) {
+            cache.values().removeIf(cached -> cached.expiresAt() - now <= 0);
+            if (cache.size() >= maxCached) {
+                return;
+            }
+        }
+        cache.put(key, new Cached<>(value, now + ttlNanos));
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            // Los que esperan reciben la misma excepción que quien hizo el cálculo
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+-- Convierte appointments en una tabla particionada por meses sobre start_time (PostgreSQL 12+).
+-- Se ejecuta una sola vez, con la aplicación parada:
+--   psql -v ON_ERROR_STOP=1 -d medcal -f src/main/resources/db/postgresql/partition-appointments.sql
+-- Al arrancar, AppointmentPartitionMaintainer crea los meses siguientes y borra los vacíos ya archivados.
+BEGIN;
+
+-- Una tabla particionada sólo admite claves únicas que incluyan start_time: nadie puede referenciar
+-- appointments(id) con una clave foránea (Hibernate la creaba desde clinical_histories)
+DO $$
+DECLARE
+    fk record;
+BEGIN
+    FOR fk IN SELECT conrelid::regclass AS owner_table, conname FROM pg_constraint
+              WHERE contype = 'f' AND confrelid = 'appointments'::regclass LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.owner_table, fk.conname);
+    END LOOP;
+END $$;
+
+ALTER TABLE appointments RENAME TO appointments_unpartitioned;
+ALTER TABLE appointments_unpartitioned RENAME CONSTRAINT appointments_pkey TO appointments_unpartitioned_pkey;
+DROP INDEX IF EXISTS idx_appointments_series;
+DROP INDEX IF EXISTS idx_appointments_doctor_start;
+DROP INDEX IF EXISTS idx_appointments_status_start;
+DROP INDEX IF EXISTS idx_appointments_status_end;
+
+CREATE TABLE appointments (LIKE appointments_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (start_time);
+ALTER TABLE appointments ADD PRIMARY KEY (id, start_time);
+ALTER TABLE appointments ADD FOREIGN KEY (doctor_id) REFERENCES doctors (id);
+ALTER TABLE appointments ADD FOREIGN KEY (patient_id) REFERENCES patients (id);
+
+-- Recoge las citas de meses que todavía no tienen partición
+CREATE TABLE appointments_default PARTITION OF appointments DEFAULT;
+
+-- Un mes por partición, desde la cita más antigua hasta tres meses vista
+DO $$
+DECLARE
+    month date := date_trunc('month', COALESCE((SELECT MIN(start_time) FROM appointments_unpartitioned), now()));
+    last_month date := date_trunc('month', now() + interval '3 months');
+BEGIN
+    WHILE month <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF appointments FOR VALUES FROM (%L) TO (%L)',
+                       'appointments_p' || to_char(month, 'YYYYMM'), month, month + interval '1 month');
+        month := month + interval '1 month';
+    END LOOP;
+END $$;
+
+INSERT INTO appointments SELECT * FROM appointments_unpartitioned;
+DROP TABLE appointments_unpartitioned;
+
+-- Se crean en cada partición, presente o futura
+CREATE INDEX idx_appointments_series ON appointments (series_id, start_time);
+CREATE INDEX idx_appointments_doctor_start ON appointments (doctor_id, start_time);
+CREATE INDEX idx_appointments_status_start ON appointments (status, start_time);
+CREATE INDEX idx_appointments_status_end ON appointments (status, end_time);
+
+-- Destino de AppointmentArchiver (igual que en schema.sql, que no se ejecuta con el perfil prod)
+CREATE TABLE IF NOT EXISTS appointments_archive (
+    id UUID PRIMARY KEY,
+    doctor_id UUID NOT NULL,
+    patient_id UUID NOT NULL,
+    start_time TIMESTAMP NOT NULL,
+    end_time TIMESTAMP NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    notes TEXT,
+    series_id UUID,
+    created_by UUID,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    archived_at TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_appointments_archive_start ON appointments_archive (start_time);
+CREATE INDEX IF NOT EXISTS idx_appointments_archive_doctor ON appointments_archive (doctor_id, start_time);
+CREATE INDEX IF NOT EXISTS idx_appointments_archive_patient ON appointments_archive (patient_id, start_time);
+
+COMMIT;
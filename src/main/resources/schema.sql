@@ -54,8 +54,162 @@ CREATE TABLE IF NOT EXISTS appointments (
     type VARCHAR(50) NOT NULL,
     status VARCHAR(50) NOT NULL,
     notes TEXT,
+    series_id UUID,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (doctor_id) REFERENCES doctors(id),
     FOREIGN KEY (patient_id) REFERENCES patients(id)
 );
+CREATE INDEX IF NOT EXISTS idx_appointments_series ON appointments (series_id, start_time);
+CREATE INDEX IF NOT EXISTS idx_appointments_doctor_start ON appointments (doctor_id, start_time);
+CREATE INDEX IF NOT EXISTS idx_appointments_status_start ON appointments (status, start_time);
+CREATE INDEX IF NOT EXISTS idx_appointments_status_end ON appointments (status, end_time);
+
+-- Citas cerradas antiguas movidas por AppointmentArchiver; se leen sólo si el rango lo requiere
+CREATE TABLE IF NOT EXISTS appointments_archive (
+    id UUID PRIMARY KEY,
+    doctor_id UUID NOT NULL,
+    patient_id UUID NOT NULL,
+    start_time TIMESTAMP NOT NULL,
+    end_time TIMESTAMP NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    notes TEXT,
+    series_id UUID,
+    created_by UUID,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    archived_at TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_appointments_archive_start ON appointments_archive (start_time);
+CREATE INDEX IF NOT EXISTS idx_appointments_archive_doctor ON appointments_archive (doctor_id, start_time);
+CREATE INDEX IF NOT EXISTS idx_appointments_archive_patient ON appointments_archive (patient_id, start_time);
+
+-- Series de citas recurrentes: una fila por serie, las ocurrencias se expanden bajo demanda
+CREATE TABLE IF NOT EXISTS appointment_series (
+    id UUID PRIMARY KEY,
+    doctor_id UUID NOT NULL,
+    patient_id UUID NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    rrule VARCHAR(255) NOT NULL,
+    first_start TIMESTAMP NOT NULL,
+    duration_minutes INT NOT NULL,
+    notes TEXT,
+    created_by UUID NOT NULL,
+    active BOOLEAN NOT NULL DEFAULT true,
+    materialized_until TIMESTAMP NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (doctor_id) REFERENCES doctors(id),
+    FOREIGN KEY (patient_id) REFERENCES patients(id)
+);
+CREATE INDEX IF NOT EXISTS idx_appointment_series_doctor ON appointment_series (doctor_id, active);
+
+-- Registro de cambios de citas para sincronización incremental (/api/appointments/changes)
+CREATE TABLE IF NOT EXISTS appointment_changes (
+    seq BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    appointment_id UUID NOT NULL,
+    doctor_id UUID NOT NULL,
+    patient_id UUID NOT NULL,
+    previous_doctor_id UUID,
+    previous_patient_id UUID,
+    change_type VARCHAR(20) NOT NULL,
+    changed_at TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_appointment_changes_doctor ON appointment_changes (doctor_id, seq);
+CREATE INDEX IF NOT EXISTS idx_appointment_changes_prev_doctor ON appointment_changes (previous_doctor_id, seq);
+CREATE INDEX IF NOT EXISTS idx_appointment_changes_patient ON appointment_changes (patient_id, seq);
+CREATE INDEX IF NOT EXISTS idx_appointment_changes_prev_patient ON appointment_changes (previous_patient_id, seq);
+CREATE INDEX IF NOT EXISTS idx_appointment_changes_changed_at ON appointment_changes (changed_at);
+
+-- Outbox de eventos de citas: se escribe en la transacción de la cita y lo vacía OutboxDispatcher
+CREATE TABLE IF NOT EXISTS appointment_outbox (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    appointment_id UUID NOT NULL,
+    change_type VARCHAR(20) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    next_attempt_at TIMESTAMP NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    last_error VARCHAR(500)
+);
+CREATE INDEX IF NOT EXISTS idx_appointment_outbox_next_attempt ON appointment_outbox (next_attempt_at, id);
+
+-- Lista de espera para ocupar huecos liberados por cancelaciones
+CREATE TABLE IF NOT EXISTS waitlist_entries (
+    id UUID PRIMARY KEY,
+    patient_id UUID NOT NULL,
+    doctor_id UUID,
+    specialty VARCHAR(100),
+    type VARCHAR(50) NOT NULL,
+    priority INT NOT NULL DEFAULT 0,
+    status VARCHAR(20) NOT NULL,
+    offered_appointment_id UUID,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP,
+    FOREIGN KEY (patient_id) REFERENCES patients(id),
+    FOREIGN KEY (doctor_id) REFERENCES doctors(id)
+);
+CREATE INDEX IF NOT EXISTS idx_waitlist_entries_status ON waitlist_entries (status);
+CREATE INDEX IF NOT EXISTS idx_waitlist_entries_patient ON waitlist_entries (patient_id);
+
+CREATE TABLE IF NOT EXISTS waitlist_entry_windows (
+    entry_id UUID NOT NULL,
+    window_start TIMESTAMP NOT NULL,
+    window_end TIMESTAMP NOT NULL,
+    FOREIGN KEY (entry_id) REFERENCES waitlist_entries(id) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS idx_waitlist_entry_windows_entry ON waitlist_entry_windows (entry_id);
+
+-- Concesiones para que un trabajo programado corra en un solo nodo a la vez (DatabaseLease)
+CREATE TABLE IF NOT EXISTS scheduler_leases (
+    name VARCHAR(64) PRIMARY KEY,
+    owner VARCHAR(255) NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+-- Recordatorios ya enviados, para que cada uno salga de un solo nodo (ReminderDeliveries)
+CREATE TABLE IF NOT EXISTS reminder_deliveries (
+    appointment_id UUID NOT NULL,
+    start_time TIMESTAMP NOT NULL,
+    lead_minutes BIGINT NOT NULL,
+    sent_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (appointment_id, start_time, lead_minutes)
+);
+CREATE INDEX IF NOT EXISTS idx_reminder_deliveries_start_time ON reminder_deliveries (start_time);
+
+-- Claves de idempotencia compartidas entre nodos (medcal.idempotency.store=jdbc)
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    key_hash VARCHAR(64) PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    status INT NOT NULL,
+    content_type VARCHAR(255),
+    body BYTEA,
+    expires_at TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
+
+-- Ocupación por médico y día (UtilizationRollup): se actualiza con cada cambio de cita y se recalcula cada noche
+CREATE TABLE IF NOT EXISTS doctor_utilization (
+    doctor_id UUID NOT NULL,
+    work_day DATE NOT NULL,
+    capacity_minutes INT NOT NULL,
+    booked_minutes INT NOT NULL,
+    pending_count INT NOT NULL,
+    scheduled_count INT NOT NULL,
+    completed_count INT NOT NULL,
+    cancelled_count INT NOT NULL,
+    no_show_count INT NOT NULL,
+    consultation_count INT NOT NULL,
+    followup_count INT NOT NULL,
+    emergency_count INT NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (doctor_id, work_day)
+);
+CREATE INDEX IF NOT EXISTS idx_doctor_utilization_day ON doctor_utilization (work_day);
+
+-- Contador de cambios por tabla: ETag de los listados de médicos y pacientes (ResourceVersions)
+CREATE TABLE IF NOT EXISTS resource_versions (
+    name VARCHAR(64) PRIMARY KEY,
+    version BIGINT NOT NULL
+);
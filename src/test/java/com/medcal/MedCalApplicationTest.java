@@ -0,0 +1,16 @@
+package com.medcal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Starts the whole application context, so a bean Spring cannot instantiate fails the build
+ * instead of the first deployment.
+ */
+@SpringBootTest
+class MedCalApplicationTest {
+
+    @Test
+    void contextLoads() {
+    }
+}
@@ -0,0 +1,105 @@
+package com.medcal.analytics;
+
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarSegmentTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTrip_AcrossSeveralRowGroups() throws Exception {
+        List<UUID> doctors = ids(40);
+        List<UUID> patients = ids(5000);
+        Random random = new Random(7);
+        List<HistoryRow> rows = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 8, 0);
+        int total = ColumnarSegmentWriter.ROW_GROUP_SIZE * 2 + 123;
+        for (int i = 0; i < total; i++) {
+            start = start.plusSeconds(random.nextInt(40));
+            rows.add(new HistoryRow(doctors.get(random.nextInt(doctors.size())),
+                    patients.get(random.nextInt(patients.size())),
+                    start.withSecond(0).withNano(0), start.withSecond(0).withNano(0).plusMinutes(15 + random.nextInt(4) * 15),
+                    AppointmentType.values()[random.nextInt(3)],
+                    random.nextInt(10) < 8 ? AppointmentStatus.COMPLETED : AppointmentStatus.values()[random.nextInt(5)]));
+        }
+        Path file = dir.resolve("appointments-202403.mca");
+        try (ColumnarSegmentWriter writer = new ColumnarSegmentWriter(file, YearMonth.of(2024, 3))) {
+            for (HistoryRow row : rows) {
+                writer.append(row);
+            }
+        }
+
+        ColumnarSegment segment = ColumnarSegment.open(file);
+        assertEquals(YearMonth.of(2024, 3), segment.month());
+        assertEquals(total, segment.rowCount());
+        assertEquals(3, segment.groups().size());
+        assertEquals(doctors.size(), segment.doctors().length);
+
+        int base = 0;
+        for (ColumnarSegment.RowGroup group : segment.groups()) {
+            int[] doctorColumn = new int[group.rows()];
+            long[] starts = new long[group.rows()];
+            int[] durations = new int[group.rows()];
+            byte[] statuses = new byte[group.rows()];
+            byte[] types = new byte[group.rows()];
+            segment.readVarints(group, ColumnarSegmentWriter.DOCTOR, doctorColumn);
+            segment.readStarts(group, starts);
+            segment.readVarints(group, ColumnarSegmentWriter.DURATION, durations);
+            segment.readRuns(group, ColumnarSegmentWriter.STATUS, statuses);
+            segment.readRuns(group, ColumnarSegmentWriter.TYPE, types);
+            for (int i = 0; i < group.rows(); i++) {
+                HistoryRow row = rows.get(base + i);
+                assertEquals(row.doctorId(), segment.doctors()[doctorColumn[i]]);
+                assertEquals(ColumnarSegmentWriter.epochMinute(row.startTime()), starts[i]);
+                assertEquals(ColumnarSegmentWriter.epochMinute(row.endTime()) - starts[i], durations[i]);
+                assertEquals(row.status().ordinal(), statuses[i]);
+                assertEquals(row.type().ordinal(), types[i]);
+            }
+            base += group.rows();
+        }
+        // Seis columnas codificadas en menos de 8 bytes por fila, diccionarios incluidos
+        assertTrue(Files.size(file) < total * 8L, "tamaño " + Files.size(file));
+    }
+
+    @Test
+    void emptySegment_HasNoRowGroups() throws Exception {
+        Path file = dir.resolve("appointments-202402.mca");
+        new ColumnarSegmentWriter(file, YearMonth.of(2024, 2)).close();
+
+        ColumnarSegment segment = ColumnarSegment.open(file);
+        assertEquals(0, segment.rowCount());
+        assertTrue(segment.groups().isEmpty());
+    }
+
+    @Test
+    void otherFiles_AreRejected() throws Exception {
+        Path file = dir.resolve("appointments-202401.mca");
+        Files.writeString(file, "not a segment");
+
+        assertThrows(IOException.class, () -> ColumnarSegment.open(file));
+    }
+
+    private static List<UUID> ids(int count) {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,162 @@
+package com.medcal.analytics;
+
+import com.medcal.model.dto.HistoryReport;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryQueryEngineTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 4, 10, 12, 0);
+
+    @TempDir
+    Path dir;
+
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private final Clock clock = Clock.fixed(NOW.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+    private final List<UUID> doctors = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+    private final List<HistoryRow> rows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:history-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        String columns = "id UUID PRIMARY KEY, doctor_id UUID NOT NULL, patient_id UUID NOT NULL, " +
+                "start_time TIMESTAMP NOT NULL, end_time TIMESTAMP NOT NULL, type VARCHAR(50) NOT NULL, " +
+                "status VARCHAR(50) NOT NULL";
+        jdbcTemplate.execute("CREATE TABLE appointments (" + columns + ")");
+        jdbcTemplate.execute("CREATE TABLE appointments_archive (" + columns + ")");
+        transactionManager = new DataSourceTransactionManager(dataSource);
+
+        // Enero y febrero en el archivo; marzo todavía en la tabla activa
+        Random random = new Random(11);
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 8, 0);
+        while (start.isBefore(LocalDateTime.of(2030, 4, 1, 0, 0))) {
+            AppointmentStatus status = random.nextInt(10) < 7 ? AppointmentStatus.COMPLETED
+                    : random.nextBoolean() ? AppointmentStatus.NO_SHOW : AppointmentStatus.CANCELLED;
+            HistoryRow row = new HistoryRow(doctors.get(random.nextInt(doctors.size())), UUID.randomUUID(), start,
+                    start.plusMinutes(30), AppointmentType.values()[random.nextInt(3)], status);
+            boolean archived = start.isBefore(LocalDateTime.of(2030, 3, 1, 0, 0)) && status != AppointmentStatus.NO_SHOW;
+            insert(archived ? "appointments_archive" : "appointments", row);
+            rows.add(row);
+            start = start.plusMinutes(37);
+        }
+        // Sin cerrar: no se exporta
+        insert("appointments", new HistoryRow(doctors.get(0), UUID.randomUUID(), LocalDateTime.of(2030, 3, 31, 9, 0),
+                LocalDateTime.of(2030, 3, 31, 9, 30), AppointmentType.CONSULTATION, AppointmentStatus.SCHEDULED));
+    }
+
+    @Test
+    void export_WritesOneSegmentPerClosedMonth() {
+        HistoryQueryEngine engine = new HistoryQueryEngine(dir, 4);
+        HistoryExporter exporter = new HistoryExporter(jdbcTemplate, transactionManager, engine, dir, 2, clock);
+
+        assertEquals(3, exporter.exportPending());
+        assertTrue(Files.exists(dir.resolve("appointments-203001.mca")));
+        assertTrue(Files.exists(dir.resolve("appointments-203003.mca")));
+        assertFalse(Files.exists(dir.resolve("appointments-203004.mca")));
+        assertEquals(3, engine.segments().size());
+        assertEquals(rows.size(), engine.segments().stream().mapToLong(ColumnarSegment::rowCount).sum());
+        // Ya exportados: no se vuelven a escribir
+        assertEquals(0, exporter.exportPending());
+        engine.shutdown();
+    }
+
+    @Test
+    void groupByDoctorAndStatus_MatchesDirectCount() {
+        HistoryQueryEngine engine = exported();
+        LocalDate from = LocalDate.of(2030, 1, 15);
+        LocalDate to = LocalDate.of(2030, 3, 10);
+
+        HistoryReport report = engine.run(new HistoryQuery(from, to, null, null, null,
+                List.of(HistoryDimension.DOCTOR, HistoryDimension.STATUS)));
+
+        Map<String, Long> expected = rows.stream()
+                .filter(row -> !row.startTime().isBefore(from.atStartOfDay()) && row.startTime().isBefore(to.atStartOfDay()))
+                .collect(Collectors.groupingBy(row -> row.doctorId() + "/" + row.status(), Collectors.counting()));
+        Map<String, Long> actual = report.getGroups().stream()
+                .collect(Collectors.toMap(group -> group.getDoctorId() + "/" + group.getStatus(),
+                        HistoryReport.Group::getAppointments));
+        assertEquals(expected, actual);
+        assertEquals(expected.values().stream().mapToLong(Long::longValue).sum(), report.getAppointments());
+        assertEquals(report.getAppointments() * 30, report.getBookedMinutes());
+        engine.shutdown();
+    }
+
+    @Test
+    void filtersAndTimeDimensions_MatchDirectCount() {
+        HistoryQueryEngine engine = exported();
+        UUID doctor = doctors.get(1);
+
+        HistoryReport report = engine.run(new HistoryQuery(LocalDate.of(2030, 1, 1), LocalDate.of(2030, 4, 1),
+                Set.of(doctor), Set.of(AppointmentStatus.NO_SHOW), null,
+                List.of(HistoryDimension.MONTH, HistoryDimension.DAY_OF_WEEK, HistoryDimension.HOUR)));
+
+        Map<String, Long> expected = rows.stream()
+                .filter(row -> row.doctorId().equals(doctor) && row.status() == AppointmentStatus.NO_SHOW)
+                .collect(Collectors.groupingBy(row -> YearMonth.from(row.startTime()) + "/"
+                        + row.startTime().getDayOfWeek() + "/" + row.startTime().getHour(), Collectors.counting()));
+        Map<String, Long> actual = report.getGroups().stream()
+                .collect(Collectors.toMap(group -> group.getMonth() + "/" + group.getDayOfWeek() + "/" + group.getHour(),
+                        HistoryReport.Group::getAppointments));
+        assertEquals(expected, actual);
+        assertNull(report.getGroups().get(0).getDoctorId());
+        engine.shutdown();
+    }
+
+    @Test
+    void rangeOutsideHistory_ReadsNoRowGroups() {
+        HistoryQueryEngine engine = exported();
+
+        HistoryReport report = engine.run(new HistoryQuery(LocalDate.of(2029, 1, 1), LocalDate.of(2029, 12, 1),
+                null, null, null, List.of()));
+
+        assertEquals(0, report.getRowsScanned());
+        assertEquals(0, report.getAppointments());
+        engine.shutdown();
+    }
+
+    @Test
+    void invalidRange_IsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new HistoryQuery(LocalDate.of(2030, 2, 1),
+                LocalDate.of(2030, 1, 1), null, null, null, null));
+    }
+
+    private HistoryQueryEngine exported() {
+        HistoryQueryEngine engine = new HistoryQueryEngine(dir, 4);
+        new HistoryExporter(jdbcTemplate, transactionManager, engine, dir, 2, clock).exportPending();
+        return engine;
+    }
+
+    private void insert(String table, HistoryRow row) {
+        jdbcTemplate.update("INSERT INTO " + table + " (id, doctor_id, patient_id, start_time, end_time, type, status) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                UUID.randomUUID(), row.doctorId(), row.patientId(), Timestamp.valueOf(row.startTime()),
+                Timestamp.valueOf(row.endTime()), row.type().name(), row.status().name());
+    }
+}
@@ -0,0 +1,150 @@
+package com.medcal.analytics;
+
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.event.AppointmentSnapshot;
+import com.medcal.model.dto.DoctorUtilization;
+import com.medcal.model.enums.AppointmentChangeType;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import com.medcal.service.WorkingHours;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UtilizationRollupTest {
+
+    // Lunes
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+    private JdbcTemplate jdbcTemplate;
+    private UtilizationRollup rollup;
+    private final UUID cardiologist = UUID.randomUUID();
+    private final UUID dermatologist = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:utilization-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE doctors (id UUID PRIMARY KEY, first_name VARCHAR(100), " +
+                "last_name VARCHAR(100), specialization VARCHAR(100))");
+        jdbcTemplate.execute("CREATE TABLE appointments (id UUID PRIMARY KEY, doctor_id UUID NOT NULL, " +
+                "patient_id UUID NOT NULL, start_time TIMESTAMP NOT NULL, end_time TIMESTAMP NOT NULL, " +
+                "type VARCHAR(50) NOT NULL, status VARCHAR(50) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE doctor_utilization (doctor_id UUID NOT NULL, work_day DATE NOT NULL, " +
+                "capacity_minutes INT NOT NULL, booked_minutes INT NOT NULL, pending_count INT NOT NULL, " +
+                "scheduled_count INT NOT NULL, completed_count INT NOT NULL, cancelled_count INT NOT NULL, " +
+                "no_show_count INT NOT NULL, consultation_count INT NOT NULL, followup_count INT NOT NULL, " +
+                "emergency_count INT NOT NULL, updated_at TIMESTAMP NOT NULL, PRIMARY KEY (doctor_id, work_day))");
+        jdbcTemplate.update("INSERT INTO doctors VALUES (?, 'Ana', 'Ruiz', 'Cardiología')", cardiologist);
+        jdbcTemplate.update("INSERT INTO doctors VALUES (?, 'Luis', 'Soto', 'Dermatología')", dermatologist);
+        // Horario por defecto: lunes a viernes de 9:00 a 17:00 (480 minutos)
+        rollup = new UtilizationRollup(jdbcTemplate, doctorId -> WorkingHours.of(null));
+    }
+
+    @Test
+    void changes_ApplyDeltasToTheDayOfTheAppointment() {
+        AppointmentSnapshot booked = snapshot(cardiologist, MONDAY.atTime(10, 0), 30, AppointmentStatus.PENDING);
+        rollup.onAppointmentChanged(AppointmentChangedEvent.created(booked));
+        rollup.onAppointmentChanged(AppointmentChangedEvent.created(
+                snapshot(cardiologist, MONDAY.atTime(11, 0), 60, AppointmentStatus.SCHEDULED)));
+
+        DoctorUtilization monday = only(MONDAY, MONDAY.plusDays(1));
+        assertEquals(480, monday.getCapacityMinutes());
+        assertEquals(90, monday.getBookedMinutes());
+        assertEquals(90.0 / 480, monday.getUtilization(), 1e-9);
+        assertEquals(1L, (long) monday.getStatusCounts().get(AppointmentStatus.PENDING));
+        assertEquals(1L, (long) monday.getStatusCounts().get(AppointmentStatus.SCHEDULED));
+        assertEquals(2L, (long) monday.getTypeCounts().get(AppointmentType.CONSULTATION));
+
+        // Cancelar deja de ocupar tiempo pero se cuenta
+        AppointmentSnapshot cancelled = booked.withStatus(AppointmentStatus.CANCELLED);
+        rollup.onAppointmentChanged(AppointmentChangedEvent.changed(AppointmentChangeType.STATUS_CHANGED, booked, cancelled));
+        monday = only(MONDAY, MONDAY.plusDays(1));
+        assertEquals(60, monday.getBookedMinutes());
+        assertEquals(0L, (long) monday.getStatusCounts().get(AppointmentStatus.PENDING));
+        assertEquals(1L, (long) monday.getStatusCounts().get(AppointmentStatus.CANCELLED));
+
+        // Reprogramar al martes mueve la cita de fila
+        AppointmentSnapshot moved = new AppointmentSnapshot(cancelled.id(), cardiologist, cancelled.patientId(),
+                MONDAY.plusDays(1).atTime(10, 0), MONDAY.plusDays(1).atTime(10, 30),
+                AppointmentType.CONSULTATION, AppointmentStatus.PENDING);
+        rollup.onAppointmentChanged(AppointmentChangedEvent.changed(AppointmentChangeType.UPDATED, cancelled, moved));
+        assertEquals(60, only(MONDAY, MONDAY.plusDays(1)).getBookedMinutes());
+        assertEquals(0L, (long) only(MONDAY, MONDAY.plusDays(1)).getStatusCounts().get(AppointmentStatus.CANCELLED));
+        assertEquals(30, only(MONDAY.plusDays(1), MONDAY.plusDays(2)).getBookedMinutes());
+        assertEquals(90, only(MONDAY, MONDAY.plusDays(2)).getBookedMinutes());
+        assertEquals(960, only(MONDAY, MONDAY.plusDays(2)).getCapacityMinutes());
+
+        rollup.onAppointmentChanged(AppointmentChangedEvent.deleted(moved));
+        assertEquals(0, only(MONDAY.plusDays(1), MONDAY.plusDays(2)).getBookedMinutes());
+    }
+
+    @Test
+    void reconcileDay_RebuildsRowsFromAppointments() {
+        insert(cardiologist, MONDAY.atTime(9, 0), 30, AppointmentStatus.SCHEDULED);
+        insert(cardiologist, MONDAY.atTime(9, 30), 30, AppointmentStatus.CANCELLED);
+        insert(dermatologist, MONDAY.atTime(12, 0), 60, AppointmentStatus.COMPLETED);
+        // Fila desviada que el recálculo corrige
+        rollup.onAppointmentChanged(AppointmentChangedEvent.created(
+                snapshot(cardiologist, MONDAY.atTime(15, 0), 120, AppointmentStatus.PENDING)));
+
+        int rows = rollup.reconcileDay(MONDAY, Map.of(cardiologist, WorkingHours.of(null),
+                dermatologist, WorkingHours.of(null)));
+
+        assertEquals(2, rows);
+        List<DoctorUtilization> all = rollup.summarize(MONDAY, MONDAY.plusDays(1), null);
+        assertEquals(List.of(cardiologist, dermatologist), all.stream().map(DoctorUtilization::getDoctorId).toList());
+        assertEquals(30, all.get(0).getBookedMinutes());
+        assertEquals(1L, (long) all.get(0).getStatusCounts().get(AppointmentStatus.CANCELLED));
+        assertEquals(0L, (long) all.get(0).getStatusCounts().get(AppointmentStatus.PENDING));
+        assertEquals(60, all.get(1).getBookedMinutes());
+        assertEquals(480, all.get(1).getCapacityMinutes());
+
+        // Un sábado sin citas tiene fila con capacidad cero
+        rollup.reconcileDay(MONDAY.plusDays(5), Map.of(cardiologist, WorkingHours.of(null)));
+        DoctorUtilization saturday = only(MONDAY.plusDays(5), MONDAY.plusDays(6));
+        assertEquals(0, saturday.getCapacityMinutes());
+        assertNull(saturday.getUtilization());
+    }
+
+    @Test
+    void summarize_FiltersBySpecialtyAndRejectsEmptyRanges() {
+        rollup.reconcileDay(MONDAY, Map.of(cardiologist, WorkingHours.of(null), dermatologist, WorkingHours.of(null)));
+
+        List<DoctorUtilization> dermatology = rollup.summarize(MONDAY, MONDAY.plusDays(7), "Dermatología");
+
+        assertEquals(1, dermatology.size());
+        assertEquals(dermatologist, dermatology.get(0).getDoctorId());
+        assertEquals("Soto", dermatology.get(0).getLastName());
+        assertEquals(1, dermatology.get(0).getDays());
+        assertThrows(IllegalArgumentException.class, () -> rollup.summarize(MONDAY, MONDAY, null));
+    }
+
+    private DoctorUtilization only(LocalDate from, LocalDate to) {
+        List<DoctorUtilization> rows = rollup.summarize(from, to, null);
+        assertEquals(1, rows.size());
+        return rows.get(0);
+    }
+
+    private AppointmentSnapshot snapshot(UUID doctorId, LocalDateTime start, int minutes, AppointmentStatus status) {
+        return new AppointmentSnapshot(UUID.randomUUID(), doctorId, UUID.randomUUID(), start, start.plusMinutes(minutes),
+                AppointmentType.CONSULTATION, status);
+    }
+
+    private void insert(UUID doctorId, LocalDateTime start, int minutes, AppointmentStatus status) {
+        jdbcTemplate.update("INSERT INTO appointments VALUES (?, ?, ?, ?, ?, 'CONSULTATION', ?)",
+                UUID.randomUUID(), doctorId, UUID.randomUUID(), Timestamp.valueOf(start),
+                Timestamp.valueOf(start.plusMinutes(minutes)), status.name());
+    }
+}
@@ -0,0 +1,183 @@
+package com.medcal.archive;
+
+import com.medcal.model.entity.Appointment;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.util.DatabaseLease;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppointmentArchiverTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 7, 12, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private AppointmentArchive archive;
+    private final AtomicLong nanos = new AtomicLong();
+    private final Clock clock = Clock.fixed(NOW.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+    private final UUID doctorId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:archive-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        String columns = "id UUID PRIMARY KEY, doctor_id UUID NOT NULL, patient_id UUID NOT NULL, " +
+                "start_time TIMESTAMP NOT NULL, end_time TIMESTAMP NOT NULL, type VARCHAR(50) NOT NULL, " +
+                "status VARCHAR(50) NOT NULL, notes TEXT, series_id UUID, created_by UUID, created_at TIMESTAMP, " +
+                "updated_at TIMESTAMP";
+        jdbcTemplate.execute("CREATE TABLE appointments (" + columns + ")");
+        jdbcTemplate.execute("CREATE TABLE appointments_archive (" + columns + ", archived_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE scheduler_leases (name VARCHAR(64) PRIMARY KEY, " +
+                "owner VARCHAR(255) NOT NULL, expires_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE clinical_histories (id UUID PRIMARY KEY, " +
+                "appointment_id UUID UNIQUE REFERENCES appointments (id))");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        archive = new AppointmentArchive(jdbcTemplate, Duration.ofMinutes(10), nanos::get);
+    }
+
+    @Test
+    void oldClosedAppointments_MoveToArchiveInChunks() {
+        UUID completed = insert(AppointmentStatus.COMPLETED, NOW.minusDays(400));
+        UUID cancelled = insert(AppointmentStatus.CANCELLED, NOW.minusDays(500));
+        UUID oldest = insert(AppointmentStatus.COMPLETED, NOW.minusDays(900));
+        UUID noShow = insert(AppointmentStatus.NO_SHOW, NOW.minusDays(400));
+        UUID recent = insert(AppointmentStatus.COMPLETED, NOW.minusDays(30));
+
+        assertEquals(3, archiver(lease("a"), 2).archive());
+
+        assertEquals(2, count("appointments"));
+        assertEquals("NO_SHOW", jdbcTemplate.queryForObject("SELECT status FROM appointments WHERE id = ?", String.class, noShow));
+        assertEquals(3, count("appointments_archive"));
+        assertTrue(archive.findById(completed).isPresent());
+        assertTrue(archive.findById(cancelled).isPresent());
+        assertTrue(archive.findById(oldest).isPresent());
+        assertTrue(archive.findById(recent).isEmpty());
+        Appointment archived = archive.findById(completed).orElseThrow();
+        assertEquals(doctorId, archived.getDoctorId());
+        assertEquals(AppointmentStatus.COMPLETED, archived.getStatus());
+        assertEquals(NOW.minusDays(400), archived.getStartTime());
+    }
+
+    @Test
+    void appointmentsWithClinicalHistory_StayActive() {
+        UUID withHistory = insert(AppointmentStatus.COMPLETED, NOW.minusDays(900));
+        UUID plain = insert(AppointmentStatus.COMPLETED, NOW.minusDays(800));
+        jdbcTemplate.update("INSERT INTO clinical_histories (id, appointment_id) VALUES (?, ?)",
+                UUID.randomUUID(), withHistory);
+
+        // Es la más antigua: si no se saltara, el primer lote fallaría cada noche por la clave foránea
+        assertEquals(1, archiver(lease("a"), 1).archive());
+        assertEquals(0, archiver(lease("a"), 1).archive());
+
+        assertEquals(withHistory, jdbcTemplate.queryForObject("SELECT id FROM appointments", UUID.class));
+        assertTrue(archive.findById(plain).isPresent());
+    }
+
+    @Test
+    void rangeReads_OnlyTouchArchiveWhenTheRangeReachesIt() {
+        UUID old = insert(AppointmentStatus.COMPLETED, NOW.minusDays(400));
+        archiver(lease("a"), 100).archive();
+
+        assertFalse(archive.reaches(NOW.minusDays(30)));
+        assertTrue(archive.findByDoctorIdAndDateRange(doctorId, NOW.minusDays(30), NOW).isEmpty());
+        List<Appointment> found = archive.findByDoctorIdAndDateRange(doctorId, NOW.minusDays(500), NOW);
+        assertEquals(1, found.size());
+        assertEquals(old, found.get(0).getId());
+        assertTrue(archive.findByDoctorIdAndDateRange(UUID.randomUUID(), NOW.minusDays(500), NOW).isEmpty());
+    }
+
+    @Test
+    void unboundedReads_IncludeArchivedAppointments() {
+        UUID old = insert(AppointmentStatus.COMPLETED, NOW.minusDays(400));
+        insert(AppointmentStatus.SCHEDULED, NOW.plusDays(3));
+        archiver(lease("a"), 100).archive();
+
+        assertEquals(List.of(old), archive.findByDoctorId(doctorId).stream().map(Appointment::getId).toList());
+        assertEquals(1, archive.findByStatus(AppointmentStatus.COMPLETED).size());
+        assertTrue(archive.findByStatus(AppointmentStatus.SCHEDULED).isEmpty());
+        assertTrue(archive.findByDoctorId(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void archiveBound_IsCachedAndRefreshedAfterEachRun() {
+        assertFalse(archive.reaches(NOW.minusDays(500)));
+        insert(AppointmentStatus.COMPLETED, NOW.minusDays(400));
+
+        // Archivado por otro nodo: el límite en caché sigue vacío hasta que caduca
+        archiver(new AppointmentArchive(jdbcTemplate, Duration.ofMinutes(10), nanos::get), lease("b"), 100).archive();
+        assertFalse(archive.reaches(NOW.minusDays(500)));
+        nanos.addAndGet(Duration.ofMinutes(10).toNanos());
+        assertTrue(archive.reaches(NOW.minusDays(500)));
+
+        // El archivador local lo refresca en cuanto termina
+        insert(AppointmentStatus.CANCELLED, NOW.minusDays(380));
+        assertFalse(archive.reaches(NOW.minusDays(390)));
+        archiver(lease("a"), 100).archive();
+        assertTrue(archive.reaches(NOW.minusDays(390)));
+    }
+
+    @Test
+    void emptyArchive_IsNeverRead() {
+        assertFalse(archive.reaches(LocalDateTime.of(2000, 1, 1, 0, 0)));
+    }
+
+    @Test
+    void leaseHeldByAnotherNode_SkipsTheRun() {
+        insert(AppointmentStatus.COMPLETED, NOW.minusDays(400));
+        assertTrue(lease("b").tryAcquire(AppointmentArchiver.LEASE, Duration.ofMinutes(5)));
+
+        assertEquals(-1, archiver(lease("a"), 100).archive());
+        assertEquals(0, count("appointments_archive"));
+    }
+
+    @Test
+    void openStatuses_AreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new AppointmentArchiver(
+                new NamedParameterJdbcTemplate(jdbcTemplate), transactionTemplate, lease("a"), archive,
+                List.of(AppointmentStatus.SCHEDULED), Duration.ofDays(365), 100, Duration.ofMinutes(5), clock));
+    }
+
+    private AppointmentArchiver archiver(DatabaseLease lease, int chunkSize) {
+        return archiver(archive, lease, chunkSize);
+    }
+
+    private AppointmentArchiver archiver(AppointmentArchive archive, DatabaseLease lease, int chunkSize) {
+        return new AppointmentArchiver(new NamedParameterJdbcTemplate(jdbcTemplate), transactionTemplate, lease, archive,
+                List.of(AppointmentStatus.COMPLETED, AppointmentStatus.CANCELLED), Duration.ofDays(365), chunkSize,
+                Duration.ofMinutes(5), clock);
+    }
+
+    private DatabaseLease lease(String owner) {
+        return new DatabaseLease(jdbcTemplate, clock, owner);
+    }
+
+    private UUID insert(AppointmentStatus status, LocalDateTime start) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO appointments (id, doctor_id, patient_id, start_time, end_time, type, status, " +
+                        "created_by) VALUES (?, ?, ?, ?, ?, 'CONSULTATION', ?, ?)",
+                id, doctorId, UUID.randomUUID(), Timestamp.valueOf(start), Timestamp.valueOf(start.plusMinutes(30)),
+                status.name(), UUID.randomUUID());
+        return id;
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+}
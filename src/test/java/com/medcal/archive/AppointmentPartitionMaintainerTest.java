@@ -0,0 +1,37 @@
+package com.medcal.archive;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppointmentPartitionMaintainerTest {
+
+    @Test
+    void missing_ListsCurrentAndUpcomingMonthsWithoutPartition() {
+        Set<String> existing = Set.of("appointments_default", "appointments_p202912", "appointments_p203001",
+                "appointments_p203003");
+
+        List<YearMonth> missing = AppointmentPartitionMaintainer.missing(existing, YearMonth.of(2030, 1), 3);
+
+        assertEquals(List.of(YearMonth.of(2030, 2), YearMonth.of(2030, 4)), missing);
+    }
+
+    @Test
+    void expired_OnlyReturnsMonthlyPartitionsBeforeCutoff() {
+        Set<String> existing = Set.of("appointments_default", "appointments_p202811", "appointments_p202812",
+                "appointments_p202901", "appointments_p203001");
+
+        List<String> expired = AppointmentPartitionMaintainer.expired(existing, YearMonth.of(2029, 1));
+
+        assertEquals(List.of("appointments_p202811", "appointments_p202812"), expired);
+    }
+
+    @Test
+    void partitionName_UsesYearAndMonth() {
+        assertEquals("appointments_p203002", AppointmentPartitionMaintainer.partitionName(YearMonth.of(2030, 2)));
+    }
+}
@@ -0,0 +1,25 @@
+package com.medcal.calendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalendarTokensTest {
+
+    private final CalendarTokens tokens = new CalendarTokens("una-clave-de-pruebas-suficientemente-larga");
+
+    @Test
+    void verify_AcceptsOnlyTheTokenOfThatDoctorAndSecret() {
+        UUID doctorId = UUID.randomUUID();
+        String token = tokens.issue(doctorId);
+
+        assertTrue(tokens.verify(doctorId, token));
+        assertFalse(tokens.verify(UUID.randomUUID(), token));
+        assertFalse(new CalendarTokens("otra-clave").verify(doctorId, token));
+        assertFalse(tokens.verify(doctorId, null));
+        assertFalse(tokens.verify(doctorId, "no es base64!"));
+        assertFalse(tokens.verify(doctorId, token.substring(1)));
+    }
+}
@@ -0,0 +1,106 @@
+package com.medcal.calendar;
+
+import com.medcal.calendar.DoctorCalendarVersions.Version;
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.event.AppointmentSnapshot;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoctorCalendarVersionsTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 7, 12, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private DoctorCalendarVersions versions;
+    private final UUID doctorId = UUID.randomUUID();
+    private final UUID otherDoctorId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:calendar-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE appointment_changes (seq BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                "appointment_id UUID NOT NULL, doctor_id UUID NOT NULL, patient_id UUID NOT NULL, " +
+                "previous_doctor_id UUID, previous_patient_id UUID, change_type VARCHAR(20) NOT NULL, " +
+                "changed_at TIMESTAMP NOT NULL)");
+        Clock clock = Clock.fixed(NOW.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        versions = new DoctorCalendarVersions(jdbcTemplate, Duration.ofSeconds(5), clock);
+    }
+
+    @Test
+    void current_IsReadOnceAndDroppedByLocalCommits() {
+        assertEquals(Version.NONE, versions.current(doctorId));
+        long first = change(doctorId, null, NOW.minusMinutes(10));
+
+        // Sin cambio local conocido se sigue sirviendo la versión en memoria
+        assertEquals(0, versions.current(doctorId).seq());
+
+        versions.onAppointmentChanged(AppointmentChangedEvent.created(snapshot(doctorId)));
+        Version current = versions.current(doctorId);
+        assertEquals(first, current.seq());
+        assertEquals(Timestamp.valueOf(NOW.minusMinutes(10)).toInstant(), current.changedAt());
+    }
+
+    @Test
+    void poll_AppliesChangesFromOtherNodesIncludingPreviousDoctor() {
+        versions.poll();
+        versions.current(doctorId);
+        versions.current(otherDoctorId);
+
+        long moved = change(otherDoctorId, doctorId, NOW.minusMinutes(1));
+        versions.poll();
+
+        assertEquals(moved, versions.current(doctorId).seq());
+        assertEquals(moved, versions.current(otherDoctorId).seq());
+    }
+
+    @Test
+    void poll_RereadsChangesInsideTheSettleWindow() {
+        versions.poll();
+        versions.current(doctorId);
+        long recent = change(otherDoctorId, null, NOW.minusSeconds(1));
+        versions.poll();
+        versions.current(otherDoctorId);
+
+        // Una transacción lenta confirma después una secuencia más baja para doctorId
+        jdbcTemplate.update("UPDATE appointment_changes SET doctor_id = ? WHERE seq = ?", doctorId, recent);
+        versions.poll();
+
+        assertEquals(recent, versions.current(doctorId).seq());
+    }
+
+    @Test
+    void poll_IgnoresDoctorsNeverRequested() {
+        versions.poll();
+        change(doctorId, null, NOW.minusMinutes(1));
+        versions.poll();
+
+        assertEquals(0, versions.size());
+    }
+
+    private long change(UUID doctor, UUID previousDoctor, LocalDateTime at) {
+        jdbcTemplate.update("INSERT INTO appointment_changes (appointment_id, doctor_id, patient_id, previous_doctor_id, " +
+                "change_type, changed_at) VALUES (?, ?, ?, ?, 'UPDATED', ?)",
+                UUID.randomUUID(), doctor, UUID.randomUUID(), previousDoctor, Timestamp.valueOf(at));
+        return jdbcTemplate.queryForObject("SELECT MAX(seq) FROM appointment_changes", Long.class);
+    }
+
+    private AppointmentSnapshot snapshot(UUID doctor) {
+        return new AppointmentSnapshot(UUID.randomUUID(), doctor, UUID.randomUUID(), NOW, NOW.plusMinutes(30),
+                AppointmentType.CONSULTATION, AppointmentStatus.PENDING);
+    }
+}
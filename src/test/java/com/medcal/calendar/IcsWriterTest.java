@@ -0,0 +1,68 @@
+package com.medcal.calendar;
+
+import com.medcal.model.entity.Appointment;
+import com.medcal.model.entity.Doctor;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IcsWriterTest {
+
+    private static final ZoneId MADRID = ZoneId.of("Europe/Madrid");
+
+    private final Doctor doctor = Doctor.builder().id(UUID.randomUUID()).firstName("Ana").lastName("Ruiz").build();
+
+    @Test
+    void render_WritesOneEventPerAppointmentInUtc() {
+        UUID id = UUID.randomUUID();
+        Appointment appointment = Appointment.builder()
+                .id(id)
+                .doctorId(doctor.getId())
+                .patientId(UUID.randomUUID())
+                .startTime(LocalDateTime.of(2030, 1, 7, 10, 0))
+                .endTime(LocalDateTime.of(2030, 1, 7, 10, 30))
+                .type(AppointmentType.FOLLOWUP)
+                .status(AppointmentStatus.PENDING)
+                .notes("Paciente con alergias")
+                .updatedAt(LocalDateTime.of(2030, 1, 2, 8, 15))
+                .build();
+
+        String ics = new String(IcsWriter.render(doctor, List.of(appointment), MADRID), StandardCharsets.UTF_8);
+
+        assertTrue(ics.startsWith("BEGIN:VCALENDAR\r\nVERSION:2.0\r\n"));
+        assertTrue(ics.endsWith("END:VCALENDAR\r\n"));
+        assertTrue(ics.contains("X-WR-CALNAME:MedCal - Ana Ruiz\r\n"));
+        assertTrue(ics.contains("UID:" + id + "@medcal\r\n"));
+        // Enero en Madrid es UTC+1
+        assertTrue(ics.contains("DTSTART:20300107T090000Z\r\n"));
+        assertTrue(ics.contains("DTEND:20300107T093000Z\r\n"));
+        assertTrue(ics.contains("DTSTAMP:20300102T071500Z\r\n"));
+        assertTrue(ics.contains("SUMMARY:Seguimiento\r\n"));
+        assertTrue(ics.contains("STATUS:TENTATIVE\r\n"));
+        // Ni notas ni paciente salen de la clínica
+        assertFalse(ics.contains("alergias"));
+        assertFalse(ics.contains(appointment.getPatientId().toString()));
+    }
+
+    @Test
+    void render_FoldsLongLinesAtSeventyFiveOctets() {
+        Doctor longName = Doctor.builder().firstName("María José".repeat(8)).lastName("Núñez, Peña; Ibáñez").build();
+
+        byte[] ics = IcsWriter.render(longName, List.of(), MADRID);
+
+        String text = new String(ics, StandardCharsets.UTF_8);
+        for (String line : text.split("\r\n")) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, line);
+        }
+        String unfolded = text.replace("\r\n ", "");
+        assertTrue(unfolded.contains("X-WR-CALNAME:MedCal - " + "María José".repeat(8) + " Núñez\\, Peña\\; Ibáñez\r\n"));
+    }
+}
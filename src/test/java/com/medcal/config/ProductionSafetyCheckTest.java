@@ -0,0 +1,30 @@
+package com.medcal.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductionSafetyCheckTest {
+
+    @Test
+    void violations_QuietConfiguration_ReturnsEmpty() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.jpa.show-sql", "false");
+
+        assertTrue(ProductionSafetyCheck.violations(environment, logger -> false).isEmpty());
+    }
+
+    @Test
+    void violations_ShowSqlAndDebugLogger_ReportsBoth() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.jpa.show-sql", "true")
+                .withProperty("spring.jpa.properties.hibernate.format_sql", "false");
+
+        List<String> violations = ProductionSafetyCheck.violations(environment, "org.hibernate.SQL"::equals);
+
+        assertEquals(List.of("spring.jpa.show-sql=true", "logging.level.org.hibernate.SQL=DEBUG"), violations);
+    }
+}
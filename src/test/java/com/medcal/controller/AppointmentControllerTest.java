@@ -7,7 +7,10 @@ import com.medcal.model.entity.Appointment;
 import com.medcal.model.enums.AppointmentStatus;
 import com.medcal.exception.ResourceNotFoundException;
 import com.medcal.model.enums.AppointmentType;
+import com.medcal.service.AppointmentBulkStatusService;
+import com.medcal.service.AppointmentChangeService;
 import com.medcal.service.AppointmentService;
+import com.medcal.service.AppointmentStreamService;
 import com.medcal.service.DoctorService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -46,6 +49,15 @@ class AppointmentControllerTest {
     @MockBean
     private DoctorService doctorService;
 
+    @MockBean
+    private AppointmentStreamService appointmentStreamService;
+
+    @MockBean
+    private AppointmentChangeService appointmentChangeService;
+
+    @MockBean
+    private AppointmentBulkStatusService appointmentBulkStatusService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
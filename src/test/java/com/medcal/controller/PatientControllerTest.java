@@ -5,11 +5,15 @@ import com.medcal.model.dto.PatientDTO;
 import com.medcal.model.entity.Patient;
 import com.medcal.model.enums.Gender;
 import com.medcal.service.PatientService;
+import com.medcal.util.EntityTags;
+import jakarta.servlet.Filter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -26,10 +30,11 @@ import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+// Sin seguridad en este corte: los filtros de la aplicación (JWT, límites, idempotencia) quedan fuera
 @WebMvcTest(controllers = PatientController.class, excludeAutoConfiguration = {
     org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration.class,
     org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration.class
-})
+}, excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = Filter.class))
 class PatientControllerTest {
 
     @Autowired
@@ -125,6 +130,46 @@ class PatientControllerTest {
         verify(patientService).getPatientById(testId);
     }
 
+    @Test
+    void getPatientById_WhenETagMatches_ShouldReturnNotModifiedWithoutLoading() throws Exception {
+        // Given
+        String etag = EntityTags.of(testPatientDTO.getUpdatedAt());
+        when(patientService.getPatientUpdatedAt(testId)).thenReturn(Optional.of(testPatientDTO.getUpdatedAt()));
+
+        // When & Then
+        mockMvc.perform(get("/api/patients/{id}", testId).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(header().string("Cache-Control", "no-cache, private"));
+
+        verify(patientService, never()).getPatientById(any());
+    }
+
+    @Test
+    void getPatientById_WhenETagIsStale_ShouldReturnPatientWithCurrentETag() throws Exception {
+        // Given
+        when(patientService.getPatientUpdatedAt(testId)).thenReturn(Optional.of(testPatientDTO.getUpdatedAt()));
+        when(patientService.getPatientById(testId)).thenReturn(Optional.of(testPatientDTO));
+
+        // When & Then
+        mockMvc.perform(get("/api/patients/{id}", testId).header("If-None-Match", "W/\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", EntityTags.of(testPatientDTO.getUpdatedAt())))
+                .andExpect(jsonPath("$.id").value(testId.toString()));
+    }
+
+    @Test
+    void getAllPatients_WhenListVersionMatches_ShouldReturnNotModified() throws Exception {
+        // Given
+        when(patientService.getPatientsVersion()).thenReturn(7L);
+
+        // When & Then
+        mockMvc.perform(get("/api/patients").header("If-None-Match", "W/\"v7\""))
+                .andExpect(status().isNotModified());
+
+        verify(patientService, never()).getAllPatients();
+    }
+
     @Test
     void getPatientByUserId_ShouldReturnPatient() throws Exception {
         // Given
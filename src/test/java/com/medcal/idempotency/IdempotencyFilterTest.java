@@ -0,0 +1,121 @@
+package com.medcal.idempotency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyFilterTest {
+
+    @Mock
+    private IdempotencyMetrics idempotencyMetrics;
+
+    private InMemoryIdempotencyStore store;
+    private IdempotencyFilter filter;
+    private AtomicInteger invocations;
+    private FilterChain bookingChain;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryIdempotencyStore(100, Clock.systemUTC());
+        filter = new IdempotencyFilter(store, idempotencyMetrics, Set.of("/api/appointments"), Duration.ofHours(1),
+                Clock.systemUTC());
+        invocations = new AtomicInteger();
+        bookingChain = (request, response) -> {
+            // El controlador lee el cuerpo ya consumido por el filtro
+            String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            ((HttpServletResponse) response).setStatus(201);
+            response.setContentType("application/json");
+            response.getWriter().write("{\"attempt\":" + invocations.incrementAndGet() + ",\"echo\":" + body + "}");
+        };
+    }
+
+    @Test
+    void retryWithSameKeyAndBody_ReplaysStoredResponse() throws Exception {
+        MockHttpServletResponse first = execute("key-1", "{\"doctorId\":\"a\"}");
+        MockHttpServletResponse retry = execute("key-1", "{\"doctorId\":\"a\"}");
+
+        assertEquals(1, invocations.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("{\"attempt\":1,\"echo\":{\"doctorId\":\"a\"}}", retry.getContentAsString());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        verify(idempotencyMetrics).recordRequest(IdempotencyMetrics.Outcome.REPLAYED);
+    }
+
+    @Test
+    void sameKeyWithDifferentBody_Returns422() throws Exception {
+        execute("key-2", "{\"doctorId\":\"a\"}");
+        MockHttpServletResponse reused = execute("key-2", "{\"doctorId\":\"b\"}");
+
+        assertEquals(422, reused.getStatus());
+        assertEquals(1, invocations.get());
+    }
+
+    @Test
+    void keyStillInProgress_Returns409() throws Exception {
+        MockHttpServletRequest probe = request("key-3", "{}");
+        execute(probe, (request, response) -> {
+            MockHttpServletResponse concurrent = execute("key-3", "{}");
+            assertEquals(409, concurrent.getStatus());
+            ((HttpServletResponse) response).setStatus(201);
+        });
+    }
+
+    @Test
+    void serverError_IsNotStoredSoTheClientCanRetry() throws Exception {
+        execute(request("key-4", "{}"), (request, response) -> ((HttpServletResponse) response).setStatus(503));
+        MockHttpServletResponse retry = execute("key-4", "{}");
+
+        assertEquals(201, retry.getStatus());
+        assertEquals(1, invocations.get());
+    }
+
+    @Test
+    void requestWithoutKey_IsNotFiltered() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/appointments");
+            request.setContent("{}".getBytes(StandardCharsets.UTF_8));
+            filter.doFilter(request, new MockHttpServletResponse(), bookingChain);
+        }
+
+        assertEquals(2, invocations.get());
+        assertEquals(0, store.size());
+    }
+
+    private MockHttpServletResponse execute(String key, String body) throws ServletException, IOException {
+        return execute(request(key, body), bookingChain);
+    }
+
+    private MockHttpServletResponse execute(MockHttpServletRequest request, FilterChain chain)
+            throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private MockHttpServletRequest request(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/appointments");
+        request.addHeader(IdempotencyFilter.HEADER, key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
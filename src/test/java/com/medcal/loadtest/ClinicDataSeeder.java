@@ -0,0 +1,134 @@
+package com.medcal.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Seeds a synthetic clinic straight through JDBC batches so that seeding thousands of
+ * rows does not dominate the run. Every seeded account shares the BCrypt hash of
+ * {@link #PASSWORD}, so no hashing happens during seeding.
+ */
+class ClinicDataSeeder {
+
+    static final String PASSWORD = "patient123";
+    private static final String PASSWORD_HASH = "$2a$10$A47ezraXuKuwxLOidCVV/O2vfp6UV2rF4cjbYI0Ln7xRnn7SF3tSe";
+
+    private static final UUID ADMIN_USER_ID = UUID.fromString("00000000-0000-0000-0000-000000000000");
+    private static final UUID DOCTOR_ROLE_ID = UUID.fromString("22222222-2222-2222-2222-222222222222");
+    private static final UUID PATIENT_ROLE_ID = UUID.fromString("33333333-3333-3333-3333-333333333333");
+    private static final UUID RECEPTIONIST_ROLE_ID = UUID.fromString("44444444-4444-4444-4444-444444444444");
+
+    private static final String[] SPECIALIZATIONS = {"Cardiología", "Pediatría", "Dermatología", "Neurología", "Medicina General"};
+    private static final String[] TYPES = {"CONSULTATION", "FOLLOWUP", "EMERGENCY"};
+    private static final LocalTime FIRST_SLOT = LocalTime.of(9, 0);
+    private static final int SLOT_MINUTES = 30;
+    private static final int SLOTS_PER_DAY = 16; // 9:00 - 17:00
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    ClinicDataSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Identifiers of the seeded rows, used by the workload to build requests. */
+    record SeededClinic(List<UUID> doctorIds, List<UUID> patientIds, List<String> patientEmails,
+                        List<String> staffEmails, LocalDate firstDay, LocalDate lastDay) {
+    }
+
+    SeededClinic seed(LoadTestSettings settings) {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> doctors = new ArrayList<>();
+        List<Object[]> patients = new ArrayList<>();
+
+        List<UUID> doctorIds = new ArrayList<>();
+        for (int i = 0; i < settings.doctors(); i++) {
+            UUID userId = UUID.randomUUID();
+            UUID doctorId = UUID.randomUUID();
+            String email = "lt-" + run + "-doctor" + i + "@medcal.test";
+            users.add(user(userId, email, "Doctor", String.valueOf(i), DOCTOR_ROLE_ID));
+            doctors.add(new Object[]{doctorId, userId, "Doctor", String.valueOf(i), "LT-" + run + "-" + i,
+                    SPECIALIZATIONS[i % SPECIALIZATIONS.length], true, email});
+            doctorIds.add(doctorId);
+        }
+
+        List<UUID> patientIds = new ArrayList<>();
+        List<String> patientEmails = new ArrayList<>();
+        for (int i = 0; i < settings.patients(); i++) {
+            UUID userId = UUID.randomUUID();
+            UUID patientId = UUID.randomUUID();
+            String email = "lt-" + run + "-patient" + i + "@medcal.test";
+            users.add(user(userId, email, "Paciente", String.valueOf(i), PATIENT_ROLE_ID));
+            patients.add(new Object[]{patientId, userId, "Paciente", String.valueOf(i), email});
+            patientIds.add(patientId);
+            patientEmails.add(email);
+        }
+
+        // One reception account per client: form login keeps a single session per user
+        List<String> staffEmails = new ArrayList<>();
+        for (int i = 0; i < settings.clients(); i++) {
+            String email = "lt-" + run + "-reception" + i + "@medcal.test";
+            users.add(user(UUID.randomUUID(), email, "Recepción", String.valueOf(i), RECEPTIONIST_ROLE_ID));
+            staffEmails.add(email);
+        }
+
+        batch("INSERT INTO users (id, email, password, first_name, last_name, role_id, enabled) VALUES (?, ?, ?, ?, ?, ?, true)", users);
+        batch("INSERT INTO doctors (id, user_id, first_name, last_name, license_number, specialization, is_active, email) " +
+              "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", doctors);
+        batch("INSERT INTO patients (id, user_id, first_name, last_name, email) VALUES (?, ?, ?, ?, ?)", patients);
+
+        LocalDate firstDay = nextWorkingDay(LocalDate.now().plusDays(1));
+        LocalDate lastDay = firstDay;
+        List<Object[]> appointments = new ArrayList<>();
+        int[] nextSlot = new int[Math.max(1, doctorIds.size())];
+        for (int i = 0; i < settings.appointments() && !doctorIds.isEmpty() && !patientIds.isEmpty(); i++) {
+            int doctor = i % doctorIds.size();
+            int slot = nextSlot[doctor]++;
+            LocalDate day = addWorkingDays(firstDay, slot / SLOTS_PER_DAY);
+            LocalDateTime start = LocalDateTime.of(day, FIRST_SLOT.plusMinutes((long) (slot % SLOTS_PER_DAY) * SLOT_MINUTES));
+            lastDay = day.isAfter(lastDay) ? day : lastDay;
+            appointments.add(new Object[]{UUID.randomUUID(), doctorIds.get(doctor), patientIds.get(i % patientIds.size()),
+                    Timestamp.valueOf(start), Timestamp.valueOf(start.plusMinutes(SLOT_MINUTES)),
+                    TYPES[i % TYPES.length], "SCHEDULED", ADMIN_USER_ID});
+        }
+        batch("INSERT INTO appointments (id, doctor_id, patient_id, start_time, end_time, type, status, created_by) " +
+              "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", appointments);
+
+        return new SeededClinic(doctorIds, patientIds, patientEmails, staffEmails, firstDay, lastDay);
+    }
+
+    private Object[] user(UUID id, String email, String firstName, String lastName, UUID roleId) {
+        return new Object[]{id, email, PASSWORD_HASH, firstName, lastName, roleId};
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+        }
+    }
+
+    static LocalDate nextWorkingDay(LocalDate date) {
+        LocalDate day = date;
+        while (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            day = day.plusDays(1);
+        }
+        return day;
+    }
+
+    static LocalDate addWorkingDays(LocalDate start, int workingDays) {
+        LocalDate day = nextWorkingDay(start);
+        for (int i = 0; i < workingDays; i++) {
+            day = nextWorkingDay(day.plusDays(1));
+        }
+        return day;
+    }
+}
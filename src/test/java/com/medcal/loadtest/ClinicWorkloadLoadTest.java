@@ -0,0 +1,306 @@
+package com.medcal.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medcal.loadtest.ClinicDataSeeder.SeededClinic;
+import com.medcal.loadtest.LoadTestSettings.Operation;
+import com.medcal.security.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replays a mixed clinic workload against the full application on a random port and
+ * writes per-endpoint throughput, latency percentiles and error rates to a JSON report.
+ * <p>
+ * Excluded from the default build; run it with {@code mvn verify -Pload-test}. Sizes,
+ * concurrency, duration and the operation mix are read by {@link LoadTestSettings}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.format_sql=false",
+        "spring.jpa.properties.hibernate.use_sql_comments=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.springframework.security=INFO",
+        "medcal.rate-limit.enabled=false"
+})
+@ActiveProfiles("test")
+class ClinicWorkloadLoadTest {
+
+    private static final DateTimeFormatter API_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void mixedClinicWorkload() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        SeededClinic clinic = new ClinicDataSeeder(jdbcTemplate).seed(settings);
+
+        // Subject = email, as issued at login; the API resolves the patient profile from it
+        List<String> patientTokens = clinic.patientEmails().stream()
+                .map(email -> jwtUtil.generateToken(email, "PATIENT"))
+                .toList();
+        String staffToken = jwtUtil.generateToken(clinic.staffEmails().get(0), "RECEPTIONIST");
+
+        long startedAt = System.nanoTime();
+        long measureFrom = startedAt + Duration.ofSeconds(settings.warmupSeconds()).toNanos();
+        long measureUntil = measureFrom + Duration.ofSeconds(settings.durationSeconds()).toNanos();
+
+        ExecutorService pool = Executors.newFixedThreadPool(settings.clients());
+        List<Future<Map<Operation, EndpointStats>>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < settings.clients(); i++) {
+                VirtualClient client = new VirtualClient(settings, clinic, clinic.staffEmails().get(i),
+                        patientTokens, staffToken, measureFrom, measureUntil);
+                results.add(pool.submit(client::run));
+            }
+
+            Map<Operation, EndpointStats> merged = new EnumMap<>(Operation.class);
+            for (Future<Map<Operation, EndpointStats>> result : results) {
+                result.get().forEach((operation, stats) ->
+                        merged.computeIfAbsent(operation, op -> new EndpointStats()).merge(stats));
+            }
+
+            writeReport(settings, merged);
+            assertTrue(Files.exists(settings.report()));
+            // Errores de autenticación o de resolución del usuario medirían caminos de error, no la carga
+            for (Operation operation : settings.mix().keySet()) {
+                EndpointStats stats = merged.get(operation);
+                assertTrue(stats != null && stats.requests() > 0, operation.endpoint() + " was never exercised");
+                assertTrue(stats.successRate() >= settings.minSuccessRate(), String.format(
+                        "%s succeeded for %.1f%% of %d requests, below %.1f%%", operation.endpoint(),
+                        stats.successRate() * 100, stats.requests(), settings.minSuccessRate() * 100));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void writeReport(LoadTestSettings settings, Map<Operation, EndpointStats> stats) throws Exception {
+        double seconds = settings.durationSeconds();
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        EndpointStats totals = new EndpointStats();
+        stats.forEach((operation, endpointStats) -> {
+            endpoints.put(operation.endpoint(), endpointStats.summarize(seconds));
+            totals.merge(endpointStats);
+        });
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("doctors", settings.doctors());
+        config.put("patients", settings.patients());
+        config.put("appointments", settings.appointments());
+        config.put("clients", settings.clients());
+        config.put("warmupSeconds", settings.warmupSeconds());
+        config.put("durationSeconds", settings.durationSeconds());
+        config.put("mix", settings.mix());
+        config.put("minSuccessRate", settings.minSuccessRate());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("generatedAt", LocalDateTime.now().format(API_DATE_TIME));
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.put("config", config);
+        report.put("endpoints", endpoints);
+        report.put("total", totals.summarize(seconds));
+
+        if (settings.report().getParent() != null) {
+            Files.createDirectories(settings.report().getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(settings.report().toFile(), report);
+        System.out.printf("Load test report written to %s (%d requests, %d errors)%n",
+                settings.report().toAbsolutePath(), totals.requests(), totals.errors());
+    }
+
+    /**
+     * One simulated user: a reception session for the web pages plus patient/staff JWTs
+     * for the API calls. Runs operations back to back, picking each one by weight.
+     */
+    private class VirtualClient {
+
+        private final SeededClinic clinic;
+        private final String staffEmail;
+        private final List<String> patientTokens;
+        private final String staffToken;
+        private final long measureFrom;
+        private final long measureUntil;
+        private final Operation[] operations;
+        private final int[] cumulativeWeights;
+        private final HttpClient http;
+        private final HttpClient api;
+        private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+
+        VirtualClient(LoadTestSettings settings, SeededClinic clinic, String staffEmail, List<String> patientTokens,
+                      String staffToken, long measureFrom, long measureUntil) {
+            this.clinic = clinic;
+            this.staffEmail = staffEmail;
+            this.patientTokens = patientTokens;
+            this.staffToken = staffToken;
+            this.measureFrom = measureFrom;
+            this.measureUntil = measureUntil;
+            this.operations = settings.mix().keySet().toArray(new Operation[0]);
+            this.cumulativeWeights = new int[operations.length];
+            int sum = 0;
+            for (int i = 0; i < operations.length; i++) {
+                sum += settings.mix().get(operations[i]);
+                cumulativeWeights[i] = sum;
+            }
+            this.http = HttpClient.newBuilder()
+                    .cookieHandler(new CookieManager())
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .connectTimeout(REQUEST_TIMEOUT)
+                    .build();
+            // Sin cookies: con la sesión de recepción el JWT del paciente se ignoraría
+            this.api = HttpClient.newBuilder()
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .connectTimeout(REQUEST_TIMEOUT)
+                    .build();
+        }
+
+        Map<Operation, EndpointStats> run() {
+            try {
+                execute(Operation.LOGIN);
+            } catch (RuntimeException e) {
+                // Dashboard loads will show up as errors until a later login succeeds
+            }
+            long now;
+            while ((now = System.nanoTime()) < measureUntil && !Thread.currentThread().isInterrupted()) {
+                Operation operation = pick();
+                long begin = System.nanoTime();
+                String outcome;
+                boolean success;
+                try {
+                    HttpResponse<Void> response = execute(operation);
+                    outcome = String.valueOf(response.statusCode());
+                    success = isSuccess(operation, response);
+                } catch (Exception e) {
+                    outcome = e.getClass().getSimpleName();
+                    success = false;
+                }
+                long elapsed = System.nanoTime() - begin;
+                if (now >= measureFrom) {
+                    stats.computeIfAbsent(operation, op -> new EndpointStats()).record(elapsed, outcome, success);
+                }
+            }
+            return stats;
+        }
+
+        private Operation pick() {
+            int ticket = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (ticket < cumulativeWeights[i]) {
+                    return operations[i];
+                }
+            }
+            return operations[operations.length - 1];
+        }
+
+        private HttpResponse<Void> execute(Operation operation) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            HttpRequest request = switch (operation) {
+                case LOGIN -> request("/auth/login")
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString("email=" + encode(staffEmail)
+                                + "&password=" + encode(ClinicDataSeeder.PASSWORD)))
+                        .build();
+                case DASHBOARD -> request("/dashboard").GET().build();
+                case API_DOCTOR -> bearer(request("/api/doctors/" + any(clinic.doctorIds())), staffToken).GET().build();
+                case API_PATIENT -> bearer(request("/api/patients/" + any(clinic.patientIds())), staffToken).GET().build();
+                case API_APPOINTMENTS -> bearer(request("/api/appointments"), any(patientTokens)).GET().build();
+                case AVAILABILITY -> bearer(request("/api/appointments/doctors/" + any(clinic.doctorIds())
+                        + "/availability?date=" + randomSeededDay()), any(patientTokens)).GET().build();
+                case BOOKING -> bearer(request("/api/appointments"), any(patientTokens))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(bookingBody(random)))
+                        .build();
+            };
+            try {
+                HttpClient client = request.headers().firstValue("Authorization").isPresent() ? api : http;
+                return client.send(request, HttpResponse.BodyHandlers.discarding());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while sending " + operation, e);
+            } catch (java.io.IOException e) {
+                throw new IllegalStateException("I/O error on " + operation, e);
+            }
+        }
+
+        private boolean isSuccess(Operation operation, HttpResponse<Void> response) {
+            int status = response.statusCode();
+            return switch (operation) {
+                // Spring Security answers a form login with a redirect either way
+                case LOGIN -> status == 302 && response.headers().firstValue("Location")
+                        .map(location -> location.contains("/dashboard")).orElse(false);
+                // A conflict is a valid answer to a booking attempt, not a failure
+                case BOOKING -> status == 201 || status == 409;
+                default -> status >= 200 && status < 300;
+            };
+        }
+
+        private String bookingBody(ThreadLocalRandom random) {
+            LocalDate day = ClinicDataSeeder.addWorkingDays(clinic.lastDay().plusDays(1), random.nextInt(20));
+            LocalDateTime start = LocalDateTime.of(day, LocalTime.of(9, 0).plusMinutes(30L * random.nextInt(16)));
+            return "{\"doctorId\":\"" + any(clinic.doctorIds()) + "\","
+                    + "\"startTime\":\"" + start.format(API_DATE_TIME) + "\","
+                    + "\"endTime\":\"" + start.plusMinutes(30).format(API_DATE_TIME) + "\","
+                    + "\"type\":\"CONSULTATION\",\"notes\":\"load test\"}";
+        }
+
+        private LocalDate randomSeededDay() {
+            long span = Math.max(1, clinic.lastDay().toEpochDay() - clinic.firstDay().toEpochDay() + 1);
+            return clinic.firstDay().plusDays(ThreadLocalRandom.current().nextLong(span));
+        }
+
+        private HttpRequest.Builder request(String path) {
+            return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).timeout(REQUEST_TIMEOUT);
+        }
+
+        private HttpRequest.Builder bearer(HttpRequest.Builder builder, String token) {
+            return builder.header("Authorization", "Bearer " + token);
+        }
+
+        private <T> T any(List<T> values) {
+            return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+        }
+
+        private String encode(String value) {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8);
+        }
+    }
+}
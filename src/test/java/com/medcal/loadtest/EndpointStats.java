@@ -0,0 +1,76 @@
+package com.medcal.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latencies and outcomes of one endpoint as seen by one client thread. Each worker owns
+ * its instances, so recording needs no synchronisation; the per-thread stats are merged
+ * once the run is over.
+ */
+class EndpointStats {
+
+    private long[] latenciesNanos = new long[1024];
+    private int count;
+    private long errors;
+    private final Map<String, Long> outcomes = new TreeMap<>();
+
+    void record(long latencyNanos, String outcome, boolean success) {
+        if (count == latenciesNanos.length) {
+            latenciesNanos = Arrays.copyOf(latenciesNanos, count * 2);
+        }
+        latenciesNanos[count++] = latencyNanos;
+        if (!success) {
+            errors++;
+        }
+        outcomes.merge(outcome, 1L, Long::sum);
+    }
+
+    void merge(EndpointStats other) {
+        if (count + other.count > latenciesNanos.length) {
+            latenciesNanos = Arrays.copyOf(latenciesNanos, count + other.count);
+        }
+        System.arraycopy(other.latenciesNanos, 0, latenciesNanos, count, other.count);
+        count += other.count;
+        errors += other.errors;
+        other.outcomes.forEach((outcome, n) -> outcomes.merge(outcome, n, Long::sum));
+    }
+
+    /** Summary for the report; percentiles use the nearest-rank method. */
+    Map<String, Object> summarize(double measuredSeconds) {
+        long[] sorted = Arrays.copyOf(latenciesNanos, count);
+        Arrays.sort(sorted);
+        Map<String, Object> summary = new TreeMap<>();
+        summary.put("requests", count);
+        summary.put("errors", errors);
+        summary.put("errorRate", count == 0 ? 0.0 : (double) errors / count);
+        summary.put("throughputPerSecond", measuredSeconds <= 0 ? 0.0 : count / measuredSeconds);
+        summary.put("p50Ms", percentileMillis(sorted, 50));
+        summary.put("p95Ms", percentileMillis(sorted, 95));
+        summary.put("p99Ms", percentileMillis(sorted, 99));
+        summary.put("maxMs", sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1_000_000.0);
+        summary.put("outcomes", outcomes);
+        return summary;
+    }
+
+    long requests() {
+        return count;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    double successRate() {
+        return count == 0 ? 0.0 : (double) (count - errors) / count;
+    }
+
+    private static double percentileMillis(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,81 @@
+package com.medcal.loadtest;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load test parameters, read from system properties so they can be passed on the
+ * Maven command line, e.g. {@code mvn verify -Pload-test -Dloadtest.clients=64}.
+ */
+record LoadTestSettings(
+        int doctors,
+        int patients,
+        int appointments,
+        int clients,
+        int warmupSeconds,
+        int durationSeconds,
+        Map<Operation, Integer> mix,
+        double minSuccessRate,
+        Path report) {
+
+    /** Operations of the mixed workload; the key is the name used in the report. */
+    enum Operation {
+        LOGIN("POST /auth/login"),
+        DASHBOARD("GET /dashboard"),
+        API_DOCTOR("GET /api/doctors/{id}"),
+        API_PATIENT("GET /api/patients/{id}"),
+        API_APPOINTMENTS("GET /api/appointments"),
+        AVAILABILITY("GET /api/appointments/doctors/{doctorId}/availability"),
+        BOOKING("POST /api/appointments");
+
+        private final String endpoint;
+
+        Operation(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        String endpoint() {
+            return endpoint;
+        }
+    }
+
+    private static final String DEFAULT_MIX =
+            "LOGIN:5,DASHBOARD:10,API_DOCTOR:10,API_PATIENT:10,API_APPOINTMENTS:20,AVAILABILITY:30,BOOKING:15";
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                intProperty("loadtest.doctors", 20),
+                intProperty("loadtest.patients", 500),
+                intProperty("loadtest.appointments", 5000),
+                intProperty("loadtest.clients", 16),
+                intProperty("loadtest.warmupSeconds", 10),
+                intProperty("loadtest.durationSeconds", 60),
+                parseMix(System.getProperty("loadtest.mix", DEFAULT_MIX)),
+                Double.parseDouble(System.getProperty("loadtest.minSuccessRate", "0.95")),
+                Path.of(System.getProperty("loadtest.report", "target/load-test/load-test-report.json")));
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid loadtest.mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix must contain at least one positive weight");
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,107 @@
+package com.medcal.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SqlDiagnosticsTest {
+
+    @Mock
+    private SqlMetrics sqlMetrics;
+
+    private SqlStatementTracker tracker;
+    private SqlDiagnostics sqlDiagnostics;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new SqlStatementTracker();
+        sqlDiagnostics = new SqlDiagnostics(sqlMetrics, 10, 3, 100, 50);
+    }
+
+    @Test
+    void fingerprint_RemovesLiteralsCommentsAndInListLength() {
+        String sql = "/* load Patient */ select p.id from patients p where p.email = 'juan@medcal.com' "
+                + "and p.age > 30 and p.id in (?, ?, ?)";
+
+        assertEquals("select p.id from patients p where p.email = ? and p.age > ? and p.id in (?)",
+                SqlFingerprint.of(sql));
+    }
+
+    @Test
+    void fingerprint_KeepsIdentifiersWithDigits() {
+        assertEquals("select a1_0.id from appointments a1_0 where a1_0.doctor_id=?",
+                SqlFingerprint.of("select a1_0.id from appointments a1_0 where a1_0.doctor_id=?"));
+    }
+
+    @Test
+    void hasLiterals_IgnoresBindParametersAndComments() {
+        assertFalse(SqlFingerprint.hasLiterals("/* load 1 */ select a1_0.id from appointments a1_0 where a1_0.id=?"));
+        assertTrue(SqlFingerprint.hasLiterals("select * from doctors where id = 1"));
+        assertTrue(SqlFingerprint.hasLiterals("select * from patients where email = 'juan@medcal.com'"));
+    }
+
+    @Test
+    void recordExecution_CachesOnlyStatementsWithoutLiterals() {
+        sqlDiagnostics.recordExecution("select d1_0.id from doctors d1_0 where d1_0.id=?", 1);
+        sqlDiagnostics.recordExecution("select d1_0.id from doctors d1_0 where d1_0.id=?", 1);
+        for (int i = 0; i < 10; i++) {
+            sqlDiagnostics.recordExecution("select * from doctors where id = " + i, 1);
+        }
+
+        assertEquals(1, sqlDiagnostics.cachedFingerprints());
+    }
+
+    @Test
+    void onRequestCompleted_RepeatedStatement_RaisesAlarm() {
+        tracker.start();
+        for (int i = 0; i < 4; i++) {
+            tracker.record("select d1_0.id from doctors d1_0 where d1_0.id=?");
+        }
+        tracker.record("select a1_0.id from appointments a1_0");
+
+        sqlDiagnostics.onRequestCompleted("/api/appointments", "GET", tracker.stop());
+
+        verify(sqlMetrics).recordAlarm("/api/appointments", "GET", SqlMetrics.Alarm.REPEATED_STATEMENT);
+        verify(sqlMetrics, never()).recordAlarm("/api/appointments", "GET", SqlMetrics.Alarm.TOO_MANY_STATEMENTS);
+        Map<?, ?> route = (Map<?, ?>) ((Map<?, ?>) sqlDiagnostics.snapshot().get("routes")).get("GET /api/appointments");
+        assertEquals(1L, route.get("repeatedStatements"));
+        assertEquals("select d1_0.id from doctors d1_0 where d1_0.id=?", route.get("lastRepeated"));
+    }
+
+    @Test
+    void onRequestCompleted_OverStatementThreshold_RaisesAlarm() {
+        tracker.start();
+        for (int i = 0; i < 11; i++) {
+            tracker.record("select p1_0.id from patients p1_0 where p1_0.id=" + i);
+        }
+
+        sqlDiagnostics.onRequestCompleted("/api/patients", "GET", tracker.stop());
+
+        verify(sqlMetrics).recordAlarm("/api/patients", "GET", SqlMetrics.Alarm.TOO_MANY_STATEMENTS);
+        verify(sqlMetrics, never()).recordAlarm("/api/patients", "GET", SqlMetrics.Alarm.REPEATED_STATEMENT);
+    }
+
+    @Test
+    void recordExecution_GroupsByFingerprintAndCountsSlowQueries() {
+        sqlDiagnostics.recordExecution("select * from doctors where id = 1", 20);
+        sqlDiagnostics.recordExecution("select * from doctors where id = 2", 150);
+
+        verify(sqlMetrics, times(1)).recordSlowQuery();
+        List<?> top = (List<?>) sqlDiagnostics.snapshot().get("topQueries");
+        assertEquals(1, top.size());
+        Map<?, ?> query = (Map<?, ?>) top.get(0);
+        assertEquals("select * from doctors where id = ?", query.get("sql"));
+        assertEquals(2L, query.get("executions"));
+        assertEquals(170L, query.get("totalMs"));
+        assertEquals(150L, query.get("maxMs"));
+    }
+}
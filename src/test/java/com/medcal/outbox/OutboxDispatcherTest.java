@@ -0,0 +1,145 @@
+package com.medcal.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.event.AppointmentSnapshot;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboxDispatcherTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private OutboxWriter writer;
+    private TransactionTemplate transactionTemplate;
+    private final MutableClock clock = new MutableClock(Instant.parse("2030-01-07T08:00:00Z"));
+    private final List<Long> delivered = new ArrayList<>();
+    private boolean sinkDown;
+
+    private final OutboxSink sink = new OutboxSink() {
+        @Override
+        public String name() {
+            return "test";
+        }
+
+        @Override
+        public void deliver(List<OutboxMessage> batch) {
+            if (sinkDown) {
+                throw new IllegalStateException("destino caído");
+            }
+            batch.forEach(message -> delivered.add(message.id()));
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:outbox-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE appointment_outbox (" +
+                "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, appointment_id UUID NOT NULL, " +
+                "change_type VARCHAR(20) NOT NULL, payload TEXT NOT NULL, created_at TIMESTAMP NOT NULL, " +
+                "next_attempt_at TIMESTAMP NOT NULL, attempts INT NOT NULL DEFAULT 0, last_error VARCHAR(500))");
+        writer = new OutboxWriter(jdbcTemplate, new ObjectMapper().registerModule(new JavaTimeModule()));
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Test
+    void poll_DeliversEverythingInWriteOrderAndDeletesIt() {
+        for (int i = 0; i < 5; i++) {
+            writer.onAppointmentChanged(AppointmentChangedEvent.created(appointment()));
+        }
+
+        dispatcher(2).poll();
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), delivered);
+        assertEquals(0, count());
+    }
+
+    @Test
+    void failedBatch_IsRetriedAfterBackoff() {
+        writer.onAppointmentChanged(AppointmentChangedEvent.created(appointment()));
+        OutboxDispatcher dispatcher = dispatcher(10);
+
+        sinkDown = true;
+        assertEquals(0, dispatcher.dispatchBatch());
+        assertEquals(1, (int) jdbcTemplate.queryForObject("SELECT attempts FROM appointment_outbox", Integer.class));
+
+        sinkDown = false;
+        assertEquals(0, dispatcher.dispatchBatch(), "aún no toca reintentar");
+        clock.advance(1000);
+        assertEquals(1, dispatcher.dispatchBatch());
+        assertEquals(List.of(1L), delivered);
+        assertEquals(0, count());
+    }
+
+    @Test
+    void backoff_DoublesUpToTheCap() {
+        OutboxDispatcher dispatcher = dispatcher(10);
+
+        assertEquals(1000, dispatcher.backoffMs(1));
+        assertEquals(2000, dispatcher.backoffMs(2));
+        assertEquals(60_000, dispatcher.backoffMs(40));
+    }
+
+    private OutboxDispatcher dispatcher(int batchSize) {
+        return new OutboxDispatcher(jdbcTemplate, transactionTemplate, List.of(sink),
+                new OutboxMetrics(new SimpleMeterRegistry()), batchSize, 500, 1000, 60_000, clock);
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appointment_outbox", Integer.class);
+    }
+
+    private static AppointmentSnapshot appointment() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 8, 10, 0);
+        return new AppointmentSnapshot(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+                start, start.plusMinutes(30), AppointmentType.CONSULTATION, AppointmentStatus.SCHEDULED);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(long millis) {
+            instant = instant.plusMillis(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
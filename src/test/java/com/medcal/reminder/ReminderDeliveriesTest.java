@@ -0,0 +1,61 @@
+package com.medcal.reminder;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReminderDeliveriesTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 7, 8, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private ReminderDeliveries deliveries;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:reminders-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE reminder_deliveries (appointment_id UUID NOT NULL, " +
+                "start_time TIMESTAMP NOT NULL, lead_minutes BIGINT NOT NULL, sent_at TIMESTAMP NOT NULL, " +
+                "PRIMARY KEY (appointment_id, start_time, lead_minutes))");
+        deliveries = new ReminderDeliveries(jdbcTemplate);
+    }
+
+    @Test
+    void reminder_IsClaimedOnlyOnce() {
+        Reminder reminder = reminder(UUID.randomUUID(), NOW.plusHours(2), 2);
+
+        assertTrue(deliveries.claim(reminder, NOW));
+        assertFalse(deliveries.claim(reminder, NOW));
+    }
+
+    @Test
+    void otherLeadsAndNewStartTimes_AreClaimedSeparately() {
+        UUID appointmentId = UUID.randomUUID();
+
+        assertTrue(deliveries.claim(reminder(appointmentId, NOW.plusHours(2), 2), NOW));
+        assertTrue(deliveries.claim(reminder(appointmentId, NOW.plusHours(2), 24), NOW));
+        // Cita movida: el nuevo horario vuelve a tener recordatorio
+        assertTrue(deliveries.claim(reminder(appointmentId, NOW.plusHours(5), 2), NOW));
+    }
+
+    @Test
+    void purgeBefore_RemovesOnlyPastAppointments() {
+        deliveries.claim(reminder(UUID.randomUUID(), NOW.minusHours(1), 2), NOW);
+        deliveries.claim(reminder(UUID.randomUUID(), NOW.plusHours(1), 2), NOW);
+
+        assertEquals(1, deliveries.purgeBefore(NOW));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reminder_deliveries", Integer.class));
+    }
+
+    private static Reminder reminder(UUID appointmentId, LocalDateTime start, int leadHours) {
+        return new Reminder(appointmentId, UUID.randomUUID(), UUID.randomUUID(), start, Duration.ofHours(leadHours));
+    }
+}
@@ -0,0 +1,225 @@
+package com.medcal.reminder;
+
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.event.AppointmentSnapshot;
+import com.medcal.model.enums.AppointmentChangeType;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import com.medcal.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReminderSchedulerTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2030, 1, 7, 8, 0);
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private ReminderNotifier notifier;
+
+    @Mock
+    private ReminderDeliveries deliveries;
+
+    @Mock
+    private ReminderMetrics reminderMetrics;
+
+    // Estado de las citas en la base de datos y recordatorios ya enviados por cualquier nodo
+    private final Map<UUID, AppointmentSnapshot> database = new HashMap<>();
+    private final Set<Reminder> claimed = new HashSet<>();
+
+    private MutableClock clock;
+    private ReminderScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(T0);
+        scheduler = new ReminderScheduler(appointmentRepository, notifier, deliveries, reminderMetrics,
+                List.of(24, 2), 360, 30, 2, clock);
+        lenient().when(appointmentRepository.findSnapshotsByIdIn(any())).thenAnswer(invocation -> {
+            Collection<UUID> ids = invocation.getArgument(0);
+            return ids.stream().map(database::get).filter(Objects::nonNull).toList();
+        });
+        lenient().when(deliveries.claim(any(), any())).thenAnswer(invocation -> claimed.add(invocation.getArgument(0)));
+    }
+
+    @Test
+    void loadedReminders_AreSentInBatchesWhenDue() {
+        lenient().when(appointmentRepository.findSnapshotsByStatusAndStartTimeRange(
+                eq(AppointmentStatus.SCHEDULED), eq(T0.plusHours(2)), any())).thenReturn(List.of(
+                appointment(T0.plusMinutes(150)), appointment(T0.plusHours(3)), appointment(T0.plusHours(3))));
+
+        scheduler.tick();
+        assertEquals(3, scheduler.pending());
+        verify(notifier, never()).send(any());
+
+        clock.set(T0.plusHours(1));
+        scheduler.tick();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Reminder>> batches = ArgumentCaptor.forClass(List.class);
+        verify(notifier, times(2)).send(batches.capture());
+        assertEquals(2, batches.getAllValues().get(0).size());
+        assertEquals(1, batches.getAllValues().get(1).size());
+        assertEquals(0, scheduler.pending());
+        // El tramo que entra en el horizonte se carga con una consulta por antelación
+        verify(appointmentRepository).findSnapshotsByStatusAndStartTimeRange(
+                AppointmentStatus.SCHEDULED, T0.plusHours(8), T0.plusHours(9));
+    }
+
+    @Test
+    void rescheduledAppointment_MovesItsReminder() {
+        AppointmentSnapshot before = appointment(T0.plusMinutes(150));
+        lenient().when(appointmentRepository.findSnapshotsByStatusAndStartTimeRange(
+                eq(AppointmentStatus.SCHEDULED), eq(T0.plusHours(2)), any())).thenReturn(List.of(before));
+        scheduler.tick();
+
+        AppointmentSnapshot after = new AppointmentSnapshot(before.id(), before.doctorId(), before.patientId(),
+                T0.plusHours(4), T0.plusHours(4).plusMinutes(30), before.type(), AppointmentStatus.SCHEDULED);
+        database.put(after.id(), after);
+        scheduler.onAppointmentChanged(AppointmentChangedEvent.changed(AppointmentChangeType.UPDATED, before, after));
+
+        clock.set(T0.plusHours(1));
+        scheduler.tick();
+        verify(notifier, never()).send(any());
+
+        clock.set(T0.plusHours(2));
+        scheduler.tick();
+        verify(notifier).send(List.of(new Reminder(after.id(), after.doctorId(), after.patientId(),
+                after.startTime(), Duration.ofHours(2))));
+    }
+
+    @Test
+    void cancelledAppointment_DropsItsReminders() {
+        AppointmentSnapshot before = appointment(T0.plusHours(3));
+        lenient().when(appointmentRepository.findSnapshotsByStatusAndStartTimeRange(
+                eq(AppointmentStatus.SCHEDULED), eq(T0.plusHours(2)), any())).thenReturn(List.of(before));
+        scheduler.tick();
+
+        AppointmentSnapshot after = new AppointmentSnapshot(before.id(), before.doctorId(), before.patientId(),
+                before.startTime(), before.endTime(), before.type(), AppointmentStatus.CANCELLED);
+        scheduler.onAppointmentChanged(AppointmentChangedEvent.changed(AppointmentChangeType.CANCELLED, before, after));
+
+        assertEquals(0, scheduler.pending());
+    }
+
+    @Test
+    void appointmentCancelledOnAnotherNode_IsNotReminded() {
+        AppointmentSnapshot before = appointment(T0.plusHours(3));
+        lenient().when(appointmentRepository.findSnapshotsByStatusAndStartTimeRange(
+                eq(AppointmentStatus.SCHEDULED), eq(T0.plusHours(2)), any())).thenReturn(List.of(before));
+        scheduler.tick();
+
+        // El evento de cancelación sólo llega al nodo que la hizo
+        database.put(before.id(), new AppointmentSnapshot(before.id(), before.doctorId(), before.patientId(),
+                before.startTime(), before.endTime(), before.type(), AppointmentStatus.CANCELLED));
+        clock.set(T0.plusHours(1));
+        scheduler.tick();
+
+        verify(notifier, never()).send(any());
+        verify(deliveries, never()).claim(any(), any());
+    }
+
+    @Test
+    void appointmentMovedOnAnotherNode_KeepsOnlyTheNewReminder() {
+        AppointmentSnapshot before = appointment(T0.plusHours(3));
+        lenient().when(appointmentRepository.findSnapshotsByStatusAndStartTimeRange(
+                eq(AppointmentStatus.SCHEDULED), eq(T0.plusHours(2)), any())).thenReturn(List.of(before));
+        scheduler.tick();
+
+        database.put(before.id(), new AppointmentSnapshot(before.id(), before.doctorId(), before.patientId(),
+                T0.plusHours(5), T0.plusHours(5).plusMinutes(30), before.type(), AppointmentStatus.SCHEDULED));
+        clock.set(T0.plusHours(1));
+        scheduler.tick();
+
+        verify(notifier, never()).send(any());
+    }
+
+    @Test
+    void reminderSentByAnotherNode_IsNotSentAgain() {
+        AppointmentSnapshot sentElsewhere = appointment(T0.plusHours(3));
+        AppointmentSnapshot own = appointment(T0.plusHours(3));
+        lenient().when(appointmentRepository.findSnapshotsByStatusAndStartTimeRange(
+                eq(AppointmentStatus.SCHEDULED), eq(T0.plusHours(2)), any())).thenReturn(List.of(sentElsewhere, own));
+        scheduler.tick();
+        claimed.add(reminder(sentElsewhere, Duration.ofHours(2)));
+
+        clock.set(T0.plusHours(1));
+        scheduler.tick();
+
+        verify(notifier).send(List.of(reminder(own, Duration.ofHours(2))));
+    }
+
+    @Test
+    void refill_ForgetsDeliveriesOfPastAppointments() {
+        scheduler.tick();
+
+        verify(deliveries).purgeBefore(T0);
+    }
+
+    private AppointmentSnapshot appointment(LocalDateTime start) {
+        AppointmentSnapshot appointment = new AppointmentSnapshot(UUID.randomUUID(), UUID.randomUUID(),
+                UUID.randomUUID(), start, start.plusMinutes(30), AppointmentType.CONSULTATION,
+                AppointmentStatus.SCHEDULED);
+        database.put(appointment.id(), appointment);
+        return appointment;
+    }
+
+    private static Reminder reminder(AppointmentSnapshot appointment, Duration lead) {
+        return new Reminder(appointment.id(), appointment.doctorId(), appointment.patientId(),
+                appointment.startTime(), lead);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(LocalDateTime time) {
+            set(time);
+        }
+
+        void set(LocalDateTime time) {
+            instant = time.atZone(getZone()).toInstant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("Europe/Madrid");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.medcal.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private static final long TICK = 60_000;
+
+    @Test
+    void valuesComeDueAtTheirTick_AcrossLevels() {
+        TimingWheel<String, String> wheel = new TimingWheel<>(TICK, 4, 3, 0);
+        wheel.schedule("a", "a", 3 * TICK);
+        wheel.schedule("b", "b", 17 * TICK + 59_999);
+        wheel.schedule("c", "c", 63 * TICK);
+
+        assertEquals(List.of(), wheel.advance(2 * TICK));
+        assertEquals(List.of("a"), wheel.advance(3 * TICK));
+        assertEquals(List.of(), wheel.advance(16 * TICK));
+        assertEquals(List.of("b"), wheel.advance(17 * TICK));
+        assertEquals(List.of(), wheel.advance(62 * TICK + 59_999));
+        assertEquals(List.of("c"), wheel.advance(63 * TICK));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void pastDueTime_IsReturnedByNextAdvance() {
+        TimingWheel<String, String> wheel = new TimingWheel<>(TICK, 4, 2, 10 * TICK);
+
+        wheel.schedule("a", "a", TICK);
+
+        assertEquals(List.of("a"), wheel.advance(10 * TICK));
+    }
+
+    @Test
+    void cancel_RemovesEveryValueOfTheKey() {
+        TimingWheel<String, String> wheel = new TimingWheel<>(TICK, 4, 2, 0);
+        wheel.schedule("a", "a-2h", 2 * TICK);
+        wheel.schedule("a", "a-24h", 9 * TICK);
+        wheel.schedule("b", "b", 9 * TICK);
+
+        assertEquals(2, wheel.cancel("a"));
+
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("b"), wheel.advance(15 * TICK));
+    }
+
+    @Test
+    void beyondSpan_IsRejected() {
+        TimingWheel<String, String> wheel = new TimingWheel<>(TICK, 4, 2, 0);
+
+        assertEquals(16 * TICK, wheel.horizonMillis());
+        assertThrows(IllegalArgumentException.class, () -> wheel.schedule("a", "a", 16 * TICK));
+    }
+
+    @Test
+    void randomOperations_MatchNaiveTimers() {
+        Random random = new Random(11);
+        TimingWheel<Integer, Long> wheel = new TimingWheel<>(TICK, 8, 3, 0);
+        Map<Integer, List<Long>> naive = new HashMap<>();
+        long now = 0;
+
+        for (int step = 0; step < 5000; step++) {
+            int operation = random.nextInt(10);
+            if (operation < 5) {
+                int key = random.nextInt(200);
+                long due = now + (long) (random.nextDouble() * (wheel.horizonMillis() - now));
+                wheel.schedule(key, due, due);
+                naive.computeIfAbsent(key, k -> new ArrayList<>()).add(due);
+            } else if (operation < 7) {
+                int key = random.nextInt(200);
+                List<Long> removed = naive.remove(key);
+                assertEquals(removed == null ? 0 : removed.size(), wheel.cancel(key));
+            } else {
+                now += random.nextInt(operation == 9 ? 200 : 5) * TICK + random.nextInt((int) TICK);
+                long tick = now / TICK;
+                List<Long> expected = new ArrayList<>();
+                naive.values().forEach(dues -> dues.stream().filter(due -> due / TICK <= tick).forEach(expected::add));
+                naive.values().forEach(dues -> dues.removeIf(due -> due / TICK <= tick));
+                naive.values().removeIf(List::isEmpty);
+
+                List<Long> expired = wheel.advance(now);
+
+                expected.sort(null);
+                List<Long> sorted = new ArrayList<>(expired);
+                sorted.sort(null);
+                assertEquals(expected, sorted, "paso " + step);
+                for (int i = 1; i < expired.size(); i++) {
+                    assertTrue(expired.get(i - 1) / TICK <= expired.get(i) / TICK, "orden por tick");
+                }
+            }
+            assertEquals(naive.values().stream().mapToInt(List::size).sum(), wheel.size());
+        }
+    }
+}
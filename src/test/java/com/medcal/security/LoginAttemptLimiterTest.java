@@ -0,0 +1,108 @@
+package com.medcal.security;
+
+import com.medcal.security.LoginAttemptLimiter.Policy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoginAttemptLimiterTest {
+
+    private static final long WINDOW = 15 * 60_000L;
+
+    @Mock
+    private LoginMetrics loginMetrics;
+
+    private AtomicLong now;
+    private LoginAttemptLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(100 * WINDOW);
+        limiter = new LoginAttemptLimiter(new Policy(2, 5), new Policy(10, 50), WINDOW, 1000, 8000, 1600,
+                loginMetrics, now::get);
+    }
+
+    @Test
+    void failuresBelowThreshold_AreNotDelayed() {
+        limiter.recordFailure("ana@medcal.com", "10.0.0.1");
+        limiter.recordFailure("ana@medcal.com", "10.0.0.1");
+
+        assertTrue(limiter.check("ana@medcal.com", "10.0.0.1").allowed());
+    }
+
+    @Test
+    void failuresPastThreshold_DelayDoubles() {
+        for (int i = 0; i < 3; i++) {
+            limiter.recordFailure("ana@medcal.com", "10.0.0.1");
+        }
+        assertEquals(1000, limiter.check("ana@medcal.com", "10.0.0.1").retryAfterMillis());
+
+        now.addAndGet(1000);
+        limiter.recordFailure("ana@medcal.com", "10.0.0.1");
+
+        assertEquals(2000, limiter.check("ANA@medcal.com", null).retryAfterMillis());
+        verify(loginMetrics, times(2)).recordAttempt(LoginMetrics.Outcome.THROTTLED);
+    }
+
+    @Test
+    void maxFailures_LocksAccountFromAnyAddress() {
+        for (int i = 0; i < 5; i++) {
+            now.addAndGet(10_000);
+            limiter.recordFailure("ana@medcal.com", "10.0.0." + i);
+        }
+
+        LoginAttemptLimiter.Decision decision = limiter.check("ana@medcal.com", "10.0.0.99");
+
+        assertFalse(decision.allowed());
+        assertTrue(decision.retryAfterMillis() >= 8000);
+        assertTrue(limiter.check("otro@medcal.com", "10.0.0.99").allowed());
+    }
+
+    @Test
+    void manyAccountsFromOneAddress_LockTheAddress() {
+        for (int i = 0; i < 11; i++) {
+            limiter.recordFailure("user" + i + "@medcal.com", "10.0.0.1");
+        }
+
+        assertFalse(limiter.check("nuevo@medcal.com", "10.0.0.1").allowed());
+        assertTrue(limiter.check("nuevo@medcal.com", "10.0.0.2").allowed());
+    }
+
+    @Test
+    void success_ClearsAccountFailures() {
+        for (int i = 0; i < 3; i++) {
+            limiter.recordFailure("ana@medcal.com", null);
+        }
+        limiter.recordSuccess("ana@medcal.com");
+
+        assertTrue(limiter.check("ana@medcal.com", null).allowed());
+    }
+
+    @Test
+    void failuresAgeOutAsWindowSlides() {
+        for (int i = 0; i < 3; i++) {
+            limiter.recordFailure("ana@medcal.com", null);
+        }
+        now.addAndGet(2 * WINDOW);
+
+        assertTrue(limiter.check("ana@medcal.com", null).allowed());
+        assertEquals(0, limiter.trackedKeys());
+    }
+
+    @Test
+    void memoryIsBounded() {
+        for (int i = 0; i < 10_000; i++) {
+            limiter.recordFailure("user" + i + "@medcal.com", null);
+        }
+
+        assertTrue(limiter.trackedKeys() <= 1600);
+    }
+}
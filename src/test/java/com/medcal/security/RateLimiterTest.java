@@ -0,0 +1,86 @@
+package com.medcal.security;
+
+import com.medcal.model.enums.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RateLimiterTest {
+
+    @Mock
+    private RateLimitMetrics rateLimitMetrics;
+
+    private AtomicLong now;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+        rateLimiter = new RateLimiter("ADMIN=5/5,PATIENT=2/1,ANONYMOUS=1/1", 1000, rateLimitMetrics, now::get);
+    }
+
+    @Test
+    void burstUpToCapacity_ThenRejectsWithWait() {
+        assertEquals(0, rateLimiter.tryAcquire("user:p", Role.PATIENT, "GET /api/appointments"));
+        assertEquals(0, rateLimiter.tryAcquire("user:p", Role.PATIENT, "GET /api/appointments"));
+
+        long wait = rateLimiter.tryAcquire("user:p", Role.PATIENT, "GET /api/appointments");
+
+        assertEquals(TimeUnit.SECONDS.toNanos(1), wait);
+        verify(rateLimitMetrics).recordRejection("PATIENT");
+    }
+
+    @Test
+    void refillsAtConfiguredRate() {
+        rateLimiter.tryAcquire("user:p", Role.PATIENT, "GET /api/appointments");
+        rateLimiter.tryAcquire("user:p", Role.PATIENT, "GET /api/appointments");
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(0, rateLimiter.tryAcquire("user:p", Role.PATIENT, "GET /api/appointments"));
+        assertTrue(rateLimiter.tryAcquire("user:p", Role.PATIENT, "GET /api/appointments") > 0);
+    }
+
+    @Test
+    void bucketsAreSeparatePerCallerAndRoute() {
+        rateLimiter.tryAcquire("ip:10.0.0.1", null, "POST /api/auth/login");
+
+        assertTrue(rateLimiter.tryAcquire("ip:10.0.0.1", null, "POST /api/auth/login") > 0);
+        assertEquals(0, rateLimiter.tryAcquire("ip:10.0.0.1", null, "GET /api/doctors"));
+        assertEquals(0, rateLimiter.tryAcquire("ip:10.0.0.2", null, "POST /api/auth/login"));
+        verify(rateLimitMetrics).recordRejection(RateLimiter.ANONYMOUS);
+    }
+
+    @Test
+    void sweep_DropsOnlyRefilledBuckets() {
+        rateLimiter.tryAcquire("user:a", Role.ADMIN, "GET /api/doctors");
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(300));
+        rateLimiter.tryAcquire("user:p", Role.PATIENT, "GET /api/doctors");
+        rateLimiter.tryAcquire("user:p", Role.PATIENT, "GET /api/doctors");
+
+        rateLimiter.sweep();
+
+        assertEquals(1, rateLimiter.bucketCount());
+    }
+
+    @Test
+    void route_CollapsesIdSegments() {
+        assertEquals("/api/doctors/{id}/availability",
+                RateLimitFilter.route("/api/doctors/3f2c1a9e-8b7d-4c6e-9f01-23456789abcd/availability"));
+        assertEquals("/api/appointments/{id}", RateLimitFilter.route("/api/appointments/42"));
+    }
+
+    @Test
+    void parse_RejectsMalformedSpec() {
+        assertThrows(IllegalArgumentException.class, () -> RateLimiter.parse("ADMIN=5"));
+    }
+}
@@ -0,0 +1,165 @@
+package com.medcal.service;
+
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.model.dto.BulkStatusRequest;
+import com.medcal.model.dto.BulkStatusResult;
+import com.medcal.model.dto.BulkStatusResult.Outcome;
+import com.medcal.model.enums.AppointmentChangeType;
+import com.medcal.model.enums.AppointmentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppointmentBulkStatusServiceTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 7, 0, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private AppointmentBulkStatusService service;
+    private final List<AppointmentChangedEvent> events = new ArrayList<>();
+    private final UUID doctorId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:bulk-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE appointments (id UUID PRIMARY KEY, doctor_id UUID NOT NULL, " +
+                "patient_id UUID NOT NULL, start_time TIMESTAMP NOT NULL, end_time TIMESTAMP NOT NULL, " +
+                "type VARCHAR(50) NOT NULL, status VARCHAR(50) NOT NULL, updated_at TIMESTAMP)");
+        service = new AppointmentBulkStatusService(jdbcTemplate, null, event -> events.add((AppointmentChangedEvent) event));
+    }
+
+    @Test
+    void confirmDoctorDay_UpdatesPendingOnly() {
+        UUID first = insert(doctorId, DAY.withHour(9), AppointmentStatus.PENDING);
+        UUID second = insert(doctorId, DAY.withHour(10), AppointmentStatus.PENDING);
+        UUID done = insert(doctorId, DAY.withHour(11), AppointmentStatus.COMPLETED);
+        UUID otherDay = insert(doctorId, DAY.plusDays(1).withHour(9), AppointmentStatus.PENDING);
+        insert(UUID.randomUUID(), DAY.withHour(9), AppointmentStatus.PENDING);
+
+        BulkStatusResult result = service.updateStatus(BulkStatusRequest.builder()
+                .status(AppointmentStatus.SCHEDULED)
+                .doctorId(doctorId)
+                .from(DAY)
+                .to(DAY.plusDays(1))
+                .build(), null);
+
+        assertEquals(3, result.getMatched());
+        assertEquals(2, result.getUpdated());
+        Map<UUID, Outcome> outcomes = outcomes(result);
+        assertEquals(Outcome.UPDATED, outcomes.get(first));
+        assertEquals(Outcome.UPDATED, outcomes.get(second));
+        assertEquals(Outcome.CONFLICT, outcomes.get(done));
+        assertEquals("SCHEDULED", status(first));
+        assertEquals("COMPLETED", status(done));
+        assertEquals("PENDING", status(otherDay));
+        assertEquals(2, events.size());
+        assertEquals(AppointmentChangeType.STATUS_CHANGED, events.get(0).type());
+    }
+
+    @Test
+    void confirmOverlappingRequests_ReportsConflictsInsteadOfDoubleBooking() {
+        UUID booked = insert(doctorId, DAY.withHour(9), AppointmentStatus.SCHEDULED);
+        UUID clashesWithBooked = insert(doctorId, DAY.withHour(9).plusMinutes(15), AppointmentStatus.PENDING);
+        UUID first = insert(doctorId, DAY.withHour(10), AppointmentStatus.PENDING);
+        UUID clashesWithFirst = insert(doctorId, DAY.withHour(10).plusMinutes(10), AppointmentStatus.PENDING);
+        UUID adjacent = insert(doctorId, DAY.withHour(10).plusMinutes(30), AppointmentStatus.PENDING);
+        UUID otherDoctor = insert(UUID.randomUUID(), DAY.withHour(10), AppointmentStatus.PENDING);
+
+        BulkStatusResult result = service.updateStatus(BulkStatusRequest.builder()
+                .status(AppointmentStatus.SCHEDULED)
+                .ids(List.of(clashesWithBooked, first, clashesWithFirst, adjacent, otherDoctor))
+                .build(), null);
+
+        Map<UUID, Outcome> outcomes = outcomes(result);
+        assertEquals(Outcome.CONFLICT, outcomes.get(clashesWithBooked));
+        assertEquals(Outcome.UPDATED, outcomes.get(first));
+        assertEquals(Outcome.CONFLICT, outcomes.get(clashesWithFirst));
+        assertEquals(Outcome.UPDATED, outcomes.get(adjacent));
+        assertEquals(Outcome.UPDATED, outcomes.get(otherDoctor));
+        assertEquals(3, result.getUpdated());
+        assertEquals("PENDING", status(clashesWithBooked));
+        assertEquals("PENDING", status(clashesWithFirst));
+        assertEquals("SCHEDULED", status(booked));
+        assertEquals(3, events.size());
+    }
+
+    @Test
+    void idList_ReportsEachItem() {
+        UUID pending = insert(doctorId, DAY.withHour(9), AppointmentStatus.PENDING);
+        UUID cancelled = insert(doctorId, DAY.withHour(10), AppointmentStatus.CANCELLED);
+        UUID otherDoctors = insert(UUID.randomUUID(), DAY.withHour(11), AppointmentStatus.SCHEDULED);
+        UUID missing = UUID.randomUUID();
+
+        BulkStatusResult result = service.updateStatus(BulkStatusRequest.builder()
+                .status(AppointmentStatus.CANCELLED)
+                .ids(List.of(pending, cancelled, otherDoctors, missing, pending))
+                .build(), doctorId);
+
+        Map<UUID, Outcome> outcomes = outcomes(result);
+        assertEquals(4, result.getItems().size());
+        assertEquals(Outcome.UPDATED, outcomes.get(pending));
+        assertEquals(Outcome.UNCHANGED, outcomes.get(cancelled));
+        assertEquals(Outcome.FORBIDDEN, outcomes.get(otherDoctors));
+        assertEquals(Outcome.NOT_FOUND, outcomes.get(missing));
+        assertEquals("SCHEDULED", status(otherDoctors));
+        assertEquals(AppointmentChangeType.CANCELLED, events.get(0).type());
+    }
+
+    @Test
+    void thousandsOfRows_AreUpdatedInChunks() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            ids.add(insert(doctorId, DAY.plusMinutes(i), AppointmentStatus.SCHEDULED));
+        }
+
+        BulkStatusResult result = service.updateStatus(BulkStatusRequest.builder()
+                .status(AppointmentStatus.CANCELLED)
+                .ids(ids)
+                .build(), null);
+
+        assertEquals(2500, result.getUpdated());
+        assertEquals(2500, (int) jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM appointments WHERE status = 'CANCELLED'", Integer.class));
+    }
+
+    @Test
+    void missingFilter_IsRejected() {
+        BulkStatusRequest request = BulkStatusRequest.builder()
+                .status(AppointmentStatus.CANCELLED)
+                .doctorId(doctorId)
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> service.updateStatus(request, null));
+    }
+
+    private UUID insert(UUID doctor, LocalDateTime start, AppointmentStatus status) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO appointments (id, doctor_id, patient_id, start_time, end_time, type, status) " +
+                        "VALUES (?, ?, ?, ?, ?, 'CONSULTATION', ?)",
+                id, doctor, UUID.randomUUID(), Timestamp.valueOf(start), Timestamp.valueOf(start.plusMinutes(30)),
+                status.name());
+        return id;
+    }
+
+    private String status(UUID id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM appointments WHERE id = ?", String.class, id);
+    }
+
+    private static Map<UUID, Outcome> outcomes(BulkStatusResult result) {
+        return result.getItems().stream().collect(Collectors.toMap(BulkStatusResult.Item::getAppointmentId,
+                BulkStatusResult.Item::getOutcome));
+    }
+}
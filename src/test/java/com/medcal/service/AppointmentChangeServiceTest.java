@@ -0,0 +1,153 @@
+package com.medcal.service;
+
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.event.AppointmentSnapshot;
+import com.medcal.model.dto.AppointmentChangeEntry;
+import com.medcal.model.dto.AppointmentChangeFeed;
+import com.medcal.model.dto.AppointmentDTO;
+import com.medcal.model.entity.Appointment;
+import com.medcal.model.entity.AppointmentChange;
+import com.medcal.model.enums.AppointmentChangeType;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import com.medcal.repository.AppointmentChangeRepository;
+import com.medcal.repository.AppointmentRepository;
+import com.medcal.repository.DoctorRepository;
+import com.medcal.repository.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentChangeServiceTest {
+
+    @Mock
+    private AppointmentChangeRepository changeRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private AppointmentService appointmentService;
+
+    private AppointmentChangeService changeService;
+    private UUID doctorId;
+    private UUID otherDoctorId;
+    private UUID patientId;
+
+    @BeforeEach
+    void setUp() {
+        changeService = new AppointmentChangeService(changeRepository, appointmentRepository, doctorRepository,
+                patientRepository, appointmentService, 5000, 180);
+        doctorId = UUID.randomUUID();
+        otherDoctorId = UUID.randomUUID();
+        patientId = UUID.randomUUID();
+    }
+
+    @Test
+    void onAppointmentChanged_DoctorReassigned_RecordsPreviousDoctor() {
+        UUID appointmentId = UUID.randomUUID();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        AppointmentSnapshot before = new AppointmentSnapshot(appointmentId, doctorId, patientId, start,
+                start.plusMinutes(30), AppointmentType.CONSULTATION, AppointmentStatus.SCHEDULED);
+        AppointmentSnapshot after = new AppointmentSnapshot(appointmentId, otherDoctorId, patientId, start,
+                start.plusMinutes(30), AppointmentType.CONSULTATION, AppointmentStatus.SCHEDULED);
+
+        changeService.onAppointmentChanged(AppointmentChangedEvent.changed(AppointmentChangeType.UPDATED, before, after));
+
+        ArgumentCaptor<AppointmentChange> captor = ArgumentCaptor.forClass(AppointmentChange.class);
+        verify(changeRepository).save(captor.capture());
+        assertEquals(otherDoctorId, captor.getValue().getDoctorId());
+        assertEquals(doctorId, captor.getValue().getPreviousDoctorId());
+        assertNull(captor.getValue().getPreviousPatientId());
+    }
+
+    @Test
+    void getChangesSince_CollapsesToLatestAndReturnsTombstones() {
+        UUID kept = UUID.randomUUID();
+        UUID deleted = UUID.randomUUID();
+        UUID movedAway = UUID.randomUUID();
+        LocalDateTime old = LocalDateTime.now().minusMinutes(5);
+        when(changeRepository.findDoctorChangesSince(eq(doctorId), eq(10L), any())).thenReturn(List.of(
+                change(11, kept, AppointmentChangeType.CREATED, old),
+                change(12, deleted, AppointmentChangeType.CREATED, old),
+                change(13, kept, AppointmentChangeType.STATUS_CHANGED, old),
+                change(14, deleted, AppointmentChangeType.DELETED, old),
+                change(15, movedAway, AppointmentChangeType.UPDATED, old)));
+        Appointment keptAppointment = Appointment.builder().id(kept).doctorId(doctorId).patientId(patientId).build();
+        Appointment movedAppointment = Appointment.builder().id(movedAway).doctorId(otherDoctorId).patientId(patientId).build();
+        when(appointmentRepository.findAllById(any())).thenReturn(List.of(keptAppointment, movedAppointment));
+        when(appointmentService.convertToDTO(keptAppointment)).thenReturn(AppointmentDTO.builder().id(kept).build());
+
+        AppointmentChangeFeed feed = changeService.getChangesSince(
+                AppointmentChangeService.ChangeScope.doctor(doctorId), 10, 100);
+
+        assertEquals(15, feed.getNextSince());
+        assertFalse(feed.isHasMore());
+        List<AppointmentChangeEntry> entries = feed.getChanges();
+        assertEquals(3, entries.size());
+        assertEquals(kept, entries.get(0).getAppointmentId());
+        assertEquals(13, entries.get(0).getSeq());
+        assertFalse(entries.get(0).isDeleted());
+        assertNotNull(entries.get(0).getAppointment());
+        assertTrue(entries.get(1).isDeleted());
+        assertEquals(deleted, entries.get(1).getAppointmentId());
+        assertTrue(entries.get(2).isDeleted());
+        assertNull(entries.get(2).getAppointment());
+    }
+
+    @Test
+    void getChangesSince_RecentChange_DoesNotAdvanceCursorPastIt() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(changeRepository.findChangesSince(anyLong(), any())).thenReturn(List.of(
+                change(21, first, AppointmentChangeType.DELETED, LocalDateTime.now().minusMinutes(1)),
+                change(22, second, AppointmentChangeType.DELETED, LocalDateTime.now())));
+
+        AppointmentChangeFeed feed = changeService.getChangesSince(AppointmentChangeService.ChangeScope.all(), 20, 100);
+
+        assertEquals(2, feed.getChanges().size());
+        assertEquals(21, feed.getNextSince());
+    }
+
+    @Test
+    void getChangesSince_PurgedPosition_RequestsResync() {
+        when(changeRepository.findOldestSeq()).thenReturn(500L);
+
+        AppointmentChangeFeed feed = changeService.getChangesSince(AppointmentChangeService.ChangeScope.all(), 20, 100);
+
+        assertTrue(feed.isResync());
+        assertTrue(feed.getChanges().isEmpty());
+        verify(changeRepository, never()).findChangesSince(anyLong(), any());
+    }
+
+    private AppointmentChange change(long seq, UUID appointmentId, AppointmentChangeType type, LocalDateTime at) {
+        return AppointmentChange.builder()
+                .seq(seq)
+                .appointmentId(appointmentId)
+                .doctorId(doctorId)
+                .patientId(patientId)
+                .changeType(type)
+                .changedAt(at)
+                .build();
+    }
+}
@@ -0,0 +1,310 @@
+package com.medcal.service;
+
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.exception.ConflictException;
+import com.medcal.model.dto.SeriesRequest;
+import com.medcal.model.entity.Appointment;
+import com.medcal.model.entity.AppointmentSeries;
+import com.medcal.model.entity.Doctor;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import com.medcal.repository.AppointmentRepository;
+import com.medcal.repository.AppointmentSeriesRepository;
+import com.medcal.repository.DoctorRepository;
+import com.medcal.repository.PatientRepository;
+import com.medcal.service.FreeSlotIterator.Interval;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentSeriesServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 7);
+    private static final int MATERIALIZE_DAYS = 28;
+
+    @Mock
+    private AppointmentSeriesRepository seriesRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private AppointmentSeriesService seriesService;
+    private UUID doctorId;
+    private UUID patientId;
+    private LocalDateTime firstStart;
+
+    @BeforeEach
+    void setUp() {
+        seriesService = new AppointmentSeriesService(seriesRepository, appointmentRepository, doctorRepository,
+                patientRepository, eventPublisher, MATERIALIZE_DAYS, 365);
+        doctorId = UUID.randomUUID();
+        patientId = UUID.randomUUID();
+        // El servicio usa la hora actual: la serie empieza mañana a las 10:00
+        firstStart = LocalDate.now().plusDays(1).atTime(10, 0);
+    }
+
+    @Test
+    void createSeries_OverlapsExistingAppointment_RejectedWithoutSaving() {
+        givenPatientAndDoctor();
+        when(appointmentRepository.findActiveByDoctorIdsOverlapping(anyCollection(), any(), any()))
+                .thenReturn(List.of(appointment(firstStart.plusDays(1).plusMinutes(15), 30)));
+
+        ConflictException exception = assertThrows(ConflictException.class,
+                () -> seriesService.createSeries(request("FREQ=DAILY;COUNT=3"), UUID.randomUUID()));
+
+        assertTrue(exception.getMessage().contains(firstStart.plusDays(1).toString()));
+        verify(seriesRepository, never()).save(any());
+        verify(appointmentRepository, never()).saveAll(anyList());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void createSeries_OverlapsOtherSeriesBeyondItsHorizon_Rejected() {
+        givenPatientAndDoctor();
+        // La otra serie sólo está materializada hasta hoy: su ocurrencia de dentro de 10 semanas es virtual
+        AppointmentSeries other = series("FREQ=WEEKLY", firstStart.plusWeeks(10).minusMinutes(15), LocalDateTime.now());
+        when(seriesRepository.findByDoctorIdAndActiveTrue(doctorId)).thenReturn(List.of(other));
+
+        assertThrows(ConflictException.class,
+                () -> seriesService.createSeries(request("FREQ=WEEKLY;COUNT=12"), UUID.randomUUID()));
+        verify(seriesRepository, never()).save(any());
+    }
+
+    @Test
+    void createSeries_NoConflicts_MaterializesOccurrencesInsideHorizon() {
+        givenPatientAndDoctor();
+        givenSavesReturnArgument();
+
+        AppointmentSeries saved = seriesService.createSeries(request("FREQ=WEEKLY;COUNT=10"), UUID.randomUUID());
+
+        // Semanas 0..3 quedan dentro de los 28 días; la 4 (día 29) se expande al consultar
+        List<Appointment> rows = savedRows();
+        assertEquals(List.of(firstStart, firstStart.plusWeeks(1), firstStart.plusWeeks(2), firstStart.plusWeeks(3)),
+                rows.stream().map(Appointment::getStartTime).toList());
+        assertTrue(rows.stream().allMatch(row -> row.getStatus() == AppointmentStatus.SCHEDULED
+                && saved.getId().equals(row.getSeriesId()) && row.getEndTime().equals(row.getStartTime().plusMinutes(30))));
+        assertHorizonMoved(saved);
+        verify(eventPublisher, times(4)).publishEvent(any(AppointmentChangedEvent.class));
+    }
+
+    @Test
+    void materializeOccurrence_FarAhead_SavesScheduledRow() {
+        AppointmentSeries series = series("FREQ=WEEKLY", firstStart, firstStart.plusDays(MATERIALIZE_DAYS));
+        LocalDateTime start = firstStart.plusWeeks(20);
+        when(seriesRepository.findById(series.getId())).thenReturn(Optional.of(series));
+        when(appointmentRepository.save(any(Appointment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Appointment saved = seriesService.materializeOccurrence(series.getId(), start);
+
+        assertEquals(start, saved.getStartTime());
+        assertEquals(start.plusMinutes(30), saved.getEndTime());
+        assertEquals(AppointmentStatus.SCHEDULED, saved.getStatus());
+        assertEquals(series.getId(), saved.getSeriesId());
+        verify(appointmentRepository).findActiveByDoctorIdsOverlapping(List.of(doctorId), start, start.plusMinutes(30));
+        verify(eventPublisher).publishEvent(any(AppointmentChangedEvent.class));
+    }
+
+    @Test
+    void materializeOccurrence_AlreadyMaterialized_ReturnsExistingRow() {
+        AppointmentSeries series = series("FREQ=WEEKLY", firstStart, firstStart.plusDays(MATERIALIZE_DAYS));
+        LocalDateTime start = firstStart.plusWeeks(1);
+        Appointment existing = appointment(start, 30);
+        when(seriesRepository.findById(series.getId())).thenReturn(Optional.of(series));
+        when(appointmentRepository.findBySeriesIdAndStartTimeRange(eq(series.getId()), eq(start), any()))
+                .thenReturn(List.of(existing));
+
+        assertSame(existing, seriesService.materializeOccurrence(series.getId(), start));
+        verify(appointmentRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void materializeOccurrence_NotAnOccurrence_Throws() {
+        AppointmentSeries series = series("FREQ=WEEKLY", firstStart, firstStart);
+        when(seriesRepository.findById(series.getId())).thenReturn(Optional.of(series));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> seriesService.materializeOccurrence(series.getId(), firstStart.plusDays(3)));
+        verify(appointmentRepository, never()).save(any());
+    }
+
+    @Test
+    void materializeOccurrence_DoctorBusy_ThrowsConflict() {
+        AppointmentSeries series = series("FREQ=WEEKLY", firstStart, firstStart);
+        LocalDateTime start = firstStart.plusWeeks(8);
+        when(seriesRepository.findById(series.getId())).thenReturn(Optional.of(series));
+        when(appointmentRepository.findActiveByDoctorIdsOverlapping(List.of(doctorId), start, start.plusMinutes(30)))
+                .thenReturn(List.of(appointment(start, 60)));
+
+        assertThrows(ConflictException.class, () -> seriesService.materializeOccurrence(series.getId(), start));
+        verify(appointmentRepository, never()).save(any());
+    }
+
+    @Test
+    void extendMaterialization_MovesHorizonAndStoresConflictsCancelled() {
+        AppointmentSeries series = series("FREQ=DAILY;COUNT=5", firstStart, firstStart);
+        when(seriesRepository.findActiveMaterializedBefore(any())).thenReturn(List.of(series));
+        when(appointmentRepository.findActiveByDoctorIdsOverlapping(anyCollection(), any(), any()))
+                .thenReturn(List.of(appointment(firstStart.plusDays(2).minusMinutes(10), 20)));
+        givenSavesReturnArgument();
+
+        seriesService.extendMaterialization();
+
+        List<Appointment> rows = savedRows();
+        assertEquals(5, rows.size());
+        for (Appointment row : rows) {
+            boolean conflicting = row.getStartTime().equals(firstStart.plusDays(2));
+            assertEquals(conflicting ? AppointmentStatus.CANCELLED : AppointmentStatus.SCHEDULED, row.getStatus());
+            if (conflicting) {
+                assertEquals(AppointmentSeriesService.CONFLICT_NOTE, row.getNotes());
+            }
+        }
+        assertHorizonMoved(series);
+    }
+
+    @Test
+    void extendMaterialization_Rerun_DoesNotDuplicateStoredOccurrences() {
+        AppointmentSeries series = series("FREQ=DAILY;COUNT=5", firstStart, firstStart);
+        List<Appointment> stored = new ArrayList<>();
+        when(seriesRepository.findActiveMaterializedBefore(any())).thenReturn(List.of(series));
+        when(appointmentRepository.findBySeriesIdAndStartTimeRange(eq(series.getId()), any(), any()))
+                .thenAnswer(invocation -> {
+                    LocalDateTime from = invocation.getArgument(1);
+                    LocalDateTime to = invocation.getArgument(2);
+                    return stored.stream()
+                            .filter(row -> !row.getStartTime().isBefore(from) && row.getStartTime().isBefore(to))
+                            .toList();
+                });
+        when(appointmentRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Appointment> rows = invocation.getArgument(0);
+            stored.addAll(rows);
+            return rows;
+        });
+
+        seriesService.extendMaterialization();
+        // Una ejecución anterior guardó las citas pero no llegó a mover el horizonte
+        series.setMaterializedUntil(firstStart);
+        seriesService.extendMaterialization();
+        seriesService.extendMaterialization();
+
+        assertEquals(5, stored.size());
+        assertEquals(5, stored.stream().map(Appointment::getStartTime).distinct().count());
+        verify(eventPublisher, times(5)).publishEvent(any(AppointmentChangedEvent.class));
+    }
+
+    @Test
+    void sweep_FindsOverlapsAcrossMergedBusyIntervals() {
+        List<LocalDateTime> starts = List.of(DAY.atTime(9, 0), DAY.atTime(10, 0), DAY.atTime(11, 0),
+                DAY.atTime(12, 0), DAY.plusDays(1).atTime(9, 0));
+        List<Interval> busy = List.of(
+                // Una cita larga que contiene otra corta: sin fusionar, la corta escondería a la larga
+                new Interval(DAY.atTime(9, 45), DAY.atTime(11, 15)),
+                new Interval(DAY.atTime(10, 0), DAY.atTime(10, 15)),
+                // Termina justo cuando empieza la ocurrencia: no hay solape
+                new Interval(DAY.atTime(11, 30), DAY.atTime(12, 0)),
+                new Interval(DAY.plusDays(1).atTime(9, 29), DAY.plusDays(1).atTime(9, 31)));
+
+        List<LocalDateTime> conflicts = AppointmentSeriesService.sweep(starts, Duration.ofMinutes(30), busy);
+
+        assertEquals(List.of(DAY.atTime(10, 0), DAY.atTime(11, 0), DAY.plusDays(1).atTime(9, 0)), conflicts);
+    }
+
+    @Test
+    void sweep_NoBusyTime_NoConflicts() {
+        assertTrue(AppointmentSeriesService.sweep(List.of(DAY.atTime(9, 0)), Duration.ofMinutes(30), List.of()).isEmpty());
+    }
+
+    private void givenPatientAndDoctor() {
+        when(patientRepository.existsById(patientId)).thenReturn(true);
+        when(doctorRepository.findByIdAndActiveTrue(doctorId)).thenReturn(Optional.of(Doctor.builder().id(doctorId).build()));
+    }
+
+    private void givenSavesReturnArgument() {
+        when(seriesRepository.save(any(AppointmentSeries.class))).thenAnswer(invocation -> {
+            AppointmentSeries series = invocation.getArgument(0);
+            if (series.getId() == null) {
+                series.setId(UUID.randomUUID());
+            }
+            return series;
+        });
+        when(appointmentRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Appointment> savedRows() {
+        ArgumentCaptor<List<Appointment>> captor = ArgumentCaptor.forClass(List.class);
+        verify(appointmentRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private void assertHorizonMoved(AppointmentSeries series) {
+        LocalDateTime horizon = LocalDateTime.now().plusDays(MATERIALIZE_DAYS);
+        assertFalse(series.getMaterializedUntil().isAfter(horizon));
+        assertTrue(series.getMaterializedUntil().isAfter(horizon.minusMinutes(1)));
+    }
+
+    private SeriesRequest request(String rrule) {
+        return SeriesRequest.builder()
+                .doctorId(doctorId)
+                .patientId(patientId)
+                .rrule(rrule)
+                .firstStart(firstStart)
+                .durationMinutes(30)
+                .build();
+    }
+
+    private AppointmentSeries series(String rrule, LocalDateTime start, LocalDateTime materializedUntil) {
+        return AppointmentSeries.builder()
+                .id(UUID.randomUUID())
+                .doctorId(doctorId)
+                .patientId(UUID.randomUUID())
+                .type(AppointmentType.FOLLOWUP)
+                .rrule(rrule)
+                .firstStart(start)
+                .durationMinutes(30)
+                .createdBy(UUID.randomUUID())
+                .materializedUntil(materializedUntil)
+                .build();
+    }
+
+    private Appointment appointment(LocalDateTime start, int minutes) {
+        return Appointment.builder()
+                .id(UUID.randomUUID())
+                .doctorId(doctorId)
+                .patientId(UUID.randomUUID())
+                .startTime(start)
+                .endTime(start.plusMinutes(minutes))
+                .type(AppointmentType.CONSULTATION)
+                .status(AppointmentStatus.SCHEDULED)
+                .build();
+    }
+}
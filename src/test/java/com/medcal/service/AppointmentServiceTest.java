@@ -1,5 +1,8 @@
 package com.medcal.service;
 
+import com.medcal.archive.AppointmentArchive;
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.metrics.DomainMetrics;
 import com.medcal.model.dto.AppointmentDTO;
 import com.medcal.model.entity.Appointment;
 import com.medcal.model.entity.Doctor;
@@ -16,6 +19,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -39,6 +43,15 @@ class AppointmentServiceTest {
     
     @Mock
     private PatientRepository patientRepository;
+    
+    @Mock
+    private DomainMetrics domainMetrics;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private AppointmentArchive appointmentArchive;
 
     @InjectMocks
     private AppointmentService appointmentService;
@@ -132,6 +145,37 @@ class AppointmentServiceTest {
         verify(appointmentRepository).findByDoctorId(doctorId);
     }
 
+    @Test
+    void getPatientAppointments_ShouldIncludeArchivedAppointmentsNewestFirst() {
+        // Given
+        Appointment archived = Appointment.builder()
+                .id(UUID.randomUUID())
+                .doctorId(doctorId)
+                .patientId(patientId)
+                .startTime(LocalDateTime.now().minusYears(2))
+                .endTime(LocalDateTime.now().minusYears(2).plusMinutes(30))
+                .status(AppointmentStatus.COMPLETED)
+                .build();
+        Appointment oldNoShow = Appointment.builder()
+                .id(UUID.randomUUID())
+                .doctorId(doctorId)
+                .patientId(patientId)
+                .startTime(LocalDateTime.now().minusYears(1))
+                .endTime(LocalDateTime.now().minusYears(1).plusMinutes(30))
+                .status(AppointmentStatus.NO_SHOW)
+                .build();
+        when(appointmentRepository.findByPatientIdOrderByStartTimeDesc(patientId))
+                .thenReturn(List.of(testAppointment, oldNoShow));
+        when(appointmentArchive.findByPatientId(patientId)).thenReturn(List.of(archived));
+
+        // When
+        List<AppointmentDTO> result = appointmentService.getPatientAppointments(patientId);
+
+        // Then
+        assertEquals(List.of(appointmentId, oldNoShow.getId(), archived.getId()),
+                result.stream().map(AppointmentDTO::getId).toList());
+    }
+
     @Test
     void createAppointment_WithValidData_ShouldCreateAppointment() {
         // Given
@@ -424,28 +468,28 @@ class AppointmentServiceTest {
     @Test
     void deleteAppointment_WhenExists_ShouldReturnTrue() {
         // Given
-        when(appointmentRepository.existsById(appointmentId)).thenReturn(true);
+        when(appointmentRepository.findById(appointmentId)).thenReturn(Optional.of(testAppointment));
 
         // When
         boolean result = appointmentService.deleteAppointment(appointmentId);
 
         // Then
         assertTrue(result);
-        verify(appointmentRepository).existsById(appointmentId);
         verify(appointmentRepository).deleteById(appointmentId);
+        verify(eventPublisher).publishEvent(any(AppointmentChangedEvent.class));
     }
 
     @Test
     void deleteAppointment_WhenNotExists_ShouldReturnFalse() {
         // Given
-        when(appointmentRepository.existsById(appointmentId)).thenReturn(false);
+        when(appointmentRepository.findById(appointmentId)).thenReturn(Optional.empty());
 
         // When
         boolean result = appointmentService.deleteAppointment(appointmentId);
 
         // Then
         assertFalse(result);
-        verify(appointmentRepository).existsById(appointmentId);
         verify(appointmentRepository, never()).deleteById(any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 }
@@ -0,0 +1,118 @@
+package com.medcal.service;
+
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.model.enums.AppointmentChangeType;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.util.DatabaseLease;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppointmentStatusSweeperTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 7, 12, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private final Clock clock = Clock.fixed(NOW.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+    private final List<AppointmentChangedEvent> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:sweep-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE appointments (id UUID PRIMARY KEY, doctor_id UUID NOT NULL, " +
+                "patient_id UUID NOT NULL, start_time TIMESTAMP NOT NULL, end_time TIMESTAMP NOT NULL, " +
+                "type VARCHAR(50) NOT NULL, status VARCHAR(50) NOT NULL, updated_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE scheduler_leases (name VARCHAR(64) PRIMARY KEY, " +
+                "owner VARCHAR(255) NOT NULL, expires_at TIMESTAMP NOT NULL)");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Test
+    void endedAppointments_MoveToFinalStatusInChunks() {
+        UUID completed1 = insert(AppointmentStatus.SCHEDULED, NOW.minusHours(3));
+        UUID completed2 = insert(AppointmentStatus.SCHEDULED, NOW.minusHours(2));
+        UUID completed3 = insert(AppointmentStatus.SCHEDULED, NOW.minusDays(1));
+        UUID noShow = insert(AppointmentStatus.PENDING, NOW.minusHours(5));
+        // Dentro del margen de gracia: todavía no
+        UUID recent = insert(AppointmentStatus.SCHEDULED, NOW.minusMinutes(30));
+        UUID cancelled = insert(AppointmentStatus.CANCELLED, NOW.minusDays(2));
+
+        int changed = sweeper(lease("a"), 2).sweep();
+
+        assertEquals(4, changed);
+        assertEquals("COMPLETED", status(completed1));
+        assertEquals("COMPLETED", status(completed2));
+        assertEquals("COMPLETED", status(completed3));
+        assertEquals("NO_SHOW", status(noShow));
+        assertEquals("SCHEDULED", status(recent));
+        assertEquals("CANCELLED", status(cancelled));
+        assertEquals(4, events.size());
+        AppointmentChangedEvent event = events.stream().filter(e -> e.appointmentId().equals(noShow)).findFirst().orElseThrow();
+        assertEquals(AppointmentChangeType.STATUS_CHANGED, event.type());
+        assertEquals(AppointmentStatus.PENDING, event.before().status());
+        assertEquals(AppointmentStatus.NO_SHOW, event.after().status());
+    }
+
+    @Test
+    void leaseHeldByAnotherNode_SkipsTheRun() {
+        insert(AppointmentStatus.SCHEDULED, NOW.minusHours(3));
+        DatabaseLease other = lease("b");
+        assertTrue(other.tryAcquire(AppointmentStatusSweeper.LEASE, Duration.ofMinutes(5)));
+
+        assertEquals(-1, sweeper(lease("a"), 100).sweep());
+        assertTrue(events.isEmpty());
+
+        other.release(AppointmentStatusSweeper.LEASE);
+        assertEquals(1, sweeper(lease("a"), 100).sweep());
+    }
+
+    @Test
+    void parseTransitions_RejectsMalformedEntries() {
+        assertEquals(AppointmentStatus.NO_SHOW,
+                AppointmentStatusSweeper.parseTransitions("PENDING=NO_SHOW").get(AppointmentStatus.PENDING));
+        assertThrows(IllegalArgumentException.class, () -> AppointmentStatusSweeper.parseTransitions("PENDING"));
+        assertThrows(IllegalArgumentException.class, () -> AppointmentStatusSweeper.parseTransitions("PENDING=PENDING"));
+    }
+
+    private AppointmentStatusSweeper sweeper(DatabaseLease lease, int chunkSize) {
+        return new AppointmentStatusSweeper(new NamedParameterJdbcTemplate(jdbcTemplate), transactionTemplate,
+                event -> events.add((AppointmentChangedEvent) event), lease,
+                AppointmentStatusSweeper.parseTransitions("SCHEDULED=COMPLETED,PENDING=NO_SHOW"),
+                Duration.ofHours(1), chunkSize, Duration.ofMinutes(5), clock);
+    }
+
+    private DatabaseLease lease(String owner) {
+        return new DatabaseLease(jdbcTemplate, clock, owner);
+    }
+
+    private UUID insert(AppointmentStatus status, LocalDateTime end) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO appointments (id, doctor_id, patient_id, start_time, end_time, type, status) " +
+                        "VALUES (?, ?, ?, ?, ?, 'CONSULTATION', ?)",
+                id, UUID.randomUUID(), UUID.randomUUID(), Timestamp.valueOf(end.minusMinutes(30)),
+                Timestamp.valueOf(end), status.name());
+        return id;
+    }
+
+    private String status(UUID id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM appointments WHERE id = ?", String.class, id);
+    }
+}
@@ -0,0 +1,98 @@
+package com.medcal.service;
+
+import com.medcal.event.DoctorChangedEvent;
+import com.medcal.model.dto.AvailabilitySlot;
+import com.medcal.model.dto.DoctorDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityCoalescerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 6, 2, 0, 0);
+
+    @Mock
+    private AvailabilityMetrics availabilityMetrics;
+
+    private final AtomicInteger transactions = new AtomicInteger();
+
+    private final TransactionOperations countingTransaction = new TransactionOperations() {
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            transactions.incrementAndGet();
+            return action.doInTransaction(new SimpleTransactionStatus());
+        }
+    };
+
+    private AvailabilityCoalescer coalescer() {
+        return new AvailabilityCoalescer(availabilityMetrics, countingTransaction, Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    void availableSlots_EachCallerGetsItsOwnCopies() {
+        AvailabilityCoalescer coalescer = coalescer();
+        UUID doctorId = UUID.randomUUID();
+        List<AvailabilitySlot> loaded = List.of(new AvailabilitySlot(START.withHour(9), START.withHour(10)));
+
+        List<AvailabilitySlot> first = coalescer.availableSlots(doctorId, START, START.plusDays(1), () -> loaded);
+        first.get(0).setAvailable(false);
+        List<AvailabilitySlot> second = coalescer.availableSlots(doctorId, START, START.plusDays(1), () -> loaded);
+
+        assertNotSame(first.get(0), second.get(0));
+        assertTrue(second.get(0).isAvailable());
+        assertTrue(loaded.get(0).isAvailable());
+    }
+
+    @Test
+    void availableDoctors_EachCallerGetsItsOwnCopies() {
+        AvailabilityCoalescer coalescer = coalescer();
+        List<DoctorDTO> loaded = List.of(DoctorDTO.builder().id(UUID.randomUUID()).firstName("Ana").build());
+
+        List<DoctorDTO> first = coalescer.availableDoctors("cardiology", START, START.plusDays(1), () -> loaded);
+        first.get(0).setFirstName("Changed");
+        List<DoctorDTO> second = coalescer.availableDoctors("cardiology", START, START.plusDays(1), () -> loaded);
+
+        assertNotSame(first.get(0), second.get(0));
+        assertEquals("Ana", second.get(0).getFirstName());
+    }
+
+    @Test
+    void onlyTheComputationRunsInATransaction() {
+        AvailabilityCoalescer coalescer = coalescer();
+        UUID doctorId = UUID.randomUUID();
+
+        coalescer.availableSlots(doctorId, START, START.plusDays(1), List::of);
+        coalescer.availableSlots(doctorId, START, START.plusDays(1), List::of);
+
+        // La segunda llamada se sirve del resultado compartido sin abrir transacción
+        assertEquals(1, transactions.get());
+    }
+
+    @Test
+    void doctorChange_DropsCachedResults() {
+        AvailabilityCoalescer coalescer = coalescer();
+        UUID doctorId = UUID.randomUUID();
+        List<AvailabilitySlot> oldHours = List.of(new AvailabilitySlot(START.withHour(9), START.withHour(10)));
+        List<AvailabilitySlot> newHours = List.of(new AvailabilitySlot(START.withHour(14), START.withHour(15)));
+
+        coalescer.availableSlots(doctorId, START, START.plusDays(1), () -> oldHours);
+        coalescer.onDoctorChanged(DoctorChangedEvent.of(doctorId));
+        List<AvailabilitySlot> slots = coalescer.availableSlots(doctorId, START, START.plusDays(1), () -> newHours);
+
+        assertEquals(START.withHour(14), slots.get(0).getStartTime());
+    }
+}
@@ -0,0 +1,212 @@
+package com.medcal.service;
+
+import com.medcal.analytics.UtilizationRollup;
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.event.AppointmentSnapshot;
+import com.medcal.event.DoctorChangedEvent;
+import com.medcal.metrics.DomainMetrics;
+import com.medcal.model.dto.AvailabilitySlot;
+import com.medcal.model.entity.Appointment;
+import com.medcal.model.entity.Doctor;
+import com.medcal.model.enums.AppointmentChangeType;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import com.medcal.repository.AppointmentRepository;
+import com.medcal.repository.DoctorRepository;
+import com.medcal.util.ResourceVersions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilitySnapshotsTest {
+
+    // Un lunes, para que la semana consultada tenga días laborables y fin de semana
+    private static final LocalDate TODAY = LocalDate.of(2030, 1, 7);
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private DomainMetrics domainMetrics;
+
+    @Mock
+    private AvailabilityMetrics availabilityMetrics;
+
+    @Mock
+    private UtilizationRollup utilizationRollup;
+
+    @Mock
+    private ResourceVersions resourceVersions;
+
+    private final List<Appointment> appointments = new ArrayList<>();
+    private final List<UUID> doctorIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+    private final Map<UUID, Map<String, Map<String, String>>> workingHours = new HashMap<>();
+    private AvailabilitySnapshots snapshots;
+    private AvailabilityCoalescer coalescer;
+    private DoctorService doctorService;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(TODAY.atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        snapshots = new AvailabilitySnapshots(availabilityMetrics, 30, 1000, clock);
+        coalescer = new AvailabilityCoalescer(availabilityMetrics, TransactionOperations.withoutTransaction(),
+                Duration.ZERO, 0);
+        // Sin transacción, los listeners AFTER_COMMIT reciben el evento al publicarse
+        doctorService = new DoctorService(doctorRepository, null, appointmentRepository, domainMetrics,
+                coalescer, snapshots, utilizationRollup, resourceVersions, event -> {
+                    if (event instanceof DoctorChangedEvent doctorChanged) {
+                        snapshots.onDoctorChanged(doctorChanged);
+                        coalescer.onDoctorChanged(doctorChanged);
+                    }
+                });
+        lenient().when(doctorRepository.findById(any())).thenAnswer(invocation -> {
+            UUID doctorId = invocation.getArgument(0);
+            return Optional.of(Doctor.builder().id(doctorId).workingHours(workingHours.get(doctorId)).build());
+        });
+        lenient().when(appointmentRepository.findByDoctorIdAndStartTimeBetween(any(), any(), any())).thenAnswer(invocation -> {
+            UUID doctorId = invocation.getArgument(0);
+            LocalDateTime start = invocation.getArgument(1);
+            LocalDateTime end = invocation.getArgument(2);
+            return appointments.stream()
+                    .filter(a -> a.getDoctorId().equals(doctorId))
+                    .filter(a -> !a.getStartTime().isBefore(start) && !a.getEndTime().isAfter(end))
+                    .toList();
+        });
+    }
+
+    @Test
+    void patchedSnapshots_MatchFullRecompute() {
+        Random random = new Random(7);
+        LocalDateTime weekStart = TODAY.atStartOfDay();
+        LocalDateTime weekEnd = weekStart.plusDays(7);
+
+        for (int step = 0; step < 400; step++) {
+            int operation = appointments.isEmpty() ? 0 : random.nextInt(4);
+            switch (operation) {
+                case 0 -> {
+                    Appointment appointment = Appointment.builder()
+                            .id(UUID.randomUUID())
+                            .doctorId(doctorIds.get(random.nextInt(doctorIds.size())))
+                            .patientId(UUID.randomUUID())
+                            .type(AppointmentType.CONSULTATION)
+                            .status(AppointmentStatus.SCHEDULED)
+                            .build();
+                    place(appointment, random);
+                    appointments.add(appointment);
+                    snapshots.onAppointmentChanged(AppointmentChangedEvent.created(AppointmentSnapshot.of(appointment)));
+                }
+                case 1 -> {
+                    Appointment appointment = appointments.get(random.nextInt(appointments.size()));
+                    AppointmentSnapshot before = AppointmentSnapshot.of(appointment);
+                    appointment.setDoctorId(doctorIds.get(random.nextInt(doctorIds.size())));
+                    place(appointment, random);
+                    snapshots.onAppointmentChanged(AppointmentChangedEvent.changed(
+                            AppointmentChangeType.UPDATED, before, AppointmentSnapshot.of(appointment)));
+                }
+                case 2 -> {
+                    Appointment appointment = appointments.get(random.nextInt(appointments.size()));
+                    AppointmentSnapshot before = AppointmentSnapshot.of(appointment);
+                    appointment.setStatus(AppointmentStatus.CANCELLED);
+                    snapshots.onAppointmentChanged(AppointmentChangedEvent.changed(
+                            AppointmentChangeType.CANCELLED, before, AppointmentSnapshot.of(appointment)));
+                }
+                default -> {
+                    Appointment appointment = appointments.remove(random.nextInt(appointments.size()));
+                    snapshots.onAppointmentChanged(AppointmentChangedEvent.deleted(AppointmentSnapshot.of(appointment)));
+                }
+            }
+
+            if (step % 10 == 0) {
+                for (UUID doctorId : doctorIds) {
+                    List<AvailabilitySlot> fromSnapshots = doctorService.getAvailableSlots(doctorId, weekStart, weekEnd);
+                    List<AvailabilitySlot> recomputed = doctorService.recomputeAvailableSlots(doctorId, weekStart, weekEnd);
+                    assertEquals(recomputed, fromSnapshots, "paso " + step);
+                }
+            }
+        }
+        assertTrue(snapshots.size() > 0);
+    }
+
+    @Test
+    void cachedDay_IsNotReadFromDatabaseAgain() {
+        LocalDateTime start = TODAY.atStartOfDay();
+
+        doctorService.getAvailableSlots(doctorIds.get(0), start, start.plusDays(1));
+        doctorService.getAvailableSlots(doctorIds.get(0), start, start.plusDays(1));
+
+        verify(appointmentRepository, times(1)).findByDoctorIdAndStartTimeBetween(any(), any(), any());
+    }
+
+    @Test
+    void workingHoursChange_EvictsTheDoctorsDays() {
+        UUID doctorId = doctorIds.get(0);
+        LocalDateTime start = TODAY.atStartOfDay();
+        doctorService.getAvailableSlots(doctorIds.get(1), start, start.plusDays(1));
+        assertEquals(TODAY.atTime(9, 0), doctorService.getAvailableSlots(doctorId, start, start.plusDays(1)).get(0).getStartTime());
+        when(doctorRepository.save(any(Doctor.class))).thenAnswer(invocation -> {
+            Doctor doctor = invocation.getArgument(0);
+            workingHours.put(doctor.getId(), doctor.getWorkingHours());
+            return doctor;
+        });
+
+        doctorService.updateDoctor(doctorId, Doctor.builder()
+                .workingHours(Map.of("monday", Map.of("start", "14:00", "end", "15:00")))
+                .build());
+
+        // Sólo se descartan los días del médico cambiado
+        assertEquals(1, snapshots.size());
+        List<AvailabilitySlot> slots = doctorService.getAvailableSlots(doctorId, start, start.plusDays(1));
+        assertEquals(List.of(TODAY.atTime(14, 0), TODAY.atTime(14, 30)),
+                slots.stream().map(AvailabilitySlot::getStartTime).toList());
+        assertEquals(doctorService.recomputeAvailableSlots(doctorId, start, start.plusDays(1)), slots);
+    }
+
+    @Test
+    void changeDuringLoad_IsNotCached() {
+        Appointment appointment = Appointment.builder()
+                .id(UUID.randomUUID())
+                .doctorId(doctorIds.get(0))
+                .startTime(TODAY.atTime(10, 0))
+                .endTime(TODAY.atTime(10, 30))
+                .build();
+
+        snapshots.slots(doctorIds.get(0), TODAY, () -> {
+            AvailabilitySnapshots.DaySnapshot loaded = AvailabilitySnapshots.DaySnapshot.of(TODAY, List.of(), List.of());
+            snapshots.onAppointmentChanged(AppointmentChangedEvent.created(AppointmentSnapshot.of(appointment)));
+            return loaded;
+        });
+
+        assertEquals(0, snapshots.size());
+    }
+
+    /** Random 30 or 60 minute appointment within the week, sometimes outside working hours. */
+    private static void place(Appointment appointment, Random random) {
+        LocalDateTime start = TODAY.plusDays(random.nextInt(7)).atTime(7, 0).plusMinutes(15L * random.nextInt(48));
+        appointment.setStartTime(start);
+        appointment.setEndTime(start.plusMinutes(random.nextBoolean() ? 30 : 60));
+    }
+}
@@ -0,0 +1,101 @@
+package com.medcal.service;
+
+import com.medcal.service.BatchScheduleOptimizer.Solution;
+import com.medcal.service.BatchScheduleOptimizer.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchScheduleOptimizerTest {
+
+    @Test
+    void greedyPlacesMostConstrainedFirst() {
+        BitSet[] free = {bits(0, 4)};
+        List<Task> tasks = List.of(
+                new Task(new int[]{0}, new int[]{0, 4}, 2, 0),
+                new Task(new int[]{0}, new int[]{1, 3}, 2, 0));
+
+        Solution solution = new BatchScheduleOptimizer(free, 4, tasks).solve(0);
+
+        // La segunda sólo cabe en 1..3, así que la primera no puede quedarse con 0..2
+        assertEquals(1, solution.assigned());
+        assertEquals(1, solution.start()[1]);
+    }
+
+    @Test
+    void localSearch_MovesBlockingRequestToFitAnother() {
+        BitSet[] free = {bits(0, 4)};
+        List<Task> tasks = List.of(
+                // Urgente y flexible: el voraz la coloca en 0
+                new Task(new int[]{0}, new int[]{0, 4}, 1, 1),
+                // Sólo cabe en 0..2
+                new Task(new int[]{0}, new int[]{0, 2}, 2, 0));
+
+        Solution greedyOnly = new BatchScheduleOptimizer(free, 4, tasks).solve(0);
+        Solution searched = new BatchScheduleOptimizer(free, 4, tasks).solve(TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(1, greedyOnly.assigned());
+        assertTrue(greedyOnly.budgetExhausted());
+        assertEquals(2, searched.assigned());
+        assertEquals(0, searched.start()[1]);
+        assertEquals(2, searched.start()[0]);
+    }
+
+    @Test
+    void randomProblems_NeverOverlapOrLeaveFreeTimeOrWindows() {
+        Random random = new Random(11);
+        int horizon = 5 * 40;
+        for (int round = 0; round < 20; round++) {
+            BitSet[] free = new BitSet[6];
+            for (int d = 0; d < free.length; d++) {
+                free[d] = new BitSet(horizon);
+                for (int u = 0; u < horizon; u++) {
+                    if (random.nextInt(10) < 7) {
+                        free[d].set(u);
+                    }
+                }
+            }
+            List<Task> tasks = new ArrayList<>();
+            for (int t = 0; t < 150; t++) {
+                int from = random.nextInt(horizon - 8);
+                tasks.add(new Task(new int[]{random.nextInt(3), 3 + random.nextInt(3)},
+                        new int[]{from, from + 8 + random.nextInt(40)}, 1 + random.nextInt(4), random.nextInt(2)));
+            }
+
+            Solution solution = new BatchScheduleOptimizer(free, horizon, tasks).solve(TimeUnit.MILLISECONDS.toNanos(50));
+
+            BitSet[] used = new BitSet[free.length];
+            for (int d = 0; d < used.length; d++) {
+                used[d] = new BitSet(horizon);
+            }
+            int assigned = 0;
+            for (int t = 0; t < tasks.size(); t++) {
+                int doctor = solution.doctor()[t];
+                if (doctor == BatchScheduleOptimizer.UNASSIGNED) {
+                    continue;
+                }
+                assigned++;
+                Task task = tasks.get(t);
+                int start = solution.start()[t];
+                assertTrue(doctor == task.doctors()[0] || doctor == task.doctors()[1]);
+                assertTrue(start >= task.windows()[0] && start + task.length() <= task.windows()[1]);
+                assertTrue(free[doctor].nextClearBit(start) >= start + task.length(), "fuera del tiempo libre");
+                assertTrue(used[doctor].get(start, start + task.length()).isEmpty(), "solapamiento");
+                used[doctor].set(start, start + task.length());
+            }
+            assertEquals(solution.assigned(), assigned);
+        }
+    }
+
+    private static BitSet bits(int from, int to) {
+        BitSet bits = new BitSet();
+        bits.set(from, to);
+        return bits;
+    }
+}
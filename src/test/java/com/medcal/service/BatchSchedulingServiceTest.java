@@ -0,0 +1,135 @@
+package com.medcal.service;
+
+import com.medcal.event.AppointmentChangedEvent;
+import com.medcal.model.dto.BatchScheduleRequest;
+import com.medcal.model.dto.BatchScheduleResult;
+import com.medcal.model.entity.Appointment;
+import com.medcal.model.entity.Doctor;
+import com.medcal.model.enums.AppointmentStatus;
+import com.medcal.model.enums.AppointmentType;
+import com.medcal.repository.AppointmentRepository;
+import com.medcal.repository.DoctorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchSchedulingServiceTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private BatchSchedulingService schedulingService;
+    private Doctor first;
+    private Doctor second;
+    private Appointment forFirst;
+    private Appointment forSecond;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(MONDAY.minusDays(7).atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        schedulingService = new BatchSchedulingService(appointmentRepository, doctorRepository, eventPublisher,
+                Map.of(AppointmentType.CONSULTATION, 30), 200, 1000, clock);
+        first = doctor();
+        second = doctor();
+        forFirst = pending(first);
+        forSecond = pending(second);
+        when(appointmentRepository.findAllById(any())).thenReturn(List.of(forFirst, forSecond));
+        when(doctorRepository.findAllByActiveTrue()).thenReturn(List.of(first, second));
+    }
+
+    @Test
+    void apply_SlotBookedWhileOptimizing_ReportedUnassignedAndNotSaved() {
+        // Al leer la agenda estaba libre; antes de aplicar, otra reserva ocupa toda la mañana del primero
+        Appointment bookedMeanwhile = Appointment.builder()
+                .id(UUID.randomUUID())
+                .doctorId(first.getId())
+                .startTime(MONDAY.atTime(9, 0))
+                .endTime(MONDAY.atTime(10, 0))
+                .status(AppointmentStatus.SCHEDULED)
+                .build();
+        when(appointmentRepository.findActiveByDoctorIdsOverlapping(anyCollection(), any(), any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(bookedMeanwhile));
+        when(appointmentRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        BatchScheduleResult result = schedulingService.schedule(request(true));
+
+        assertEquals(1, result.getAssignedCount());
+        assertEquals(forSecond.getId(), result.getAssignments().get(0).getAppointmentId());
+        assertEquals(List.of(new BatchScheduleResult.Rejection(forFirst.getId(), "Sin hueco compatible")),
+                result.getUnassigned());
+        assertEquals(AppointmentStatus.PENDING, forFirst.getStatus());
+        assertNull(forFirst.getStartTime());
+        assertEquals(AppointmentStatus.SCHEDULED, forSecond.getStatus());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Appointment>> saved = ArgumentCaptor.forClass(List.class);
+        verify(appointmentRepository).saveAll(saved.capture());
+        assertEquals(List.of(forSecond), saved.getValue());
+        verify(eventPublisher, times(1)).publishEvent(any(AppointmentChangedEvent.class));
+    }
+
+    @Test
+    void proposalOnly_DoesNotReadAgainOrSave() {
+        when(appointmentRepository.findActiveByDoctorIdsOverlapping(anyCollection(), any(), any())).thenReturn(List.of());
+
+        BatchScheduleResult result = schedulingService.schedule(request(false));
+
+        assertEquals(2, result.getAssignedCount());
+        assertTrue(result.getUnassigned().isEmpty());
+        verify(appointmentRepository, times(1)).findActiveByDoctorIdsOverlapping(anyCollection(), any(), any());
+        verify(appointmentRepository, never()).saveAll(anyList());
+    }
+
+    private BatchScheduleRequest request(boolean apply) {
+        return BatchScheduleRequest.builder()
+                .items(List.of(BatchScheduleRequest.Item.builder().appointmentId(forFirst.getId()).build(),
+                        BatchScheduleRequest.Item.builder().appointmentId(forSecond.getId()).build()))
+                .from(MONDAY)
+                .to(MONDAY)
+                .apply(apply)
+                .build();
+    }
+
+    private static Doctor doctor() {
+        return Doctor.builder()
+                .id(UUID.randomUUID())
+                .workingHours(Map.of("monday", Map.of("start", "09:00", "end", "10:00")))
+                .build();
+    }
+
+    private static Appointment pending(Doctor doctor) {
+        return Appointment.builder()
+                .id(UUID.randomUUID())
+                .doctorId(doctor.getId())
+                .patientId(UUID.randomUUID())
+                .type(AppointmentType.CONSULTATION)
+                .status(AppointmentStatus.PENDING)
+                .build();
+    }
+}
@@ -1,18 +1,27 @@
 package com.medcal.service;
 
+import com.medcal.analytics.UtilizationRollup;
+import com.medcal.event.DoctorChangedEvent;
+import com.medcal.metrics.DomainMetrics;
+import com.medcal.model.dto.AvailabilitySlot;
 import com.medcal.model.dto.DoctorDTO;
+import com.medcal.model.dto.DoctorUtilization;
 import com.medcal.model.entity.Doctor;
+import com.medcal.repository.AppointmentRepository;
 import com.medcal.repository.DoctorRepository;
+import com.medcal.util.ResourceVersions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -26,6 +35,21 @@ class DoctorServiceTest {
     @Mock
     private DoctorRepository doctorRepository;
 
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private DomainMetrics domainMetrics;
+
+    @Mock
+    private UtilizationRollup utilizationRollup;
+
+    @Mock
+    private ResourceVersions resourceVersions;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private DoctorService doctorService;
 
@@ -206,6 +230,7 @@ class DoctorServiceTest {
         assertEquals("Cardiología Intervencionista", result.get().getSpecialization());
         verify(doctorRepository).findById(testId);
         verify(doctorRepository).save(any(Doctor.class));
+        verify(eventPublisher).publishEvent(any(DoctorChangedEvent.class));
     }
 
     @Test
@@ -239,6 +264,8 @@ class DoctorServiceTest {
         assertTrue(result);
         verify(doctorRepository).existsById(testId);
         verify(doctorRepository).deleteById(testId);
+        verify(resourceVersions).bump(ResourceVersions.DOCTORS);
+        verify(eventPublisher).publishEvent(any(DoctorChangedEvent.class));
     }
 
     @Test
@@ -253,5 +280,78 @@ class DoctorServiceTest {
         assertFalse(result);
         verify(doctorRepository).existsById(testId);
         verify(doctorRepository, never()).deleteById(any());
+        verify(resourceVersions, never()).bump(any());
+    }
+
+    @Test
+    void recomputeAvailableSlots_FollowsDoctorWorkingHours() {
+        // Given: sólo trabaja los sábados de 10:00 a 12:00
+        testDoctor.setWorkingHours(Map.of("saturday", Map.of("start", "10:00", "end", "12:00")));
+        when(doctorRepository.findById(testId)).thenReturn(Optional.of(testDoctor));
+        LocalDateTime friday = LocalDateTime.of(2025, 6, 6, 0, 0);
+        LocalDateTime sunday = friday.plusDays(2);
+        when(appointmentRepository.findByDoctorIdAndStartTimeBetween(testId, friday, sunday)).thenReturn(List.of());
+
+        // When
+        List<AvailabilitySlot> slots = doctorService.recomputeAvailableSlots(testId, friday, sunday);
+
+        // Then
+        assertEquals(4, slots.size());
+        assertEquals(LocalDateTime.of(2025, 6, 7, 10, 0), slots.get(0).getStartTime());
+        assertEquals(LocalDateTime.of(2025, 6, 7, 12, 0), slots.get(3).getEndTime());
+    }
+
+    @Test
+    void recomputeAvailableSlots_WithoutSchedule_UsesWeekdayDefault() {
+        // Given
+        when(doctorRepository.findById(testId)).thenReturn(Optional.of(testDoctor));
+        LocalDateTime friday = LocalDateTime.of(2025, 6, 6, 0, 0);
+        LocalDateTime sunday = friday.plusDays(2);
+        when(appointmentRepository.findByDoctorIdAndStartTimeBetween(testId, friday, sunday)).thenReturn(List.of());
+
+        // When
+        List<AvailabilitySlot> slots = doctorService.recomputeAvailableSlots(testId, friday, sunday);
+
+        // Then: viernes de 9:00 a 17:00, sábado libre
+        assertEquals(16, slots.size());
+        assertEquals(LocalDateTime.of(2025, 6, 6, 9, 0), slots.get(0).getStartTime());
+        assertEquals(LocalDateTime.of(2025, 6, 6, 17, 0), slots.get(15).getEndTime());
+    }
+
+    @Test
+    void findAvailableDoctors_TakesCapacityForTheWholeWindowFromWorkingHours() {
+        // Given: sólo un día con filas de ocupación, y ese día completo
+        when(doctorRepository.findAllByActiveTrue()).thenReturn(List.of(testDoctor));
+        when(utilizationRollup.summarize(any(), any(), isNull())).thenReturn(List.of(DoctorUtilization.builder()
+                .doctorId(testId)
+                .days(1)
+                .capacityMinutes(480)
+                .bookedMinutes(480)
+                .build()));
+
+        // When
+        List<DoctorDTO> result = doctorService.findAvailableDoctors();
+
+        // Then: 480 de al menos 2400 minutos de la semana no llega al 80%
+        assertEquals(1, result.size());
+        assertEquals(testId, result.get(0).getId());
+    }
+
+    @Test
+    void findAvailableDoctors_ExcludesDoctorsBookedOverEightyPercent() {
+        // Given: lunes a viernes de 9 a 17 son 2400 minutos en cualquier ventana de 7 días
+        when(doctorRepository.findAllByActiveTrue()).thenReturn(List.of(testDoctor));
+        when(utilizationRollup.summarize(any(), any(), isNull())).thenReturn(List.of(DoctorUtilization.builder()
+                .doctorId(testId)
+                .days(5)
+                .capacityMinutes(2400)
+                .bookedMinutes(2000)
+                .build()));
+
+        // When
+        List<DoctorDTO> result = doctorService.findAvailableDoctors();
+
+        // Then
+        assertTrue(result.isEmpty());
     }
 }
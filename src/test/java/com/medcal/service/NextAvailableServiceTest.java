@@ -0,0 +1,113 @@
+package com.medcal.service;
+
+import com.medcal.model.dto.NextAvailableSlot;
+import com.medcal.model.entity.Appointment;
+import com.medcal.model.entity.Doctor;
+import com.medcal.repository.AppointmentRepository;
+import com.medcal.repository.DoctorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NextAvailableServiceTest {
+
+    // Lunes
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    private NextAvailableService service;
+    private Doctor early;
+    private Doctor late;
+
+    @BeforeEach
+    void setUp() {
+        service = new NextAvailableService(doctorRepository, appointmentRepository, 30);
+        early = Doctor.builder().id(UUID.randomUUID()).firstName("Ana").lastName("Ruiz")
+                .specialization("Cardiología")
+                .workingHours(Map.of("monday", Map.of("start", "08:00", "end", "10:00")))
+                .build();
+        late = Doctor.builder().id(UUID.randomUUID()).firstName("Luis").lastName("Soto")
+                .specialization("Cardiología")
+                .workingHours(Map.of("monday", Map.of("start", "09:00", "end", "12:00"),
+                        "tuesday", Map.of("start", "09:00", "end", "12:00")))
+                .build();
+        lenient().when(doctorRepository.findActiveBySpecialization("Cardiología")).thenReturn(List.of(early, late));
+    }
+
+    @Test
+    void mergesDoctorsInStartOrderAndSkipsBusyIntervals() {
+        when(appointmentRepository.findActiveByDoctorIdsOverlapping(anyCollection(), any(), any())).thenReturn(List.of(
+                appointment(early, MONDAY.atTime(8, 0), MONDAY.atTime(9, 0)),
+                appointment(late, MONDAY.atTime(9, 0), MONDAY.atTime(9, 45))));
+
+        List<NextAvailableSlot> slots = service.findNextAvailable("Cardiología", MONDAY.atStartOfDay(), 30, 4);
+
+        assertEquals(4, slots.size());
+        assertSlot(slots.get(0), early, MONDAY.atTime(9, 0));
+        assertSlot(slots.get(1), early, MONDAY.atTime(9, 30));
+        // 9:45 no está en la rejilla de 30 minutos: el siguiente hueco es 10:00
+        assertSlot(slots.get(2), late, MONDAY.atTime(10, 0));
+        assertSlot(slots.get(3), late, MONDAY.atTime(10, 30));
+        verify(appointmentRepository, times(1)).findActiveByDoctorIdsOverlapping(anyCollection(), any(), any());
+    }
+
+    @Test
+    void longerDuration_MustFitBeforeEndOfWorkingDay() {
+        when(appointmentRepository.findActiveByDoctorIdsOverlapping(anyCollection(), any(), any())).thenReturn(List.of());
+
+        List<NextAvailableSlot> slots = service.findNextAvailable("Cardiología", MONDAY.atTime(9, 10), 90, 3);
+
+        assertSlot(slots.get(0), late, MONDAY.atTime(9, 30));
+        assertSlot(slots.get(1), late, MONDAY.atTime(10, 0));
+        assertSlot(slots.get(2), late, MONDAY.atTime(10, 30));
+        assertEquals(MONDAY.atTime(12, 0), slots.get(2).getEndTime());
+    }
+
+    @Test
+    void fullyBookedWeek_ContinuesWithNextWindow() {
+        when(appointmentRepository.findActiveByDoctorIdsOverlapping(anyCollection(), any(), any()))
+                .thenReturn(List.of(
+                        appointment(early, MONDAY.atTime(8, 0), MONDAY.atTime(10, 0)),
+                        appointment(late, MONDAY.atTime(9, 0), MONDAY.plusDays(6).atTime(23, 0))))
+                .thenReturn(List.of());
+
+        List<NextAvailableSlot> slots = service.findNextAvailable("Cardiología", MONDAY.atStartOfDay(), 30, 1);
+
+        assertSlot(slots.get(0), early, MONDAY.plusDays(7).atTime(8, 0));
+        verify(appointmentRepository, times(2)).findActiveByDoctorIdsOverlapping(anyCollection(), any(), any());
+    }
+
+    @Test
+    void invalidDuration_IsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.findNextAvailable("Cardiología", MONDAY.atStartOfDay(), 5, 10));
+    }
+
+    private static Appointment appointment(Doctor doctor, LocalDateTime start, LocalDateTime end) {
+        return Appointment.builder().id(UUID.randomUUID()).doctorId(doctor.getId()).startTime(start).endTime(end).build();
+    }
+
+    private static void assertSlot(NextAvailableSlot slot, Doctor doctor, LocalDateTime start) {
+        assertEquals(doctor.getId(), slot.getDoctorId());
+        assertEquals(start, slot.getStartTime());
+    }
+}
@@ -4,6 +4,7 @@ import com.medcal.model.dto.PatientDTO;
 import com.medcal.model.entity.Patient;
 import com.medcal.model.enums.Gender;
 import com.medcal.repository.PatientRepository;
+import com.medcal.util.ResourceVersions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -28,6 +29,9 @@ class PatientServiceTest {
     @Mock
     private PatientRepository patientRepository;
 
+    @Mock
+    private ResourceVersions resourceVersions;
+
     @InjectMocks
     private PatientService patientService;
 
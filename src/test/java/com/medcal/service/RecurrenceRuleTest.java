@@ -0,0 +1,101 @@
+package com.medcal.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceRuleTest {
+
+    // Miércoles 9 de enero de 2030, 10:00
+    private static final LocalDateTime FIRST = LocalDateTime.of(2030, 1, 9, 10, 0);
+
+    @Test
+    void weeklyByDay_SkipsDaysBeforeFirstStartAndHonoursCount() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO,WE,FR;COUNT=4", FIRST);
+
+        List<LocalDateTime> starts = rule.between(FIRST, FIRST.minusDays(30), FIRST.plusDays(60));
+
+        assertEquals(List.of(FIRST, FIRST.plusDays(2), FIRST.plusDays(5), FIRST.plusDays(7)), starts);
+        assertEquals(FIRST.plusDays(7), rule.lastStart(FIRST));
+    }
+
+    @Test
+    void windowFarAhead_MatchesFullEnumeration() {
+        Random random = new Random(3);
+        String[] rules = {
+                "FREQ=WEEKLY;INTERVAL=2;BYDAY=TU,TH", "FREQ=WEEKLY;BYDAY=SU,MO;COUNT=150", "FREQ=DAILY;INTERVAL=3",
+                "FREQ=DAILY;UNTIL=20310315", "FREQ=WEEKLY;INTERVAL=3", "FREQ=WEEKLY;BYDAY=WE,SA;UNTIL=20300620T100000"};
+        for (String text : rules) {
+            RecurrenceRule rule = RecurrenceRule.parse(text, FIRST);
+            List<LocalDateTime> all = naive(rule);
+            for (int i = 0; i < 50; i++) {
+                LocalDateTime from = FIRST.plusHours(random.nextInt(24 * 700));
+                LocalDateTime to = from.plusHours(random.nextInt(24 * 60));
+                List<LocalDateTime> expected = all.stream()
+                        .filter(start -> !start.isBefore(from) && start.isBefore(to))
+                        .toList();
+                assertEquals(expected, rule.between(FIRST, from, to), text + " " + from + " - " + to);
+            }
+        }
+    }
+
+    @Test
+    void canonicalFormRoundTrips() {
+        RecurrenceRule rule = RecurrenceRule.parse("rrule:freq=weekly;byday=fr,mo;interval=2;until=20300301", FIRST);
+
+        assertEquals("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,FR;UNTIL=20300301T235959", rule.toString());
+        assertEquals(rule.toString(), RecurrenceRule.parse(rule.toString(), FIRST).toString());
+        assertEquals("FREQ=WEEKLY;BYDAY=WE", RecurrenceRule.parse("FREQ=WEEKLY", FIRST).toString());
+        assertTrue(rule.isOccurrence(FIRST, LocalDate.of(2030, 1, 21).atTime(10, 0)));
+        assertFalse(rule.isOccurrence(FIRST, LocalDate.of(2030, 1, 14).atTime(10, 0)));
+    }
+
+    @Test
+    void unsupportedRules_AreRejected() {
+        for (String text : List.of("FREQ=MONTHLY", "INTERVAL=2", "FREQ=DAILY;BYDAY=MO", "FREQ=WEEKLY;COUNT=2;UNTIL=20300101",
+                "FREQ=WEEKLY;BYDAY=XX", "FREQ=WEEKLY;COUNT=0", "FREQ=DAILY;BYMONTH=1")) {
+            assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse(text, FIRST), text);
+        }
+    }
+
+    /** Day-by-day enumeration from the first start, as the reference. */
+    private static List<LocalDateTime> naive(RecurrenceRule rule) {
+        String canonical = rule.toString();
+        int interval = canonical.contains("INTERVAL=") ? Integer.parseInt(part(canonical, "INTERVAL")) : 1;
+        Integer count = canonical.contains("COUNT=") ? Integer.valueOf(part(canonical, "COUNT")) : null;
+        LocalDateTime until = canonical.contains("UNTIL=")
+                ? LocalDateTime.parse(part(canonical, "UNTIL"), DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss")) : null;
+        List<String> byDay = canonical.contains("BYDAY=") ? List.of(part(canonical, "BYDAY").split(",")) : List.of();
+        LocalDate mondayOfFirst = FIRST.toLocalDate().with(DayOfWeek.MONDAY);
+
+        List<LocalDateTime> starts = new ArrayList<>();
+        for (LocalDate day = FIRST.toLocalDate(); day.isBefore(FIRST.toLocalDate().plusDays(1000)); day = day.plusDays(1)) {
+            LocalDateTime start = day.atTime(FIRST.toLocalTime());
+            boolean matches = rule.getFrequency() == RecurrenceRule.Frequency.DAILY
+                    ? ChronoUnit.DAYS.between(FIRST.toLocalDate(), day) % interval == 0
+                    : ChronoUnit.WEEKS.between(mondayOfFirst, day) % interval == 0
+                            && byDay.contains(day.getDayOfWeek().name().substring(0, 2));
+            if (!matches) {
+                continue;
+            }
+            if ((count != null && starts.size() >= count) || (until != null && start.isAfter(until))) {
+                break;
+            }
+            starts.add(start);
+        }
+        return starts;
+    }
+
+    private static String part(String rule, String name) {
+        return rule.replaceAll(".*" + name + "=([^;]+).*", "$1");
+    }
+}
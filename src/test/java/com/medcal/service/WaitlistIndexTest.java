@@ -0,0 +1,86 @@
+package com.medcal.service;
+
+import com.medcal.model.entity.WaitlistEntry;
+import com.medcal.model.entity.WaitlistWindow;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WaitlistIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 7);
+    private static final UUID DOCTOR = UUID.randomUUID();
+
+    private final WaitlistIndex index = new WaitlistIndex();
+
+    @Test
+    void highestPriorityThenOldestEntryWins() {
+        WaitlistEntry old = entry(DOCTOR, null, 0, DAY.minusDays(3).atStartOfDay(), window(9, 12));
+        WaitlistEntry newer = entry(DOCTOR, null, 0, DAY.minusDays(1).atStartOfDay(), window(9, 12));
+        WaitlistEntry urgent = entry(null, "Cardiología", 5, DAY.minusDays(1).atStartOfDay(), window(9, 12));
+        index.add(newer);
+        index.add(old);
+
+        assertEquals(Optional.of(old.getId()), best(10, 0, 10, 30));
+
+        index.add(urgent);
+        assertEquals(Optional.of(urgent.getId()), best(10, 0, 10, 30));
+    }
+
+    @Test
+    void windowMustCoverTheWholeSlot() {
+        WaitlistEntry morning = entry(DOCTOR, null, 1, DAY.minusDays(1).atStartOfDay(), window(9, 10));
+        WaitlistEntry allDay = entry(DOCTOR, null, 0, DAY.minusDays(1).atStartOfDay(), window(8, 18));
+        index.add(morning);
+        index.add(allDay);
+
+        assertEquals(Optional.of(morning.getId()), best(9, 0, 9, 30));
+        // 9:45-10:15 se sale de la franja de la mañana
+        assertEquals(Optional.of(allDay.getId()), best(9, 45, 10, 15));
+        assertEquals(Optional.empty(), index.best(UUID.randomUUID(), "Pediatría", DAY.atTime(9, 0), DAY.atTime(9, 30)));
+    }
+
+    @Test
+    void multiDayWindowsAreSplitAndRemovedTogether() {
+        WaitlistEntry entry = entry(DOCTOR, null, 0, DAY.minusDays(1).atStartOfDay(),
+                new WaitlistWindow(DAY.atTime(15, 0), DAY.plusDays(2).atTime(11, 0)));
+        index.add(entry);
+
+        assertTrue(index.best(DOCTOR, null, DAY.plusDays(1).atTime(8, 0), DAY.plusDays(1).atTime(8, 30)).isPresent());
+        assertTrue(index.best(DOCTOR, null, DAY.plusDays(2).atTime(11, 0), DAY.plusDays(2).atTime(11, 30)).isEmpty());
+
+        index.evictBefore(DAY.plusDays(1));
+        assertTrue(index.best(DOCTOR, null, DAY.atTime(16, 0), DAY.atTime(16, 30)).isEmpty());
+        assertEquals(1, index.size());
+
+        index.remove(entry.getId());
+        assertTrue(index.best(DOCTOR, null, DAY.plusDays(1).atTime(8, 0), DAY.plusDays(1).atTime(8, 30)).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    private Optional<UUID> best(int startHour, int startMinute, int endHour, int endMinute) {
+        return index.best(DOCTOR, "Cardiología", DAY.atTime(startHour, startMinute), DAY.atTime(endHour, endMinute));
+    }
+
+    private static WaitlistWindow window(int fromHour, int toHour) {
+        return new WaitlistWindow(DAY.atTime(fromHour, 0), DAY.atTime(toHour, 0));
+    }
+
+    private static WaitlistEntry entry(UUID doctorId, String specialty, int priority, LocalDateTime createdAt,
+                                       WaitlistWindow... windows) {
+        return WaitlistEntry.builder()
+                .id(UUID.randomUUID())
+                .doctorId(doctorId)
+                .specialty(specialty)
+                .priority(priority)
+                .createdAt(createdAt)
+                .windows(List.of(windows))
+                .build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.medcal.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceVersionsTest {
+
+    private ResourceVersions resourceVersions;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:versions-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE resource_versions (name VARCHAR(64) PRIMARY KEY, version BIGINT NOT NULL)");
+        resourceVersions = new ResourceVersions(jdbcTemplate);
+    }
+
+    @Test
+    void bump_CreatesTheCounterAndThenIncrementsIt() {
+        assertEquals(0, resourceVersions.current(ResourceVersions.DOCTORS));
+
+        resourceVersions.bump(ResourceVersions.DOCTORS);
+        resourceVersions.bump(ResourceVersions.DOCTORS);
+        resourceVersions.bump(ResourceVersions.PATIENTS);
+
+        assertEquals(2, resourceVersions.current(ResourceVersions.DOCTORS));
+        assertEquals(1, resourceVersions.current(ResourceVersions.PATIENTS));
+    }
+
+    @Test
+    void entityTags_AreWeakAndChangeWithTheMicrosecond() {
+        LocalDateTime updatedAt = LocalDateTime.of(2030, 1, 7, 10, 0, 0, 1_000);
+
+        assertTrue(EntityTags.of(updatedAt).startsWith("W/\""));
+        assertEquals(EntityTags.of(updatedAt), EntityTags.of(updatedAt.plusNanos(999)));
+        assertNotEquals(EntityTags.of(updatedAt), EntityTags.of(updatedAt.plusNanos(1_000)));
+        assertNull(EntityTags.of(null));
+        assertEquals("W/\"v3\"", EntityTags.ofVersion(3));
+    }
+}
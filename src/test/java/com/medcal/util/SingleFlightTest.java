@@ -0,0 +1,105 @@
+package com.medcal.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final Map<SingleFlight.Outcome, AtomicInteger> outcomes = new EnumMap<>(SingleFlight.Outcome.class);
+    private final AtomicLong now = new AtomicLong();
+
+    private SingleFlight<String, Integer> singleFlight(Duration ttl) {
+        for (SingleFlight.Outcome outcome : SingleFlight.Outcome.values()) {
+            outcomes.put(outcome, new AtomicInteger());
+        }
+        return new SingleFlight<>(ttl, 100, outcome -> outcomes.get(outcome).incrementAndGet(), now::get);
+    }
+
+    @Test
+    void concurrentIdenticalCalls_ShareOneComputation() throws Exception {
+        SingleFlight<String, Integer> flight = singleFlight(Duration.ZERO);
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> flight.execute("doctor-1", () -> {
+                    computations.incrementAndGet();
+                    await(release);
+                    return 42;
+                })));
+            }
+            // Esperar a que todos estén dentro antes de liberar el cálculo
+            while (outcomes.get(SingleFlight.Outcome.COALESCED).get() < callers - 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Future<Integer> result : results) {
+                assertEquals(42, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, computations.get());
+        assertEquals(1, outcomes.get(SingleFlight.Outcome.COMPUTED).get());
+    }
+
+    @Test
+    void failure_IsPropagatedAndNotCached() {
+        SingleFlight<String, Integer> flight = singleFlight(Duration.ofSeconds(1));
+
+        assertThrows(IllegalStateException.class, () -> flight.execute("k", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(7, flight.execute("k", () -> 7));
+    }
+
+    @Test
+    void resultIsCachedUntilTtlExpires() {
+        SingleFlight<String, Integer> flight = singleFlight(Duration.ofMillis(500));
+        flight.execute("k", () -> 1);
+
+        assertEquals(1, flight.execute("k", () -> 2));
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(3, flight.execute("k", () -> 3));
+        assertEquals(1, outcomes.get(SingleFlight.Outcome.CACHED).get());
+    }
+
+    @Test
+    void invalidateDuringComputation_SkipsCache() {
+        SingleFlight<String, Integer> flight = singleFlight(Duration.ofSeconds(10));
+
+        flight.execute("k", () -> {
+            flight.invalidate();
+            return 1;
+        });
+
+        assertEquals(0, flight.cachedCount());
+        assertEquals(2, flight.execute("k", () -> 2));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}